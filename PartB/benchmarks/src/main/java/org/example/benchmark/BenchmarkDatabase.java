@@ -0,0 +1,120 @@
+package org.example.benchmark;
+
+import org.example.dao.CustomerAccountDAO;
+import org.example.dao.InventoryItemDAO;
+import org.example.model.CustomerAccount;
+import org.example.model.InventoryItem;
+import org.example.util.DataConnectionHelper;
+import org.example.util.PasswordHasher;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Points the application at a private H2 database for one benchmark trial and fills it with test data
+// Storage is either "mem" (in-memory) or "file" (an H2 file under target/bench-db, deleted again on close)
+public final class BenchmarkDatabase {
+    public static final String MEMORY = "mem";
+    public static final String FILE = "file";
+
+    // Directory that holds file-backed benchmark databases
+    private static final Path FILE_DIR = Paths.get("target", "bench-db");
+    // Gives every trial its own database, so caches keyed by URL never carry over between trials
+    private static final AtomicInteger TRIALS = new AtomicInteger();
+    // Password hash cost used unless a benchmark sets fers.auth.hashIterations itself; seeding thousands of
+    // customers at the production cost would take minutes, and PasswordHashingBenchmark measures that cost
+    private static final int SEED_HASH_ITERATIONS = 1_000;
+
+    private final String url;
+    private final Path fileBase;
+    private final PrintStream originalOut;
+
+    private BenchmarkDatabase(String url, Path fileBase) {
+        this.url = url;
+        this.fileBase = fileBase;
+        this.originalOut = System.out;
+    }
+
+    // Creates an empty database with the application schema and makes it the one DataConnectionHelper uses
+    // Console output is silenced until close(), since the services print a line for most operations
+    public static BenchmarkDatabase open(String storage, String name) {
+        String uniqueName = "bench_" + name + "_" + TRIALS.incrementAndGet();
+        BenchmarkDatabase database;
+        if (FILE.equals(storage)) {
+            Path base = FILE_DIR.resolve(uniqueName).toAbsolutePath();
+            database = new BenchmarkDatabase("jdbc:h2:" + base, base);
+            database.deleteFiles();
+        } else if (MEMORY.equals(storage)) {
+            database = new BenchmarkDatabase("jdbc:h2:mem:" + uniqueName + ";DB_CLOSE_DELAY=-1", null);
+        } else {
+            throw new IllegalArgumentException("Unknown storage: " + storage);
+        }
+
+        if (System.getProperty(PasswordHasher.ITERATIONS_PROPERTY) == null) {
+            System.setProperty(PasswordHasher.ITERATIONS_PROPERTY, String.valueOf(SEED_HASH_ITERATIONS));
+        }
+        System.setProperty(DataConnectionHelper.DB_URL_PROPERTY, database.url);
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        DataConnectionHelper.initializeDatabase();
+        return database;
+    }
+
+    // Inserts count products with the given stock level and returns them with their generated IDs
+    public List<InventoryItem> seedProducts(int count, int stock) {
+        InventoryItemDAO inventoryDAO = new InventoryItemDAO();
+        List<InventoryItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            InventoryItem item = new InventoryItem("Product " + i, "Benchmark product " + i, 5.00 + i % 200, stock);
+            item.setItemId(inventoryDAO.insertRecord(item));
+            items.add(item);
+        }
+        return items;
+    }
+
+    // Registers count customers named customer0, customer1, ... each with the password password0, password1, ...
+    // Returns the accounts with their generated IDs
+    public List<CustomerAccount> seedCustomers(int count) {
+        CustomerAccountDAO accountDAO = new CustomerAccountDAO();
+        List<CustomerAccount> accounts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            accountDAO.insertRecord(new CustomerAccount(customerName(i), customerPassword(i), "CUSTOMER"));
+            accounts.add(accountDAO.authenticateUser(customerName(i), customerPassword(i)));
+        }
+        return accounts;
+    }
+
+    public static String customerName(int index) {
+        return "customer" + index;
+    }
+
+    public static String customerPassword(int index) {
+        return "password" + index;
+    }
+
+    // Closes the connection pools, restores the console and removes any database files
+    public void close() {
+        DataConnectionHelper.shutdownPools();
+        System.clearProperty(DataConnectionHelper.DB_URL_PROPERTY);
+        System.setOut(originalOut);
+        deleteFiles();
+    }
+
+    private void deleteFiles() {
+        if (fileBase == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(Paths.get(fileBase + ".mv.db"));
+            Files.deleteIfExists(Paths.get(fileBase + ".trace.db"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
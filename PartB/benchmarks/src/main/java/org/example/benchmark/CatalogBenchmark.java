@@ -0,0 +1,75 @@
+package org.example.benchmark;
+
+import org.example.dao.CustomerAccountDAO;
+import org.example.dao.InventoryItemCache;
+import org.example.dao.InventoryItemDAO;
+import org.example.model.CustomerAccount;
+import org.example.model.InventoryItem;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Measures the read paths every console session leans on: logging in, looking up a product and listing the catalog
+// Each trial seeds a fresh database with datasetSize products and datasetSize / 10 customers
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CatalogBenchmark {
+    // In-memory or file-backed H2
+    @Param({BenchmarkDatabase.MEMORY, BenchmarkDatabase.FILE})
+    public String storage;
+
+    // Number of products in the catalog
+    @Param({"1000", "10000"})
+    public int datasetSize;
+
+    // Capacity of the product cache in front of locateById; 0 sends every lookup to the database
+    @Param({"10000", "0"})
+    public int productCacheSize;
+
+    private final CustomerAccountDAO accountDAO = new CustomerAccountDAO();
+    private final InventoryItemDAO inventoryDAO = new InventoryItemDAO();
+    private BenchmarkDatabase database;
+    private int[] productIds;
+    private int customerCount;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        System.setProperty(InventoryItemCache.MAX_SIZE_PROPERTY, String.valueOf(productCacheSize));
+        database = BenchmarkDatabase.open(storage, "catalog");
+        List<InventoryItem> items = database.seedProducts(datasetSize, 100);
+        productIds = items.stream().mapToInt(InventoryItem::getItemId).toArray();
+        customerCount = Math.max(1, datasetSize / 10);
+        database.seedCustomers(customerCount);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+        System.clearProperty(InventoryItemCache.MAX_SIZE_PROPERTY);
+    }
+
+    // Logs in a random existing customer
+    @Benchmark
+    public CustomerAccount authenticateUser() {
+        int index = ThreadLocalRandom.current().nextInt(customerCount);
+        return accountDAO.authenticateUser(BenchmarkDatabase.customerName(index), BenchmarkDatabase.customerPassword(index));
+    }
+
+    // Looks up a random existing product, as adding it to a cart does
+    @Benchmark
+    public InventoryItem locateById() {
+        return inventoryDAO.locateById(productIds[ThreadLocalRandom.current().nextInt(productIds.length)]);
+    }
+
+    // Loads the whole catalog into a list
+    @Benchmark
+    public List<InventoryItem> retrieveAllRecords() {
+        return inventoryDAO.retrieveAllRecords();
+    }
+}
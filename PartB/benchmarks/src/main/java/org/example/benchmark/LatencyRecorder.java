@@ -0,0 +1,71 @@
+package org.example.benchmark;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Collects per-operation latency samples and failure counts for LoadGenerator
+// Each simulated user owns one recorder, so recording needs no locking; the recorders are merged at the end
+final class LatencyRecorder {
+    private final Map<String, Samples> samplesByOperation = new TreeMap<>();
+
+    // Records one call of an operation that took the given number of nanoseconds
+    void record(String operation, long nanos, boolean succeeded) {
+        Samples samples = samplesByOperation.computeIfAbsent(operation, op -> new Samples());
+        samples.add(nanos);
+        if (!succeeded) {
+            samples.failures++;
+        }
+    }
+
+    // Adds every sample from another recorder to this one
+    void merge(LatencyRecorder other) {
+        for (Map.Entry<String, Samples> entry : other.samplesByOperation.entrySet()) {
+            Samples samples = samplesByOperation.computeIfAbsent(entry.getKey(), op -> new Samples());
+            Samples source = entry.getValue();
+            for (int i = 0; i < source.size; i++) {
+                samples.add(source.nanos[i]);
+            }
+            samples.failures += source.failures;
+        }
+    }
+
+    // Returns one report line per operation: calls, failures, throughput and latency percentiles in milliseconds
+    String report(double elapsedSeconds) {
+        StringBuilder report = new StringBuilder(String.format("%-16s %9s %8s %10s %9s %9s %9s %9s%n",
+            "operation", "calls", "failed", "ops/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (Map.Entry<String, Samples> entry : samplesByOperation.entrySet()) {
+            Samples samples = entry.getValue();
+            long[] sorted = Arrays.copyOf(samples.nanos, samples.size);
+            Arrays.sort(sorted);
+            report.append(String.format("%-16s %9d %8d %10.1f %9.3f %9.3f %9.3f %9.3f%n",
+                entry.getKey(), samples.size, samples.failures, samples.size / elapsedSeconds,
+                percentileMillis(sorted, 0.50), percentileMillis(sorted, 0.99),
+                percentileMillis(sorted, 0.999), percentileMillis(sorted, 1.0)));
+        }
+        return report.toString();
+    }
+
+    // Nearest-rank percentile of an ascending array of nanosecond samples, in milliseconds
+    private static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile * sorted.length);
+        return sorted[Math.max(0, rank - 1)] / 1_000_000.0;
+    }
+
+    // Growable array of samples for one operation
+    private static final class Samples {
+        private long[] nanos = new long[1024];
+        private int size;
+        private long failures;
+
+        private void add(long value) {
+            if (size == nanos.length) {
+                nanos = Arrays.copyOf(nanos, size * 2);
+            }
+            nanos[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.benchmark;
+
+import org.example.dao.CustomerAccountDAO;
+import org.example.dao.InventoryItemDAO;
+import org.example.dao.PurchaseTransactionDAO;
+import org.example.dao.TransactionLineItemDAO;
+import org.example.model.CustomerAccount;
+import org.example.model.InventoryItem;
+import org.example.model.PurchaseTransaction;
+import org.example.model.TransactionLineItem;
+import org.example.util.DataConnectionHelper;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Compares saving an order's line items one INSERT at a time against a single JDBC batch
+// Both variants run inside one transaction, as createPurchaseTransaction does, so only the batching differs
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LineItemInsertBenchmark {
+    // Number of line items in the simulated cart
+    @Param({"1", "10", "100", "1000"})
+    public int cartSize;
+
+    private final TransactionLineItemDAO lineItemDAO = new TransactionLineItemDAO();
+    private List<TransactionLineItem> lineItems;
+
+    // Creates the schema in a private in-memory database and builds a cart of cartSize lines for one order
+    @Setup(Level.Trial)
+    public void setUp() {
+        System.setProperty(DataConnectionHelper.DB_URL_PROPERTY, "jdbc:h2:mem:bench_line_items;DB_CLOSE_DELAY=-1");
+        DataConnectionHelper.initializeDatabase();
+
+        CustomerAccountDAO accountDAO = new CustomerAccountDAO();
+        accountDAO.insertRecord(new CustomerAccount("bench_lines", "bench", "CUSTOMER"));
+        int accountId = accountDAO.authenticateUser("bench_lines", "bench").getAccountId();
+        int productId = new InventoryItemDAO().insertRecord(new InventoryItem("Bench Tee", "Benchmark product", 19.99, 1_000_000));
+        int orderId = new PurchaseTransactionDAO().insertTransaction(new PurchaseTransaction(accountId, "CREATED", 19.99));
+
+        lineItems = new ArrayList<>(cartSize);
+        for (int i = 0; i < cartSize; i++) {
+            lineItems.add(new TransactionLineItem(orderId, productId, 1 + i % 5, 19.99));
+        }
+    }
+
+    // Empties order_items between iterations so table growth does not skew later iterations
+    @TearDown(Level.Iteration)
+    public void clearLineItems() throws SQLException {
+        try (Connection conn = DataConnectionHelper.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("DELETE FROM order_items");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        DataConnectionHelper.shutdownPools();
+        System.clearProperty(DataConnectionHelper.DB_URL_PROPERTY);
+    }
+
+    // One prepared INSERT executed per line item
+    @Benchmark
+    public int perRowInsert() throws SQLException {
+        return DataConnectionHelper.executeInTransaction(conn -> {
+            int inserted = 0;
+            for (TransactionLineItem lineItem : lineItems) {
+                if (lineItemDAO.insertRecord(conn, lineItem)) {
+                    inserted++;
+                }
+            }
+            return inserted;
+        });
+    }
+
+    // All line items sent with one addBatch/executeBatch round trip
+    @Benchmark
+    public int[] batchInsert() throws SQLException {
+        return DataConnectionHelper.executeInTransaction(conn -> lineItemDAO.insertBatch(conn, lineItems));
+    }
+}
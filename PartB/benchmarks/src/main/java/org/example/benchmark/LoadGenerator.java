@@ -0,0 +1,279 @@
+package org.example.benchmark;
+
+import org.example.model.CustomerAccount;
+import org.example.model.InventoryItem;
+import org.example.model.OrderStatus;
+import org.example.model.PaymentStatus;
+import org.example.model.ShoppingCartEntry;
+import org.example.service.CustomerAccountService;
+import org.example.service.InventoryItemService;
+import org.example.service.PurchaseTransactionService;
+import org.example.util.DataConnectionHelper;
+
+import java.io.PrintStream;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.HashMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+// Headless load generator for the whole order lifecycle, driven through the real service classes
+// N customers register, log in, look up products and check out while M admins accept, reject and deliver
+// the orders they place. At the end it prints throughput and p50/p99/p99.9 latency per operation and the
+// result of inventory and payment consistency checks; it exits with status 1 if any check failed
+//
+// Usage: java -cp target/benchmarks.jar org.example.benchmark.LoadGenerator [options]
+//   --customers N   concurrent customers (default 50)
+//   --admins M      concurrent admins (default 4)
+//   --seconds S     how long customers keep placing orders (default 30)
+//   --products P    products in the catalog (default 100)
+//   --stock Q       starting stock of every product (default 1000)
+//   --storage T     mem or file (default mem)
+public final class LoadGenerator {
+    // Lines in every cart, and the share of orders admins accept rather than reject
+    private static final int CART_LINES = 3;
+    private static final double ACCEPT_RATIO = 0.8;
+    // How often the background checker looks for negative stock while the load runs
+    private static final long STOCK_CHECK_INTERVAL_MS = 500;
+
+    private final int customers;
+    private final int admins;
+    private final long durationMillis;
+    private final int products;
+    private final int initialStock;
+    private final String storage;
+
+    private final CustomerAccountService accountService = new CustomerAccountService();
+    private final InventoryItemService inventoryService = new InventoryItemService();
+    private final PurchaseTransactionService transactionService = new PurchaseTransactionService();
+
+    // Orders waiting for an admin decision, and accepted orders waiting to be delivered
+    private final BlockingQueue<Integer> placedOrders = new LinkedBlockingQueue<>();
+    private final BlockingQueue<Integer> acceptedOrders = new LinkedBlockingQueue<>();
+    private final ConcurrentLinkedQueue<String> violations = new ConcurrentLinkedQueue<>();
+    private volatile boolean customersDone;
+
+    private LoadGenerator(Map<String, String> options) {
+        this.customers = Integer.parseInt(options.getOrDefault("customers", "50"));
+        this.admins = Integer.parseInt(options.getOrDefault("admins", "4"));
+        this.durationMillis = Long.parseLong(options.getOrDefault("seconds", "30")) * 1000;
+        this.products = Integer.parseInt(options.getOrDefault("products", "100"));
+        this.initialStock = Integer.parseInt(options.getOrDefault("stock", "1000"));
+        this.storage = options.getOrDefault("storage", BenchmarkDatabase.MEMORY);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Expected an option, got: " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        boolean consistent = new LoadGenerator(options).run(System.out);
+        System.exit(consistent ? 0 : 1);
+    }
+
+    // Runs the load and writes the report to the given stream; returns false if a consistency check failed
+    private boolean run(PrintStream report) throws Exception {
+        BenchmarkDatabase database = BenchmarkDatabase.open(storage, "load"); // Also silences the services' console output
+        try {
+            List<InventoryItem> catalog = database.seedProducts(products, initialStock);
+            report.printf("Running %d customers and %d admins for %d s against %d products (%s storage)%n",
+                customers, admins, durationMillis / 1000, products, storage);
+
+            List<LatencyRecorder> recorders = new ArrayList<>();
+            long start = System.nanoTime();
+            try (ExecutorService users = Executors.newVirtualThreadPerTaskExecutor();
+                 ExecutorService checker = Executors.newSingleThreadExecutor()) {
+                Future<?> stockChecks = checker.submit(this::checkStockWhileRunning);
+                List<Future<LatencyRecorder>> customerRuns = new ArrayList<>();
+                List<Future<LatencyRecorder>> adminRuns = new ArrayList<>();
+                long deadline = System.currentTimeMillis() + durationMillis;
+                for (int i = 0; i < customers; i++) {
+                    int customerIndex = i;
+                    customerRuns.add(users.submit(() -> runCustomer(customerIndex, catalog, deadline)));
+                }
+                for (int i = 0; i < admins; i++) {
+                    adminRuns.add(users.submit(this::runAdmin));
+                }
+                for (Future<LatencyRecorder> run : customerRuns) {
+                    recorders.add(run.get());
+                }
+                customersDone = true; // Admins drain the remaining orders and then stop
+                for (Future<LatencyRecorder> run : adminRuns) {
+                    recorders.add(run.get());
+                }
+                stockChecks.cancel(true);
+            }
+            double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+            LatencyRecorder total = new LatencyRecorder();
+            recorders.forEach(total::merge);
+            report.printf("Finished in %.1f s%n%n", elapsedSeconds);
+            report.print(total.report(elapsedSeconds));
+
+            checkFinalState(catalog);
+            report.println();
+            if (violations.isEmpty()) {
+                report.println("Consistency checks passed");
+                return true;
+            }
+            report.println("Consistency violations (" + violations.size() + "):");
+            violations.forEach(violation -> report.println("  " + violation));
+            return false;
+        } finally {
+            database.close();
+        }
+    }
+
+    // One customer: registers, logs in, then looks up products and checks out until the deadline
+    private LatencyRecorder runCustomer(int index, List<InventoryItem> catalog, long deadline) {
+        LatencyRecorder recorder = new LatencyRecorder();
+        String name = "load_customer" + index;
+        String password = "password" + index;
+        timed(recorder, "register", () -> accountService.createCustomerAccount(name, password), ok -> ok);
+        CustomerAccount account = timed(recorder, "login", () -> accountService.authenticateUser(name, password), a -> a != null);
+        if (account == null) {
+            return recorder;
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.currentTimeMillis() < deadline) {
+            List<ShoppingCartEntry> cart = new ArrayList<>(CART_LINES);
+            for (int i = 0; i < CART_LINES; i++) {
+                int itemId = catalog.get(random.nextInt(catalog.size())).getItemId();
+                InventoryItem item = timed(recorder, "viewProduct", () -> inventoryService.fetchInventoryItemById(itemId), p -> p != null);
+                if (item != null) {
+                    cart.add(new ShoppingCartEntry(item, 1 + random.nextInt(3)));
+                }
+            }
+            int transactionId = timed(recorder, "placeOrder",
+                () -> transactionService.createPurchaseTransaction(account.getAccountId(), cart, "CARD"), id -> id > 0);
+            if (transactionId > 0) {
+                placedOrders.add(transactionId);
+            }
+        }
+        return recorder;
+    }
+
+    // One admin: decides on placed orders and delivers accepted ones until the customers have finished
+    // and both queues are empty; an order that cannot be accepted for lack of stock is rejected instead
+    private LatencyRecorder runAdmin() throws InterruptedException {
+        LatencyRecorder recorder = new LatencyRecorder();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (true) {
+            Integer toDeliver = acceptedOrders.poll();
+            if (toDeliver != null) {
+                timed(recorder, "deliverOrder", () -> transactionService.markAsDelivered(toDeliver), ok -> ok);
+            }
+            Integer toDecide = placedOrders.poll(10, TimeUnit.MILLISECONDS);
+            if (toDecide == null) {
+                if (customersDone && placedOrders.isEmpty() && acceptedOrders.isEmpty()) {
+                    return recorder;
+                }
+                continue;
+            }
+            boolean accepted = random.nextDouble() < ACCEPT_RATIO
+                && timed(recorder, "acceptOrder", () -> transactionService.approvePurchaseTransaction(toDecide), ok -> ok);
+            if (accepted) {
+                acceptedOrders.add(toDecide);
+            } else {
+                timed(recorder, "rejectOrder", () -> transactionService.declinePurchaseTransaction(toDecide), ok -> ok);
+            }
+        }
+    }
+
+    // Polls for negative stock while the load runs; an oversold product would show up here first
+    private void checkStockWhileRunning() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try (Connection conn = DataConnectionHelper.getConnection();
+                 Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT id, stock FROM products WHERE stock < 0")) {
+                while (rs.next()) {
+                    violations.add("Product " + rs.getInt("id") + " had negative stock " + rs.getInt("stock") + " during the run");
+                }
+            } catch (SQLException e) {
+                violations.add("Stock check failed: " + e.getMessage());
+            }
+            // Wait only after the connection has gone back to the pool, so the checker does not hold one while idle
+            try {
+                Thread.sleep(STOCK_CHECK_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    // After the run every product must hold its starting stock minus what accepted and delivered orders took,
+    // accepted and delivered orders must have a successful payment, and rejected ones a refunded payment
+    private void checkFinalState(List<InventoryItem> catalog) throws SQLException {
+        String stockSql = """
+            SELECT p.id, p.stock,
+                   COALESCE(SUM(CASE WHEN o.status IN (%d, %d) THEN oi.quantity END), 0) AS reserved
+            FROM products p
+            LEFT JOIN order_items oi ON oi.product_id = p.id
+            LEFT JOIN orders o ON o.id = oi.order_id
+            GROUP BY p.id, p.stock
+            """.formatted(OrderStatus.ACCEPTED.getCode(), OrderStatus.DELIVERED.getCode());
+        String paymentSql = """
+            SELECT o.id, o.status, pay.status AS payment_status
+            FROM orders o
+            LEFT JOIN payments pay ON pay.order_id = o.id
+            WHERE pay.status IS NULL
+               OR (o.status IN (%d, %d) AND pay.status <> %d)
+               OR (o.status = %d AND pay.status <> %d)
+            """.formatted(OrderStatus.ACCEPTED.getCode(), OrderStatus.DELIVERED.getCode(), PaymentStatus.SUCCESS.getCode(),
+                OrderStatus.REJECTED.getCode(), PaymentStatus.REFUNDED.getCode());
+        try (Connection conn = DataConnectionHelper.getConnection();
+             Statement stmt = conn.createStatement()) {
+            int checked = 0;
+            try (ResultSet rs = stmt.executeQuery(stockSql)) {
+                while (rs.next()) {
+                    checked++;
+                    int stock = rs.getInt("stock");
+                    int expected = initialStock - rs.getInt("reserved");
+                    if (stock < 0 || stock != expected) {
+                        violations.add("Product " + rs.getInt("id") + " has stock " + stock + ", expected " + expected);
+                    }
+                }
+            }
+            if (checked != catalog.size()) {
+                violations.add("Expected " + catalog.size() + " products, found " + checked);
+            }
+            try (ResultSet rs = stmt.executeQuery(paymentSql)) {
+                while (rs.next()) {
+                    int paymentStatus = rs.getInt("payment_status");
+                    violations.add("Order " + rs.getInt("id") + " is " + OrderStatus.fromCode(rs.getInt("status"))
+                        + " but its payment is " + (rs.wasNull() ? "missing" : PaymentStatus.fromCode(paymentStatus)));
+                }
+            }
+            try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM orders WHERE status = " + OrderStatus.CREATED.getCode())) {
+                if (rs.next() && rs.getInt(1) > 0) {
+                    violations.add(rs.getInt(1) + " orders were never decided");
+                }
+            }
+        }
+    }
+
+    // Runs one operation, recording its latency and whether the result counts as a success
+    private static <T> T timed(LatencyRecorder recorder, String operation, Supplier<T> call, Predicate<T> succeeded) {
+        long start = System.nanoTime();
+        T result = call.get();
+        recorder.record(operation, System.nanoTime() - start, succeeded.test(result));
+        return result;
+    }
+}
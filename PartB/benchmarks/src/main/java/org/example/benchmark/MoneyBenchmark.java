@@ -0,0 +1,71 @@
+package org.example.benchmark;
+
+import org.example.util.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Compares totalling a cart with long cents (what checkout now does) against BigDecimal and the old double sum
+// Each variant multiplies every line's unit price by its quantity and sums the subtotals
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MoneyBenchmark {
+    // Number of lines in the simulated cart
+    @Param({"10", "100", "1000"})
+    public int cartSize;
+
+    private long[] priceCents;
+    private BigDecimal[] priceDecimals;
+    private double[] priceDoubles;
+    private int[] quantities;
+
+    // Builds the same random cart in all three representations
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        priceCents = new long[cartSize];
+        priceDecimals = new BigDecimal[cartSize];
+        priceDoubles = new double[cartSize];
+        quantities = new int[cartSize];
+        for (int i = 0; i < cartSize; i++) {
+            priceCents[i] = 1 + random.nextInt(100_000);
+            priceDecimals[i] = Money.toDecimal(priceCents[i]);
+            priceDoubles[i] = Money.toDouble(priceCents[i]);
+            quantities[i] = 1 + random.nextInt(5);
+        }
+    }
+
+    @Benchmark
+    public long longCents() {
+        long total = 0;
+        for (int i = 0; i < cartSize; i++) {
+            total = Money.add(total, Money.multiply(priceCents[i], quantities[i]));
+        }
+        return total;
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < cartSize; i++) {
+            total = total.add(priceDecimals[i].multiply(BigDecimal.valueOf(quantities[i])));
+        }
+        return total;
+    }
+
+    // Not exact; kept as the baseline the cents type replaced
+    @Benchmark
+    public double doubleSum() {
+        double total = 0;
+        for (int i = 0; i < cartSize; i++) {
+            total += priceDoubles[i] * quantities[i];
+        }
+        return total;
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.benchmark;
+
+import org.example.model.CustomerAccount;
+import org.example.model.InventoryItem;
+import org.example.model.ShoppingCartEntry;
+import org.example.service.PurchaseTransactionService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Measures placing an order and approving it through PurchaseTransactionService
+// Each trial seeds datasetSize products, datasetSize / 10 customers and datasetSize existing orders, so the
+// tables and their indexes have a realistic size; stock is large enough that no approval ever runs short
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderLifecycleBenchmark {
+    // Number of lines in every generated cart
+    private static final int CART_LINES = 3;
+
+    // In-memory or file-backed H2
+    @Param({BenchmarkDatabase.MEMORY, BenchmarkDatabase.FILE})
+    public String storage;
+
+    // Number of products and of orders already in the database
+    @Param({"1000", "10000"})
+    public int datasetSize;
+
+    private final PurchaseTransactionService transactionService = new PurchaseTransactionService();
+    private BenchmarkDatabase database;
+    private List<InventoryItem> items;
+    private List<CustomerAccount> customers;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = BenchmarkDatabase.open(storage, "orders");
+        items = database.seedProducts(datasetSize, Integer.MAX_VALUE / 2);
+        customers = database.seedCustomers(Math.max(1, datasetSize / 10));
+        for (int i = 0; i < datasetSize; i++) {
+            placeRandomOrder();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    // Places an order for a random customer and a random cart
+    @Benchmark
+    public int createPurchaseTransaction() {
+        return placeRandomOrder();
+    }
+
+    // Approves a freshly placed order, reserving its stock
+    @Benchmark
+    public boolean approvePurchaseTransaction(PendingOrder order) {
+        return transactionService.approvePurchaseTransaction(order.transactionId);
+    }
+
+    private int placeRandomOrder() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<ShoppingCartEntry> cart = new ArrayList<>(CART_LINES);
+        for (int i = 0; i < CART_LINES; i++) {
+            cart.add(new ShoppingCartEntry(items.get(random.nextInt(items.size())), 1 + random.nextInt(3)));
+        }
+        int accountId = customers.get(random.nextInt(customers.size())).getAccountId();
+        return transactionService.createPurchaseTransaction(accountId, cart, "CARD");
+    }
+
+    // An order placed just before each approvePurchaseTransaction invocation, since approval consumes it
+    // Placing it here keeps that cost out of the measurement; an approval takes long enough for the
+    // per-invocation setup overhead not to matter
+    @State(Scope.Thread)
+    public static class PendingOrder {
+        private int transactionId;
+
+        @Setup(Level.Invocation)
+        public void place(OrderLifecycleBenchmark benchmark) {
+            transactionId = benchmark.placeRandomOrder();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.benchmark;
+
+import org.example.dao.CredentialCache;
+import org.example.dao.CustomerAccountDAO;
+import org.example.model.CustomerAccount;
+import org.example.util.PasswordHasher;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Measures what a login storm costs at the production hash strength: a small set of customers logging in
+// over and over from many threads, with and without the verified-credential cache
+// Hashing runs on the shared PasswordHasher's threads, so throughput is capped by fers.auth.hashThreads
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class PasswordHashingBenchmark {
+    // Number of customers taking part in the storm
+    private static final int CUSTOMERS = 20;
+
+    // PBKDF2 iterations per hash
+    @Param({"" + PasswordHasher.DEFAULT_ITERATIONS})
+    public int hashIterations;
+
+    // Capacity of the verified-credential cache; 0 runs the full hash on every login
+    @Param({"10000", "0"})
+    public int credentialCacheSize;
+
+    private final CustomerAccountDAO accountDAO = new CustomerAccountDAO();
+    private BenchmarkDatabase database;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        System.setProperty(PasswordHasher.ITERATIONS_PROPERTY, String.valueOf(hashIterations));
+        System.setProperty(CredentialCache.MAX_SIZE_PROPERTY, String.valueOf(credentialCacheSize));
+        database = BenchmarkDatabase.open(BenchmarkDatabase.MEMORY, "password_hashing");
+        database.seedCustomers(CUSTOMERS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+        System.clearProperty(PasswordHasher.ITERATIONS_PROPERTY);
+        System.clearProperty(CredentialCache.MAX_SIZE_PROPERTY);
+    }
+
+    // Logs in a random customer with the right password
+    @Benchmark
+    public CustomerAccount authenticateUser() {
+        int index = ThreadLocalRandom.current().nextInt(CUSTOMERS);
+        return accountDAO.authenticateUser(BenchmarkDatabase.customerName(index), BenchmarkDatabase.customerPassword(index));
+    }
+
+    // Hashes a new password, as registration does; never cached
+    @Benchmark
+    public String hashPassword() {
+        return PasswordHasher.shared().hash("storm-password");
+    }
+}
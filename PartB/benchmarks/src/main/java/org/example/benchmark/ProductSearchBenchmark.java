@@ -0,0 +1,89 @@
+package org.example.benchmark;
+
+import org.example.model.InventoryItem;
+import org.example.model.SearchPage;
+import org.example.service.InventoryItemService;
+import org.example.util.DataConnectionHelper;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Measures ranked product search over a generated catalog: a broad one-word query, a two-word query and a
+// query for a rare word, each fetching the first page of 20 results
+// Names combine a colour, a material and a garment type; descriptions add further vocabulary words
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ProductSearchBenchmark {
+    private static final String[] COLOURS = {"red", "blue", "green", "black", "white", "grey", "navy", "beige", "pink", "olive"};
+    private static final String[] MATERIALS = {"cotton", "linen", "wool", "denim", "silk", "leather", "cashmere", "polyester"};
+    private static final String[] TYPES = {"shirt", "dress", "jacket", "coat", "skirt", "trousers", "sweater", "scarf",
+        "hat", "socks", "shorts", "blouse", "hoodie", "jeans", "boots", "sneakers"};
+    private static final String[] WORDS = {"soft", "warm", "light", "classic", "slim", "relaxed", "fit", "summer",
+        "winter", "everyday", "premium", "organic", "stretch", "breathable", "casual", "formal", "vintage", "modern"};
+
+    // Number of products in the catalog
+    @Param({"100000", "1000000"})
+    public int datasetSize;
+
+    private final InventoryItemService inventoryService = new InventoryItemService();
+    private BenchmarkDatabase database;
+
+    // Inserts the catalog in JDBC batches, then runs one search so the index is built before measuring
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        database = BenchmarkDatabase.open(BenchmarkDatabase.MEMORY, "search");
+        Random random = new Random(42);
+        try (Connection conn = DataConnectionHelper.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("INSERT INTO products (name, description, price, stock) VALUES (?, ?, 19.99, 100)")) {
+            conn.setAutoCommit(false);
+            for (int i = 0; i < datasetSize; i++) {
+                pstmt.setString(1, pick(COLOURS, random) + " " + pick(MATERIALS, random) + " " + pick(TYPES, random));
+                // Every thousandth product gets the rare word "limited"
+                pstmt.setString(2, pick(WORDS, random) + " " + pick(WORDS, random) + " " + pick(WORDS, random)
+                    + (i % 1000 == 0 ? " limited edition" : ""));
+                pstmt.addBatch();
+                if (i % 10_000 == 9_999) {
+                    pstmt.executeBatch();
+                }
+            }
+            pstmt.executeBatch();
+            conn.commit();
+        }
+        inventoryService.searchInventoryItems("shirt", 0, 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    // Matches about one product in sixteen
+    @Benchmark
+    public SearchPage<InventoryItem> broadTerm() {
+        return inventoryService.searchInventoryItems("jacket", 0, 20);
+    }
+
+    // Matches about one product in eighty
+    @Benchmark
+    public SearchPage<InventoryItem> twoTerms() {
+        return inventoryService.searchInventoryItems("red cotton", 0, 20);
+    }
+
+    // Matches one product in a thousand
+    @Benchmark
+    public SearchPage<InventoryItem> rareTerm() {
+        return inventoryService.searchInventoryItems("limited", 0, 20);
+    }
+
+    private static String pick(String[] words, Random random) {
+        return words[random.nextInt(words.length)];
+    }
+}
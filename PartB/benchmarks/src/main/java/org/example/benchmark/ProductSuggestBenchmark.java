@@ -0,0 +1,99 @@
+package org.example.benchmark;
+
+import org.example.model.InventoryItem;
+import org.example.model.ProductSuggestion;
+import org.example.service.InventoryItemService;
+import org.example.util.DataConnectionHelper;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Measures typeahead suggestions as a customer types "red cotton" into a search box over a generated catalog,
+// from the first letter to the second word, and the cost of renaming a product while the index is live
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ProductSuggestBenchmark {
+    private static final String[] COLOURS = {"red", "blue", "green", "black", "white", "grey", "navy", "beige", "pink", "olive"};
+    private static final String[] MATERIALS = {"cotton", "linen", "wool", "denim", "silk", "leather", "cashmere", "polyester"};
+    private static final String[] TYPES = {"shirt", "dress", "jacket", "coat", "skirt", "trousers", "sweater", "scarf",
+        "hat", "socks", "shorts", "blouse", "hoodie", "jeans", "boots", "sneakers"};
+
+    // Number of products in the catalog
+    @Param({"100000", "1000000"})
+    public int datasetSize;
+
+    private final InventoryItemService inventoryService = new InventoryItemService();
+    private BenchmarkDatabase database;
+    private int renamedId;
+    private boolean renamed;
+
+    // Inserts the catalog in JDBC batches, then asks for one suggestion so the index is built before measuring
+    // Names combine a colour, a material, a garment type and a style number
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        database = BenchmarkDatabase.open(BenchmarkDatabase.MEMORY, "suggest");
+        Random random = new Random(42);
+        try (Connection conn = DataConnectionHelper.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("INSERT INTO products (name, description, price, stock) VALUES (?, '', 19.99, 100)")) {
+            conn.setAutoCommit(false);
+            for (int i = 0; i < datasetSize; i++) {
+                pstmt.setString(1, pick(COLOURS, random) + " " + pick(MATERIALS, random) + " " + pick(TYPES, random)
+                    + " " + random.nextInt(10_000));
+                pstmt.addBatch();
+                if (i % 10_000 == 9_999) {
+                    pstmt.executeBatch();
+                }
+            }
+            pstmt.executeBatch();
+            conn.commit();
+        }
+        inventoryService.suggestInventoryItems("r", 1);
+        renamedId = datasetSize / 2;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public List<ProductSuggestion> oneLetter() {
+        return inventoryService.suggestInventoryItems("r", 10);
+    }
+
+    @Benchmark
+    public List<ProductSuggestion> oneWord() {
+        return inventoryService.suggestInventoryItems("red", 10);
+    }
+
+    @Benchmark
+    public List<ProductSuggestion> secondWord() {
+        return inventoryService.suggestInventoryItems("red cot", 10);
+    }
+
+    // Matches only later words, so every suggestion comes from the word-start keys
+    @Benchmark
+    public List<ProductSuggestion> laterWord() {
+        return inventoryService.suggestInventoryItems("jack", 10);
+    }
+
+    // Alternates one product between two names; includes the UPDATE itself
+    @Benchmark
+    public boolean rename() {
+        renamed = !renamed;
+        return inventoryService.modifyInventoryItem(renamedId, renamed ? "Zebra Print Scarf" : "Red Wool Scarf", "", 1999, 100);
+    }
+
+    private static String pick(String[] words, Random random) {
+        return words[random.nextInt(words.length)];
+    }
+}
@@ -0,0 +1,72 @@
+package org.example.benchmark;
+
+import org.example.dao.CustomerAccountDAO;
+import org.example.dao.InventoryItemCache;
+import org.example.dao.InventoryItemDAO;
+import org.example.model.CustomerAccount;
+import org.example.model.InventoryItem;
+import org.example.util.ConnectionPool;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Compares the hottest DAO calls with and without the per-connection prepared-statement cache
+// The product cache is switched off so every locateById reaches the database and prepares its query
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StatementCacheBenchmark {
+    // Statements cached per pooled connection; 0 prepares every statement from scratch
+    @Param({"64", "0"})
+    public int statementCacheSize;
+
+    private final CustomerAccountDAO accountDAO = new CustomerAccountDAO();
+    private final InventoryItemDAO inventoryDAO = new InventoryItemDAO();
+    private BenchmarkDatabase database;
+    private int[] productIds;
+    private int customerCount;
+    private int registered;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        System.setProperty(ConnectionPool.STATEMENT_CACHE_SIZE_PROPERTY, String.valueOf(statementCacheSize));
+        System.setProperty(InventoryItemCache.MAX_SIZE_PROPERTY, "0");
+        database = BenchmarkDatabase.open(BenchmarkDatabase.MEMORY, "statement_cache");
+        List<InventoryItem> items = database.seedProducts(1000, 100);
+        productIds = items.stream().mapToInt(InventoryItem::getItemId).toArray();
+        customerCount = 100;
+        database.seedCustomers(customerCount);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+        System.clearProperty(ConnectionPool.STATEMENT_CACHE_SIZE_PROPERTY);
+        System.clearProperty(InventoryItemCache.MAX_SIZE_PROPERTY);
+    }
+
+    // Logs in a random existing customer
+    @Benchmark
+    public CustomerAccount authenticateUser() {
+        int index = ThreadLocalRandom.current().nextInt(customerCount);
+        return accountDAO.authenticateUser(BenchmarkDatabase.customerName(index), BenchmarkDatabase.customerPassword(index));
+    }
+
+    // Looks up a random existing product straight from the database
+    @Benchmark
+    public InventoryItem locateById() {
+        return inventoryDAO.locateById(productIds[ThreadLocalRandom.current().nextInt(productIds.length)]);
+    }
+
+    // Registers a new customer with a name no earlier invocation used
+    @Benchmark
+    public boolean insertRecord() {
+        registered++;
+        return accountDAO.insertRecord(new CustomerAccount("stmt_bench_" + registered, "bench", "CUSTOMER"));
+    }
+}
@@ -0,0 +1,81 @@
+package org.example.benchmark;
+
+import org.example.dao.CustomerAccountDAO;
+import org.example.util.DataConnectionHelper;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Compares "is this username taken?" answered through the username Bloom filter against the raw COUNT(*) query
+// Free names are the sign-up burst case the filter is for; taken names show what it costs when it cannot help
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UsernameAvailabilityBenchmark {
+    // Number of registered users
+    @Param({"10000", "1000000"})
+    public int userCount;
+
+    private final CustomerAccountDAO accountDAO = new CustomerAccountDAO();
+    private BenchmarkDatabase database;
+
+    // Inserts userCount users in JDBC batches; their passwords are never checked, so they are not hashed
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        database = BenchmarkDatabase.open(BenchmarkDatabase.MEMORY, "usernames");
+        try (Connection conn = DataConnectionHelper.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("INSERT INTO users (username, password, role) VALUES (?, 'x', 'CUSTOMER')")) {
+            conn.setAutoCommit(false);
+            for (int i = 0; i < userCount; i++) {
+                pstmt.setString(1, BenchmarkDatabase.customerName(i));
+                pstmt.addBatch();
+                if (i % 10_000 == 9_999) {
+                    pstmt.executeBatch();
+                }
+            }
+            pstmt.executeBatch();
+            conn.commit();
+        }
+        CustomerAccountDAO.loadUsernameFilter();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public boolean filteredFreeName() {
+        return accountDAO.checkUsernameAvailability(freeName());
+    }
+
+    @Benchmark
+    public boolean queryFreeName() {
+        return accountDAO.checkUsernameAvailabilityInDatabase(freeName());
+    }
+
+    @Benchmark
+    public boolean filteredTakenName() {
+        return accountDAO.checkUsernameAvailability(takenName());
+    }
+
+    @Benchmark
+    public boolean queryTakenName() {
+        return accountDAO.checkUsernameAvailabilityInDatabase(takenName());
+    }
+
+    private static String freeName() {
+        return "newcomer" + ThreadLocalRandom.current().nextInt(Integer.MAX_VALUE);
+    }
+
+    private String takenName() {
+        return BenchmarkDatabase.customerName(ThreadLocalRandom.current().nextInt(userCount));
+    }
+}
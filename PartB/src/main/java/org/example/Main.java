@@ -1,15 +1,26 @@
 package org.example;
+import org.example.api.ApiServer;
 import org.example.model.*;
 import org.example.service.*;
 import org.example.util.DataConnectionHelper;
+import org.example.util.Money;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Scanner;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 // This is the main entry point for the Fashion E-Retail System (FERS) application
 // It provides a console-based interface for both customers and administrators to interact with the system
 public class Main {
+    // Port the HTTP API listens on when started with --server and no port
+    private static final int DEFAULT_SERVER_PORT = 8080;
+    // Number of orders shown per page in the admin order listing
+    private static final int ORDER_PAGE_SIZE = 20;
+    // Number of search results shown before asking whether to continue
+    private static final int SEARCH_PAGE_SIZE = 10;
     // Scanner object to read user input from the console throughout the application
     private static Scanner inputReader = new Scanner(System.in);
     // Service layer object that handles all user-related operations like registration and login
@@ -18,10 +29,10 @@ public class Main {
     private static InventoryItemService inventoryService = new InventoryItemService();
     // Service layer object that handles order processing, acceptance, rejection, and delivery tracking
     private static PurchaseTransactionService transactionService = new PurchaseTransactionService();
-    // Stores the currently logged-in user, null when no user is logged in
-    private static CustomerAccount activeAccount = null;
-    // Shopping cart that holds items the customer wants to purchase before checkout
-    private static List<ShoppingCartEntry> shoppingCart = new ArrayList<>();
+    // Holds the sessions (account and shopping cart) of console users; created in main for console mode only
+    private static SessionStore sessionStore;
+    // Session of the currently logged-in user, null when no user is logged in
+    private static ShoppingSession activeSession = null;
 
     // Main method that starts the application and runs the main program loop
     // It initializes the database and continuously displays the appropriate menu based on user login status
@@ -29,14 +40,23 @@ public class Main {
         System.out.println("=== Fashion E-Retail System (FERS) ===");
         // Initialize the database by creating all necessary tables if they don't exist
         DataConnectionHelper.initializeDatabase();
+        accountService.loadUsernameFilter();
+
+        // With --server [port] the application serves the JSON API instead of the console menus
+        if (args.length > 0 && "--server".equals(args[0])) {
+            startServer(args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_SERVER_PORT);
+            return;
+        }
+
+        sessionStore = SessionStore.fromSystemProperties();
 
         // Main application loop that runs continuously until the user exits
         // The menu displayed depends on whether a user is logged in and their role
         while (true) {
-            if (activeAccount == null) {
+            if (activeSession == null) {
                 // Show the main menu for unauthenticated users (login/register options)
                 showMainMenu();
-            } else if (activeAccount.hasAdminPrivileges()) {
+            } else if (activeSession.getAccount().hasAdminPrivileges()) {
                 // Show the admin menu with product management and order approval options
                 showAdminMenu();
             } else {
@@ -46,6 +66,24 @@ public class Main {
         }
     }
 
+    // Starts the embedded HTTP/JSON API server; it keeps the JVM running until the process is stopped
+    // A shutdown hook lets in-flight requests finish and closes the connection pools
+    private static void startServer(int port) {
+        try {
+            ApiServer server = new ApiServer(port);
+            server.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.stop(5);
+                DataConnectionHelper.shutdownPools();
+            }));
+            System.out.println("FERS API listening on http://localhost:" + server.getPort() + "/api/");
+        } catch (IOException e) {
+            System.err.println("Could not start the API server: " + e.getMessage());
+            DataConnectionHelper.shutdownPools();
+            System.exit(1);
+        }
+    }
+
     // Displays the main menu for users who are not logged in
     // Provides options to register as a new customer, login with existing credentials, or exit the application
     private static void showMainMenu() {
@@ -66,6 +104,8 @@ public class Main {
             case 3 -> {
                 // Exit the application gracefully with a thank you message
                 System.out.println("Thank you for using FERS!");
+                sessionStore.close(); // Save a final session snapshot when persistence is enabled
+                DataConnectionHelper.shutdownPools(); // Close pooled database connections before exiting
                 System.exit(0);
             }
             default -> System.out.println("Invalid option!"); // Handle invalid menu selections
@@ -84,17 +124,21 @@ public class Main {
     }
 
     // Handles user authentication by verifying username and password against the database
-    // If login is successful, the current user is set and the shopping cart is initialized
+    // If login is successful, the user's session is started, or resumed with its cart when one was kept from an earlier run
     private static void login() {
         System.out.print("Enter username: ");
         String accountName = inputReader.nextLine(); // Read the username from user input
         System.out.print("Enter password: ");
         String accountPassword = inputReader.nextLine(); // Read the password from user input
         // Attempt to authenticate the user and retrieve their account information
-        activeAccount = accountService.authenticateUser(accountName, accountPassword);
-        if (activeAccount != null) {
-            // Initialize a fresh shopping cart when a user successfully logs in
-            shoppingCart = new ArrayList<>(); // Reset cart on login
+        CustomerAccount account = accountService.authenticateUser(accountName, accountPassword);
+        if (account != null) {
+            activeSession = sessionStore.findLatestForAccount(account.getAccountId());
+            if (activeSession == null) {
+                activeSession = sessionStore.create(account); // Start with an empty cart
+            } else if (!activeSession.isCartEmpty()) {
+                System.out.println("Your cart from your last visit has been restored.");
+            }
         }
     }
 
@@ -107,10 +151,11 @@ public class Main {
         System.out.println("3. Delete Product");
         System.out.println("4. View All Products");
         System.out.println("5. View All Orders");
-        System.out.println("6. Accept Order");
-        System.out.println("7. Reject Order");
-        System.out.println("8. Mark Order as Delivered");
-        System.out.println("9. Logout");
+        System.out.println("6. View Orders Awaiting Approval");
+        System.out.println("7. Accept Order");
+        System.out.println("8. Reject Order");
+        System.out.println("9. Mark Order as Delivered");
+        System.out.println("10. Logout");
         System.out.print("Choose an option: ");
 
         // Read the admin's menu choice from the console
@@ -124,12 +169,14 @@ public class Main {
             case 3 -> deleteProduct(); // Remove a product from the inventory
             case 4 -> viewAllProducts(); // Display all products in the system
             case 5 -> viewAllOrders(); // View all orders placed by all customers
-            case 6 -> acceptOrder(); // Approve a pending order and deduct inventory
-            case 7 -> rejectOrder(); // Reject a pending order and refund payment
-            case 8 -> markOrderDelivered(); // Mark an accepted order as delivered to the customer
-            case 9 -> {
+            case 6 -> viewPendingOrders(); // View the CREATED orders waiting for a decision, oldest first
+            case 7 -> acceptOrder(); // Approve a pending order and deduct inventory
+            case 8 -> rejectOrder(); // Reject a pending order and refund payment
+            case 9 -> markOrderDelivered(); // Mark an accepted order as delivered to the customer
+            case 10 -> {
                 // Log out the admin user and return to the main menu
-                activeAccount = null;
+                sessionStore.remove(activeSession);
+                activeSession = null;
                 System.out.println("Logged out successfully!");
             }
             default -> System.out.println("Invalid option!"); // Handle invalid menu selections
@@ -141,12 +188,13 @@ public class Main {
     private static void showCustomerMenu() {
         System.out.println("\n--- Customer Menu ---");
         System.out.println("1. Browse Products");
-        System.out.println("2. Add to Cart");
-        System.out.println("3. View Cart");
-        System.out.println("4. Remove from Cart");
-        System.out.println("5. Checkout");
-        System.out.println("6. View My Orders");
-        System.out.println("7. Logout");
+        System.out.println("2. Search Products");
+        System.out.println("3. Add to Cart");
+        System.out.println("4. View Cart");
+        System.out.println("5. Remove from Cart");
+        System.out.println("6. Checkout");
+        System.out.println("7. View My Orders");
+        System.out.println("8. Logout");
         System.out.print("Choose an option: ");
 
         // Read the customer's menu choice from the console
@@ -156,15 +204,16 @@ public class Main {
         // Process the customer's choice and execute the corresponding shopping function
         switch (choice) {
             case 1 -> browseProducts(); // Display all available products for browsing
-            case 2 -> addToCart(); // Add a product to the shopping cart with specified quantity
-            case 3 -> viewCart(); // Display all items currently in the shopping cart with totals
-            case 4 -> removeFromCart(); // Remove a specific product from the shopping cart
-            case 5 -> checkout(); // Process the order, create payment, and submit for admin approval
-            case 6 -> viewMyOrders(); // Display all orders placed by the current customer
-            case 7 -> {
-                // Log out the customer, clear the cart, and return to the main menu
-                activeAccount = null;
-                shoppingCart.clear(); // Clear all items from the cart when logging out
+            case 2 -> searchProducts(); // Find products by words in their name or description
+            case 3 -> addToCart(); // Add a product to the shopping cart with specified quantity
+            case 4 -> viewCart(); // Display all items currently in the shopping cart with totals
+            case 5 -> removeFromCart(); // Remove a specific product from the shopping cart
+            case 6 -> checkout(); // Process the order, create payment, and submit for admin approval
+            case 7 -> viewMyOrders(); // Display all orders placed by the current customer
+            case 8 -> {
+                // Log out the customer, discard the session and its cart, and return to the main menu
+                sessionStore.remove(activeSession);
+                activeSession = null;
                 System.out.println("Logged out successfully!");
             }
             default -> System.out.println("Invalid option!"); // Handle invalid menu selections
@@ -184,7 +233,7 @@ public class Main {
         int itemStock = inputReader.nextInt(); // Read the initial stock quantity from admin input
         inputReader.nextLine(); // Consume the newline character left in the buffer
         // Add the new product to the database through the product service
-        inventoryService.insertInventoryItem(itemName, itemDescription, itemPrice, itemStock);
+        inventoryService.insertInventoryItem(itemName, itemDescription, Money.fromDouble(itemPrice), itemStock);
     }
 
     // Allows the admin to update an existing product's information by specifying the product ID
@@ -203,7 +252,7 @@ public class Main {
         int itemStock = inputReader.nextInt(); // Read the updated stock quantity
         inputReader.nextLine(); // Consume the newline character left in the buffer
         // Update the product in the database with the new information
-        inventoryService.modifyInventoryItem(itemId, itemName, itemDescription, itemPrice, itemStock);
+        inventoryService.modifyInventoryItem(itemId, itemName, itemDescription, Money.fromDouble(itemPrice), itemStock);
     }
 
     // Allows the admin to delete a product from the inventory by specifying its ID
@@ -219,40 +268,72 @@ public class Main {
     // Displays all products in the system in a formatted table for the admin to review
     // Shows product ID, name, price, and current stock level for inventory management
     private static void viewAllProducts() {
-        // Retrieve all products from the database through the product service
-        List<InventoryItem> items = inventoryService.retrieveAllInventoryItems();
-        if (items.isEmpty()) {
-            System.out.println("No products available."); // Inform admin if no products exist
-        } else {
-            System.out.println("\n--- All Products ---");
-            // Print table header with formatted columns for better readability
-            System.out.printf("%-5s %-30s %-10s %-10s%n", "ID", "Name", "Price", "Stock");
-            // Iterate through all products and display their information in a formatted row
-            for (InventoryItem item : items) {
+        // Stream products from the database through the product service, printing each row as it arrives
+        int printed = 0;
+        try (Stream<InventoryItem> items = inventoryService.streamInventoryItems()) {
+            Iterator<InventoryItem> iterator = items.iterator();
+            while (iterator.hasNext()) {
+                InventoryItem item = iterator.next();
+                if (printed++ == 0) {
+                    System.out.println("\n--- All Products ---");
+                    // Print table header with formatted columns for better readability
+                    System.out.printf("%-5s %-30s %-10s %-10s%n", "ID", "Name", "Price", "Stock");
+                }
                 System.out.printf("%-5d %-30s $%-9.2f %-10d%n",
                     item.getItemId(), item.getItemName(), item.getItemPrice(), item.getItemStock());
             }
         }
+        if (printed == 0) {
+            System.out.println("No products available."); // Inform admin if no products exist
+        }
     }
 
     // Displays all orders placed by all customers in a formatted table for admin review
     // Shows order details including ID, customer ID, status, date, and total amount for order management
+    // Orders are loaded one page at a time, so the listing uses the same memory however many orders exist
     private static void viewAllOrders() {
-        // Retrieve all orders from the database through the order service
-        List<PurchaseTransaction> transactions = transactionService.retrieveAllPurchaseTransactions();
-        if (transactions.isEmpty()) {
-            System.out.println("No orders found."); // Inform admin if no orders exist
-        } else {
-            System.out.println("\n--- All Orders ---");
-            // Print table header with formatted columns for better readability
-            System.out.printf("%-8s %-10s %-15s %-20s %-10s%n",
-                "Order ID", "User ID", "Status", "Order Date", "Total");
-            // Iterate through all orders and display their information in a formatted row
-            for (PurchaseTransaction transaction : transactions) {
+        printOrderPages("All Orders", "No orders found.",
+            after -> transactionService.retrievePurchaseTransactionPage(after, ORDER_PAGE_SIZE));
+    }
+
+    // Displays the admin approval queue: orders still in CREATED status, oldest first so they are handled in order
+    // Only the pending orders are read, page by page, however many completed orders the table holds
+    private static void viewPendingOrders() {
+        int pending = transactionService.countPurchaseTransactionsByStatus(OrderStatus.CREATED);
+        printOrderPages("Orders Awaiting Approval (" + pending + ")", "No orders are awaiting approval.",
+            after -> transactionService.retrievePurchaseTransactionsByStatus(OrderStatus.CREATED, after, ORDER_PAGE_SIZE));
+    }
+
+    // Prints orders in a formatted table one page at a time, asking before each further page
+    // fetchPage is called with null for the first page and with the previous page's cursor after that
+    private static void printOrderPages(String title, String emptyMessage,
+                                        Function<TransactionCursor, ResultPage<PurchaseTransaction>> fetchPage) {
+        // Retrieve the first page of orders from the database through the order service
+        ResultPage<PurchaseTransaction> page = fetchPage.apply(null);
+        if (page.getItems().isEmpty()) {
+            System.out.println(emptyMessage); // Inform admin if no orders exist
+            return;
+        }
+        System.out.println("\n--- " + title + " ---");
+        // Print table header with formatted columns for better readability
+        System.out.printf("%-8s %-10s %-15s %-20s %-10s%n",
+            "Order ID", "User ID", "Status", "Order Date", "Total");
+        while (true) {
+            // Iterate through the orders on this page and display their information in a formatted row
+            for (PurchaseTransaction transaction : page.getItems()) {
                 System.out.printf("%-8d %-10d %-15s %-20s $%-9.2f%n",
                     transaction.getTransactionId(), transaction.getCustomerAccountId(), transaction.getTransactionStatus(),
                     transaction.getTransactionDate().toString(), transaction.getTransactionTotal());
             }
+            // Stop at the last page, or when the admin does not want to see more
+            if (!page.hasNext()) {
+                break;
+            }
+            System.out.print("Show more orders? (y/n): ");
+            if (!inputReader.nextLine().trim().equalsIgnoreCase("y")) {
+                break;
+            }
+            page = fetchPage.apply(page.getNextCursor());
         }
     }
 
@@ -289,17 +370,18 @@ public class Main {
     // Displays all available products to the customer in a formatted table for browsing
     // Shows product details including ID, name, description, price, and stock availability
     private static void browseProducts() {
-        // Retrieve all products from the database through the product service
-        List<InventoryItem> items = inventoryService.retrieveAllInventoryItems();
-        if (items.isEmpty()) {
-            System.out.println("No products available."); // Inform customer if no products exist
-        } else {
-            System.out.println("\n--- Available Products ---");
-            // Print table header with formatted columns for better readability
-            System.out.printf("%-5s %-30s %-50s %-10s %-10s%n",
-                "ID", "Name", "Description", "Price", "Stock");
-            // Iterate through all products and display their information in a formatted row
-            for (InventoryItem item : items) {
+        // Stream products from the database through the product service, printing each row as it arrives
+        int printed = 0;
+        try (Stream<InventoryItem> items = inventoryService.streamInventoryItems()) {
+            Iterator<InventoryItem> iterator = items.iterator();
+            while (iterator.hasNext()) {
+                InventoryItem item = iterator.next();
+                if (printed++ == 0) {
+                    System.out.println("\n--- Available Products ---");
+                    // Print table header with formatted columns for better readability
+                    System.out.printf("%-5s %-30s %-50s %-10s %-10s%n",
+                        "ID", "Name", "Description", "Price", "Stock");
+                }
                 // Truncate long descriptions to 50 characters for better table formatting
                 System.out.printf("%-5d %-30s %-50s $%-9.2f %-10d%n",
                     item.getItemId(), item.getItemName(),
@@ -307,6 +389,42 @@ public class Main {
                     item.getItemPrice(), item.getItemStock());
             }
         }
+        if (printed == 0) {
+            System.out.println("No products available."); // Inform customer if no products exist
+        }
+    }
+
+    // Asks for search words and lists matching products best match first, one page at a time
+    // After each full page the customer can press Enter for more or type anything else to stop
+    private static void searchProducts() {
+        System.out.print("Search for: ");
+        String query = inputReader.nextLine(); // Read the search words from customer input
+        int offset = 0;
+        while (true) {
+            SearchPage<InventoryItem> page = inventoryService.searchInventoryItems(query, offset, SEARCH_PAGE_SIZE);
+            if (offset == 0) {
+                if (page.getTotalMatches() == 0) {
+                    System.out.println("No products match \"" + query + "\".");
+                    return;
+                }
+                System.out.println("\n--- " + page.getTotalMatches() + " matching products ---");
+                System.out.printf("%-5s %-30s %-50s %-10s %-10s%n", "ID", "Name", "Description", "Price", "Stock");
+            }
+            for (InventoryItem item : page.getItems()) {
+                System.out.printf("%-5d %-30s %-50s $%-9.2f %-10d%n",
+                    item.getItemId(), item.getItemName(),
+                    item.getItemDescription().length() > 50 ? item.getItemDescription().substring(0, 47) + "..." : item.getItemDescription(),
+                    item.getItemPrice(), item.getItemStock());
+            }
+            if (!page.hasNext() || page.getNextOffset() > InventoryItemService.MAX_SEARCH_OFFSET) {
+                return;
+            }
+            System.out.print("Press Enter for more results, or type anything to stop: ");
+            if (!inputReader.nextLine().isEmpty()) {
+                return;
+            }
+            offset = page.getNextOffset();
+        }
     }
 
     // Allows the customer to add a product to their shopping cart with a specified quantity
@@ -331,20 +449,10 @@ public class Main {
             return;
         }
 
-        // Check if the product is already in the cart, and if so, update the quantity instead of adding duplicate
-        boolean found = false;
-        for (ShoppingCartEntry entry : shoppingCart) {
-            if (entry.getInventoryItem().getItemId() == itemId) {
-                // If product already exists in cart, add the new quantity to the existing quantity
-                entry.setEntryQuantity(entry.getEntryQuantity() + entryQuantity);
-                found = true;
-                break;
-            }
-        }
-
-        // If product is not already in cart, create a new cart item and add it
-        if (!found) {
-            shoppingCart.add(new ShoppingCartEntry(item, entryQuantity));
+        // Add the product to the cart; if it is already there, its quantity is increased instead
+        if (!activeSession.addToCart(item, entryQuantity)) {
+            System.out.println("Your cart is full! It can hold at most " + ShoppingSession.MAX_CART_LINES + " different products.");
+            return;
         }
 
         System.out.println("Product added to cart!"); // Confirm successful addition to cart
@@ -353,32 +461,33 @@ public class Main {
     // Displays all items currently in the customer's shopping cart with detailed pricing information
     // Shows each item's details and calculates the total amount for the entire cart
     private static void viewCart() {
-        if (shoppingCart.isEmpty()) {
+        List<ShoppingCartEntry> cart = activeSession.getCart();
+        if (cart.isEmpty()) {
             System.out.println("Your cart is empty."); // Inform customer if cart has no items
         } else {
             System.out.println("\n--- Your Cart ---");
             // Print table header with formatted columns for better readability
             System.out.printf("%-5s %-30s %-10s %-10s %-10s%n",
                 "ID", "Name", "Price", "Quantity", "Subtotal");
-            double total = 0; // Initialize total amount accumulator
+            long totalCents = 0; // Initialize total amount accumulator, kept in exact cents
             // Iterate through all cart items and display their information
-            for (ShoppingCartEntry entry : shoppingCart) {
-                double subtotal = entry.calculateSubtotal(); // Calculate subtotal for this item (price * quantity)
-                total += subtotal; // Add item subtotal to the overall cart total
+            for (ShoppingCartEntry entry : cart) {
+                long subtotalCents = entry.calculateSubtotalCents(); // Calculate subtotal for this item (price * quantity)
+                totalCents = Money.add(totalCents, subtotalCents); // Add item subtotal to the overall cart total
                 // Display formatted row with product details and calculated subtotal
                 System.out.printf("%-5d %-30s $%-9.2f %-10d $%-9.2f%n",
                     entry.getInventoryItem().getItemId(), entry.getInventoryItem().getItemName(),
-                    entry.getInventoryItem().getItemPrice(), entry.getEntryQuantity(), subtotal);
+                    entry.getInventoryItem().getItemPrice(), entry.getEntryQuantity(), Money.toDouble(subtotalCents));
             }
             // Display the final total amount for all items in the cart
-            System.out.println("Total: $" + String.format("%.2f", total));
+            System.out.println("Total: $" + Money.format(totalCents));
         }
     }
 
     // Allows the customer to remove a specific product from their shopping cart by product ID
     // The entire cart item is removed regardless of quantity, customer can re-add if needed
     private static void removeFromCart() {
-        if (shoppingCart.isEmpty()) {
+        if (activeSession.isCartEmpty()) {
             System.out.println("Your cart is empty."); // Inform customer if cart has no items to remove
             return;
         }
@@ -388,14 +497,14 @@ public class Main {
         inputReader.nextLine(); // Consume the newline character left in the buffer
 
         // Remove the cart item that matches the specified product ID
-        shoppingCart.removeIf(entry -> entry.getInventoryItem().getItemId() == itemId);
+        activeSession.removeFromCart(itemId);
         System.out.println("Product removed from cart."); // Confirm successful removal
     }
 
     // Processes the checkout by creating an order from the cart items and processing payment
     // The order is created with CREATED status and awaits admin approval before fulfillment
     private static void checkout() {
-        if (shoppingCart.isEmpty()) {
+        if (activeSession.isCartEmpty()) {
             System.out.println("Your cart is empty!"); // Prevent checkout if cart has no items
             return;
         }
@@ -424,31 +533,50 @@ public class Main {
         }
 
         // Place the order through the order service, which creates order, order items, and payment records
-        int transactionId = transactionService.createPurchaseTransaction(activeAccount.getAccountId(), shoppingCart, paymentType);
+        int transactionId = transactionService.createPurchaseTransaction(
+            activeSession.getAccount().getAccountId(), activeSession.getCart(), paymentType);
         if (transactionId > 0) {
-            shoppingCart.clear(); // Clear the cart after successful order placement
+            activeSession.clearCart(); // Clear the cart after successful order placement
             System.out.println("Order placed successfully! Waiting for admin approval."); // Confirm order creation
         }
     }
 
-    // Displays all orders placed by the currently logged-in customer in a formatted table
+    // Displays the orders placed by the currently logged-in customer, newest first, with the products in each order
     // Shows order status, date, and total amount so customers can track their order history
+    // Orders are loaded one page at a time together with their items, so each page costs the same two queries
     private static void viewMyOrders() {
-        // Retrieve all orders for the current user from the database through the order service
-        List<PurchaseTransaction> transactions = transactionService.fetchUserPurchaseTransactions(activeAccount.getAccountId());
-        if (transactions.isEmpty()) {
+        int accountId = activeSession.getAccount().getAccountId();
+        // Retrieve the first page of the current user's orders from the database through the order service
+        ResultPage<OrderDetails> page = transactionService.fetchUserOrderHistory(accountId, null, ORDER_PAGE_SIZE);
+        if (page.getItems().isEmpty()) {
             System.out.println("You have no orders yet."); // Inform customer if they have no order history
-        } else {
-            System.out.println("\n--- My Orders ---");
-            // Print table header with formatted columns for better readability
-            System.out.printf("%-8s %-15s %-20s %-10s%n",
-                "Order ID", "Status", "Order Date", "Total");
-            // Iterate through all customer orders and display their information in a formatted row
-            for (PurchaseTransaction transaction : transactions) {
+            return;
+        }
+        System.out.println("\n--- My Orders ---");
+        // Print table header with formatted columns for better readability
+        System.out.printf("%-8s %-15s %-20s %-10s%n",
+            "Order ID", "Status", "Order Date", "Total");
+        while (true) {
+            // Print each order on this page, followed by its products indented underneath
+            for (OrderDetails details : page.getItems()) {
+                PurchaseTransaction transaction = details.getTransaction();
                 System.out.printf("%-8d %-15s %-20s $%-9.2f%n",
                     transaction.getTransactionId(), transaction.getTransactionStatus(),
                     transaction.getTransactionDate().toString(), transaction.getTransactionTotal());
+                for (TransactionLineItem lineItem : details.getLineItems()) {
+                    System.out.printf("    %3d x %-30s $%.2f each%n",
+                        lineItem.getItemQuantity(), lineItem.getItemName(), lineItem.getItemPriceAtPurchase());
+                }
+            }
+            // Stop at the last page, or when the customer does not want to see more
+            if (!page.hasNext()) {
+                break;
+            }
+            System.out.print("Show more orders? (y/n): ");
+            if (!inputReader.nextLine().trim().equalsIgnoreCase("y")) {
+                break;
             }
+            page = transactionService.fetchUserOrderHistory(accountId, page.getNextCursor(), ORDER_PAGE_SIZE);
         }
     }
 }
@@ -0,0 +1,17 @@
+package org.example.api;
+
+// Thrown by API handlers to end a request with a specific HTTP status and error message
+// ApiServer turns it into a JSON body of the form {"error": "..."}
+public class ApiException extends RuntimeException {
+    // HTTP status code sent to the client
+    private final int status;
+
+    public ApiException(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,775 @@
+package org.example.api;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.example.model.BulkOrderReport;
+import org.example.model.CustomerAccount;
+import org.example.model.InventoryItem;
+import org.example.model.OrderDetails;
+import org.example.model.OrderStatus;
+import org.example.model.PaymentMethod;
+import org.example.model.PaymentRecord;
+import org.example.model.ProductSuggestion;
+import org.example.model.PurchaseTransaction;
+import org.example.model.ResultPage;
+import org.example.model.SearchPage;
+import org.example.model.ShoppingCartEntry;
+import org.example.model.ShoppingSession;
+import org.example.model.TransactionCursor;
+import org.example.model.TransactionLineItem;
+import org.example.service.CustomerAccountService;
+import org.example.service.InventoryItemService;
+import org.example.service.PurchaseTransactionService;
+import org.example.service.SessionStore;
+import org.example.util.Money;
+import org.example.util.ServiceExecutor;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+// Routes /api requests to the service layer and converts between JSON and the model classes
+// Every service call goes through the ServiceExecutor bulkhead; when it is saturated the client gets 503
+// Clients log in with POST /api/login and send the returned token as "Authorization: Bearer <token>"
+// JSON request bodies over MAX_BODY_BYTES are refused with 413
+//
+//   POST   /api/register                 {username, password}          create a customer account
+//   GET    /api/usernames/{username}                                   returns {username, available}
+//   POST   /api/login                    {username, password}          returns {token, account}
+//   POST   /api/logout                                                 ends the session
+//   GET    /api/products                                               whole catalog, streamed page by page
+//   GET    /api/products/search                                        ?q=&offset=&limit= ranked matches in name and
+//                                                                      description, with total and next offset
+//   GET    /api/products/suggest                                       ?q=&limit= typeahead: products whose name or a
+//                                                                      word in it starts with q, as {id, name}
+//   GET    /api/products/{id}
+//   POST   /api/products                 {name, description, price, stock}   admin only
+//   PUT    /api/products/{id}            {name, description, price, stock}   admin only
+//   DELETE /api/products/{id}                                          admin only
+//   GET    /api/cart                                                   cart lines and total
+//   POST   /api/cart                     {productId, quantity}         add to cart
+//   DELETE /api/cart/{productId}                                       remove one product
+//   DELETE /api/cart                                                   empty the cart
+//   POST   /api/checkout                 {paymentMethod}               place the order, returns {orderId}
+//   GET    /api/orders                                                 one page (?limit=&afterDate=&afterId=) of own
+//                                                                      orders with their items, or for admins of all
+//                                                                      orders; &status=CREATED lists the approval queue
+//   GET    /api/orders/{id}                                            the order with its items and payment
+//   POST   /api/orders/{id}/accept|reject|deliver                      admin only
+//   POST   /api/orders/bulk              {action, ids} or {action, all: true}  accept or reject many orders,
+//                                                                      admin only; all: true decides every CREATED order
+class ApiHandler implements HttpHandler {
+    // Page size for the admin order listing when the client does not pass a limit
+    private static final int DEFAULT_ORDER_PAGE_SIZE = 20;
+    // Page size for product search when the client does not pass a limit
+    private static final int DEFAULT_SEARCH_PAGE_SIZE = 20;
+    // Number of typeahead suggestions when the client does not pass a limit
+    private static final int DEFAULT_SUGGESTIONS = 10;
+    // Largest page of orders a client may request at once
+    private static final int MAX_ORDER_PAGE_SIZE = 500;
+    // Largest request body accepted, enough for a bulk decision on tens of thousands of order IDs
+    static final int MAX_BODY_BYTES = 256 * 1024;
+    // How much of an oversized body is read and thrown away before the 413 is sent; larger bodies are cut off
+    static final int MAX_DISCARD_BYTES = 4 * MAX_BODY_BYTES;
+    // Products read per service call while streaming the catalog
+    static final int PRODUCT_STREAM_PAGE_SIZE = 200;
+
+    private final CustomerAccountService accountService = new CustomerAccountService();
+    private final InventoryItemService inventoryService = new InventoryItemService();
+    private final PurchaseTransactionService transactionService = new PurchaseTransactionService();
+    // Logged-in clients and their carts, keyed by the session token
+    private final SessionStore sessionStore;
+    // Bulkhead every service call goes through
+    private final ServiceExecutor serviceExecutor;
+
+    ApiHandler(SessionStore sessionStore, ServiceExecutor serviceExecutor) {
+        this.sessionStore = sessionStore;
+        this.serviceExecutor = serviceExecutor;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        boolean aborted = false;
+        try {
+            try {
+                route(exchange);
+            } catch (ApiException e) {
+                sendJson(exchange, e.getStatus(), Map.of("error", e.getMessage()));
+            } catch (RejectedExecutionException e) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                sendJson(exchange, 503, Map.of("error", "Server busy, please retry")); // Shed load rather than queue without bound
+            } catch (IllegalArgumentException e) {
+                sendJson(exchange, 400, Map.of("error", String.valueOf(e.getMessage()))); // Malformed JSON or parameters
+            } catch (RuntimeException e) {
+                System.err.println("Error handling " + exchange.getRequestURI() + ": " + e);
+                sendJson(exchange, 500, Map.of("error", "Internal server error"));
+            }
+        } catch (ResponseAbortedException e) {
+            // The response has already started, so no error can be sent. The exchange is left unfinished and the
+            // server drops the connection, so the client sees a truncated response instead of a complete-looking one
+            aborted = true;
+            System.err.println("Aborted response to " + exchange.getRequestURI() + ": " + e.getCause());
+            throw e;
+        } finally {
+            if (!aborted) {
+                exchange.close();
+            }
+        }
+    }
+
+    // Dispatches on the HTTP method and the path segments after /api/
+    private void route(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String[] path = exchange.getRequestURI().getPath().substring("/api/".length()).split("/");
+        String resource = path[0];
+        switch (resource) {
+            case "register" -> {
+                requireMethod(method, "POST");
+                register(exchange);
+            }
+            case "usernames" -> {
+                requireMethod(method, "GET");
+                if (path.length != 2 || path[1].isEmpty()) {
+                    throw new ApiException(404, "Not found");
+                }
+                String username = path[1];
+                boolean available = db(() -> accountService.isUsernameAvailable(username));
+                sendJson(exchange, 200, Map.of("username", username, "available", available));
+            }
+            case "login" -> {
+                requireMethod(method, "POST");
+                login(exchange);
+            }
+            case "logout" -> {
+                requireMethod(method, "POST");
+                sessionStore.remove(requireSession(exchange));
+                sendJson(exchange, 200, Map.of("loggedOut", true));
+            }
+            case "products" -> routeProducts(exchange, method, path);
+            case "cart" -> routeCart(exchange, method, path);
+            case "checkout" -> {
+                requireMethod(method, "POST");
+                checkout(exchange);
+            }
+            case "orders" -> routeOrders(exchange, method, path);
+            default -> throw new ApiException(404, "Not found");
+        }
+    }
+
+    private void register(HttpExchange exchange) throws IOException {
+        Map<String, Object> body = readBody(exchange);
+        String username = requireString(body, "username");
+        String password = requireString(body, "password");
+        int accountId = db(() -> accountService.registerCustomerAccount(username, password));
+        if (accountId == CustomerAccountService.USERNAME_TAKEN) {
+            throw new ApiException(409, "Username already exists");
+        }
+        if (accountId < 0) {
+            throw new ApiException(500, "Registration failed");
+        }
+        sendJson(exchange, 201, Map.of("registered", true, "accountId", accountId));
+    }
+
+    private void login(HttpExchange exchange) throws IOException {
+        Map<String, Object> body = readBody(exchange);
+        String username = requireString(body, "username");
+        String password = requireString(body, "password");
+        CustomerAccount account = db(() -> accountService.authenticateUser(username, password));
+        if (account == null) {
+            throw new ApiException(401, "Invalid username or password");
+        }
+        ShoppingSession session = sessionStore.create(account);
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("token", session.getSessionId());
+        response.put("account", toJson(account));
+        sendJson(exchange, 200, response);
+    }
+
+    private void routeProducts(HttpExchange exchange, String method, String[] path) throws IOException {
+        if (path.length == 1) {
+            switch (method) {
+                case "GET" -> streamProducts(exchange);
+                case "POST" -> {
+                    requireAdmin(exchange);
+                    Map<String, Object> body = readBody(exchange);
+                    String name = requireString(body, "name");
+                    String description = optionalString(body, "description");
+                    long priceCents = requireCents(body, "price");
+                    int stock = requireInt(body, "stock");
+                    boolean added = db(() -> inventoryService.insertInventoryItem(name, description, priceCents, stock));
+                    if (!added) {
+                        throw new ApiException(500, "Failed to add product");
+                    }
+                    sendJson(exchange, 201, Map.of("created", true));
+                }
+                default -> throw new ApiException(405, "Method not allowed");
+            }
+            return;
+        }
+        if ("search".equals(path[1])) {
+            requireMethod(method, "GET");
+            sendJson(exchange, 200, searchProducts(exchange));
+            return;
+        }
+        if ("suggest".equals(path[1])) {
+            requireMethod(method, "GET");
+            sendJson(exchange, 200, suggestProducts(exchange));
+            return;
+        }
+        int itemId = parseId(path[1]);
+        switch (method) {
+            case "GET" -> sendJson(exchange, 200, toJson(requireProduct(itemId)));
+            case "PUT" -> {
+                requireAdmin(exchange);
+                Map<String, Object> body = readBody(exchange);
+                String name = requireString(body, "name");
+                String description = optionalString(body, "description");
+                long priceCents = requireCents(body, "price");
+                int stock = requireInt(body, "stock");
+                boolean updated = db(() -> inventoryService.modifyInventoryItem(itemId, name, description, priceCents, stock));
+                if (!updated) {
+                    throw new ApiException(404, "Product not found");
+                }
+                sendJson(exchange, 200, toJson(requireProduct(itemId)));
+            }
+            case "DELETE" -> {
+                requireAdmin(exchange);
+                if (!db(() -> inventoryService.removeInventoryItem(itemId))) {
+                    throw new ApiException(409, "Product could not be deleted");
+                }
+                sendJson(exchange, 200, Map.of("deleted", true));
+            }
+            default -> throw new ApiException(405, "Method not allowed");
+        }
+    }
+
+    // Writes the catalog as a JSON array one keyset page at a time, so the response never holds the whole
+    // catalog in memory. Each page is read inside the bulkhead and written outside it, so a slow client
+    // holds neither a bulkhead permit nor a pooled connection while it reads the body
+    // The first page is read before the headers go out, so a failure there is still an ordinary error response;
+    // once the body has started, a failure aborts the exchange instead
+    private void streamProducts(HttpExchange exchange) throws IOException {
+        List<InventoryItem> page = readProductPage(0);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, 0); // Length unknown, so the body is sent chunked
+        try {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8));
+            writer.write('[');
+            boolean first = true;
+            while (!page.isEmpty()) {
+                for (InventoryItem item : page) {
+                    if (!first) {
+                        writer.write(',');
+                    }
+                    Json.write(toJson(item), writer);
+                    first = false;
+                }
+                writer.flush(); // Send this page before reading the next
+                if (page.size() < PRODUCT_STREAM_PAGE_SIZE) {
+                    break; // A short page is the last one
+                }
+                page = readProductPage(page.get(page.size() - 1).getItemId());
+            }
+            writer.write(']');
+            writer.flush(); // handle() closes the exchange, which ends the chunked body
+        } catch (IOException | RuntimeException e) {
+            throw new ResponseAbortedException(e);
+        }
+    }
+
+    private List<InventoryItem> readProductPage(int afterItemId) {
+        List<InventoryItem> page = db(() -> inventoryService.retrieveInventoryItemsAfter(afterItemId, PRODUCT_STREAM_PAGE_SIZE));
+        if (page == null) {
+            throw new ApiException(500, "Products could not be read");
+        }
+        return page;
+    }
+
+    private void routeCart(HttpExchange exchange, String method, String[] path) throws IOException {
+        ShoppingSession session = requireSession(exchange);
+        switch (method) {
+            case "GET" -> sendJson(exchange, 200, cartJson(session));
+            case "POST" -> {
+                Map<String, Object> body = readBody(exchange);
+                int quantity = requireInt(body, "quantity");
+                if (quantity < 1) {
+                    throw new ApiException(400, "Quantity must be at least 1");
+                }
+                InventoryItem item = requireProduct(requireInt(body, "productId"));
+                if (item.getItemStock() < quantity) {
+                    throw new ApiException(409, "Insufficient stock! Available: " + item.getItemStock());
+                }
+                if (!session.addToCart(item, quantity)) {
+                    throw new ApiException(409, "Cart is full: at most " + ShoppingSession.MAX_CART_LINES + " different products");
+                }
+                sendJson(exchange, 200, cartJson(session));
+            }
+            case "DELETE" -> {
+                if (path.length == 1) {
+                    session.clearCart();
+                } else if (!session.removeFromCart(parseId(path[1]))) {
+                    throw new ApiException(404, "Product is not in the cart");
+                }
+                sendJson(exchange, 200, cartJson(session));
+            }
+            default -> throw new ApiException(405, "Method not allowed");
+        }
+    }
+
+    private void checkout(HttpExchange exchange) throws IOException {
+        ShoppingSession session = requireSession(exchange);
+        String paymentMethod = requireString(readBody(exchange), "paymentMethod");
+        try {
+            PaymentMethod.valueOf(paymentMethod);
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(400, "paymentMethod must be one of " + Arrays.toString(PaymentMethod.values()));
+        }
+        List<ShoppingCartEntry> cart = session.getCart();
+        if (cart.isEmpty()) {
+            throw new ApiException(400, "Your cart is empty");
+        }
+        int transactionId = db(() -> transactionService.createPurchaseTransaction(session.getAccount().getAccountId(), cart, paymentMethod));
+        if (transactionId <= 0) {
+            throw new ApiException(500, "Failed to place order");
+        }
+        session.clearCart();
+        sendJson(exchange, 201, Map.of("orderId", transactionId));
+    }
+
+    private void routeOrders(HttpExchange exchange, String method, String[] path) throws IOException {
+        ShoppingSession session = requireSession(exchange);
+        if (path.length == 1) {
+            requireMethod(method, "GET");
+            if (session.getAccount().hasAdminPrivileges()) {
+                sendJson(exchange, 200, orderPage(exchange));
+            } else {
+                sendJson(exchange, 200, historyPage(exchange, session.getAccount().getAccountId()));
+            }
+            return;
+        }
+
+        if (path.length == 2 && "bulk".equals(path[1])) {
+            requireMethod(method, "POST");
+            requireAdmin(exchange);
+            sendJson(exchange, 200, toJson(bulkDecision(readBody(exchange))));
+            return;
+        }
+
+        int transactionId = parseId(path[1]);
+        if (path.length == 2) {
+            requireMethod(method, "GET");
+            OrderDetails details = db(() -> transactionService.fetchOrderDetailsById(transactionId));
+            // Customers may only see their own orders; report other orders as missing rather than forbidden
+            if (details == null || (!session.getAccount().hasAdminPrivileges()
+                    && details.getTransaction().getCustomerAccountId() != session.getAccount().getAccountId())) {
+                throw new ApiException(404, "Order not found");
+            }
+            sendJson(exchange, 200, toJson(details));
+            return;
+        }
+
+        requireMethod(method, "POST");
+        requireAdmin(exchange);
+        String action = path[2];
+        boolean changed = switch (action) {
+            case "accept" -> db(() -> transactionService.approvePurchaseTransaction(transactionId));
+            case "reject" -> db(() -> transactionService.declinePurchaseTransaction(transactionId));
+            case "deliver" -> db(() -> transactionService.markAsDelivered(transactionId));
+            default -> throw new ApiException(404, "Not found");
+        };
+        if (!changed) {
+            PurchaseTransaction transaction = db(() -> transactionService.fetchPurchaseTransactionById(transactionId));
+            if (transaction == null) {
+                throw new ApiException(404, "Order not found");
+            }
+            throw new ApiException(409, "Order could not be changed. Current status: " + transaction.getTransactionStatus());
+        }
+        sendJson(exchange, 200, toJson(db(() -> transactionService.fetchPurchaseTransactionById(transactionId))));
+    }
+
+    // Runs a bulk accept or reject of the orders in "ids", or with "all": true of every order awaiting approval
+    // One of the two is required, so a body that lost its ids is refused rather than deciding the whole queue
+    private BulkOrderReport bulkDecision(Map<String, Object> body) {
+        boolean accept = switch (requireString(body, "action")) {
+            case "accept" -> true;
+            case "reject" -> false;
+            default -> throw new ApiException(400, "action must be accept or reject");
+        };
+        if (body.containsKey("all")) {
+            if (!Boolean.TRUE.equals(body.get("all")) || body.containsKey("ids")) {
+                throw new ApiException(400, "all must be true and cannot be combined with ids");
+            }
+            return db(() -> accept
+                ? transactionService.approvePendingPurchaseTransactions(transaction -> true)
+                : transactionService.declinePendingPurchaseTransactions(transaction -> true));
+        }
+        if (!body.containsKey("ids")) {
+            throw new ApiException(400, "ids is required; send \"all\": true to decide every CREATED order");
+        }
+        if (!(body.get("ids") instanceof List<?> values) || values.isEmpty()) {
+            throw new ApiException(400, "ids must be a non-empty array of order ids");
+        }
+        List<Integer> ids = new ArrayList<>(values.size());
+        for (Object value : values) {
+            if (!(value instanceof Long id) || id < 1 || id > Integer.MAX_VALUE) {
+                throw new ApiException(400, "Invalid id: " + value);
+            }
+            ids.add(id.intValue());
+        }
+        return db(() -> accept
+            ? transactionService.approvePurchaseTransactions(ids)
+            : transactionService.declinePurchaseTransactions(ids));
+    }
+
+    // One page of all orders, most recent first, or with ?status= the orders in that status, oldest first
+    // The response's "next" holds the parameters for the following page
+    private Map<String, Object> orderPage(HttpExchange exchange) {
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        int limit = pageLimit(query);
+        TransactionCursor after = pageCursor(query);
+        OrderStatus status;
+        try {
+            status = OrderStatus.parse(query.get("status"));
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(400, "status must be one of " + Arrays.toString(OrderStatus.values()));
+        }
+        ResultPage<PurchaseTransaction> page = db(() -> status == null
+            ? transactionService.retrievePurchaseTransactionPage(after, limit)
+            : transactionService.retrievePurchaseTransactionsByStatus(status, after, limit));
+        List<Object> orders = new ArrayList<>();
+        for (PurchaseTransaction transaction : page.getItems()) {
+            orders.add(toJson(transaction));
+        }
+        return pageResponse(orders, page);
+    }
+
+    // One page of a customer's own orders, most recent first, each with its items and payment
+    // Takes the same limit and cursor parameters as the admin listing
+    private Map<String, Object> historyPage(HttpExchange exchange, int accountId) {
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        int limit = pageLimit(query);
+        TransactionCursor after = pageCursor(query);
+        ResultPage<OrderDetails> page = db(() -> transactionService.fetchUserOrderHistory(accountId, after, limit));
+        List<Object> orders = new ArrayList<>();
+        for (OrderDetails details : page.getItems()) {
+            orders.add(toJson(details));
+        }
+        return pageResponse(orders, page);
+    }
+
+    // One page of products matching ?q=, best match first, with the offset of the next page or null on the last
+    private Map<String, Object> searchProducts(HttpExchange exchange) {
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        String text = query.get("q");
+        if (text == null || text.isBlank()) {
+            throw new ApiException(400, "q is required");
+        }
+        int offset = query.containsKey("offset") ? Integer.parseInt(query.get("offset")) : 0; // Out of range is a 400
+        int limit = query.containsKey("limit") ? parseId(query.get("limit")) : DEFAULT_SEARCH_PAGE_SIZE;
+        SearchPage<InventoryItem> page = db(() -> inventoryService.searchInventoryItems(text, offset, limit));
+        List<Object> products = new ArrayList<>();
+        for (InventoryItem item : page.getItems()) {
+            products.add(toJson(item));
+        }
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("products", products);
+        response.put("total", page.getTotalMatches());
+        response.put("nextOffset", page.hasNext() ? page.getNextOffset() : null);
+        return response;
+    }
+
+    // Typeahead suggestions for ?q=; an empty q gives an empty list, since the box may simply have been cleared
+    private Map<String, Object> suggestProducts(HttpExchange exchange) {
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        String prefix = query.getOrDefault("q", "");
+        int limit = query.containsKey("limit") ? parseId(query.get("limit")) : DEFAULT_SUGGESTIONS;
+        List<ProductSuggestion> found = db(() -> inventoryService.suggestInventoryItems(prefix, limit));
+        List<Object> suggestions = new ArrayList<>();
+        for (ProductSuggestion suggestion : found) {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("id", suggestion.getItemId());
+            json.put("name", suggestion.getItemName());
+            suggestions.add(json);
+        }
+        return Map.of("suggestions", suggestions);
+    }
+
+    // Reads ?limit=, defaulting to DEFAULT_ORDER_PAGE_SIZE
+    private static int pageLimit(Map<String, String> query) {
+        int limit = query.containsKey("limit") ? parseId(query.get("limit")) : DEFAULT_ORDER_PAGE_SIZE;
+        if (limit > MAX_ORDER_PAGE_SIZE) {
+            throw new ApiException(400, "limit must be at most " + MAX_ORDER_PAGE_SIZE);
+        }
+        return limit;
+    }
+
+    // Reads ?afterDate=&afterId=, or returns null for the first page
+    private static TransactionCursor pageCursor(Map<String, String> query) {
+        if (!query.containsKey("afterDate") && !query.containsKey("afterId")) {
+            return null;
+        }
+        try {
+            return new TransactionCursor(LocalDateTime.parse(query.get("afterDate")), parseId(query.get("afterId")));
+        } catch (DateTimeParseException | NullPointerException e) {
+            throw new ApiException(400, "afterDate and afterId must be given together");
+        }
+    }
+
+    // Wraps a page of orders with the parameters for the following page, or a null "next" on the last page
+    private static Map<String, Object> pageResponse(List<Object> orders, ResultPage<?> page) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("orders", orders);
+        if (page.hasNext()) {
+            Map<String, Object> next = new LinkedHashMap<>();
+            next.put("afterDate", page.getNextCursor().getTransactionDate());
+            next.put("afterId", page.getNextCursor().getTransactionId());
+            response.put("next", next);
+        } else {
+            response.put("next", null);
+        }
+        return response;
+    }
+
+    private Map<String, Object> cartJson(ShoppingSession session) {
+        List<Object> lines = new ArrayList<>();
+        long totalCents = 0;
+        for (ShoppingCartEntry entry : session.getCart()) {
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("productId", entry.getInventoryItem().getItemId());
+            line.put("name", entry.getInventoryItem().getItemName());
+            line.put("price", Money.toDecimal(entry.getInventoryItem().getItemPriceCents()));
+            line.put("quantity", entry.getEntryQuantity());
+            line.put("subtotal", entry.calculateSubtotal());
+            lines.add(line);
+            totalCents = Money.add(totalCents, entry.calculateSubtotalCents());
+        }
+        Map<String, Object> cart = new LinkedHashMap<>();
+        cart.put("items", lines);
+        cart.put("total", Money.toDecimal(totalCents));
+        return cart;
+    }
+
+    private static Map<String, Object> toJson(CustomerAccount account) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", account.getAccountId());
+        json.put("username", account.getAccountName());
+        json.put("role", account.getAccountRole());
+        return json;
+    }
+
+    private static Map<String, Object> toJson(InventoryItem item) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", item.getItemId());
+        json.put("name", item.getItemName());
+        json.put("description", item.getItemDescription());
+        json.put("price", Money.toDecimal(item.getItemPriceCents()));
+        json.put("stock", item.getItemStock());
+        return json;
+    }
+
+    private static Map<String, Object> toJson(BulkOrderReport report) {
+        Map<String, Object> outcomes = new LinkedHashMap<>();
+        report.getOutcomes().forEach((id, outcome) -> outcomes.put(String.valueOf(id), outcome.name()));
+        Map<String, Object> counts = new LinkedHashMap<>();
+        report.getCounts().forEach((outcome, count) -> counts.put(outcome.name(), count));
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("processed", report.getProcessedCount());
+        json.put("succeeded", report.getSucceededCount());
+        json.put("counts", counts);
+        json.put("outcomes", outcomes);
+        json.put("elapsedMs", report.getElapsedMillis());
+        json.put("ordersPerSecond", report.getOrdersPerSecond());
+        return json;
+    }
+
+    // An order with its items and payment; "payment" is null if none was recorded
+    private static Map<String, Object> toJson(OrderDetails details) {
+        Map<String, Object> json = toJson(details.getTransaction());
+        List<Object> items = new ArrayList<>();
+        for (TransactionLineItem lineItem : details.getLineItems()) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("productId", lineItem.getInventoryItemId());
+            item.put("name", lineItem.getItemName());
+            item.put("quantity", lineItem.getItemQuantity());
+            item.put("price", Money.toDecimal(lineItem.getItemPriceAtPurchaseCents()));
+            items.add(item);
+        }
+        json.put("items", items);
+        PaymentRecord payment = details.getPayment();
+        if (payment == null) {
+            json.put("payment", null);
+        } else {
+            Map<String, Object> paymentJson = new LinkedHashMap<>();
+            paymentJson.put("method", payment.getPaymentType());
+            paymentJson.put("status", payment.getPaymentStatus());
+            paymentJson.put("amount", Money.toDecimal(payment.getPaymentAmountCents()));
+            paymentJson.put("date", payment.getPaymentTimestamp());
+            json.put("payment", paymentJson);
+        }
+        return json;
+    }
+
+    private static Map<String, Object> toJson(PurchaseTransaction transaction) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", transaction.getTransactionId());
+        json.put("customerId", transaction.getCustomerAccountId());
+        json.put("status", transaction.getTransactionStatus());
+        json.put("date", transaction.getTransactionDate());
+        json.put("total", Money.toDecimal(transaction.getTransactionTotalCents()));
+        return json;
+    }
+
+    // Runs a service call through the bulkhead, which bounds how many requests use the database at once
+    private <T> T db(Supplier<T> serviceCall) {
+        return serviceExecutor.call(serviceCall);
+    }
+
+    private InventoryItem requireProduct(int itemId) {
+        InventoryItem item = db(() -> inventoryService.fetchInventoryItemById(itemId));
+        if (item == null) {
+            throw new ApiException(404, "Product not found");
+        }
+        return item;
+    }
+
+    // Returns the session named by the Authorization header, or fails with 401
+    private ShoppingSession requireSession(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        ShoppingSession session = header != null && header.startsWith("Bearer ")
+            ? sessionStore.get(header.substring("Bearer ".length()).trim())
+            : null;
+        if (session == null) {
+            throw new ApiException(401, "Login required");
+        }
+        return session;
+    }
+
+    private void requireAdmin(HttpExchange exchange) {
+        if (!requireSession(exchange).getAccount().hasAdminPrivileges()) {
+            throw new ApiException(403, "Admin privileges required");
+        }
+    }
+
+    private static void requireMethod(String method, String expected) {
+        if (!expected.equals(method)) {
+            throw new ApiException(405, "Method not allowed");
+        }
+    }
+
+    // Parses the request body as a JSON object; bodies over MAX_BODY_BYTES are refused with 413 without being buffered
+    // A declared Content-Length is checked before reading, and a body without one is read only up to the limit
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> readBody(HttpExchange exchange) throws IOException {
+        String contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (contentLength != null && Long.parseLong(contentLength.trim()) > MAX_BODY_BYTES) {
+            throw bodyTooLarge(exchange);
+        }
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (bytes.length > MAX_BODY_BYTES) {
+                throw bodyTooLarge(exchange);
+            }
+            Object body = Json.parse(new String(bytes, StandardCharsets.UTF_8));
+            if (!(body instanceof Map)) {
+                throw new ApiException(400, "Request body must be a JSON object");
+            }
+            return (Map<String, Object>) body;
+        }
+    }
+
+    // Reads and discards the rest of an oversized body, up to MAX_DISCARD_BYTES, and marks the connection to be closed
+    // Closing a socket with unread input resets it, which can destroy the 413 before the client reads it; discarding
+    // uses a fixed buffer, so it costs bandwidth but no memory. Connection: close stops the client reusing the socket
+    private static ApiException bodyTooLarge(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Connection", "close");
+        InputStream in = exchange.getRequestBody();
+        byte[] buffer = new byte[8192];
+        int discarded = 0;
+        int read;
+        while (discarded < MAX_DISCARD_BYTES && (read = in.read(buffer)) != -1) {
+            discarded += read;
+        }
+        return new ApiException(413, "Request body too large: at most " + MAX_BODY_BYTES / 1024 + " KB");
+    }
+
+    private static String requireString(Map<String, Object> body, String name) {
+        if (!(body.get(name) instanceof String value) || value.isBlank()) {
+            throw new ApiException(400, name + " is required");
+        }
+        return value;
+    }
+
+    private static String optionalString(Map<String, Object> body, String name) {
+        return body.get(name) instanceof String value ? value : "";
+    }
+
+    private static int requireInt(Map<String, Object> body, String name) {
+        if (!(body.get(name) instanceof Long value) || value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new ApiException(400, name + " must be a whole number");
+        }
+        return value.intValue();
+    }
+
+    // Reads a money amount such as 19.99 and returns it in cents, never passing it through double
+    private static long requireCents(Map<String, Object> body, String name) {
+        BigDecimal amount = switch (body.get(name)) {
+            case Long value -> BigDecimal.valueOf(value);
+            case BigDecimal value -> value;
+            case null, default -> throw new ApiException(400, name + " must be a number");
+        };
+        try {
+            return Money.fromDecimalExact(amount);
+        } catch (ArithmeticException e) {
+            throw new ApiException(400, name + " must be an amount with at most two decimal places");
+        }
+    }
+
+    private static int parseId(String text) {
+        try {
+            int id = Integer.parseInt(text);
+            if (id < 1) {
+                throw new ApiException(400, "Invalid id: " + text);
+            }
+            return id;
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, "Invalid id: " + text);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                query.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return query;
+    }
+
+    private static void sendJson(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = Json.write(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.api;
+
+import com.sun.net.httpserver.HttpServer;
+import org.example.service.SessionStore;
+import org.example.util.ServiceExecutor;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+
+// Embedded HTTP server that exposes the FERS services as a JSON API under /api
+// Every request runs on its own virtual thread, so a request blocked on the database costs almost nothing
+// and one JVM can hold thousands of concurrent shoppers; see ApiHandler for the endpoints
+public class ApiServer {
+    // Backlog of pending TCP connections the operating system may queue (0 lets the JDK choose)
+    private static final int SOCKET_BACKLOG = 0;
+
+    private final HttpServer server;
+    private final SessionStore sessionStore;
+    private final ServiceExecutor serviceExecutor;
+
+    // Binds the server to the given port (0 picks a free port); call start() to begin serving
+    // Sessions and database concurrency are configured from the fers.sessions.* and fers.bulkhead.* properties
+    public ApiServer(int port) throws IOException {
+        this(port, SessionStore.fromSystemProperties(), ServiceExecutor.fromSystemProperties());
+    }
+
+    public ApiServer(int port, SessionStore sessionStore, ServiceExecutor serviceExecutor) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(port), SOCKET_BACKLOG);
+        this.sessionStore = sessionStore;
+        this.serviceExecutor = serviceExecutor;
+        server.createContext("/api/", new ApiHandler(sessionStore, serviceExecutor));
+        server.setExecutor(serviceExecutor.getExecutor()); // One virtual thread per request
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    // Stops accepting requests, waits up to delaySeconds for running ones to finish, then stops the executor
+    // and closes the session store, which saves a final snapshot when persistence is enabled
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        serviceExecutor.close();
+        sessionStore.close();
+    }
+
+    // Returns the bulkhead in front of the services, e.g. to monitor active, waiting and rejected calls
+    public ServiceExecutor getServiceExecutor() {
+        return serviceExecutor;
+    }
+
+    // Returns the port the server is listening on, useful when it was created with port 0
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+}
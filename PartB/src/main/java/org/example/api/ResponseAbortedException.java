@@ -0,0 +1,12 @@
+package org.example.api;
+
+import java.io.IOException;
+
+// Thrown by API handlers when a request fails after its response headers and part of its body have been sent
+// No error body can follow at that point, so ApiHandler leaves the exchange unfinished and the server drops the
+// connection; the cause is the failure that interrupted the response
+class ResponseAbortedException extends IOException {
+    ResponseAbortedException(Throwable cause) {
+        super(cause);
+    }
+}
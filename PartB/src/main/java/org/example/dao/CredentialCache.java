@@ -0,0 +1,165 @@
+package org.example.dao;
+
+import org.example.util.CacheStats;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+// This class remembers, for a short time, which username and password pairs were recently verified
+// CustomerAccountDAO checks it before running the slow password hash, so repeated logins by the same user
+// cost one keyed SHA-256 instead of a full PBKDF2 derivation. Entries hold the stored hash they were verified
+// against, so a changed password never matches an old entry, and never the password itself: only an HMAC of
+// it under a random key that lives in this process alone
+public class CredentialCache {
+    // System property names used to configure the credential cache
+    public static final String MAX_SIZE_PROPERTY = "fers.cache.credentials.maxSize";
+    public static final String TTL_PROPERTY = "fers.cache.credentials.ttlMs";
+
+    // Default settings used when the corresponding system property is not set
+    private static final int DEFAULT_MAX_SIZE = 10_000;
+    private static final long DEFAULT_TTL_MS = 60_000;
+
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+
+    // Upper bound on cached users; a size of zero disables caching
+    private final int maxSize;
+    // How long a verified password is trusted before the full hash is checked again
+    private final long ttlMillis;
+    private final SecretKeySpec macKey;
+    // Verified users in least-recently-used order, so the eldest entry is the one to evict when full
+    private final LinkedHashMap<String, Entry> entries;
+    // Guards entries; a lock rather than synchronized so waiting virtual threads are not pinned
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    public CredentialCache(int maxSize, long ttlMillis) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.macKey = new SecretKeySpec(key, MAC_ALGORITHM);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > CredentialCache.this.maxSize) {
+                    evictionCount.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    // Creates a cache configured from the fers.cache.credentials.* system properties
+    public static CredentialCache fromSystemProperties() {
+        return new CredentialCache(
+            Integer.getInteger(MAX_SIZE_PROPERTY, DEFAULT_MAX_SIZE),
+            Long.getLong(TTL_PROPERTY, DEFAULT_TTL_MS));
+    }
+
+    // True if this password was verified against this stored hash for the user within the time-to-live
+    public boolean isVerified(String accountName, String storedHash, String password) {
+        if (maxSize <= 0) {
+            return false; // Caching disabled
+        }
+        byte[] proof = proofOf(password);
+        lock.lock();
+        try {
+            Entry entry = entries.get(accountName);
+            if (entry != null && System.currentTimeMillis() >= entry.expiresAt) {
+                entries.remove(accountName);
+                evictionCount.incrementAndGet();
+                entry = null;
+            }
+            if (entry != null && entry.storedHash.equals(storedHash) && MessageDigest.isEqual(entry.proof, proof)) {
+                hitCount.incrementAndGet();
+                return true;
+            }
+            missCount.incrementAndGet();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Records that the password matched the stored hash for the user
+    public void remember(String accountName, String storedHash, String password) {
+        if (maxSize <= 0) {
+            return;
+        }
+        Entry entry = new Entry(storedHash, proofOf(password), System.currentTimeMillis() + ttlMillis);
+        lock.lock();
+        try {
+            entries.put(accountName, entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Forgets a user, e.g. after their password was changed
+    public void invalidate(String accountName) {
+        lock.lock();
+        try {
+            entries.remove(accountName);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Empties the cache, for example after the users table has been recreated
+    public void clear() {
+        lock.lock();
+        try {
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Returns a snapshot of the cache's size and hit, miss and eviction counters
+    public CacheStats getStats() {
+        int size;
+        lock.lock();
+        try {
+            size = entries.size();
+        } finally {
+            lock.unlock();
+        }
+        return new CacheStats(size, maxSize, hitCount.get(), missCount.get(), evictionCount.get());
+    }
+
+    // Keyed digest of the password; Mac instances are not thread-safe, so each call creates its own
+    private byte[] proofOf(String password) {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(macKey);
+            return mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e); // Every JDK provides it
+        }
+    }
+
+    // A verified password proof, the stored hash it matched and when the entry stops being trusted
+    private static final class Entry {
+        private final String storedHash;
+        private final byte[] proof;
+        private final long expiresAt;
+
+        private Entry(String storedHash, byte[] proof, long expiresAt) {
+            this.storedHash = storedHash;
+            this.proof = proof;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
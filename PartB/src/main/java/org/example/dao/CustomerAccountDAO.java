@@ -1,40 +1,109 @@
 package org.example.dao;
 
 import org.example.model.CustomerAccount;
+import org.example.util.CacheStats;
 import org.example.util.DataConnectionHelper;
+import org.example.util.PasswordHasher;
 
 import java.sql.*;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 // This Data Access Object (DAO) class handles all database operations related to users
 // It provides methods for user registration, authentication, and user data retrieval
 public class CustomerAccountDAO {
+    private static final String INSERT_USER = "INSERT INTO users (username, password, role) VALUES (?, ?, ?)";
+    private static final String SELECT_BY_USERNAME = "SELECT * FROM users WHERE username = ?";
+    private static final String UPDATE_PASSWORD = "UPDATE users SET password = ? WHERE id = ? AND password = ?";
+    private static final String SELECT_BY_ID = "SELECT * FROM users WHERE id = ?";
+    private static final String COUNT_BY_USERNAME = "SELECT COUNT(*) FROM users WHERE username = ?";
+    private static final String SELECT_USERNAMES = "SELECT username FROM users";
+
+    // Returned by registerAccount when the username belongs to another account
+    public static final int USERNAME_TAKEN = -2;
+    // SQLState for a unique constraint violation; on users the only unique column besides the ID is username
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    // Credential caches shared by every DAO instance, one per database URL so test and live data never mix
+    private static final Map<String, CredentialCache> CACHES = new ConcurrentHashMap<>();
+    // Username Bloom filters, likewise one per database URL
+    private static final Map<String, UsernameFilter> FILTERS = new ConcurrentHashMap<>();
+
     // Registers a new user in the database by inserting their username, password, and role
-    // Returns true if the registration was successful, false if there was an error
+    // Returns true if the registration was successful, false if the username is taken or there was an error
     public boolean insertRecord(CustomerAccount account) {
-        String sql = "INSERT INTO users (username, password, role) VALUES (?, ?, ?)";
+        return registerAccount(account) > 0;
+    }
+
+    // Registers a new user with a single INSERT and returns the generated user ID
+    // There is no separate availability check: the UNIQUE constraint on username decides, so two concurrent
+    // sign-ups for the same name cannot both succeed. Only a salted hash of the password is stored; it is
+    // computed before a connection is taken from the pool
+    // Returns the user ID if successful, USERNAME_TAKEN if the username exists, -1 if there was an error
+    public int registerAccount(CustomerAccount account) {
+        String passwordHash = PasswordHasher.shared().hash(account.getAccountPassword());
         try (Connection conn = DataConnectionHelper.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(INSERT_USER, Statement.RETURN_GENERATED_KEYS)) {
             pstmt.setString(1, account.getAccountName()); // Set the username parameter in the SQL query
-            pstmt.setString(2, account.getAccountPassword()); // Set the password parameter in the SQL query
+            pstmt.setString(2, passwordHash); // Set the password hash parameter in the SQL query
             pstmt.setString(3, account.getAccountRole()); // Set the role parameter in the SQL query
-            return pstmt.executeUpdate() > 0; // Return true if at least one row was inserted
+            pstmt.executeUpdate(); // Execute the insert statement
+            ResultSet rs = pstmt.getGeneratedKeys(); // Retrieve the auto-generated user ID
+            if (rs.next()) {
+                currentFilter().add(account.getAccountName());
+                return rs.getInt(1);
+            }
         } catch (SQLException e) {
+            if (UNIQUE_VIOLATION.equals(e.getSQLState())) {
+                currentFilter().add(account.getAccountName()); // In case the name was inserted behind the filter's back
+                return USERNAME_TAKEN; // Expected when the name is in use, so not logged as an error
+            }
             System.err.println("Error registering user: " + e.getMessage()); // Log any database errors
-            return false;
         }
+        return -1;
     }
 
-    // Authenticates a user by checking if the provided username and password match a record in the database
+    // Authenticates a user by checking the provided password against the stored hash for the username
+    // The hash is checked after the connection has gone back to the pool, and skipped altogether if the same
+    // password was verified recently; a password still stored in plaintext is re-hashed once it has matched
     // Returns the CustomerAccount object if authentication succeeds, null if credentials are invalid
     public CustomerAccount authenticateUser(String accountName, String accountPassword) {
-        String sql = "SELECT * FROM users WHERE username = ? AND password = ?";
+        CustomerAccount account = locateByUsername(accountName);
+        if (accountPassword == null) {
+            return null;
+        }
+        if (account == null) {
+            PasswordHasher.shared().verifyAgainstDummy(accountPassword); // As slow as a wrong password
+            return null;
+        }
+        String storedHash = account.getAccountPassword();
+        CredentialCache cache = currentCache();
+        if (cache.isVerified(accountName, storedHash, accountPassword)) {
+            return account;
+        }
+        PasswordHasher hasher = PasswordHasher.shared();
+        if (!hasher.verify(accountPassword, storedHash)) {
+            return null;
+        }
+        if (hasher.needsRehash(storedHash)) {
+            String upgraded = hasher.hash(accountPassword);
+            if (updatePasswordHash(account.getAccountId(), storedHash, upgraded)) {
+                storedHash = upgraded;
+                account.setAccountPassword(upgraded);
+            }
+        }
+        cache.remember(accountName, storedHash, accountPassword);
+        return account;
+    }
+
+    // Loads a user by username, or returns null if there is no such user
+    private CustomerAccount locateByUsername(String accountName) {
         try (Connection conn = DataConnectionHelper.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_BY_USERNAME)) {
             pstmt.setString(1, accountName); // Set the username parameter for the WHERE clause
-            pstmt.setString(2, accountPassword); // Set the password parameter for the WHERE clause
             ResultSet rs = pstmt.executeQuery(); // Execute the query and get the result set
             if (rs.next()) {
-                // If a matching user is found, create and return a CustomerAccount object with the retrieved data
                 return new CustomerAccount(
                     rs.getInt("id"),
                     rs.getString("username"),
@@ -45,15 +114,29 @@ public class CustomerAccountDAO {
         } catch (SQLException e) {
             System.err.println("Error logging in: " + e.getMessage()); // Log any database errors
         }
-        return null; // Return null if no matching user is found
+        return null;
+    }
+
+    // Replaces a user's stored password with a new hash, but only if it still holds the value that was verified
+    // Returns true if the row was updated, false if the password changed meanwhile or there was an error
+    private boolean updatePasswordHash(int accountId, String expectedHash, String newHash) {
+        try (Connection conn = DataConnectionHelper.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(UPDATE_PASSWORD)) {
+            pstmt.setString(1, newHash);
+            pstmt.setInt(2, accountId);
+            pstmt.setString(3, expectedHash);
+            return pstmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            System.err.println("Error upgrading password hash: " + e.getMessage()); // The old value still works
+            return false;
+        }
     }
 
     // Retrieves a user from the database by their unique ID
     // Returns the CustomerAccount object if found, null if the user does not exist
     public CustomerAccount locateById(int accountId) {
-        String sql = "SELECT * FROM users WHERE id = ?";
         try (Connection conn = DataConnectionHelper.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_BY_ID)) {
             pstmt.setInt(1, accountId); // Set the user ID parameter for the WHERE clause
             ResultSet rs = pstmt.executeQuery(); // Execute the query and get the result set
             if (rs.next()) {
@@ -72,19 +155,92 @@ public class CustomerAccountDAO {
     }
 
     // Checks if a username already exists in the database
+    // Names the username filter has never seen are answered as available without a query
     // Returns true if the username is already taken, false if it is available
     public boolean checkUsernameAvailability(String accountName) {
-        String sql = "SELECT COUNT(*) FROM users WHERE username = ?";
+        UsernameFilter filter = currentFilter();
+        if (!filter.mightExist(accountName)) {
+            return false;
+        }
+        return countByUsername(accountName, filter);
+    }
+
+    // The COUNT(*) behind checkUsernameAvailability, always run against the database
+    // Returns true if the username is already taken, false if it is available or there was an error
+    public boolean checkUsernameAvailabilityInDatabase(String accountName) {
+        return countByUsername(accountName, null);
+    }
+
+    private boolean countByUsername(String accountName, UsernameFilter filter) {
         try (Connection conn = DataConnectionHelper.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(COUNT_BY_USERNAME)) {
             pstmt.setString(1, accountName); // Set the username parameter for the WHERE clause
             ResultSet rs = pstmt.executeQuery(); // Execute the query and get the result set
             if (rs.next()) {
-                return rs.getInt(1) > 0; // Return true if count is greater than 0, meaning username exists
+                boolean taken = rs.getInt(1) > 0; // True if count is greater than 0, meaning username exists
+                if (!taken && filter != null) {
+                    filter.recordFalsePositive();
+                }
+                return taken;
             }
         } catch (SQLException e) {
             System.err.println("Error checking username: " + e.getMessage()); // Log any database errors
         }
         return false; // Return false if username does not exist or if there was an error
     }
+
+    // Returns the hit, miss and eviction counters of the credential cache for the database in use
+    // Size and time-to-live are configured through the fers.cache.credentials.* system properties
+    public static CacheStats getCredentialCacheStats() {
+        return currentCache().getStats();
+    }
+
+    // Empties the credential cache for the database in use, e.g. after its tables were recreated
+    public static void clearCredentialCache() {
+        currentCache().clear();
+    }
+
+    // Looks up (or creates) the credential cache for the database currently selected by DataConnectionHelper
+    private static CredentialCache currentCache() {
+        return CACHES.computeIfAbsent(DataConnectionHelper.getDatabaseUrl(), url -> CredentialCache.fromSystemProperties());
+    }
+
+    // Loads every existing username into the username filter for the database in use, if not loaded yet
+    // Called at start-up; otherwise the first availability check loads it
+    public static void loadUsernameFilter() {
+        currentFilter();
+    }
+
+    // Returns the username filter for the database in use, with its check and false-positive counters
+    // Size and false-positive rate are configured through the fers.usernames.filter.* system properties
+    public static UsernameFilter getUsernameFilter() {
+        return currentFilter();
+    }
+
+    // Empties the username filter for the database in use so it is reloaded, e.g. after its tables were recreated
+    public static void resetUsernameFilter() {
+        FILTERS.computeIfAbsent(DataConnectionHelper.getDatabaseUrl(), url -> UsernameFilter.fromSystemProperties()).reset();
+    }
+
+    // Looks up (or creates) the username filter for the database in use and makes sure it has been loaded
+    private static UsernameFilter currentFilter() {
+        UsernameFilter filter = FILTERS.computeIfAbsent(DataConnectionHelper.getDatabaseUrl(), url -> UsernameFilter.fromSystemProperties());
+        filter.loadOnce(CustomerAccountDAO::readUsernames);
+        return filter;
+    }
+
+    // Passes every username in the users table to the consumer; returns false if they could not all be read
+    private static boolean readUsernames(Consumer<String> consumer) {
+        try (Connection conn = DataConnectionHelper.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_USERNAMES)) {
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                consumer.accept(rs.getString(1));
+            }
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error loading usernames: " + e.getMessage()); // Checks fall back to the database
+            return false;
+        }
+    }
 }
@@ -0,0 +1,256 @@
+package org.example.dao;
+
+import org.example.model.InventoryItem;
+import org.example.util.CacheStats;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+// This class is a bounded, time-limited read-through cache of products keyed by product ID
+// InventoryItemDAO consults it in locateById and invalidates entries whenever it changes a product
+public class InventoryItemCache {
+    // System property names used to configure the product cache
+    public static final String MAX_SIZE_PROPERTY = "fers.cache.products.maxSize";
+    public static final String TTL_PROPERTY = "fers.cache.products.ttlMs";
+
+    // Default settings used when the corresponding system property is not set
+    private static final int DEFAULT_MAX_SIZE = 10_000;
+    private static final long DEFAULT_TTL_MS = 30_000;
+
+    // Upper bound on cached products; a size of zero disables caching
+    private final int maxSize;
+    // How long a cached product may be served before it is reloaded from the database
+    private final long ttlMillis;
+    // Cached entries in least-recently-used order, so the eldest entry is the one to evict when full
+    private final LinkedHashMap<Integer, Entry> entries;
+    // Guards entries; a lock rather than synchronized so waiting virtual threads are not pinned
+    private final ReentrantLock lock = new ReentrantLock();
+    // Bumped on every invalidation so a load that raced with a write is not cached afterwards
+    private long generation;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    public InventoryItemCache(int maxSize, long ttlMillis) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+                if (size() > InventoryItemCache.this.maxSize) {
+                    evictionCount.incrementAndGet(); // Full, so drop the least recently used product
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    // Creates a cache configured from the fers.cache.products.* system properties
+    public static InventoryItemCache fromSystemProperties() {
+        return new InventoryItemCache(
+            Integer.getInteger(MAX_SIZE_PROPERTY, DEFAULT_MAX_SIZE),
+            Long.getLong(TTL_PROPERTY, DEFAULT_TTL_MS));
+    }
+
+    // Returns the cached product, or loads it with the loader on a miss and caches the result
+    // Products that do not exist (loader returns null) are not cached; callers always receive their own copy
+    public InventoryItem get(int itemId, IntFunction<InventoryItem> loader) {
+        if (maxSize <= 0) {
+            return loader.apply(itemId); // Caching disabled
+        }
+        long loadGeneration;
+        lock.lock();
+        try {
+            Entry entry = entries.get(itemId);
+            if (entry != null) {
+                if (System.currentTimeMillis() < entry.expiresAt) {
+                    hitCount.incrementAndGet();
+                    return copyOf(entry.item);
+                }
+                entries.remove(itemId); // Too old to serve, reload it below
+                evictionCount.incrementAndGet();
+            }
+            missCount.incrementAndGet();
+            loadGeneration = generation;
+        } finally {
+            lock.unlock();
+        }
+
+        // Load outside the lock so a slow database call does not block other lookups
+        InventoryItem loaded = loader.apply(itemId);
+        if (loaded == null) {
+            return null;
+        }
+        lock.lock();
+        try {
+            if (generation == loadGeneration) {
+                entries.put(itemId, new Entry(copyOf(loaded), System.currentTimeMillis() + ttlMillis));
+            }
+        } finally {
+            lock.unlock();
+        }
+        return loaded;
+    }
+
+    // Returns several products at once, keyed by ID in the order given; IDs with no product are absent
+    // Cached products are served from memory and every miss is loaded by a single call to the loader,
+    // which returns the products it found keyed by ID; those are cached like the results of get
+    public Map<Integer, InventoryItem> getAll(Collection<Integer> itemIds,
+                                              Function<List<Integer>, Map<Integer, InventoryItem>> loader) {
+        Map<Integer, InventoryItem> found = new LinkedHashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        long loadGeneration;
+        lock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            for (Integer itemId : itemIds) {
+                Entry entry = maxSize > 0 ? entries.get(itemId) : null;
+                if (entry != null && now < entry.expiresAt) {
+                    hitCount.incrementAndGet();
+                    found.put(itemId, copyOf(entry.item));
+                    continue;
+                }
+                if (entry != null) {
+                    entries.remove(itemId); // Too old to serve, reload it below
+                    evictionCount.incrementAndGet();
+                }
+                if (!found.containsKey(itemId)) {
+                    missCount.incrementAndGet();
+                    missing.add(itemId);
+                    found.put(itemId, null); // Keeps the caller's order; removed below if the product is gone
+                }
+            }
+            loadGeneration = generation;
+        } finally {
+            lock.unlock();
+        }
+        if (missing.isEmpty()) {
+            return found;
+        }
+
+        // Load outside the lock so a slow database call does not block other lookups
+        Map<Integer, InventoryItem> loaded = loader.apply(missing);
+        for (Integer itemId : missing) {
+            InventoryItem item = loaded.get(itemId);
+            if (item == null) {
+                found.remove(itemId);
+            } else {
+                found.put(itemId, item);
+            }
+        }
+        if (maxSize > 0) {
+            lock.lock();
+            try {
+                if (generation == loadGeneration) {
+                    long expiresAt = System.currentTimeMillis() + ttlMillis;
+                    for (InventoryItem item : loaded.values()) {
+                        entries.put(item.getItemId(), new Entry(copyOf(item), expiresAt));
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return found;
+    }
+
+    // Removes a product from the cache after it has been changed or deleted
+    public void invalidate(int itemId) {
+        lock.lock();
+        try {
+            generation++;
+            entries.remove(itemId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Removes several products from the cache at once
+    public void invalidateAll(Iterable<Integer> itemIds) {
+        lock.lock();
+        try {
+            generation++;
+            for (Integer itemId : itemIds) {
+                entries.remove(itemId);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Empties the cache, for example after the products table has been recreated
+    public void clear() {
+        lock.lock();
+        try {
+            generation++;
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Drops every entry whose time-to-live has passed and returns how many were removed
+    public int evictExpired() {
+        long now = System.currentTimeMillis();
+        int removed = 0;
+        lock.lock();
+        try {
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                if (now >= iterator.next().expiresAt) {
+                    iterator.remove();
+                    removed++;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        evictionCount.addAndGet(removed);
+        return removed;
+    }
+
+    // Returns a snapshot of the cache's size and hit, miss and eviction counters
+    public CacheStats getStats() {
+        int size;
+        lock.lock();
+        try {
+            size = entries.size();
+        } finally {
+            lock.unlock();
+        }
+        return new CacheStats(size, maxSize, hitCount.get(), missCount.get(), evictionCount.get());
+    }
+
+    // InventoryItem is mutable, so the cache keeps and hands out private copies
+    // The price is copied in cents, never through double
+    private static InventoryItem copyOf(InventoryItem item) {
+        InventoryItem copy = new InventoryItem();
+        copy.setItemId(item.getItemId());
+        copy.setItemName(item.getItemName());
+        copy.setItemDescription(item.getItemDescription());
+        copy.setItemPriceCents(item.getItemPriceCents());
+        copy.setItemStock(item.getItemStock());
+        return copy;
+    }
+
+    // A cached product together with the time after which it must be reloaded
+    private static final class Entry {
+        private final InventoryItem item;
+        private final long expiresAt;
+
+        private Entry(InventoryItem item, long expiresAt) {
+            this.item = item;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
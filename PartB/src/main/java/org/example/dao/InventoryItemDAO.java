@@ -1,29 +1,75 @@
 package org.example.dao;
 
 import org.example.model.InventoryItem;
+import org.example.model.ProductSuggestion;
+import org.example.util.CacheStats;
 import org.example.util.DataConnectionHelper;
+import org.example.util.Money;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 // This Data Access Object (DAO) class handles all database operations related to products
 // It provides methods for adding, updating, deleting, and querying products in the inventory
 public class InventoryItemDAO {
+    private static final String INSERT_PRODUCT = "INSERT INTO products (name, description, price, stock) VALUES (?, ?, ?, ?)";
+    private static final String UPDATE_PRODUCT = "UPDATE products SET name = ?, description = ?, price = ?, stock = ? WHERE id = ?";
+    private static final String DELETE_PRODUCT = "DELETE FROM products WHERE id = ?";
+    private static final String SELECT_ALL = "SELECT * FROM products ORDER BY id";
+    private static final String SELECT_PAGE_AFTER = "SELECT * FROM products WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String SELECT_BY_ID = "SELECT * FROM products WHERE id = ?";
+    // The IN list is filled by DataConnectionHelper.inListPlaceholders, padded to one of a few fixed lengths
+    private static final String SELECT_BY_IDS = "SELECT * FROM products WHERE id IN (%s)";
+    private static final String DEDUCT_STOCK = "UPDATE products SET stock = stock - ? WHERE id = ?";
+    private static final String RESERVE_STOCK = "UPDATE products SET stock = stock - ? WHERE id = ? AND stock >= ?";
+    // Session settings that streamAllRecords switches on for its connection and off again before returning it
+    private static final String ENABLE_LAZY_EXECUTION = "SET LAZY_QUERY_EXECUTION TRUE";
+    private static final String DISABLE_LAZY_EXECUTION = "SET LAZY_QUERY_EXECUTION FALSE";
+
+    // Most IDs bound into one IN list; larger lookups are split into several queries on the same connection
+    static final int MAX_IDS_PER_QUERY = 500;
+    // Number of rows the driver is asked to fetch at a time when streaming the catalog
+    private static final int STREAM_FETCH_SIZE = 500;
+    // Product caches shared by every DAO instance, one per database URL so test and live data never mix
+    private static final Map<String, InventoryItemCache> CACHES = new ConcurrentHashMap<>();
+    // Full-text search indexes, likewise one per database URL
+    private static final Map<String, ProductSearchIndex> SEARCH_INDEXES = new ConcurrentHashMap<>();
+    // Typeahead indexes over product names, likewise one per database URL
+    private static final Map<String, ProductNameIndex> NAME_INDEXES = new ConcurrentHashMap<>();
+
     // Adds a new product to the database and returns the generated product ID
     // Returns the product ID if successful, -1 if there was an error during insertion
     public int insertRecord(InventoryItem item) {
-        String sql = "INSERT INTO products (name, description, price, stock) VALUES (?, ?, ?, ?)";
         try (Connection conn = DataConnectionHelper.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+             PreparedStatement pstmt = conn.prepareStatement(INSERT_PRODUCT, Statement.RETURN_GENERATED_KEYS)) {
             pstmt.setString(1, item.getItemName()); // Set the product name parameter in the SQL query
             pstmt.setString(2, item.getItemDescription()); // Set the product description parameter
-            pstmt.setDouble(3, item.getItemPrice()); // Set the product price parameter
+            pstmt.setBigDecimal(3, Money.toDecimal(item.getItemPriceCents())); // Set the product price parameter
             pstmt.setInt(4, item.getItemStock()); // Set the product stock quantity parameter
             pstmt.executeUpdate(); // Execute the insert statement
             ResultSet rs = pstmt.getGeneratedKeys(); // Retrieve the auto-generated product ID
             if (rs.next()) {
-                return rs.getInt(1); // Return the generated product ID
+                int itemId = rs.getInt(1);
+                InventoryItem added = new InventoryItem();
+                added.setItemId(itemId);
+                added.setItemName(item.getItemName());
+                added.setItemDescription(item.getItemDescription());
+                added.setItemPriceCents(item.getItemPriceCents()); // Copy the exact cents, never through double
+                added.setItemStock(item.getItemStock());
+                searchIndex().index(added);
+                nameIndex().index(added);
+                return itemId; // Return the generated product ID
             }
         } catch (SQLException e) {
             System.err.println("Error adding product: " + e.getMessage()); // Log any database errors
@@ -34,32 +80,44 @@ public class InventoryItemDAO {
     // Updates an existing product in the database with new information
     // Returns true if the update was successful, false if the product was not found or an error occurred
     public boolean modifyRecord(InventoryItem item) {
-        String sql = "UPDATE products SET name = ?, description = ?, price = ?, stock = ? WHERE id = ?";
         try (Connection conn = DataConnectionHelper.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(UPDATE_PRODUCT)) {
             pstmt.setString(1, item.getItemName()); // Set the new product name
             pstmt.setString(2, item.getItemDescription()); // Set the new product description
-            pstmt.setDouble(3, item.getItemPrice()); // Set the new product price
+            pstmt.setBigDecimal(3, Money.toDecimal(item.getItemPriceCents())); // Set the new product price
             pstmt.setInt(4, item.getItemStock()); // Set the new stock quantity
             pstmt.setInt(5, item.getItemId()); // Set the product ID for the WHERE clause
-            return pstmt.executeUpdate() > 0; // Return true if at least one row was updated
+            if (pstmt.executeUpdate() == 0) {
+                return false; // No such product
+            }
+            searchIndex().index(item); // Name or description may have changed
+            nameIndex().index(item);
+            return true;
         } catch (SQLException e) {
             System.err.println("Error updating product: " + e.getMessage()); // Log any database errors
             return false;
+        } finally {
+            currentCache().invalidate(item.getItemId()); // Never serve the old details from the cache
         }
     }
 
     // Deletes a product from the database by its ID
     // Returns true if the product was successfully deleted, false if it was not found or an error occurred
     public boolean removeRecord(int itemId) {
-        String sql = "DELETE FROM products WHERE id = ?";
         try (Connection conn = DataConnectionHelper.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(DELETE_PRODUCT)) {
             pstmt.setInt(1, itemId); // Set the product ID parameter for the WHERE clause
-            return pstmt.executeUpdate() > 0; // Return true if at least one row was deleted
+            if (pstmt.executeUpdate() == 0) {
+                return false; // No such product
+            }
+            searchIndex().remove(itemId);
+            nameIndex().remove(itemId);
+            return true;
         } catch (SQLException e) {
             System.err.println("Error deleting product: " + e.getMessage()); // Log any database errors
             return false;
+        } finally {
+            currentCache().invalidate(itemId); // A deleted product must not be found through the cache
         }
     }
 
@@ -67,19 +125,12 @@ public class InventoryItemDAO {
     // Products are ordered by ID in ascending order
     public List<InventoryItem> retrieveAllRecords() {
         List<InventoryItem> items = new ArrayList<>(); // Create a list to store the retrieved products
-        String sql = "SELECT * FROM products ORDER BY id";
         try (Connection conn = DataConnectionHelper.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_ALL);
+             ResultSet rs = pstmt.executeQuery()) {
             // Iterate through all rows in the result set and create InventoryItem objects
             while (rs.next()) {
-                items.add(new InventoryItem(
-                    rs.getInt("id"),
-                    rs.getString("name"),
-                    rs.getString("description"),
-                    rs.getDouble("price"),
-                    rs.getInt("stock")
-                ));
+                items.add(mapItem(rs));
             }
         } catch (SQLException e) {
             System.err.println("Error finding products: " + e.getMessage()); // Log any database errors
@@ -87,23 +138,113 @@ public class InventoryItemDAO {
         return items; // Return the list of products, which may be empty if no products exist
     }
 
-    // Retrieves a single product from the database by its unique ID
+    // Retrieves up to pageSize products with an ID above afterItemId, ordered by ID; pass 0 for the first page
+    // Keyset pagination on the primary key, so each page is a short range scan however far into the catalog it is
+    // Returns null if there was an error, so a caller paging through the catalog can tell a failure from its end
+    public List<InventoryItem> retrieveRecordsAfter(int afterItemId, int pageSize) {
+        List<InventoryItem> items = new ArrayList<>();
+        try (Connection conn = DataConnectionHelper.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_PAGE_AFTER)) {
+            pstmt.setInt(1, afterItemId); // Start right after the last product of the previous page
+            pstmt.setInt(2, pageSize);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                items.add(mapItem(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error finding products: " + e.getMessage()); // Log any database errors
+            return null;
+        }
+        return items;
+    }
+
+    // Streams all products ordered by ID, reading rows from the database as the stream is consumed
+    // Only a fetch-size window of rows is in memory at once, so very large catalogs can be rendered or exported
+    // The stream holds a pooled connection open: always close it, ideally with try-with-resources
+    public Stream<InventoryItem> streamAllRecords() {
+        Connection conn = null;
+        Statement stmt = null;
+        ResultSet rs = null;
+        try {
+            conn = DataConnectionHelper.getConnection();
+            stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.execute(ENABLE_LAZY_EXECUTION); // Let H2 produce rows on demand instead of building the whole result
+            stmt.setFetchSize(STREAM_FETCH_SIZE);
+            rs = stmt.executeQuery(SELECT_ALL);
+        } catch (SQLException e) {
+            System.err.println("Error finding products: " + e.getMessage()); // Log any database errors
+            closeStreamResources(rs, stmt, conn);
+            return Stream.empty(); // Behave like an empty catalog, as retrieveAllRecords does on error
+        }
+
+        ResultSet results = rs;
+        Statement statement = stmt;
+        Connection connection = conn;
+        Spliterator<InventoryItem> rows = new Spliterators.AbstractSpliterator<>(
+                Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super InventoryItem> action) {
+                try {
+                    if (!results.next()) {
+                        return false; // No more products
+                    }
+                    action.accept(mapItem(results));
+                    return true;
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Error reading products: " + e.getMessage(), e);
+                }
+            }
+        };
+        return StreamSupport.stream(rows, false)
+            .onClose(() -> closeStreamResources(results, statement, connection)); // Release the connection with the stream
+    }
+
+    // Retrieves a single product by its unique ID, answering repeated lookups from the product cache
     // Returns the InventoryItem object if found, null if the product does not exist
     public InventoryItem locateById(int itemId) {
-        String sql = "SELECT * FROM products WHERE id = ?";
+        return currentCache().get(itemId, this::loadById);
+    }
+
+    // Retrieves several products at once, e.g. a page of search hits, without one query per product
+    // Cached products come from the product cache; all the others are read with one IN query
+    // Returns the products keyed by ID in the order the IDs were given; IDs with no product are absent
+    public Map<Integer, InventoryItem> locateByIds(Collection<Integer> itemIds) {
+        return currentCache().getAll(itemIds, this::loadByIds);
+    }
+
+    // Reads several products from the database, bypassing the cache; used to fill it on misses
+    // Returns an empty map if the query failed
+    private Map<Integer, InventoryItem> loadByIds(List<Integer> itemIds) {
+        Map<Integer, InventoryItem> items = new HashMap<>();
+        try (Connection conn = DataConnectionHelper.getConnection()) {
+            for (int from = 0; from < itemIds.size(); from += MAX_IDS_PER_QUERY) {
+                List<Integer> ids = itemIds.subList(from, Math.min(from + MAX_IDS_PER_QUERY, itemIds.size()));
+                String sql = SELECT_BY_IDS.formatted(DataConnectionHelper.inListPlaceholders(ids.size()));
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    DataConnectionHelper.bindInList(pstmt, 1, ids);
+                    ResultSet rs = pstmt.executeQuery();
+                    while (rs.next()) {
+                        InventoryItem item = mapItem(rs);
+                        items.put(item.getItemId(), item);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error finding products: " + e.getMessage()); // Log any database errors
+            return new HashMap<>();
+        }
+        return items;
+    }
+
+    // Reads a single product from the database, bypassing the cache; used to fill it on a miss
+    private InventoryItem loadById(int itemId) {
         try (Connection conn = DataConnectionHelper.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_BY_ID)) {
             pstmt.setInt(1, itemId); // Set the product ID parameter for the WHERE clause
             ResultSet rs = pstmt.executeQuery(); // Execute the query and get the result set
             if (rs.next()) {
                 // If a product is found, create and return an InventoryItem object with the retrieved data
-                return new InventoryItem(
-                    rs.getInt("id"),
-                    rs.getString("name"),
-                    rs.getString("description"),
-                    rs.getDouble("price"),
-                    rs.getInt("stock")
-                );
+                return mapItem(rs);
             }
         } catch (SQLException e) {
             System.err.println("Error finding product: " + e.getMessage()); // Log any database errors
@@ -115,15 +256,177 @@ public class InventoryItemDAO {
     // This is used when an order is accepted to reduce inventory levels
     // Returns true if the stock update was successful, false if an error occurred
     public boolean adjustStockLevel(int itemId, int quantity) {
-        String sql = "UPDATE products SET stock = stock - ? WHERE id = ?";
         try (Connection conn = DataConnectionHelper.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(DEDUCT_STOCK)) {
             pstmt.setInt(1, quantity); // Set the quantity to deduct from stock
             pstmt.setInt(2, itemId); // Set the product ID for the WHERE clause
             return pstmt.executeUpdate() > 0; // Return true if at least one row was updated
         } catch (SQLException e) {
             System.err.println("Error updating stock: " + e.getMessage()); // Log any database errors
             return false;
+        } finally {
+            currentCache().invalidate(itemId); // The cached stock level is now out of date
+        }
+    }
+
+    // Reserves stock for a whole order on the caller's connection using one batched conditional UPDATE
+    // Each product is only decremented while enough stock remains (stock >= quantity), so the check and the
+    // decrement are a single atomic statement and concurrent approvals can never oversell a product
+    // Products are always updated in ID order, whatever order the caller's map has, so every approval and bulk
+    // chunk locks product rows in the same order and two transactions with overlapping products cannot deadlock
+    // Returns the IDs of products that did not have enough stock; an empty list means every line was reserved
+    public List<Integer> reserveStock(Connection conn, Map<Integer, Integer> quantitiesByItemId) throws SQLException {
+        List<Integer> insufficientItemIds = new ArrayList<>();
+        if (quantitiesByItemId.isEmpty()) {
+            return insufficientItemIds;
+        }
+        List<Integer> itemIds = new ArrayList<>(new TreeSet<>(quantitiesByItemId.keySet()));
+        try (PreparedStatement pstmt = conn.prepareStatement(RESERVE_STOCK)) {
+            for (Integer itemId : itemIds) {
+                int quantity = quantitiesByItemId.get(itemId);
+                pstmt.setInt(1, quantity); // Set the quantity to deduct from stock
+                pstmt.setInt(2, itemId); // Set the product ID for the WHERE clause
+                pstmt.setInt(3, quantity); // Only deduct if at least this much stock is left
+                pstmt.addBatch();
+            }
+            invalidateCached(itemIds); // The caller invalidates again after commit; see invalidateCached
+            int[] updateCounts = pstmt.executeBatch(); // One round trip for every product in the order
+            for (int i = 0; i < updateCounts.length; i++) {
+                if (updateCounts[i] == 0) {
+                    insufficientItemIds.add(itemIds.get(i)); // No row matched, so the stock was too low (or the product is gone)
+                }
+            }
+        }
+        return insufficientItemIds;
+    }
+
+    // Drops the given products from the cache so their next lookup reads the database
+    // Callers that change stock inside a transaction call this after committing, so a lookup that ran
+    // between the UPDATE and the commit cannot leave the pre-commit stock level cached
+    public void invalidateCached(Iterable<Integer> itemIds) {
+        currentCache().invalidateAll(itemIds);
+    }
+
+    // Returns the hit, miss and eviction counters of the product cache for the database in use
+    // Size and time-to-live are configured through the fers.cache.products.* system properties
+    public static CacheStats getCacheStats() {
+        return currentCache().getStats();
+    }
+
+    // Empties the product cache for the database in use, e.g. after its tables were recreated
+    public static void clearCache() {
+        currentCache().clear();
+    }
+
+    // Finds products whose name or description contains every word of the query, best BM25 match first
+    // Served from the in-memory search index, which is loaded from the products table on first use
+    public ProductSearchIndex.Hits search(String query, int offset, int limit) {
+        ProductSearchIndex index = searchIndex();
+        index.loadOnce(InventoryItemDAO::readAllProducts);
+        return index.search(query, offset, limit);
+    }
+
+    // Empties the search index for the database in use so it is rebuilt on the next search
+    public static void resetSearchIndex() {
+        searchIndex().reset();
+    }
+
+    // Returns up to limit products whose name or one of its words starts with the prefix, for typeahead
+    // Served from the in-memory name index, which is loaded from the products table on first use
+    public List<ProductSuggestion> suggestByName(String prefix, int limit) {
+        ProductNameIndex index = nameIndex();
+        index.loadOnce(InventoryItemDAO::readAllProducts);
+        return index.suggest(prefix, limit);
+    }
+
+    // Empties the name index for the database in use so it is rebuilt on the next suggestion
+    public static void resetNameIndex() {
+        nameIndex().reset();
+    }
+
+    // Looks up (or creates) the name index for the database currently selected by DataConnectionHelper
+    private static ProductNameIndex nameIndex() {
+        return NAME_INDEXES.computeIfAbsent(DataConnectionHelper.getDatabaseUrl(), url -> new ProductNameIndex());
+    }
+
+    // Looks up (or creates) the search index for the database currently selected by DataConnectionHelper
+    private static ProductSearchIndex searchIndex() {
+        return SEARCH_INDEXES.computeIfAbsent(DataConnectionHelper.getDatabaseUrl(), url -> new ProductSearchIndex());
+    }
+
+    // Passes every product to the consumer; returns false if they could not all be read
+    private static boolean readAllProducts(Consumer<InventoryItem> consumer) {
+        try (Connection conn = DataConnectionHelper.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_ALL);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                consumer.accept(mapItem(rs));
+            }
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error indexing products: " + e.getMessage()); // Searches retry the load
+            return false;
+        }
+    }
+
+    // Looks up (or creates) the product cache for the database currently selected by DataConnectionHelper
+    private static InventoryItemCache currentCache() {
+        return CACHES.computeIfAbsent(DataConnectionHelper.getDatabaseUrl(), url -> InventoryItemCache.fromSystemProperties());
+    }
+
+    // Creates an InventoryItem from the current row of a products result set
+    private static InventoryItem mapItem(ResultSet rs) throws SQLException {
+        InventoryItem item = new InventoryItem();
+        item.setItemId(rs.getInt("id"));
+        item.setItemName(rs.getString("name"));
+        item.setItemDescription(rs.getString("description"));
+        item.setItemPriceCents(Money.fromDecimal(rs.getBigDecimal("price"))); // Read the DECIMAL exactly, never through double
+        item.setItemStock(rs.getInt("stock"));
+        return item;
+    }
+
+    // Closes the resources behind a product stream and hands the connection back to the pool
+    // Lazy execution is switched off again first so the next borrower of the connection gets the default mode
+    // Each step runs even if an earlier one fails, so the connection always goes back to the pool non-lazy
+    private void closeStreamResources(ResultSet rs, Statement stmt, Connection conn) {
+        try {
+            if (rs != null) {
+                rs.close();
+            }
+        } catch (SQLException e) {
+            System.err.println("Error closing product stream: " + e.getMessage()); // Log and still release the connection
+        } finally {
+            try {
+                if (stmt != null) {
+                    stmt.close();
+                }
+            } catch (SQLException e) {
+                System.err.println("Error closing product stream: " + e.getMessage());
+            } finally {
+                try {
+                    resetLazyExecution(conn);
+                } finally {
+                    try {
+                        if (conn != null) {
+                            conn.close();
+                        }
+                    } catch (SQLException e) {
+                        System.err.println("Error closing product stream: " + e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    // Turns lazy execution back off on its own statement, so it does not depend on the stream's statement closing cleanly
+    private void resetLazyExecution(Connection conn) {
+        if (conn == null) {
+            return;
+        }
+        try (Statement reset = conn.createStatement()) {
+            reset.execute(DISABLE_LAZY_EXECUTION);
+        } catch (SQLException e) {
+            System.err.println("Error resetting product stream connection: " + e.getMessage());
         }
     }
 }
@@ -0,0 +1,141 @@
+package org.example.dao;
+
+import org.example.model.OrderDetails;
+import org.example.model.OrderStatus;
+import org.example.model.PaymentMethod;
+import org.example.model.PaymentRecord;
+import org.example.model.PaymentStatus;
+import org.example.model.PurchaseTransaction;
+import org.example.model.TransactionLineItem;
+import org.example.util.DataConnectionHelper;
+import org.example.util.Money;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+// This Data Access Object (DAO) class reads whole orders: the order row, its order items and its payment
+// Each read is a single query joining the tables, so an order costs one round trip instead of three;
+// the product name of each item is joined in as well so order history can be shown without further lookups
+public class OrderDetailsDAO {
+    // Most order IDs bound into one IN list; larger batches are split into several queries on the same connection
+    static final int MAX_IDS_PER_QUERY = 500;
+
+    // Order columns, then item, product name and payment columns under distinct names; the joins are LEFT so an
+    // order with no items or no payment still comes back. Items and payments are read through their order_id
+    // indexes and products by primary key
+    private static final String SELECT_DETAILS = """
+        SELECT o.id, o.user_id, o.status, o.order_date, o.total_amount,
+               i.id AS item_id, i.product_id, i.quantity, i.price, pr.name AS item_name,
+               p.id AS payment_id, p.payment_method, p.status AS payment_status, p.amount, p.payment_date
+        FROM orders o
+        LEFT JOIN order_items i ON i.order_id = o.id
+        LEFT JOIN products pr ON pr.id = i.product_id
+        LEFT JOIN payments p ON p.order_id = o.id
+        WHERE o.id IN (%s)
+        ORDER BY o.id, i.id, p.id""";
+
+    // Retrieves one order with its items and payment
+    // Returns null if no order has this ID or the query failed
+    public OrderDetails locateById(int transactionId) {
+        return locateByIds(List.of(transactionId)).get(transactionId);
+    }
+
+    // Retrieves many orders with their items and payments, e.g. a page of order history, without one query per order
+    // Returns the orders keyed by ID in the order the IDs were given; IDs with no matching order are absent
+    // Returns an empty map if the query failed
+    public Map<Integer, OrderDetails> locateByIds(Collection<Integer> transactionIds) {
+        List<Integer> ids = new ArrayList<>(new LinkedHashSet<>(transactionIds)); // Each order is read once
+        Map<Integer, OrderDetails> details = new LinkedHashMap<>();
+        if (ids.isEmpty()) {
+            return details;
+        }
+        try (Connection conn = DataConnectionHelper.getConnection()) {
+            for (int from = 0; from < ids.size(); from += MAX_IDS_PER_QUERY) {
+                details.putAll(locateByIds(conn, ids.subList(from, Math.min(from + MAX_IDS_PER_QUERY, ids.size()))));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error finding order details: " + e.getMessage()); // Log any database errors
+            return new LinkedHashMap<>();
+        }
+        return details;
+    }
+
+    // Runs the join for one batch of distinct IDs and assembles the rows into OrderDetails in the given ID order
+    private Map<Integer, OrderDetails> locateByIds(Connection conn, List<Integer> ids) throws SQLException {
+        Map<Integer, PurchaseTransaction> transactions = new HashMap<>();
+        Map<Integer, Map<Integer, TransactionLineItem>> lineItems = new HashMap<>();
+        Map<Integer, PaymentRecord> payments = new HashMap<>();
+        String sql = SELECT_DETAILS.formatted(DataConnectionHelper.inListPlaceholders(ids.size()));
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            DataConnectionHelper.bindInList(pstmt, 1, ids);
+            ResultSet rs = pstmt.executeQuery();
+            // The join repeats the order on every item row, so each order, item and payment is mapped only once
+            while (rs.next()) {
+                int transactionId = rs.getInt("id");
+                if (!transactions.containsKey(transactionId)) {
+                    transactions.put(transactionId, mapTransaction(rs));
+                    lineItems.put(transactionId, new LinkedHashMap<>());
+                }
+                int lineItemId = rs.getInt("item_id");
+                if (!rs.wasNull() && !lineItems.get(transactionId).containsKey(lineItemId)) {
+                    lineItems.get(transactionId).put(lineItemId, mapLineItem(rs, transactionId));
+                }
+                rs.getInt("payment_id");
+                if (!rs.wasNull() && !payments.containsKey(transactionId)) {
+                    payments.put(transactionId, mapPayment(rs, transactionId)); // Orders have one payment; keep the first
+                }
+            }
+        }
+
+        Map<Integer, OrderDetails> details = new LinkedHashMap<>();
+        for (Integer transactionId : ids) {
+            PurchaseTransaction transaction = transactions.get(transactionId);
+            if (transaction != null) {
+                details.put(transactionId, new OrderDetails(transaction,
+                    new ArrayList<>(lineItems.get(transactionId).values()), payments.get(transactionId)));
+            }
+        }
+        return details;
+    }
+
+    // Creates the order from the order columns of the current row
+    private PurchaseTransaction mapTransaction(ResultSet rs) throws SQLException {
+        PurchaseTransaction transaction = new PurchaseTransaction();
+        transaction.setTransactionId(rs.getInt("id"));
+        transaction.setCustomerAccountId(rs.getInt("user_id"));
+        transaction.setOrderStatus(OrderStatus.fromCode(rs.getInt("status")));
+        transaction.setTransactionDate(rs.getTimestamp("order_date").toLocalDateTime());
+        transaction.setTransactionTotalCents(Money.fromDecimal(rs.getBigDecimal("total_amount")));
+        return transaction;
+    }
+
+    // Creates the order item from the item columns of the current row
+    private TransactionLineItem mapLineItem(ResultSet rs, int transactionId) throws SQLException {
+        TransactionLineItem lineItem = new TransactionLineItem();
+        lineItem.setLineItemId(rs.getInt("item_id"));
+        lineItem.setTransactionId(transactionId);
+        lineItem.setInventoryItemId(rs.getInt("product_id"));
+        lineItem.setItemQuantity(rs.getInt("quantity"));
+        lineItem.setItemPriceAtPurchaseCents(Money.fromDecimal(rs.getBigDecimal("price")));
+        lineItem.setItemName(rs.getString("item_name"));
+        return lineItem;
+    }
+
+    // Creates the payment from the payment columns of the current row
+    private PaymentRecord mapPayment(ResultSet rs, int transactionId) throws SQLException {
+        PaymentRecord payment = new PaymentRecord();
+        payment.setPaymentRecordId(rs.getInt("payment_id"));
+        payment.setTransactionId(transactionId);
+        payment.setPaymentMethod(PaymentMethod.fromCode(rs.getInt("payment_method")));
+        payment.setPaymentState(PaymentStatus.fromCode(rs.getInt("payment_status")));
+        payment.setPaymentAmountCents(Money.fromDecimal(rs.getBigDecimal("amount")));
+        payment.setPaymentTimestamp(rs.getTimestamp("payment_date").toLocalDateTime());
+        return payment;
+    }
+}
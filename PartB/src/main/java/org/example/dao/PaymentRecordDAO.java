@@ -1,49 +1,63 @@
 package org.example.dao;
 
+import org.example.model.PaymentMethod;
 import org.example.model.PaymentRecord;
+import org.example.model.PaymentStatus;
 import org.example.util.DataConnectionHelper;
+import org.example.util.Money;
 
 import java.sql.*;
+import java.util.List;
 
 // This Data Access Object (DAO) class handles all database operations related to payments
 // It provides methods for recording payments, retrieving payment information, and updating payment status
 public class PaymentRecordDAO {
+    private static final String INSERT_PAYMENT = "INSERT INTO payments (order_id, payment_method, status, amount, payment_date) "
+        + "VALUES (?, ?, ?, ?, ?)";
+    private static final String SELECT_BY_ORDER = "SELECT * FROM payments WHERE order_id = ?";
+    private static final String UPDATE_STATUS_BY_ORDER = "UPDATE payments SET status = ? WHERE order_id = ?";
+
     // Adds a new payment record to the database associated with an order
     // Returns true if the payment was successfully recorded, false if there was an error
     public boolean insertRecord(PaymentRecord paymentRecord) {
-        String sql = "INSERT INTO payments (order_id, payment_method, status, amount, payment_date) VALUES (?, ?, ?, ?, ?)";
-        try (Connection conn = DataConnectionHelper.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, paymentRecord.getTransactionId()); // Set the order ID that this payment is associated with
-            pstmt.setString(2, paymentRecord.getPaymentType()); // Set the payment method (ONLINE, CARD, or COD)
-            pstmt.setString(3, paymentRecord.getPaymentStatus()); // Set the payment status (SUCCESS, FAILED, or REFUNDED)
-            pstmt.setDouble(4, paymentRecord.getPaymentAmount()); // Set the payment amount
-            pstmt.setTimestamp(5, Timestamp.valueOf(paymentRecord.getPaymentTimestamp())); // Set the payment date and time
-            return pstmt.executeUpdate() > 0; // Return true if at least one row was inserted
+        try (Connection conn = DataConnectionHelper.getConnection()) {
+            return insertRecord(conn, paymentRecord); // Run the insert on its own auto-commit connection
         } catch (SQLException e) {
             System.err.println("Error adding payment: " + e.getMessage()); // Log any database errors
             return false;
         }
     }
 
+    // Adds a new payment record on the caller's connection so it can take part in a larger transaction
+    // Returns true if the row was inserted; database errors are thrown to the caller
+    public boolean insertRecord(Connection conn, PaymentRecord paymentRecord) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(INSERT_PAYMENT)) {
+            pstmt.setInt(1, paymentRecord.getTransactionId()); // Set the order ID that this payment is associated with
+            pstmt.setInt(2, paymentRecord.getPaymentMethod().getCode()); // Set the payment method code (ONLINE, CARD, or COD)
+            pstmt.setInt(3, paymentRecord.getPaymentState().getCode()); // Set the payment status code (SUCCESS, FAILED, or REFUNDED)
+            pstmt.setBigDecimal(4, Money.toDecimal(paymentRecord.getPaymentAmountCents())); // Set the payment amount
+            pstmt.setTimestamp(5, Timestamp.valueOf(paymentRecord.getPaymentTimestamp())); // Set the payment date and time
+            return pstmt.executeUpdate() > 0; // Return true if at least one row was inserted
+        }
+    }
+
     // Retrieves the payment record associated with a specific order, identified by order ID
     // Returns the PaymentRecord object if found, null if no payment exists for that order
     public PaymentRecord locateByTransactionId(int transactionId) {
-        String sql = "SELECT * FROM payments WHERE order_id = ?";
         try (Connection conn = DataConnectionHelper.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_BY_ORDER)) {
             pstmt.setInt(1, transactionId); // Set the order ID parameter for the WHERE clause
             ResultSet rs = pstmt.executeQuery(); // Execute the query and get the result set
             if (rs.next()) {
                 // If a payment is found, create and return a PaymentRecord object with the retrieved data
-                return new PaymentRecord(
-                    rs.getInt("id"),
-                    rs.getInt("order_id"),
-                    rs.getString("payment_method"),
-                    rs.getString("status"),
-                    rs.getDouble("amount"),
-                    rs.getTimestamp("payment_date").toLocalDateTime() // Convert SQL timestamp to LocalDateTime
-                );
+                PaymentRecord paymentRecord = new PaymentRecord();
+                paymentRecord.setPaymentRecordId(rs.getInt("id"));
+                paymentRecord.setTransactionId(rs.getInt("order_id"));
+                paymentRecord.setPaymentMethod(PaymentMethod.fromCode(rs.getInt("payment_method"))); // Decode the stored codes
+                paymentRecord.setPaymentState(PaymentStatus.fromCode(rs.getInt("status")));
+                paymentRecord.setPaymentAmountCents(Money.fromDecimal(rs.getBigDecimal("amount"))); // Read the DECIMAL exactly
+                paymentRecord.setPaymentTimestamp(rs.getTimestamp("payment_date").toLocalDateTime()); // Convert SQL timestamp to LocalDateTime
+                return paymentRecord;
             }
         } catch (SQLException e) {
             System.err.println("Error finding payment: " + e.getMessage()); // Log any database errors
@@ -54,11 +68,10 @@ public class PaymentRecordDAO {
     // Updates the status of a payment associated with a specific order
     // Used when payments are refunded or when payment status needs to be changed
     // Returns true if the status update was successful, false if the payment was not found or an error occurred
-    public boolean modifyPaymentStatus(int transactionId, String status) {
-        String sql = "UPDATE payments SET status = ? WHERE order_id = ?";
+    public boolean modifyPaymentStatus(int transactionId, PaymentStatus status) {
         try (Connection conn = DataConnectionHelper.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, status); // Set the new payment status
+             PreparedStatement pstmt = conn.prepareStatement(UPDATE_STATUS_BY_ORDER)) {
+            pstmt.setInt(1, status.getCode()); // Set the new payment status
             pstmt.setInt(2, transactionId); // Set the order ID for the WHERE clause
             return pstmt.executeUpdate() > 0; // Return true if at least one row was updated
         } catch (SQLException e) {
@@ -66,4 +79,30 @@ public class PaymentRecordDAO {
             return false;
         }
     }
+
+    // Sets the status of an order's payment on the caller's connection, as part of a larger transaction
+    // Used by rejection to refund the payment in the same transaction that rejects the order
+    public boolean modifyPaymentStatus(Connection conn, int transactionId, PaymentStatus status) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(UPDATE_STATUS_BY_ORDER)) {
+            pstmt.setInt(1, status.getCode()); // Set the new payment status
+            pstmt.setInt(2, transactionId); // Set the order ID for the WHERE clause
+            return pstmt.executeUpdate() > 0;
+        }
+    }
+
+    // Sets the status of the payments of several orders on the caller's connection with one batched UPDATE
+    // Used by bulk rejection to refund every rejected order in the same transaction that rejects it
+    public void modifyPaymentStatusBatch(Connection conn, List<Integer> transactionIds, PaymentStatus status) throws SQLException {
+        if (transactionIds.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(UPDATE_STATUS_BY_ORDER)) {
+            for (Integer transactionId : transactionIds) {
+                pstmt.setInt(1, status.getCode()); // Set the new payment status
+                pstmt.setInt(2, transactionId); // Set the order ID for the WHERE clause
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
 }
@@ -0,0 +1,347 @@
+package org.example.dao;
+
+import org.example.model.InventoryItem;
+import org.example.model.ProductSuggestion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+// This class is an in-memory prefix index over product names for typeahead suggestions
+// InventoryItemDAO fills it once from the products table and keeps it current on every insert, update and delete
+// Each name is stored once as a char array indexed by product ID. The index itself is two sorted long arrays of
+// (product ID, offset) pairs pointing into those names: one with the start of every name, one with the start of
+// every later word. A prefix matches a contiguous range of each array, so a lookup is two binary searches and
+// reads only the entries it returns; names that start with the prefix are suggested before word matches
+public class ProductNameIndex {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // Product names as entered, indexed by product ID; null for IDs that are not indexed
+    private char[][] namesById = new char[INITIAL_CAPACITY][];
+    private int productCount;
+    // Keys for names from their first word, and for names from each later word
+    private final Keys nameStarts = new Keys();
+    private final Keys wordStarts = new Keys();
+    private volatile boolean loaded;
+    // Lookups share the read lock; loading and updates take the write lock
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Fills the index from source unless that has already happened
+    // source passes every product to the consumer and returns false if it could not read them all, in which
+    // case the index stays empty and the next call tries again
+    public void loadOnce(Predicate<Consumer<InventoryItem>> source) {
+        if (loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                // Keys are appended unsorted and sorted once at the end, rather than inserted in order one by one
+                loaded = source.test(item -> addLocked(item, false));
+                if (loaded) {
+                    sortLocked(nameStarts);
+                    sortLocked(wordStarts);
+                } else {
+                    clearLocked();
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Adds a product, or re-indexes it if it is already present
+    // Ignored until the index has been loaded, because loading reads every committed product anyway
+    public void index(InventoryItem item) {
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                removeLocked(item.getItemId());
+                addLocked(item, true);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Removes a product from the index
+    public void remove(int itemId) {
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                removeLocked(itemId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Empties the index so it is loaded again on next use, e.g. after the products table was recreated
+    public void reset() {
+        lock.writeLock().lock();
+        try {
+            loaded = false;
+            clearLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    // Number of products in the index
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return productCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Returns up to limit products whose name, or a word in it, starts with the prefix, ignoring case
+    // Names starting with the prefix come first, then names with a later word starting with it, each group
+    // in alphabetical order of the matched text; a product is suggested at most once
+    public List<ProductSuggestion> suggest(String prefix, int limit) {
+        List<ProductSuggestion> suggestions = new ArrayList<>();
+        String text = prefix == null ? "" : prefix.strip();
+        if (text.isEmpty() || limit < 1) {
+            return suggestions;
+        }
+        lock.readLock().lock();
+        try {
+            int[] chosen = new int[limit];
+            int count = collect(nameStarts, text, chosen, 0);
+            count = collect(wordStarts, text, chosen, count);
+            for (int i = 0; i < count; i++) {
+                suggestions.add(new ProductSuggestion(chosen[i], new String(namesById[chosen[i]])));
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Adds the IDs of keys in the prefix's range to chosen, skipping repeats, until chosen is full
+    // Returns the new number of chosen IDs
+    private int collect(Keys keys, String prefix, int[] chosen, int count) {
+        for (int i = lowerBound(keys, prefix); i < keys.size && count < chosen.length; i++) {
+            long key = keys.entries[i];
+            if (comparePrefix(key, prefix) != 0) {
+                break; // Past the end of the range
+            }
+            int itemId = idOf(key);
+            boolean repeat = false;
+            for (int j = 0; j < count && !repeat; j++) {
+                repeat = chosen[j] == itemId;
+            }
+            if (!repeat) {
+                chosen[count++] = itemId;
+            }
+        }
+        return count;
+    }
+
+    // Position of the first key whose text is not below the prefix
+    private int lowerBound(Keys keys, String prefix) {
+        int low = 0;
+        int high = keys.size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (comparePrefix(keys.entries[middle], prefix) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // Compares the text a key points at with the prefix, case-insensitively
+    // 0 means the text starts with the prefix; otherwise the sign says which way the text sorts
+    private int comparePrefix(long key, String prefix) {
+        char[] name = namesById[idOf(key)];
+        int offset = offsetOf(key);
+        for (int i = 0; i < prefix.length(); i++) {
+            if (offset + i == name.length) {
+                return -1; // The text is a proper prefix of the prefix, so it sorts first
+            }
+            int difference = fold(name[offset + i]) - fold(prefix.charAt(i));
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return 0;
+    }
+
+    // Orders keys by their text ignoring case, then by product ID, then by offset, so every key has one place
+    private int compareKeys(long a, long b) {
+        char[] nameA = namesById[idOf(a)];
+        char[] nameB = namesById[idOf(b)];
+        int offsetA = offsetOf(a);
+        int offsetB = offsetOf(b);
+        int length = Math.min(nameA.length - offsetA, nameB.length - offsetB);
+        for (int i = 0; i < length; i++) {
+            int difference = fold(nameA[offsetA + i]) - fold(nameB[offsetB + i]);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        int difference = (nameA.length - offsetA) - (nameB.length - offsetB);
+        if (difference != 0) {
+            return difference;
+        }
+        return Long.compare(a, b); // The ID is in the high bits and the offset in the low bits
+    }
+
+    // A word is a run of letters and digits, as in ProductSearchIndex.tokenize
+    private static boolean isWordStart(char[] chars, int i) {
+        return Character.isLetterOrDigit(chars[i]) && (i == 0 || !Character.isLetterOrDigit(chars[i - 1]));
+    }
+
+    private static char fold(char c) {
+        return Character.toLowerCase(c);
+    }
+
+    private static long keyOf(int itemId, int offset) {
+        return ((long) itemId << 32) | offset;
+    }
+
+    private static int idOf(long key) {
+        return (int) (key >>> 32);
+    }
+
+    private static int offsetOf(long key) {
+        return (int) key;
+    }
+
+    // Stores the name and adds its keys; sorted says whether to insert them in order or append them
+    private void addLocked(InventoryItem item, boolean sorted) {
+        int itemId = item.getItemId();
+        String name = item.getItemName();
+        if (itemId < 0 || name == null) {
+            return;
+        }
+        if (itemId >= namesById.length) {
+            namesById = Arrays.copyOf(namesById, Math.max(itemId + 1, namesById.length * 2));
+        }
+        char[] chars = name.toCharArray();
+        namesById[itemId] = chars;
+        productCount++;
+        boolean first = true;
+        for (int i = 0; i < chars.length; i++) {
+            if (isWordStart(chars, i)) {
+                Keys keys = first ? nameStarts : wordStarts;
+                long key = keyOf(itemId, i);
+                if (sorted) {
+                    keys.insert(position(keys, key), key);
+                } else {
+                    keys.append(key);
+                }
+                first = false;
+            }
+        }
+    }
+
+    private void removeLocked(int itemId) {
+        if (itemId < 0 || itemId >= namesById.length || namesById[itemId] == null) {
+            return;
+        }
+        char[] chars = namesById[itemId];
+        boolean first = true;
+        for (int i = 0; i < chars.length; i++) {
+            if (isWordStart(chars, i)) {
+                Keys keys = first ? nameStarts : wordStarts;
+                long key = keyOf(itemId, i);
+                int position = position(keys, key);
+                if (position < keys.size && keys.entries[position] == key) {
+                    keys.delete(position);
+                }
+                first = false;
+            }
+        }
+        namesById[itemId] = null;
+        productCount--;
+    }
+
+    // Position of the key in sorted keys, or where it would be inserted
+    private int position(Keys keys, long key) {
+        int low = 0;
+        int high = keys.size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compareKeys(keys.entries[middle], key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // Bottom-up merge sort of the keys, since Arrays.sort takes no comparator for primitive arrays
+    private void sortLocked(Keys keys) {
+        long[] source = keys.entries;
+        long[] target = new long[source.length];
+        for (int width = 1; width < keys.size; width *= 2) {
+            for (int start = 0; start < keys.size; start += 2 * width) {
+                int middle = Math.min(start + width, keys.size);
+                int end = Math.min(start + 2 * width, keys.size);
+                int left = start;
+                int right = middle;
+                for (int out = start; out < end; out++) {
+                    if (right >= end || (left < middle && compareKeys(source[left], source[right]) <= 0)) {
+                        target[out] = source[left++];
+                    } else {
+                        target[out] = source[right++];
+                    }
+                }
+            }
+            long[] swap = source;
+            source = target;
+            target = swap;
+        }
+        keys.entries = source;
+    }
+
+    private void clearLocked() {
+        namesById = new char[INITIAL_CAPACITY][];
+        productCount = 0;
+        nameStarts.clear();
+        wordStarts.clear();
+    }
+
+    // A growable array of keys; ordering is up to the caller
+    private static final class Keys {
+        private long[] entries = new long[INITIAL_CAPACITY];
+        private int size;
+
+        private void append(long key) {
+            insert(size, key);
+        }
+
+        private void insert(int position, long key) {
+            if (size == entries.length) {
+                entries = Arrays.copyOf(entries, size * 2);
+            }
+            System.arraycopy(entries, position, entries, position + 1, size - position);
+            entries[position] = key;
+            size++;
+        }
+
+        private void delete(int position) {
+            System.arraycopy(entries, position + 1, entries, position, size - position - 1);
+            size--;
+        }
+
+        private void clear() {
+            entries = new long[INITIAL_CAPACITY];
+            size = 0;
+        }
+    }
+}
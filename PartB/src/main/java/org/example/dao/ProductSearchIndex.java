@@ -0,0 +1,391 @@
+package org.example.dao;
+
+import org.example.model.InventoryItem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+// This class is an in-memory inverted index over product names and descriptions with BM25 relevance ranking
+// InventoryItemDAO fills it once from the products table and keeps it current on every insert, update and delete
+// For each term it holds a posting list of product IDs (sorted) and term frequencies in primitive arrays, and
+// document lengths live in an array indexed by product ID, so ranking a query touches no boxed objects
+public class ProductSearchIndex {
+    // Words in a product name count this many times, so a match in the name outranks one in the description
+    static final int NAME_WEIGHT = 3;
+    // BM25 parameters: term-frequency saturation and document-length normalisation
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    // Distinct terms of each indexed product, needed to remove it again
+    private final Map<Integer, String[]> termsById = new HashMap<>();
+    // Weighted token count of each product, indexed by product ID; 0 for IDs that are not indexed
+    private int[] lengthsById = new int[1024];
+    private long totalLength;
+    private volatile boolean loaded;
+    // Searches share the read lock; loading and updates take the write lock
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Fills the index from source unless that has already happened
+    // source passes every product to the consumer and returns false if it could not read them all, in which
+    // case the index stays empty and the next call tries again
+    public void loadOnce(Predicate<Consumer<InventoryItem>> source) {
+        if (loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                loaded = source.test(this::addLocked);
+                if (!loaded) {
+                    clearLocked();
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Adds a product, or re-indexes it if it is already present
+    // Ignored until the index has been loaded, because loading reads every committed product anyway
+    public void index(InventoryItem item) {
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                removeLocked(item.getItemId());
+                addLocked(item);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Removes a product from the index
+    public void remove(int itemId) {
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                removeLocked(itemId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Empties the index so it is loaded again on next use, e.g. after the products table was recreated
+    public void reset() {
+        lock.writeLock().lock();
+        try {
+            loaded = false;
+            clearLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    // Number of products in the index
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return termsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Finds the products containing every term of the query and returns those ranked offset to offset + limit - 1
+    // by BM25 score (ties broken by lower product ID), together with the total number of matches
+    public Hits search(String query, int offset, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (terms.isEmpty() || limit < 1) {
+            return new Hits(new int[0], new double[0], 0);
+        }
+        lock.readLock().lock();
+        try {
+            // Rarest term first: its posting list bounds the candidates, the others are probed by galloping search
+            Postings[] lists = new Postings[terms.size()];
+            for (int i = 0; i < lists.length; i++) {
+                lists[i] = postings.get(terms.get(i));
+                if (lists[i] == null) {
+                    return new Hits(new int[0], new double[0], 0); // A term no product has, so nothing matches all
+                }
+            }
+            Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+
+            int productCount = termsById.size();
+            double averageLength = productCount == 0 ? 1 : (double) totalLength / productCount;
+            double[] idf = new double[lists.length];
+            for (int i = 0; i < lists.length; i++) {
+                idf[i] = Math.log(1 + (productCount - lists[i].size + 0.5) / (lists[i].size + 0.5));
+            }
+
+            TopK top = new TopK(offset + limit);
+            int matches = 0;
+            // Candidates come in ascending ID order, so each probe resumes where the previous one in that list ended
+            int[] cursors = new int[lists.length];
+            Postings rarest = lists[0];
+            candidates:
+            for (int p = 0; p < rarest.size; p++) {
+                int itemId = rarest.ids[p];
+                double lengthNorm = K1 * (1 - B + B * lengthsById[itemId] / averageLength);
+                double score = idf[0] * bm25(rarest.frequencies[p], lengthNorm);
+                for (int i = 1; i < lists.length; i++) {
+                    int position = lists[i].seek(cursors[i], itemId);
+                    if (position < 0) {
+                        cursors[i] = -position - 1;
+                        continue candidates;
+                    }
+                    cursors[i] = position;
+                    score += idf[i] * bm25(lists[i].frequencies[position], lengthNorm);
+                }
+                matches++;
+                top.offer(itemId, score);
+            }
+            return top.page(offset, matches);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Splits text into lower-case runs of letters and digits
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static double bm25(int frequency, double lengthNorm) {
+        return frequency * (K1 + 1) / (frequency + lengthNorm);
+    }
+
+    private void addLocked(InventoryItem item) {
+        int itemId = item.getItemId();
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String token : tokenize(item.getItemName())) {
+            frequencies.merge(token, NAME_WEIGHT, Integer::sum);
+        }
+        for (String token : tokenize(item.getItemDescription())) {
+            frequencies.merge(token, 1, Integer::sum);
+        }
+        int length = 0;
+        String[] terms = new String[frequencies.size()];
+        int t = 0;
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            Postings list = postings.computeIfAbsent(entry.getKey(), key -> new Postings());
+            list.insert(itemId, entry.getValue());
+            length += entry.getValue();
+            terms[t++] = entry.getKey();
+        }
+        if (itemId >= lengthsById.length) {
+            lengthsById = Arrays.copyOf(lengthsById, Math.max(itemId + 1, lengthsById.length * 2));
+        }
+        lengthsById[itemId] = length;
+        totalLength += length;
+        termsById.put(itemId, terms);
+    }
+
+    private void removeLocked(int itemId) {
+        String[] terms = termsById.remove(itemId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Postings list = postings.get(term);
+            if (list != null && list.delete(itemId) && list.size == 0) {
+                postings.remove(term);
+            }
+        }
+        totalLength -= lengthsById[itemId];
+        lengthsById[itemId] = 0;
+    }
+
+    private void clearLocked() {
+        postings.clear();
+        termsById.clear();
+        lengthsById = new int[1024];
+        totalLength = 0;
+    }
+
+    // The products containing one term, sorted by product ID, with the term's weighted frequency in each
+    private static final class Postings {
+        private int[] ids = new int[2];
+        private int[] frequencies = new int[2];
+        private int size;
+
+        // New products have the highest ID so far, which makes this an append in the common case
+        private void insert(int itemId, int frequency) {
+            int position = size == 0 || ids[size - 1] < itemId ? size : Arrays.binarySearch(ids, 0, size, itemId);
+            if (position >= 0 && position < size) {
+                frequencies[position] = frequency; // Already present
+                return;
+            }
+            if (position < 0) {
+                position = -position - 1;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            System.arraycopy(frequencies, position, frequencies, position + 1, size - position);
+            ids[position] = itemId;
+            frequencies[position] = frequency;
+            size++;
+        }
+
+        // Like Arrays.binarySearch, but only looks from position from on, doubling the step until it passes itemId
+        private int seek(int from, int itemId) {
+            int step = 1;
+            int low = from;
+            int high = from;
+            while (high < size && ids[high] < itemId) {
+                low = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            return Arrays.binarySearch(ids, low, Math.min(high + 1, size), itemId);
+        }
+
+        private boolean delete(int itemId) {
+            int position = Arrays.binarySearch(ids, 0, size, itemId);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            System.arraycopy(frequencies, position + 1, frequencies, position, size - position - 1);
+            size--;
+            return true;
+        }
+    }
+
+    // Keeps the best capacity (score, ID) pairs seen so far in a binary min-heap of primitive arrays
+    private static final class TopK {
+        private final int[] ids;
+        private final double[] scores;
+        private int size;
+
+        private TopK(int capacity) {
+            ids = new int[capacity];
+            scores = new double[capacity];
+        }
+
+        private void offer(int itemId, double score) {
+            if (size < ids.length) {
+                ids[size] = itemId;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (ranksAbove(itemId, score, 0)) {
+                ids[0] = itemId; // Better than the worst of the current best, so it replaces it
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+
+        // Drains the heap into descending rank order and returns the entries from offset on
+        private Hits page(int offset, int totalMatches) {
+            int count = size;
+            int[] rankedIds = new int[count];
+            double[] rankedScores = new double[count];
+            for (int i = count - 1; i >= 0; i--) {
+                rankedIds[i] = ids[0];
+                rankedScores[i] = scores[0];
+                size--;
+                ids[0] = ids[size];
+                scores[0] = scores[size];
+                siftDown(0);
+            }
+            int from = Math.min(offset, count);
+            return new Hits(Arrays.copyOfRange(rankedIds, from, count), Arrays.copyOfRange(rankedScores, from, count), totalMatches);
+        }
+
+        // True if (itemId, score) ranks above the entry at i: higher score, or equal score and lower ID
+        private boolean ranksAbove(int itemId, double score, int i) {
+            return score > scores[i] || (score == scores[i] && itemId < ids[i]);
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (!ranksAbove(ids[parent], scores[parent], i)) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int smallest = i;
+                for (int child = 2 * i + 1; child <= 2 * i + 2 && child < size; child++) {
+                    if (ranksAbove(ids[smallest], scores[smallest], child)) {
+                        smallest = child;
+                    }
+                }
+                if (smallest == i) {
+                    return;
+                }
+                swap(i, smallest);
+                i = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int id = ids[a];
+            ids[a] = ids[b];
+            ids[b] = id;
+            double score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+    }
+
+    // One page of ranked product IDs with their scores, plus the number of products that matched in total
+    public static final class Hits {
+        private final int[] itemIds;
+        private final double[] scores;
+        private final int totalMatches;
+
+        private Hits(int[] itemIds, double[] scores, int totalMatches) {
+            this.itemIds = itemIds;
+            this.scores = scores;
+            this.totalMatches = totalMatches;
+        }
+
+        public int[] getItemIds() {
+            return itemIds.clone();
+        }
+
+        public double[] getScores() {
+            return scores.clone();
+        }
+
+        public int getTotalMatches() {
+            return totalMatches;
+        }
+    }
+}
@@ -1,42 +1,82 @@
 package org.example.dao;
+import org.example.model.OrderStatus;
 import org.example.model.PurchaseTransaction;
+import org.example.model.ResultPage;
+import org.example.model.TransactionCursor;
 import org.example.util.DataConnectionHelper;
+import org.example.util.Money;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 // This Data Access Object (DAO) class handles all database operations related to orders
 // It provides methods for creating orders, updating order status, and querying order information
 public class PurchaseTransactionDAO {
+    // SQL for every statement this DAO runs, declared once so each pooled connection prepares it only once
+    private static final String INSERT_ORDER = "INSERT INTO orders (user_id, status, order_date, total_amount) VALUES (?, ?, ?, ?)";
+    private static final String UPDATE_STATUS = "UPDATE orders SET status = ? WHERE id = ?";
+    private static final String UPDATE_STATUS_IF_CURRENT = "UPDATE orders SET status = ? WHERE id = ? AND status = ?";
+    // The read queries below are package-private so PurchaseTransactionDAOTest can check H2's plan for each of them
+    static final String SELECT_ALL = "SELECT * FROM orders ORDER BY order_date DESC";
+    static final String SELECT_FIRST_PAGE = "SELECT * FROM orders ORDER BY order_date DESC, id DESC LIMIT ?";
+    static final String SELECT_PAGE_AFTER = "SELECT * FROM orders WHERE (order_date, id) < (?, ?) "
+        + "ORDER BY order_date DESC, id DESC LIMIT ?";
+    static final String SELECT_FIRST_STATUS_PAGE = "SELECT * FROM orders "
+        + "WHERE status = ? ORDER BY status, order_date, id LIMIT ?";
+    static final String SELECT_STATUS_PAGE_AFTER = "SELECT * FROM orders "
+        + "WHERE status = ? AND (order_date, id) > (?, ?) ORDER BY status, order_date, id LIMIT ?";
+    static final String COUNT_BY_STATUS = "SELECT COUNT(*) FROM orders WHERE status = ?";
+    // With only user_id = ? to go on, H2 prefers the foreign key's own single-column index and sorts afterwards,
+    // so these two name idx_orders_user_date; the cursor's range condition is enough for H2 to choose it unaided
+    static final String SELECT_BY_USER = "SELECT * FROM orders USE INDEX (idx_orders_user_date) "
+        + "WHERE user_id = ? ORDER BY user_id, order_date DESC, id DESC";
+    static final String SELECT_FIRST_USER_PAGE = "SELECT * FROM orders USE INDEX (idx_orders_user_date) "
+        + "WHERE user_id = ? ORDER BY user_id, order_date DESC, id DESC LIMIT ?";
+    static final String SELECT_USER_PAGE_AFTER = "SELECT * FROM orders "
+        + "WHERE user_id = ? AND (order_date, id) < (?, ?) ORDER BY user_id, order_date DESC, id DESC LIMIT ?";
+    private static final String SELECT_BY_ID_FOR_UPDATE = "SELECT * FROM orders WHERE id = ? FOR UPDATE";
+    // The IN list is filled by DataConnectionHelper.inListPlaceholders, padded to one of a few fixed lengths
+    private static final String SELECT_BY_IDS_FOR_UPDATE = "SELECT * FROM orders WHERE id IN (%s) ORDER BY id FOR UPDATE";
+    private static final String SELECT_BY_ID = "SELECT * FROM orders WHERE id = ?";
+
     // Creates a new order in the database and returns the generated order ID
     // Returns the order ID if successful, -1 if there was an error during insertion
     public int insertTransaction(PurchaseTransaction transaction) {
-        String sql = "INSERT INTO orders (user_id, status, order_date, total_amount) VALUES (?, ?, ?, ?)";
-        try (Connection conn = DataConnectionHelper.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (Connection conn = DataConnectionHelper.getConnection()) {
+            return insertTransaction(conn, transaction); // Run the insert on its own auto-commit connection
+        } catch (SQLException e) {
+            System.err.println("Error creating order: " + e.getMessage()); // Log any database errors
+        }
+        return -1; // Return -1 if order creation failed
+    }
+
+    // Creates a new order on the caller's connection so it can take part in a larger transaction
+    // Returns the generated order ID, or -1 if no key was generated; database errors are thrown to the caller
+    public int insertTransaction(Connection conn, PurchaseTransaction transaction) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(INSERT_ORDER, Statement.RETURN_GENERATED_KEYS)) {
             pstmt.setInt(1, transaction.getCustomerAccountId()); // Set the user ID who placed the order
-            pstmt.setString(2, transaction.getTransactionStatus()); // Set the initial order status (typically "CREATED")
+            pstmt.setInt(2, transaction.getOrderStatus().getCode()); // Set the initial order status (typically CREATED)
             pstmt.setTimestamp(3, Timestamp.valueOf(transaction.getTransactionDate())); // Set the order date and time
-            pstmt.setDouble(4, transaction.getTransactionTotal()); // Set the total amount for the order
+            pstmt.setBigDecimal(4, Money.toDecimal(transaction.getTransactionTotalCents())); // Set the total amount for the order
             pstmt.executeUpdate(); // Execute the insert statement
             ResultSet rs = pstmt.getGeneratedKeys(); // Retrieve the auto-generated order ID
             if (rs.next()) {
                 return rs.getInt(1); // Return the generated order ID
             }
-        } catch (SQLException e) {
-            System.err.println("Error creating order: " + e.getMessage()); // Log any database errors
         }
-        return -1; // Return -1 if order creation failed
+        return -1; // Return -1 if the database did not report a generated ID
     }
 
     // Updates the status of an existing order in the database
     // Used when orders are accepted, rejected, or marked as delivered
     // Returns true if the status update was successful, false if the order was not found or an error occurred
-    public boolean modifyStatus(int transactionId, String status) {
-        String sql = "UPDATE orders SET status = ? WHERE id = ?";
+    public boolean modifyStatus(int transactionId, OrderStatus status) {
         try (Connection conn = DataConnectionHelper.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, status); // Set the new order status
+             PreparedStatement pstmt = conn.prepareStatement(UPDATE_STATUS)) {
+            pstmt.setInt(1, status.getCode()); // Set the new order status
             pstmt.setInt(2, transactionId); // Set the order ID for the WHERE clause
             return pstmt.executeUpdate() > 0; // Return true if at least one row was updated
         } catch (SQLException e) {
@@ -45,23 +85,28 @@ public class PurchaseTransactionDAO {
         }
     }
 
+    // Moves an order from one status to another on the caller's connection, as part of a larger transaction
+    // The update only applies while the order still has the expected status, so two concurrent callers
+    // cannot both make the same transition; returns true if this call performed it
+    public boolean modifyStatus(Connection conn, int transactionId, OrderStatus expectedStatus, OrderStatus newStatus) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(UPDATE_STATUS_IF_CURRENT)) {
+            pstmt.setInt(1, newStatus.getCode()); // Set the new order status
+            pstmt.setInt(2, transactionId); // Set the order ID for the WHERE clause
+            pstmt.setInt(3, expectedStatus.getCode()); // Only update if nobody else has changed the status first
+            return pstmt.executeUpdate() > 0;
+        }
+    }
+
     // Retrieves all orders from the database and returns them as a list
     // Orders are sorted by order date in descending order (most recent first)
     public List<PurchaseTransaction> retrieveAllRecords() {
         List<PurchaseTransaction> transactions = new ArrayList<>(); // Create a list to store the retrieved orders
-        String sql = "SELECT * FROM orders ORDER BY order_date DESC";
         try (Connection conn = DataConnectionHelper.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_ALL);
+             ResultSet rs = pstmt.executeQuery()) {
             // Iterate through all rows in the result set and create PurchaseTransaction objects
             while (rs.next()) {
-                transactions.add(new PurchaseTransaction(
-                    rs.getInt("id"),
-                    rs.getInt("user_id"),
-                    rs.getString("status"),
-                    rs.getTimestamp("order_date").toLocalDateTime(), // Convert SQL timestamp to LocalDateTime
-                    rs.getDouble("total_amount")
-                ));
+                transactions.add(mapTransaction(rs));
             }
         } catch (SQLException e) {
             System.err.println("Error finding orders: " + e.getMessage()); // Log any database errors
@@ -69,24 +114,84 @@ public class PurchaseTransactionDAO {
         return transactions; // Return the list of orders, which may be empty if no orders exist
     }
 
+    // Retrieves one page of orders, newest first, starting right after the given cursor (null for the first page)
+    // Uses keyset pagination on (order_date, id) so every page is a short range scan of idx_orders_order_date,
+    // no matter how deep into the table it is, and only pageSize orders are ever held in memory
+    public ResultPage<PurchaseTransaction> retrievePage(TransactionCursor after, int pageSize) {
+        String sql = after == null ? SELECT_FIRST_PAGE : SELECT_PAGE_AFTER;
+        List<PurchaseTransaction> transactions = new ArrayList<>(pageSize + 1);
+        try (Connection conn = DataConnectionHelper.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int index = 1;
+            if (after != null) {
+                pstmt.setTimestamp(index++, Timestamp.valueOf(after.getTransactionDate())); // Continue after this date
+                pstmt.setInt(index++, after.getTransactionId()); // and after this ID among orders with the same date
+            }
+            pstmt.setInt(index, pageSize + 1); // Fetch one extra row to learn whether another page exists
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                transactions.add(mapTransaction(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error finding orders: " + e.getMessage()); // Log any database errors
+        }
+        return toPage(transactions, pageSize);
+    }
+
+    // Retrieves one page of orders in the given status, oldest first, starting right after the given cursor
+    // Used for work queues such as the CREATED orders awaiting approval: the page is a range scan of
+    // idx_orders_status_date, so its cost does not grow with the number of orders in other statuses
+    // status is repeated in ORDER BY (it is fixed by the WHERE clause) so H2 reads the index in order without sorting
+    public ResultPage<PurchaseTransaction> retrievePageByStatus(OrderStatus status, TransactionCursor after, int pageSize) {
+        String sql = after == null ? SELECT_FIRST_STATUS_PAGE : SELECT_STATUS_PAGE_AFTER;
+        List<PurchaseTransaction> transactions = new ArrayList<>(pageSize + 1);
+        try (Connection conn = DataConnectionHelper.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int index = 1;
+            pstmt.setInt(index++, status.getCode()); // Restrict the scan to this status
+            if (after != null) {
+                pstmt.setTimestamp(index++, Timestamp.valueOf(after.getTransactionDate())); // Continue after this date
+                pstmt.setInt(index++, after.getTransactionId()); // and after this ID among orders with the same date
+            }
+            pstmt.setInt(index, pageSize + 1); // Fetch one extra row to learn whether another page exists
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                transactions.add(mapTransaction(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error finding orders by status: " + e.getMessage()); // Log any database errors
+        }
+        return toPage(transactions, pageSize);
+    }
+
+    // Counts the orders currently in the given status, e.g. how many are waiting for approval
+    // Returns -1 if there was an error
+    public int countByStatus(OrderStatus status) {
+        try (Connection conn = DataConnectionHelper.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(COUNT_BY_STATUS)) {
+            pstmt.setInt(1, status.getCode());
+            ResultSet rs = pstmt.executeQuery();
+            rs.next();
+            return rs.getInt(1);
+        } catch (SQLException e) {
+            System.err.println("Error counting orders: " + e.getMessage()); // Log any database errors
+            return -1;
+        }
+    }
+
     // Retrieves all orders placed by a specific user, identified by their user ID
     // Orders are sorted by order date in descending order (most recent first)
+    // The (user_id, order_date DESC, id DESC) index returns rows already in order, so no sort is needed;
+    // it is named explicitly because H2 would otherwise pick the plain foreign-key index on user_id
     public List<PurchaseTransaction> locateByUserId(int accountId) {
         List<PurchaseTransaction> transactions = new ArrayList<>(); // Create a list to store the retrieved orders
-        String sql = "SELECT * FROM orders WHERE user_id = ? ORDER BY order_date DESC";
         try (Connection conn = DataConnectionHelper.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_BY_USER)) {
             pstmt.setInt(1, accountId); // Set the user ID parameter for the WHERE clause
             ResultSet rs = pstmt.executeQuery(); // Execute the query and get the result set
             // Iterate through all rows in the result set and create PurchaseTransaction objects
             while (rs.next()) {
-                transactions.add(new PurchaseTransaction(
-                    rs.getInt("id"),
-                    rs.getInt("user_id"),
-                    rs.getString("status"),
-                    rs.getTimestamp("order_date").toLocalDateTime(), // Convert SQL timestamp to LocalDateTime
-                    rs.getDouble("total_amount")
-                ));
+                transactions.add(mapTransaction(rs));
             }
         } catch (SQLException e) {
             System.err.println("Error finding user orders: " + e.getMessage()); // Log any database errors
@@ -94,27 +199,124 @@ public class PurchaseTransactionDAO {
         return transactions; // Return the list of orders for the user, which may be empty
     }
 
+    // Retrieves one page of a user's orders, newest first, starting right after the given cursor (null for the first page)
+    // Same keyset pagination as retrievePage, as a range scan of idx_orders_user_date within this user's orders
+    public ResultPage<PurchaseTransaction> retrievePageByUserId(int accountId, TransactionCursor after, int pageSize) {
+        String sql = after == null ? SELECT_FIRST_USER_PAGE : SELECT_USER_PAGE_AFTER;
+        List<PurchaseTransaction> transactions = new ArrayList<>(pageSize + 1);
+        try (Connection conn = DataConnectionHelper.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int index = 1;
+            pstmt.setInt(index++, accountId); // Restrict the scan to this user's orders
+            if (after != null) {
+                pstmt.setTimestamp(index++, Timestamp.valueOf(after.getTransactionDate())); // Continue after this date
+                pstmt.setInt(index++, after.getTransactionId()); // and after this ID among orders with the same date
+            }
+            pstmt.setInt(index, pageSize + 1); // Fetch one extra row to learn whether another page exists
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                transactions.add(mapTransaction(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error finding user orders: " + e.getMessage()); // Log any database errors
+        }
+        return toPage(transactions, pageSize);
+    }
+
+    // Retrieves a single order by ID on the caller's connection and locks its row until that transaction ends
+    // Used when approving an order so concurrent admins processing the same order are serialized
+    // Returns the PurchaseTransaction object if found, null if the order does not exist
+    public PurchaseTransaction locateByIdForUpdate(Connection conn, int transactionId) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(SELECT_BY_ID_FOR_UPDATE)) {
+            pstmt.setInt(1, transactionId); // Set the order ID parameter for the WHERE clause
+            ResultSet rs = pstmt.executeQuery(); // Execute the query and lock the matching row
+            if (rs.next()) {
+                return mapTransaction(rs);
+            }
+        }
+        return null; // Return null if no order is found with the given ID
+    }
+
+    // Retrieves several orders by ID on the caller's connection and locks their rows until that transaction ends
+    // Rows are locked in ID order, so two bulk runs over overlapping orders cannot deadlock each other
+    // Returns the orders keyed by ID; IDs with no matching order are simply absent
+    public Map<Integer, PurchaseTransaction> locateByIdsForUpdate(Connection conn, Collection<Integer> transactionIds) throws SQLException {
+        Map<Integer, PurchaseTransaction> transactions = new HashMap<>();
+        if (transactionIds.isEmpty()) {
+            return transactions;
+        }
+        String sql = SELECT_BY_IDS_FOR_UPDATE.formatted(DataConnectionHelper.inListPlaceholders(transactionIds.size()));
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            DataConnectionHelper.bindInList(pstmt, 1, transactionIds);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                PurchaseTransaction transaction = mapTransaction(rs);
+                transactions.put(transaction.getTransactionId(), transaction);
+            }
+        }
+        return transactions;
+    }
+
+    // Moves several orders from one status to another on the caller's connection with one batched UPDATE
+    // As with the single-order version, an order only changes while it still has the expected status
+    // Returns the IDs of orders that were not updated; an empty list means every order changed
+    public List<Integer> modifyStatusBatch(Connection conn, List<Integer> transactionIds, OrderStatus expectedStatus,
+                                           OrderStatus newStatus) throws SQLException {
+        List<Integer> unchangedIds = new ArrayList<>();
+        if (transactionIds.isEmpty()) {
+            return unchangedIds;
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(UPDATE_STATUS_IF_CURRENT)) {
+            for (Integer transactionId : transactionIds) {
+                pstmt.setInt(1, newStatus.getCode());
+                pstmt.setInt(2, transactionId);
+                pstmt.setInt(3, expectedStatus.getCode());
+                pstmt.addBatch();
+            }
+            int[] updateCounts = pstmt.executeBatch(); // One round trip for the whole list
+            for (int i = 0; i < updateCounts.length; i++) {
+                if (updateCounts[i] == 0) {
+                    unchangedIds.add(transactionIds.get(i));
+                }
+            }
+        }
+        return unchangedIds;
+    }
+
     // Retrieves a single order from the database by its unique ID
     // Returns the PurchaseTransaction object if found, null if the order does not exist
     public PurchaseTransaction locateById(int transactionId) {
-        String sql = "SELECT * FROM orders WHERE id = ?";
         try (Connection conn = DataConnectionHelper.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_BY_ID)) {
             pstmt.setInt(1, transactionId); // Set the order ID parameter for the WHERE clause
             ResultSet rs = pstmt.executeQuery(); // Execute the query and get the result set
             if (rs.next()) {
                 // If an order is found, create and return a PurchaseTransaction object with the retrieved data
-                return new PurchaseTransaction(
-                    rs.getInt("id"),
-                    rs.getInt("user_id"),
-                    rs.getString("status"),
-                    rs.getTimestamp("order_date").toLocalDateTime(), // Convert SQL timestamp to LocalDateTime
-                    rs.getDouble("total_amount")
-                );
+                return mapTransaction(rs);
             }
         } catch (SQLException e) {
             System.err.println("Error finding order: " + e.getMessage()); // Log any database errors
         }
         return null; // Return null if no order is found with the given ID
     }
+
+    // Creates a PurchaseTransaction from the current row of an orders result set
+    private PurchaseTransaction mapTransaction(ResultSet rs) throws SQLException {
+        PurchaseTransaction transaction = new PurchaseTransaction();
+        transaction.setTransactionId(rs.getInt("id"));
+        transaction.setCustomerAccountId(rs.getInt("user_id"));
+        transaction.setOrderStatus(OrderStatus.fromCode(rs.getInt("status"))); // Decode the stored status code
+        transaction.setTransactionDate(rs.getTimestamp("order_date").toLocalDateTime()); // Convert SQL timestamp to LocalDateTime
+        transaction.setTransactionTotalCents(Money.fromDecimal(rs.getBigDecimal("total_amount"))); // Read the DECIMAL exactly
+        return transaction;
+    }
+
+    // Trims a result fetched with one extra row down to pageSize and derives the cursor for the next page
+    private ResultPage<PurchaseTransaction> toPage(List<PurchaseTransaction> transactions, int pageSize) {
+        if (transactions.size() <= pageSize) {
+            return new ResultPage<>(transactions, null); // The extra row was not there, so this is the last page
+        }
+        transactions.remove(pageSize);
+        return new ResultPage<>(transactions, TransactionCursor.after(transactions.get(pageSize - 1)));
+    }
 }
@@ -0,0 +1,105 @@
+package org.example.dao;
+
+import org.example.model.CustomerAccount;
+import org.example.model.InventoryItem;
+import org.example.model.ShoppingCartEntry;
+import org.example.model.ShoppingSession;
+import org.example.util.DataConnectionHelper;
+import org.example.util.Money;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// This Data Access Object (DAO) class saves and restores snapshots of the in-memory session store
+// Sessions and their carts are written to the shopping_sessions and shopping_session_items tables
+// Rows are identified by the session key (a hash of the session ID), never by the ID clients authenticate with
+public class ShoppingSessionDAO {
+    private static final String INSERT_SESSION = "INSERT INTO shopping_sessions (id, user_id, last_access) VALUES (?, ?, ?)";
+    private static final String INSERT_SESSION_ITEM = "INSERT INTO shopping_session_items (session_id, product_id, quantity) "
+        + "VALUES (?, ?, ?)";
+    private static final String SELECT_ALL = """
+        SELECT s.id AS session_id, s.last_access, u.id AS user_id, u.username, u.password, u.role,
+               i.quantity, p.id AS product_id, p.name, p.description, p.price, p.stock
+        FROM shopping_sessions s
+        JOIN users u ON u.id = s.user_id
+        LEFT JOIN shopping_session_items i ON i.session_id = s.id
+        LEFT JOIN products p ON p.id = i.product_id
+        ORDER BY s.id
+        """;
+
+    // Replaces the stored snapshot with the given sessions in a single transaction
+    // Returns true if the snapshot was saved, false if an error occurred (the previous snapshot is then kept)
+    public boolean replaceAll(Collection<ShoppingSession> sessions) {
+        try {
+            return DataConnectionHelper.executeInTransaction(conn -> {
+                try (Statement stmt = conn.createStatement();
+                     PreparedStatement sessionStmt = conn.prepareStatement(INSERT_SESSION);
+                     PreparedStatement itemStmt = conn.prepareStatement(INSERT_SESSION_ITEM)) {
+                    stmt.execute("DELETE FROM shopping_session_items");
+                    stmt.execute("DELETE FROM shopping_sessions");
+                    for (ShoppingSession session : sessions) {
+                        sessionStmt.setString(1, session.getSessionKey());
+                        sessionStmt.setInt(2, session.getAccount().getAccountId());
+                        sessionStmt.setTimestamp(3, new Timestamp(session.getLastAccessMillis()));
+                        sessionStmt.addBatch();
+                        for (ShoppingCartEntry entry : session.getCart()) {
+                            itemStmt.setString(1, session.getSessionKey());
+                            itemStmt.setInt(2, entry.getInventoryItem().getItemId());
+                            itemStmt.setInt(3, entry.getEntryQuantity());
+                            itemStmt.addBatch();
+                        }
+                    }
+                    sessionStmt.executeBatch(); // Sessions first, so every cart line has its parent row
+                    itemStmt.executeBatch();
+                }
+                return true;
+            });
+        } catch (SQLException e) {
+            System.err.println("Error saving sessions: " + e.getMessage()); // Log any database errors
+            return false;
+        }
+    }
+
+    // Loads the stored snapshot with one query, joining each session to its account and each cart line
+    // to the current product details; lines for products that have since been deleted are dropped
+    // Returns the sessions in no particular order, or an empty list if none are stored or an error occurred
+    public List<ShoppingSession> loadAll() {
+        Map<String, ShoppingSession> sessions = new LinkedHashMap<>();
+        try (Connection conn = DataConnectionHelper.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_ALL);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                String sessionKey = rs.getString("session_id");
+                ShoppingSession session = sessions.get(sessionKey);
+                if (session == null) {
+                    CustomerAccount account = new CustomerAccount(
+                        rs.getInt("user_id"),
+                        rs.getString("username"),
+                        rs.getString("password"),
+                        rs.getString("role")
+                    );
+                    session = new ShoppingSession(null, sessionKey, account, rs.getTimestamp("last_access").getTime());
+                    sessions.put(sessionKey, session);
+                }
+                rs.getInt("product_id");
+                if (!rs.wasNull()) {
+                    InventoryItem item = new InventoryItem();
+                    item.setItemId(rs.getInt("product_id"));
+                    item.setItemName(rs.getString("name"));
+                    item.setItemDescription(rs.getString("description"));
+                    item.setItemPriceCents(Money.fromDecimal(rs.getBigDecimal("price"))); // Read the DECIMAL exactly
+                    item.setItemStock(rs.getInt("stock"));
+                    session.addToCart(item, rs.getInt("quantity"));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error loading sessions: " + e.getMessage()); // Log any database errors
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(sessions.values());
+    }
+}
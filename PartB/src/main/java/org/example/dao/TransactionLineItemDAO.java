@@ -2,53 +2,145 @@ package org.example.dao;
 
 import org.example.model.TransactionLineItem;
 import org.example.util.DataConnectionHelper;
+import org.example.util.Money;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 // This Data Access Object (DAO) class handles all database operations related to order items
 // Order items represent individual products within an order, storing quantity and price at time of purchase
 public class TransactionLineItemDAO {
+    private static final String INSERT_LINE_ITEM = "INSERT INTO order_items (order_id, product_id, quantity, price) VALUES (?, ?, ?, ?)";
+    private static final String SELECT_BY_ORDER = "SELECT * FROM order_items WHERE order_id = ?";
+    private static final String SELECT_BY_ORDERS = "SELECT * FROM order_items WHERE order_id IN (%s)";
+
     // Adds a new order item to the database, representing a product within an order
     // Returns true if the order item was successfully added, false if there was an error
     public boolean insertRecord(TransactionLineItem lineItem) {
-        String sql = "INSERT INTO order_items (order_id, product_id, quantity, price) VALUES (?, ?, ?, ?)";
-        try (Connection conn = DataConnectionHelper.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = DataConnectionHelper.getConnection()) {
+            return insertRecord(conn, lineItem); // Run the insert on its own auto-commit connection
+        } catch (SQLException e) {
+            System.err.println("Error adding order item: " + e.getMessage()); // Log any database errors
+            return false;
+        }
+    }
+
+    // Adds a new order item on the caller's connection so it can take part in a larger transaction
+    // Returns true if the row was inserted; database errors are thrown to the caller
+    public boolean insertRecord(Connection conn, TransactionLineItem lineItem) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(INSERT_LINE_ITEM)) {
             pstmt.setInt(1, lineItem.getTransactionId()); // Set the order ID that this item belongs to
             pstmt.setInt(2, lineItem.getInventoryItemId()); // Set the product ID that was ordered
             pstmt.setInt(3, lineItem.getItemQuantity()); // Set the quantity of the product ordered
-            pstmt.setDouble(4, lineItem.getItemPriceAtPurchase()); // Set the price of the product at time of order
+            pstmt.setBigDecimal(4, Money.toDecimal(lineItem.getItemPriceAtPurchaseCents())); // Set the price of the product at time of order
             return pstmt.executeUpdate() > 0; // Return true if at least one row was inserted
+        }
+    }
+
+    // Adds several order items at once using a single prepared statement and one JDBC batch
+    // Each item's lineItemId is filled in with its generated key; returns the generated IDs in input order
+    // Returns an empty array if the list is empty or the batch failed, in which case no items were added
+    public int[] insertBatch(List<TransactionLineItem> lineItems) {
+        if (lineItems.isEmpty()) {
+            return new int[0]; // Nothing to insert, so skip the database round trip
+        }
+        try {
+            // Run the batch in its own transaction so a failure part-way through adds no items at all
+            return DataConnectionHelper.executeInTransaction(conn -> insertBatch(conn, lineItems));
         } catch (SQLException e) {
-            System.err.println("Error adding order item: " + e.getMessage()); // Log any database errors
-            return false;
+            System.err.println("Error adding order items: " + e.getMessage()); // Log any database errors
+            return new int[0];
         }
     }
 
+    // Adds several order items on the caller's connection with one addBatch/executeBatch round trip
+    // Each item's lineItemId is filled in with its generated key; returns the generated IDs in input order
+    // Database errors are thrown to the caller, which owns the transaction
+    public int[] insertBatch(Connection conn, List<TransactionLineItem> lineItems) throws SQLException {
+        int[] generatedIds = new int[lineItems.size()];
+        if (lineItems.isEmpty()) {
+            return generatedIds;
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(INSERT_LINE_ITEM, Statement.RETURN_GENERATED_KEYS)) {
+            for (TransactionLineItem lineItem : lineItems) {
+                pstmt.setInt(1, lineItem.getTransactionId()); // Set the order ID that this item belongs to
+                pstmt.setInt(2, lineItem.getInventoryItemId()); // Set the product ID that was ordered
+                pstmt.setInt(3, lineItem.getItemQuantity()); // Set the quantity of the product ordered
+                pstmt.setBigDecimal(4, Money.toDecimal(lineItem.getItemPriceAtPurchaseCents())); // Set the price of the product at time of order
+                pstmt.addBatch(); // Queue this row; nothing is sent until executeBatch
+            }
+            pstmt.executeBatch(); // Send every queued row to the database in one round trip
+            ResultSet rs = pstmt.getGeneratedKeys(); // One generated key per inserted row, in batch order
+            int index = 0;
+            while (rs.next() && index < generatedIds.length) {
+                generatedIds[index] = rs.getInt(1);
+                lineItems.get(index).setLineItemId(generatedIds[index]);
+                index++;
+            }
+            if (index != generatedIds.length) {
+                throw new SQLException("Expected " + generatedIds.length + " generated keys but received " + index);
+            }
+        }
+        return generatedIds;
+    }
+
     // Retrieves all order items associated with a specific order, identified by order ID
     // Returns a list of TransactionLineItem objects representing all products in that order
     public List<TransactionLineItem> locateByTransactionId(int transactionId) {
+        try (Connection conn = DataConnectionHelper.getConnection()) {
+            return locateByTransactionId(conn, transactionId); // Run the query on its own connection
+        } catch (SQLException e) {
+            System.err.println("Error finding order items: " + e.getMessage()); // Log any database errors
+        }
+        return new ArrayList<>(); // Return an empty list if the query failed
+    }
+
+    // Retrieves all order items of an order on the caller's connection, as part of a larger transaction
+    // Database errors are thrown to the caller
+    public List<TransactionLineItem> locateByTransactionId(Connection conn, int transactionId) throws SQLException {
         List<TransactionLineItem> lineItems = new ArrayList<>(); // Create a list to store the retrieved order items
-        String sql = "SELECT * FROM order_items WHERE order_id = ?";
-        try (Connection conn = DataConnectionHelper.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement pstmt = conn.prepareStatement(SELECT_BY_ORDER)) {
             pstmt.setInt(1, transactionId); // Set the order ID parameter for the WHERE clause
             ResultSet rs = pstmt.executeQuery(); // Execute the query and get the result set
             // Iterate through all rows in the result set and create TransactionLineItem objects
             while (rs.next()) {
-                lineItems.add(new TransactionLineItem(
-                    rs.getInt("id"),
-                    rs.getInt("order_id"),
-                    rs.getInt("product_id"),
-                    rs.getInt("quantity"),
-                    rs.getDouble("price")
-                ));
+                lineItems.add(mapLineItem(rs));
             }
-        } catch (SQLException e) {
-            System.err.println("Error finding order items: " + e.getMessage()); // Log any database errors
         }
         return lineItems; // Return the list of order items, which may be empty if the order has no items
     }
+
+    // Retrieves the order items of several orders with a single query on the caller's connection
+    // Returns them grouped by order ID; orders with no items (or that do not exist) have no entry
+    public Map<Integer, List<TransactionLineItem>> locateByTransactionIds(Connection conn, Collection<Integer> transactionIds) throws SQLException {
+        Map<Integer, List<TransactionLineItem>> lineItemsByOrder = new HashMap<>();
+        if (transactionIds.isEmpty()) {
+            return lineItemsByOrder;
+        }
+        String sql = SELECT_BY_ORDERS.formatted(DataConnectionHelper.inListPlaceholders(transactionIds.size()));
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            DataConnectionHelper.bindInList(pstmt, 1, transactionIds);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                TransactionLineItem lineItem = mapLineItem(rs);
+                lineItemsByOrder.computeIfAbsent(lineItem.getTransactionId(), id -> new ArrayList<>()).add(lineItem);
+            }
+        }
+        return lineItemsByOrder;
+    }
+
+    // Creates a TransactionLineItem from the current row of an order_items result set
+    private TransactionLineItem mapLineItem(ResultSet rs) throws SQLException {
+        TransactionLineItem lineItem = new TransactionLineItem();
+        lineItem.setLineItemId(rs.getInt("id"));
+        lineItem.setTransactionId(rs.getInt("order_id"));
+        lineItem.setInventoryItemId(rs.getInt("product_id"));
+        lineItem.setItemQuantity(rs.getInt("quantity"));
+        lineItem.setItemPriceAtPurchaseCents(Money.fromDecimal(rs.getBigDecimal("price"))); // Read the DECIMAL exactly
+        return lineItem;
+    }
 }
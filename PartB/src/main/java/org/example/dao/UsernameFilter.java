@@ -0,0 +1,138 @@
+package org.example.dao;
+
+import org.example.util.BloomFilter;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+// This class is an in-memory Bloom filter of every username in the users table
+// CustomerAccountDAO loads it once and adds each newly registered name, so checkUsernameAvailability can
+// answer "definitely free" for most unused names without querying the database. Only "maybe taken" answers
+// go on to the COUNT(*); names are never removed, because accounts are never deleted
+public class UsernameFilter {
+    // System property names used to configure the filter
+    public static final String EXPECTED_USERS_PROPERTY = "fers.usernames.filter.expected";
+    public static final String FALSE_POSITIVE_RATE_PROPERTY = "fers.usernames.filter.fpp";
+
+    // Default settings used when the corresponding system property is not set
+    private static final long DEFAULT_EXPECTED_USERS = 1_000_000;
+    private static final double DEFAULT_FALSE_POSITIVE_RATE = 0.01;
+
+    // Null when the filter is disabled (expected users of zero)
+    private final BloomFilter filter;
+    // Set once every existing username has been added; until then every check goes to the database
+    private volatile boolean loaded;
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    private final AtomicLong definiteNegativeCount = new AtomicLong();
+    private final AtomicLong maybePresentCount = new AtomicLong();
+    private final AtomicLong falsePositiveCount = new AtomicLong();
+
+    public UsernameFilter(long expectedUsers, double falsePositiveRate) {
+        this.filter = expectedUsers > 0 ? new BloomFilter(expectedUsers, falsePositiveRate) : null;
+    }
+
+    // Creates a filter configured from the fers.usernames.filter.* system properties
+    public static UsernameFilter fromSystemProperties() {
+        String rate = System.getProperty(FALSE_POSITIVE_RATE_PROPERTY);
+        return new UsernameFilter(
+            Long.getLong(EXPECTED_USERS_PROPERTY, DEFAULT_EXPECTED_USERS),
+            rate == null ? DEFAULT_FALSE_POSITIVE_RATE : Double.parseDouble(rate));
+    }
+
+    // Fills the filter from source unless that has already happened
+    // source passes every existing username to the consumer and returns false if it could not read them all,
+    // in which case the filter stays unloaded and the next call tries again
+    public void loadOnce(Predicate<Consumer<String>> source) {
+        if (filter == null || loaded) {
+            return;
+        }
+        loadLock.lock();
+        try {
+            if (!loaded) {
+                loaded = source.test(filter::put);
+            }
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    // False if no account can have this name, true if the database has to be asked
+    public boolean mightExist(String accountName) {
+        if (filter == null || !loaded || accountName == null) {
+            return true;
+        }
+        if (filter.mightContain(accountName)) {
+            maybePresentCount.incrementAndGet();
+            return true;
+        }
+        definiteNegativeCount.incrementAndGet();
+        return false;
+    }
+
+    // Records a new username; safe to call before or while the filter is loading
+    public void add(String accountName) {
+        if (filter != null && accountName != null) {
+            filter.put(accountName);
+        }
+    }
+
+    // Notes that the database found no account after mightExist said the name might be taken
+    public void recordFalsePositive() {
+        if (filter != null && loaded) {
+            falsePositiveCount.incrementAndGet();
+        }
+    }
+
+    // Empties the filter so it is loaded again on next use, e.g. after the users table was recreated
+    public void reset() {
+        if (filter == null) {
+            return;
+        }
+        loadLock.lock();
+        try {
+            loaded = false;
+            filter.clear();
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    public boolean isEnabled() {
+        return filter != null;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    // Checks answered "definitely free" without a query
+    public long getDefiniteNegativeCount() {
+        return definiteNegativeCount.get();
+    }
+
+    // Checks that had to query the database
+    public long getMaybePresentCount() {
+        return maybePresentCount.get();
+    }
+
+    // Queried checks where the name turned out to be free after all
+    public long getFalsePositiveCount() {
+        return falsePositiveCount.get();
+    }
+
+    // The filter's estimated false-positive rate at its current fill, or 0 when disabled
+    public double getEstimatedFalsePositiveRate() {
+        return filter == null ? 0.0 : filter.estimatedFalsePositiveRate();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("usernameFilter[bits=%d, hashes=%d, loaded=%s, definiteNegatives=%d, maybePresent=%d, "
+                + "falsePositives=%d, estimatedFpp=%.4f]",
+            filter == null ? 0 : filter.getBitCount(), filter == null ? 0 : filter.getHashCount(), loaded,
+            getDefiniteNegativeCount(), getMaybePresentCount(), getFalsePositiveCount(), getEstimatedFalsePositiveRate());
+    }
+}
@@ -0,0 +1,78 @@
+package org.example.model;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// This class is the immutable result of a bulk accept or reject run over many orders
+// It records what happened to each order, in the order they were processed, and how long the run took
+public class BulkOrderReport {
+    // What happened to one order in the run
+    public enum Outcome {
+        ACCEPTED,            // Stock was reserved and the order moved to ACCEPTED
+        REJECTED,            // The order moved to REJECTED and its payment was refunded
+        NOT_FOUND,           // No order has this ID
+        WRONG_STATUS,        // The order was no longer CREATED, e.g. another admin had already decided it
+        INSUFFICIENT_STOCK,  // At least one product in the order did not have enough stock
+        FAILED               // A database error rolled back the chunk this order was processed in
+    }
+
+    // Outcome per order ID, in processing order
+    private final Map<Integer, Outcome> outcomes;
+    // Wall-clock time the whole run took
+    private final long elapsedNanos;
+
+    public BulkOrderReport(Map<Integer, Outcome> outcomes, long elapsedNanos) {
+        this.outcomes = Collections.unmodifiableMap(new LinkedHashMap<>(outcomes));
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public Map<Integer, Outcome> getOutcomes() {
+        return outcomes;
+    }
+
+    // Returns the outcome for the given order, or null if the order was not part of the run
+    public Outcome getOutcome(int transactionId) {
+        return outcomes.get(transactionId);
+    }
+
+    // Returns how many orders ended with each outcome; outcomes that did not occur are left out
+    public Map<Outcome, Integer> getCounts() {
+        Map<Outcome, Integer> counts = new EnumMap<>(Outcome.class);
+        for (Outcome outcome : outcomes.values()) {
+            counts.merge(outcome, 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    public int getProcessedCount() {
+        return outcomes.size();
+    }
+
+    // Orders that were accepted or rejected as asked
+    public int getSucceededCount() {
+        int succeeded = 0;
+        for (Outcome outcome : outcomes.values()) {
+            if (outcome == Outcome.ACCEPTED || outcome == Outcome.REJECTED) {
+                succeeded++;
+            }
+        }
+        return succeeded;
+    }
+
+    public double getElapsedMillis() {
+        return elapsedNanos / 1_000_000.0;
+    }
+
+    // Orders processed per second over the whole run, whatever their outcome
+    public double getOrdersPerSecond() {
+        return elapsedNanos == 0 ? 0 : outcomes.size() * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d of %d orders succeeded %s in %.1f ms (%.0f orders/s)",
+            getSucceededCount(), getProcessedCount(), getCounts(), getElapsedMillis(), getOrdersPerSecond());
+    }
+}
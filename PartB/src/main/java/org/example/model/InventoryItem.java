@@ -1,5 +1,7 @@
 package org.example.model;
 
+import org.example.util.Money;
+
 // This class represents a product in the Fashion E-Retail System inventory
 // Products are managed by administrators and can be purchased by customers
 public class InventoryItem {
@@ -9,8 +11,8 @@ public class InventoryItem {
     private String itemName;
     // Detailed description of the product providing information about its features and characteristics
     private String itemDescription;
-    // Price of the product in dollars, used to calculate order totals and cart subtotals
-    private double itemPrice;
+    // Price of the product in cents, used to calculate order totals and cart subtotals exactly
+    private long itemPriceCents;
     // Current quantity of this product available in inventory for purchase
     private int itemStock;
 
@@ -20,7 +22,7 @@ public class InventoryItem {
     public InventoryItem(String itemName, String itemDescription, double itemPrice, int itemStock) {
         this.itemName = itemName;
         this.itemDescription = itemDescription;
-        this.itemPrice = itemPrice;
+        this.itemPriceCents = Money.fromDouble(itemPrice);
         this.itemStock = itemStock;
     }
 
@@ -28,7 +30,7 @@ public class InventoryItem {
         this.itemId = itemId;
         this.itemName = itemName;
         this.itemDescription = itemDescription;
-        this.itemPrice = itemPrice;
+        this.itemPriceCents = Money.fromDouble(itemPrice);
         this.itemStock = itemStock;
     }
 
@@ -56,12 +58,21 @@ public class InventoryItem {
         this.itemDescription = itemDescription;
     }
 
+    // Returns the amount in dollars; use getItemPriceCents for exact arithmetic
     public double getItemPrice() {
-        return itemPrice;
+        return Money.toDouble(itemPriceCents);
     }
 
     public void setItemPrice(double itemPrice) {
-        this.itemPrice = itemPrice;
+        this.itemPriceCents = Money.fromDouble(itemPrice);
+    }
+
+    public long getItemPriceCents() {
+        return itemPriceCents;
+    }
+
+    public void setItemPriceCents(long itemPriceCents) {
+        this.itemPriceCents = itemPriceCents;
     }
 
     public int getItemStock() {
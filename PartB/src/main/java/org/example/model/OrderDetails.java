@@ -0,0 +1,45 @@
+package org.example.model;
+
+import java.util.List;
+
+// This class is an order together with its line items and its payment, as shown on an order's detail view
+// It is read in one round trip by OrderDetailsDAO instead of one query per table
+public class OrderDetails {
+    // The order header: customer, status, date and total
+    private final PurchaseTransaction transaction;
+    // Products bought in this order, in the order they were added
+    private final List<TransactionLineItem> lineItems;
+    // Payment taken for this order, or null if none was recorded
+    private final PaymentRecord payment;
+
+    public OrderDetails(PurchaseTransaction transaction, List<TransactionLineItem> lineItems, PaymentRecord payment) {
+        this.transaction = transaction;
+        this.lineItems = List.copyOf(lineItems);
+        this.payment = payment;
+    }
+
+    public PurchaseTransaction getTransaction() {
+        return transaction;
+    }
+
+    public List<TransactionLineItem> getLineItems() {
+        return lineItems;
+    }
+
+    public PaymentRecord getPayment() {
+        return payment;
+    }
+
+    public int getTransactionId() {
+        return transaction.getTransactionId();
+    }
+
+    // Total number of units across all line items
+    public int getItemCount() {
+        int count = 0;
+        for (TransactionLineItem lineItem : lineItems) {
+            count += lineItem.getItemQuantity();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,38 @@
+package org.example.model;
+
+// This enum lists the stages of an order's lifecycle, from creation through admin approval to delivery
+// Orders are stored with the numeric code of their status instead of its name (see DataConnectionHelper)
+public enum OrderStatus {
+    CREATED(1),
+    ACCEPTED(2),
+    REJECTED(3),
+    DELIVERED(4);
+
+    // Compact code stored in the TINYINT column; never reuse or renumber a code once it has been stored
+    private final int code;
+
+    OrderStatus(int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    // Returns the constant stored under the given code
+    // Throws IllegalArgumentException if the code is unknown, which means the row was not written by this application
+    public static OrderStatus fromCode(int code) {
+        for (OrderStatus value : values()) {
+            if (value.code == code) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Unknown order status code: " + code);
+    }
+
+    // Parses a name such as "CREATED"; null stays null so unset model fields keep working
+    // Throws IllegalArgumentException if the name is not one of the constants
+    public static OrderStatus parse(String name) {
+        return name == null ? null : valueOf(name);
+    }
+}
@@ -0,0 +1,35 @@
+package org.example.model;
+
+// This enum lists the payment methods a customer can choose at checkout
+// Payments are stored with the numeric code of their method instead of its name
+public enum PaymentMethod {
+    ONLINE(1),
+    CARD(2),
+    COD(3);
+
+    // Value of payments.payment_method for this constant
+    private final int code;
+
+    PaymentMethod(int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    // Returns the constant stored under the given code; throws IllegalArgumentException for an unknown code
+    public static PaymentMethod fromCode(int code) {
+        for (PaymentMethod value : values()) {
+            if (value.code == code) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Unknown payment method code: " + code);
+    }
+
+    // Parses a stored or user-facing name such as "ONLINE", returning null for null
+    public static PaymentMethod parse(String name) {
+        return name == null ? null : valueOf(name);
+    }
+}
@@ -1,5 +1,7 @@
 package org.example.model;
 
+import org.example.util.Money;
+
 import java.time.LocalDateTime;
 
 // This class represents a payment transaction associated with an order
@@ -10,11 +12,11 @@ public class PaymentRecord {
     // ID of the order that this payment is associated with, linking payment to order
     private int transactionId;
     // Method used to process the payment, chosen by the customer during checkout
-    private String paymentType; // ONLINE, CARD, COD
+    private PaymentMethod paymentType;
     // Current status of the payment transaction, indicating whether it succeeded or was refunded
-    private String paymentStatus; // SUCCESS, FAILED, REFUNDED
+    private PaymentStatus paymentStatus;
     // Amount of money processed in this payment transaction, matching the order total
-    private double paymentAmount;
+    private long paymentAmountCents;
     // Date and time when the payment was processed or recorded in the system
     private LocalDateTime paymentTimestamp;
 
@@ -23,18 +25,18 @@ public class PaymentRecord {
 
     public PaymentRecord(int transactionId, String paymentType, String paymentStatus, double paymentAmount) {
         this.transactionId = transactionId;
-        this.paymentType = paymentType;
-        this.paymentStatus = paymentStatus;
-        this.paymentAmount = paymentAmount;
+        this.paymentType = PaymentMethod.parse(paymentType);
+        this.paymentStatus = PaymentStatus.parse(paymentStatus);
+        this.paymentAmountCents = Money.fromDouble(paymentAmount);
         this.paymentTimestamp = LocalDateTime.now();
     }
 
     public PaymentRecord(int paymentRecordId, int transactionId, String paymentType, String paymentStatus, double paymentAmount, LocalDateTime paymentTimestamp) {
         this.paymentRecordId = paymentRecordId;
         this.transactionId = transactionId;
-        this.paymentType = paymentType;
-        this.paymentStatus = paymentStatus;
-        this.paymentAmount = paymentAmount;
+        this.paymentType = PaymentMethod.parse(paymentType);
+        this.paymentStatus = PaymentStatus.parse(paymentStatus);
+        this.paymentAmountCents = Money.fromDouble(paymentAmount);
         this.paymentTimestamp = paymentTimestamp;
     }
 
@@ -54,28 +56,55 @@ public class PaymentRecord {
         this.transactionId = transactionId;
     }
 
+    // Returns the method name, e.g. "CARD"; use getPaymentMethod for the typed value
     public String getPaymentType() {
-        return paymentType;
+        return paymentType == null ? null : paymentType.name();
     }
 
     public void setPaymentType(String paymentType) {
+        this.paymentType = PaymentMethod.parse(paymentType);
+    }
+
+    public PaymentMethod getPaymentMethod() {
+        return paymentType;
+    }
+
+    public void setPaymentMethod(PaymentMethod paymentType) {
         this.paymentType = paymentType;
     }
 
+    // Returns the status name, e.g. "SUCCESS"; use getPaymentState for the typed value
     public String getPaymentStatus() {
-        return paymentStatus;
+        return paymentStatus == null ? null : paymentStatus.name();
     }
 
     public void setPaymentStatus(String paymentStatus) {
+        this.paymentStatus = PaymentStatus.parse(paymentStatus);
+    }
+
+    public PaymentStatus getPaymentState() {
+        return paymentStatus;
+    }
+
+    public void setPaymentState(PaymentStatus paymentStatus) {
         this.paymentStatus = paymentStatus;
     }
 
+    // Returns the amount in dollars; use getPaymentAmountCents for exact arithmetic
     public double getPaymentAmount() {
-        return paymentAmount;
+        return Money.toDouble(paymentAmountCents);
     }
 
     public void setPaymentAmount(double paymentAmount) {
-        this.paymentAmount = paymentAmount;
+        this.paymentAmountCents = Money.fromDouble(paymentAmount);
+    }
+
+    public long getPaymentAmountCents() {
+        return paymentAmountCents;
+    }
+
+    public void setPaymentAmountCents(long paymentAmountCents) {
+        this.paymentAmountCents = paymentAmountCents;
     }
 
     public LocalDateTime getPaymentTimestamp() {
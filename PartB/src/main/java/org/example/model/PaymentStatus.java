@@ -0,0 +1,35 @@
+package org.example.model;
+
+// This enum lists the states of a payment: taken at checkout, failed, or refunded when the order is rejected
+// Payments are stored with the numeric code of their status instead of its name
+public enum PaymentStatus {
+    SUCCESS(1),
+    FAILED(2),
+    REFUNDED(3);
+
+    // Value of payments.status for this constant
+    private final int code;
+
+    PaymentStatus(int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    // Returns the constant stored under the given code; throws IllegalArgumentException for an unknown code
+    public static PaymentStatus fromCode(int code) {
+        for (PaymentStatus value : values()) {
+            if (value.code == code) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Unknown payment status code: " + code);
+    }
+
+    // Parses a stored or user-facing name such as "SUCCESS", returning null for null
+    public static PaymentStatus parse(String name) {
+        return name == null ? null : valueOf(name);
+    }
+}
@@ -0,0 +1,26 @@
+package org.example.model;
+
+// This class represents one typeahead suggestion: a product's ID and its name as entered
+// It carries only what an autocomplete list shows, so suggestions never need the products table
+public class ProductSuggestion {
+    private final int itemId;
+    private final String itemName;
+
+    public ProductSuggestion(int itemId, String itemName) {
+        this.itemId = itemId;
+        this.itemName = itemName;
+    }
+
+    public int getItemId() {
+        return itemId;
+    }
+
+    public String getItemName() {
+        return itemName;
+    }
+
+    @Override
+    public String toString() {
+        return itemName + " (ID " + itemId + ")";
+    }
+}
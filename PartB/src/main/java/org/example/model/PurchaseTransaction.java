@@ -1,5 +1,7 @@
 package org.example.model;
 
+import org.example.util.Money;
+
 import java.time.LocalDateTime;
 
 // This class represents an order placed by a customer in the Fashion E-Retail System
@@ -10,28 +12,28 @@ public class PurchaseTransaction {
     // ID of the user who placed this order, linking the order to the customer account
     private int customerAccountId;
     // Current status of the order, which determines what actions can be performed on it
-    private String transactionStatus; // CREATED, ACCEPTED, REJECTED, DELIVERED
+    private OrderStatus transactionStatus;
     // Date and time when the order was originally placed by the customer
     private LocalDateTime transactionDate;
     // Total amount of money for this order, calculated from all order items and their quantities
-    private double transactionTotal;
+    private long transactionTotalCents;
 
     public PurchaseTransaction() {
     }
 
     public PurchaseTransaction(int customerAccountId, String transactionStatus, double transactionTotal) {
         this.customerAccountId = customerAccountId;
-        this.transactionStatus = transactionStatus;
-        this.transactionTotal = transactionTotal;
+        this.transactionStatus = OrderStatus.parse(transactionStatus);
+        this.transactionTotalCents = Money.fromDouble(transactionTotal);
         this.transactionDate = LocalDateTime.now();
     }
 
     public PurchaseTransaction(int transactionId, int customerAccountId, String transactionStatus, LocalDateTime transactionDate, double transactionTotal) {
         this.transactionId = transactionId;
         this.customerAccountId = customerAccountId;
-        this.transactionStatus = transactionStatus;
+        this.transactionStatus = OrderStatus.parse(transactionStatus);
         this.transactionDate = transactionDate;
-        this.transactionTotal = transactionTotal;
+        this.transactionTotalCents = Money.fromDouble(transactionTotal);
     }
 
     public int getTransactionId() {
@@ -50,11 +52,20 @@ public class PurchaseTransaction {
         this.customerAccountId = customerAccountId;
     }
 
+    // Returns the status name, e.g. "CREATED"; use getOrderStatus to compare statuses
     public String getTransactionStatus() {
-        return transactionStatus;
+        return transactionStatus == null ? null : transactionStatus.name();
     }
 
     public void setTransactionStatus(String transactionStatus) {
+        this.transactionStatus = OrderStatus.parse(transactionStatus);
+    }
+
+    public OrderStatus getOrderStatus() {
+        return transactionStatus;
+    }
+
+    public void setOrderStatus(OrderStatus transactionStatus) {
         this.transactionStatus = transactionStatus;
     }
 
@@ -66,12 +77,21 @@ public class PurchaseTransaction {
         this.transactionDate = transactionDate;
     }
 
+    // Returns the amount in dollars; use getTransactionTotalCents for exact arithmetic
     public double getTransactionTotal() {
-        return transactionTotal;
+        return Money.toDouble(transactionTotalCents);
     }
 
     public void setTransactionTotal(double transactionTotal) {
-        this.transactionTotal = transactionTotal;
+        this.transactionTotalCents = Money.fromDouble(transactionTotal);
+    }
+
+    public long getTransactionTotalCents() {
+        return transactionTotalCents;
+    }
+
+    public void setTransactionTotalCents(long transactionTotalCents) {
+        this.transactionTotalCents = transactionTotalCents;
     }
 }
 
@@ -0,0 +1,30 @@
+package org.example.model;
+
+import java.util.List;
+
+// This class holds one page of results from a paginated query
+// Besides the items it carries the cursor needed to fetch the following page, or null on the last page
+public class ResultPage<T> {
+    // Items on this page, in query order
+    private final List<T> items;
+    // Position to continue from when requesting the next page, null if there are no more results
+    private final TransactionCursor nextCursor;
+
+    public ResultPage(List<T> items, TransactionCursor nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public TransactionCursor getNextCursor() {
+        return nextCursor;
+    }
+
+    // Returns true if another page follows this one
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
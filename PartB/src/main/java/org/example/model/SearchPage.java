@@ -0,0 +1,48 @@
+package org.example.model;
+
+import java.util.List;
+
+// This class holds one page of ranked search results
+// Unlike ResultPage it pages by position, since relevance order has no stable key to continue from
+public class SearchPage<T> {
+    // Results on this page, best match first
+    private final List<T> items;
+    // Number of results that matched the query across all pages
+    private final int totalMatches;
+    // Position of the first item on this page within all matches, and the page size asked for
+    private final int offset;
+    private final int limit;
+
+    public SearchPage(List<T> items, int totalMatches, int offset, int limit) {
+        this.items = List.copyOf(items);
+        this.totalMatches = totalMatches;
+        this.offset = offset;
+        this.limit = limit;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public int getTotalMatches() {
+        return totalMatches;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    // Returns true if more matches follow this page
+    public boolean hasNext() {
+        return offset + limit < totalMatches;
+    }
+
+    // Offset of the following page
+    public int getNextOffset() {
+        return offset + limit;
+    }
+}
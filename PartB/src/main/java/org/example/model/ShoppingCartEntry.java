@@ -1,5 +1,7 @@
 package org.example.model;
 
+import org.example.util.Money;
+
 // This class represents an item in a customer's shopping cart
 // It combines a product with a quantity, allowing customers to add multiple units of the same product
 public class ShoppingCartEntry {
@@ -34,7 +36,12 @@ public class ShoppingCartEntry {
     // Calculates the subtotal for this cart item by multiplying the product price by the quantity
     // This represents the total cost for all units of this specific product in the cart
     public double calculateSubtotal() {
-        return inventoryItem.getItemPrice() * entryQuantity;
+        return Money.toDouble(calculateSubtotalCents());
+    }
+
+    // Calculates the same subtotal exactly, in cents; checkout totals are summed from these
+    public long calculateSubtotalCents() {
+        return Money.multiply(inventoryItem.getItemPriceCents(), entryQuantity);
     }
 }
 
@@ -0,0 +1,121 @@
+package org.example.model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+// This class represents one logged-in user's session: the account and its shopping cart
+// The cart is keyed by product ID, so adding, changing or removing a product is O(1) however large the cart is
+public class ShoppingSession {
+    // System property that caps the number of different products in one cart, so a single session cannot
+    // grow without bound; read once when the class is loaded
+    public static final String MAX_CART_LINES_PROPERTY = "fers.sessions.maxCartLines";
+    public static final int MAX_CART_LINES = Integer.getInteger(MAX_CART_LINES_PROPERTY, 500);
+
+    // Unique, unguessable identifier handed to the client; null for a session restored from a snapshot,
+    // because only its key is ever stored
+    private final String sessionId;
+    // Hash of the ID that the session store and its snapshots use in place of the ID itself
+    private final String sessionKey;
+    // The account that logged in to create this session
+    private final CustomerAccount account;
+    // Cart entries by product ID, in the order the products were first added
+    private final Map<Integer, ShoppingCartEntry> cart = new LinkedHashMap<>();
+    // Guards cart; one client may send parallel requests for the same session
+    private final ReentrantLock lock = new ReentrantLock();
+    // Time of the last request that used this session, for idle expiry
+    private volatile long lastAccessMillis;
+
+    public ShoppingSession(String sessionId, String sessionKey, CustomerAccount account, long lastAccessMillis) {
+        this.sessionId = sessionId;
+        this.sessionKey = sessionKey;
+        this.account = account;
+        this.lastAccessMillis = lastAccessMillis;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public String getSessionKey() {
+        return sessionKey;
+    }
+
+    public CustomerAccount getAccount() {
+        return account;
+    }
+
+    public long getLastAccessMillis() {
+        return lastAccessMillis;
+    }
+
+    // Records that the session was just used
+    public void touch(long nowMillis) {
+        lastAccessMillis = nowMillis;
+    }
+
+    // Adds a product to the cart, or increases its quantity if it is already there
+    // Returns false, leaving the cart unchanged, if the product is new and the cart already holds MAX_CART_LINES
+    public boolean addToCart(InventoryItem item, int quantity) {
+        lock.lock();
+        try {
+            ShoppingCartEntry existing = cart.get(item.getItemId());
+            if (existing != null) {
+                existing.setEntryQuantity(existing.getEntryQuantity() + quantity);
+            } else if (cart.size() >= MAX_CART_LINES) {
+                return false;
+            } else {
+                cart.put(item.getItemId(), new ShoppingCartEntry(item, quantity));
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Removes a product from the cart; returns false if it was not in the cart
+    public boolean removeFromCart(int itemId) {
+        lock.lock();
+        try {
+            return cart.remove(itemId) != null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Returns a copy of the cart's entries in the order they were added
+    // The copies can be used for checkout while the session keeps changing
+    public List<ShoppingCartEntry> getCart() {
+        lock.lock();
+        try {
+            List<ShoppingCartEntry> entries = new ArrayList<>(cart.size());
+            for (ShoppingCartEntry entry : cart.values()) {
+                entries.add(new ShoppingCartEntry(entry.getInventoryItem(), entry.getEntryQuantity()));
+            }
+            return entries;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isCartEmpty() {
+        lock.lock();
+        try {
+            return cart.isEmpty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Empties the cart, e.g. after a successful checkout
+    public void clearCart() {
+        lock.lock();
+        try {
+            cart.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package org.example.model;
+
+import java.time.LocalDateTime;
+
+// This class marks a position in a list of orders sorted by order date and ID
+// It holds the sort key of the last order on a page, and the next page starts right after it (keyset pagination)
+public class TransactionCursor {
+    // Order date of the last order seen on the previous page
+    private final LocalDateTime transactionDate;
+    // ID of the last order seen, used to break ties between orders placed at the same moment
+    private final int transactionId;
+
+    public TransactionCursor(LocalDateTime transactionDate, int transactionId) {
+        this.transactionDate = transactionDate;
+        this.transactionId = transactionId;
+    }
+
+    // Creates a cursor positioned just after the given order
+    public static TransactionCursor after(PurchaseTransaction transaction) {
+        return new TransactionCursor(transaction.getTransactionDate(), transaction.getTransactionId());
+    }
+
+    public LocalDateTime getTransactionDate() {
+        return transactionDate;
+    }
+
+    public int getTransactionId() {
+        return transactionId;
+    }
+}
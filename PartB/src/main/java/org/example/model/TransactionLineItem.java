@@ -1,5 +1,7 @@
 package org.example.model;
 
+import org.example.util.Money;
+
 // This class represents a single item within an order
 // Each order can contain multiple order items, one for each product that was purchased
 public class TransactionLineItem {
@@ -12,7 +14,9 @@ public class TransactionLineItem {
     // Quantity of this product that was ordered by the customer
     private int itemQuantity;
     // Price of the product at the time the order was placed, stored to preserve historical pricing
-    private double itemPriceAtPurchase;
+    private long itemPriceAtPurchaseCents;
+    // Name of the product, filled in only by reads that join the products table (e.g. order history), else null
+    private String itemName;
 
     public TransactionLineItem() {
     }
@@ -21,7 +25,7 @@ public class TransactionLineItem {
         this.transactionId = transactionId;
         this.inventoryItemId = inventoryItemId;
         this.itemQuantity = itemQuantity;
-        this.itemPriceAtPurchase = itemPriceAtPurchase;
+        this.itemPriceAtPurchaseCents = Money.fromDouble(itemPriceAtPurchase);
     }
 
     public TransactionLineItem(int lineItemId, int transactionId, int inventoryItemId, int itemQuantity, double itemPriceAtPurchase) {
@@ -29,7 +33,7 @@ public class TransactionLineItem {
         this.transactionId = transactionId;
         this.inventoryItemId = inventoryItemId;
         this.itemQuantity = itemQuantity;
-        this.itemPriceAtPurchase = itemPriceAtPurchase;
+        this.itemPriceAtPurchaseCents = Money.fromDouble(itemPriceAtPurchase);
     }
 
     public int getLineItemId() {
@@ -64,12 +68,28 @@ public class TransactionLineItem {
         this.itemQuantity = itemQuantity;
     }
 
+    // Returns the amount in dollars; use getItemPriceAtPurchaseCents for exact arithmetic
     public double getItemPriceAtPurchase() {
-        return itemPriceAtPurchase;
+        return Money.toDouble(itemPriceAtPurchaseCents);
     }
 
     public void setItemPriceAtPurchase(double itemPriceAtPurchase) {
-        this.itemPriceAtPurchase = itemPriceAtPurchase;
+        this.itemPriceAtPurchaseCents = Money.fromDouble(itemPriceAtPurchase);
+    }
+
+    public long getItemPriceAtPurchaseCents() {
+        return itemPriceAtPurchaseCents;
+    }
+
+    public void setItemPriceAtPurchaseCents(long itemPriceAtPurchaseCents) {
+        this.itemPriceAtPurchaseCents = itemPriceAtPurchaseCents;
+    }
+
+    public String getItemName() {
+        return itemName;
     }
-}
 
+    public void setItemName(String itemName) {
+        this.itemName = itemName;
+    }
+}
@@ -6,6 +6,9 @@ import org.example.model.CustomerAccount;
 // This service class provides business logic for user-related operations
 // It acts as an intermediary between the presentation layer and the data access layer
 public class CustomerAccountService {
+    // Returned by the register methods when the username belongs to another account
+    public static final int USERNAME_TAKEN = CustomerAccountDAO.USERNAME_TAKEN;
+
     // Data Access Object for performing database operations on users
     private final CustomerAccountDAO accountDAO;
 
@@ -15,41 +18,52 @@ public class CustomerAccountService {
     }
 
     // Registers a new customer account in the system
-    // Validates that the username is not already taken before creating the account
     // Returns true if registration was successful, false if username exists or registration failed
     public boolean createCustomerAccount(String accountName, String accountPassword) {
-        if (accountDAO.checkUsernameAvailability(accountName)) {
-            System.out.println("Username already exists!"); // Inform user that username is taken
-            return false;
-        }
-        // Create a new user object with CUSTOMER role
-        CustomerAccount account = new CustomerAccount(accountName, accountPassword, "CUSTOMER");
-        boolean success = accountDAO.insertRecord(account); // Attempt to save the user to the database
-        if (success) {
-            System.out.println("Customer registered successfully!"); // Confirm successful registration
-        } else {
-            System.out.println("Registration failed!"); // Inform user of registration failure
-        }
-        return success;
+        return registerCustomerAccount(accountName, accountPassword) > 0;
     }
 
     // Registers a new administrator account in the system
-    // Validates that the username is not already taken before creating the account
     // Returns true if registration was successful, false if username exists or registration failed
     public boolean createAdminAccount(String accountName, String accountPassword) {
-        if (accountDAO.checkUsernameAvailability(accountName)) {
+        return registerAdminAccount(accountName, accountPassword) > 0;
+    }
+
+    // Registers a new customer account and returns its generated ID
+    // Returns USERNAME_TAKEN if the username exists, -1 if registration failed
+    public int registerCustomerAccount(String accountName, String accountPassword) {
+        return register(new CustomerAccount(accountName, accountPassword, "CUSTOMER"), "Customer");
+    }
+
+    // Registers a new administrator account and returns its generated ID
+    // Returns USERNAME_TAKEN if the username exists, -1 if registration failed
+    public int registerAdminAccount(String accountName, String accountPassword) {
+        return register(new CustomerAccount(accountName, accountPassword, "ADMIN"), "Admin");
+    }
+
+    // Inserts the account in one statement and lets the database's UNIQUE constraint reject a taken username,
+    // rather than checking availability first, which costs a second round trip and races with other sign-ups
+    private int register(CustomerAccount account, String roleLabel) {
+        int accountId = accountDAO.registerAccount(account); // Attempt to save the user to the database
+        if (accountId > 0) {
+            System.out.println(roleLabel + " registered successfully!"); // Confirm successful registration
+        } else if (accountId == USERNAME_TAKEN) {
             System.out.println("Username already exists!"); // Inform user that username is taken
-            return false;
-        }
-        // Create a new user object with ADMIN role
-        CustomerAccount account = new CustomerAccount(accountName, accountPassword, "ADMIN");
-        boolean success = accountDAO.insertRecord(account); // Attempt to save the user to the database
-        if (success) {
-            System.out.println("Admin registered successfully!"); // Confirm successful registration
         } else {
             System.out.println("Registration failed!"); // Inform user of registration failure
         }
-        return success;
+        return accountId;
+    }
+
+    // Checks whether a username is still free, e.g. while a sign-up form is being filled in
+    // Most free names are answered from the in-memory username filter without a query
+    public boolean isUsernameAvailable(String accountName) {
+        return !accountDAO.checkUsernameAvailability(accountName);
+    }
+
+    // Loads the existing usernames into the username filter so the first availability checks do not wait for it
+    public void loadUsernameFilter() {
+        CustomerAccountDAO.loadUsernameFilter();
     }
 
     // Authenticates a user by verifying their username and password
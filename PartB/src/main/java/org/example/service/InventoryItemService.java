@@ -1,13 +1,26 @@
 package org.example.service;
 
 import org.example.dao.InventoryItemDAO;
+import org.example.dao.ProductSearchIndex;
 import org.example.model.InventoryItem;
+import org.example.model.ProductSuggestion;
+import org.example.model.SearchPage;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 // This service class provides business logic for product-related operations
 // It acts as an intermediary between the presentation layer and the data access layer
 public class InventoryItemService {
+    // Largest page of search results, and how far into the results a client may page
+    public static final int MAX_SEARCH_PAGE_SIZE = 100;
+    public static final int MAX_SEARCH_OFFSET = 10_000;
+    // Most typeahead suggestions returned for one prefix
+    public static final int MAX_SUGGESTIONS = 20;
+
     // Data Access Object for performing database operations on products
     private final InventoryItemDAO inventoryDAO;
 
@@ -18,9 +31,14 @@ public class InventoryItemService {
 
     // Adds a new product to the inventory with the specified details
     // Creates an InventoryItem object and saves it to the database through the DAO
+    // The price is in cents, so it reaches the database exactly as given
     // Returns true if the product was successfully added, false if there was an error
-    public boolean insertInventoryItem(String itemName, String itemDescription, double itemPrice, int itemStock) {
-        InventoryItem item = new InventoryItem(itemName, itemDescription, itemPrice, itemStock); // Create a new product object
+    public boolean insertInventoryItem(String itemName, String itemDescription, long itemPriceCents, int itemStock) {
+        InventoryItem item = new InventoryItem(); // Create a new product object
+        item.setItemName(itemName);
+        item.setItemDescription(itemDescription);
+        item.setItemPriceCents(itemPriceCents);
+        item.setItemStock(itemStock);
         int itemId = inventoryDAO.insertRecord(item); // Save the product to the database and get the generated ID
         if (itemId > 0) {
             System.out.println("Product added successfully with ID: " + itemId); // Confirm successful addition
@@ -34,8 +52,14 @@ public class InventoryItemService {
     // Updates an existing product in the inventory with new information
     // Creates an InventoryItem object with the updated details and saves it to the database
     // Returns true if the product was successfully updated, false if the product was not found or an error occurred
-    public boolean modifyInventoryItem(int itemId, String itemName, String itemDescription, double itemPrice, int itemStock) {
-        InventoryItem item = new InventoryItem(itemId, itemName, itemDescription, itemPrice, itemStock); // Create a product object with updated data
+    // The price is in cents, as for insertInventoryItem
+    public boolean modifyInventoryItem(int itemId, String itemName, String itemDescription, long itemPriceCents, int itemStock) {
+        InventoryItem item = new InventoryItem(); // Create a product object with updated data
+        item.setItemId(itemId);
+        item.setItemName(itemName);
+        item.setItemDescription(itemDescription);
+        item.setItemPriceCents(itemPriceCents);
+        item.setItemStock(itemStock);
         boolean success = inventoryDAO.modifyRecord(item); // Update the product in the database
         if (success) {
             System.out.println("Product updated successfully!"); // Confirm successful update
@@ -63,6 +87,52 @@ public class InventoryItemService {
         return inventoryDAO.retrieveAllRecords(); // Delegate to the DAO to retrieve all products
     }
 
+    // Streams every product in the inventory, ordered by ID, without loading the whole catalog into memory
+    // The caller must close the returned stream (try-with-resources) to release its database connection
+    public Stream<InventoryItem> streamInventoryItems() {
+        return inventoryDAO.streamAllRecords(); // Delegate to the DAO to stream the products
+    }
+
+    // Retrieves one page of products, ordered by ID, starting right after afterItemId (0 for the first page)
+    // Returns null if the page could not be read
+    public List<InventoryItem> retrieveInventoryItemsAfter(int afterItemId, int pageSize) {
+        return inventoryDAO.retrieveRecordsAfter(afterItemId, pageSize); // Delegate to the DAO to read the page
+    }
+
+    // Searches product names and descriptions for every word of the query, best match first
+    // A word in the name counts more than one in the description; pages are addressed by offset and size
+    // Throws IllegalArgumentException if the page lies outside the allowed range
+    public SearchPage<InventoryItem> searchInventoryItems(String query, int offset, int limit) {
+        if (limit < 1 || limit > MAX_SEARCH_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_SEARCH_PAGE_SIZE);
+        }
+        if (offset < 0 || offset > MAX_SEARCH_OFFSET) {
+            throw new IllegalArgumentException("Offset must be between 0 and " + MAX_SEARCH_OFFSET);
+        }
+        ProductSearchIndex.Hits hits = inventoryDAO.search(query, offset, limit);
+        // One lookup for the whole page: cached products from memory, the rest with a single query
+        List<Integer> itemIds = Arrays.stream(hits.getItemIds()).boxed().toList();
+        Map<Integer, InventoryItem> itemsById = inventoryDAO.locateByIds(itemIds);
+        List<InventoryItem> items = new ArrayList<>();
+        for (int itemId : itemIds) {
+            InventoryItem item = itemsById.get(itemId); // Keep the ranking order of the hits
+            if (item != null) {
+                items.add(item); // Skip a product deleted since the search ran
+            }
+        }
+        return new SearchPage<>(items, hits.getTotalMatches(), offset, limit);
+    }
+
+    // Suggests products as a name is typed: up to limit products whose name, or a word in it, starts with the
+    // prefix, names that start with it first. Answered from memory, so it can run on every keystroke
+    // Throws IllegalArgumentException if limit is outside 1 to MAX_SUGGESTIONS
+    public List<ProductSuggestion> suggestInventoryItems(String prefix, int limit) {
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            throw new IllegalArgumentException("Number of suggestions must be between 1 and " + MAX_SUGGESTIONS);
+        }
+        return inventoryDAO.suggestByName(prefix, limit);
+    }
+
     // Retrieves a single product from the inventory by its unique ID
     // Returns the InventoryItem object if found, null if the product does not exist
     public InventoryItem fetchInventoryItemById(int itemId) {
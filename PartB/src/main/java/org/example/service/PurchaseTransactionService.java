@@ -2,17 +2,38 @@ package org.example.service;
 
 import org.example.dao.*;
 import org.example.model.*;
+import org.example.util.DataConnectionHelper;
+import org.example.util.Money;
 
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Predicate;
 
 // This service class provides business logic for order-related operations
 // It coordinates between multiple DAOs to handle the complete order lifecycle from placement to delivery
 public class PurchaseTransactionService {
+    // Orders decided per database transaction by the bulk accept and reject methods
+    public static final int BULK_CHUNK_SIZE = 200;
+
     // Data Access Objects for performing database operations on orders, order items, payments, and products
     private final PurchaseTransactionDAO transactionDAO;
     private final TransactionLineItemDAO lineItemDAO;
     private final PaymentRecordDAO paymentRecordDAO;
     private final InventoryItemDAO inventoryDAO;
+    // Reads an order with its items and payment in one query
+    private final OrderDetailsDAO orderDetailsDAO;
 
     // Constructor that initializes all the DAOs needed for order processing
     public PurchaseTransactionService() {
@@ -20,77 +41,126 @@ public class PurchaseTransactionService {
         this.lineItemDAO = new TransactionLineItemDAO();
         this.paymentRecordDAO = new PaymentRecordDAO();
         this.inventoryDAO = new InventoryItemDAO();
+        this.orderDetailsDAO = new OrderDetailsDAO();
     }
 
     // Places a new order by creating order records, order items, and payment records in the database
-    // Calculates the total from cart items and creates all necessary database entries
+    // Calculates the total from cart items and writes the order, its items, and the payment as one unit of work:
+    // everything runs on a single connection and is committed once, so a failure leaves no partial order behind
     // Returns the order ID if successful, -1 if order creation failed
     public int createPurchaseTransaction(int accountId, List<ShoppingCartEntry> cartEntries, String paymentType) {
-        // Calculate the total amount by summing up all cart item subtotals
-        double total = cartEntries.stream()
-            .mapToDouble(ShoppingCartEntry::calculateSubtotal)
-            .sum();
+        PaymentMethod paymentMethod;
+        try {
+            paymentMethod = PaymentMethod.valueOf(paymentType); // Only ONLINE, CARD and COD are accepted
+        } catch (IllegalArgumentException | NullPointerException e) {
+            System.err.println("Error placing order: unknown payment method " + paymentType);
+            return -1;
+        }
+
+        // Calculate the total amount by summing up all cart item subtotals in exact cents
+        long totalCents = 0;
+        for (ShoppingCartEntry entry : cartEntries) {
+            totalCents = Money.add(totalCents, entry.calculateSubtotalCents());
+        }
 
         // Create a new order with CREATED status, which awaits admin approval
-        PurchaseTransaction transaction = new PurchaseTransaction(accountId, "CREATED", total);
-        int transactionId = transactionDAO.insertTransaction(transaction); // Save the order to the database and get the generated ID
-
-        if (transactionId > 0) {
-            // Add each cart item as an order item in the database
-            for (ShoppingCartEntry entry : cartEntries) {
-                TransactionLineItem lineItem = new TransactionLineItem(
-                    transactionId,
-                    entry.getInventoryItem().getItemId(),
-                    entry.getEntryQuantity(),
-                    entry.getInventoryItem().getItemPrice() // Store the price at time of order for historical record
-                );
-                lineItemDAO.insertRecord(lineItem); // Save the order item to the database
-            }
+        PurchaseTransaction transaction = new PurchaseTransaction();
+        transaction.setCustomerAccountId(accountId);
+        transaction.setOrderStatus(OrderStatus.CREATED);
+        transaction.setTransactionDate(LocalDateTime.now());
+        transaction.setTransactionTotalCents(totalCents);
+        int transactionId;
+        try {
+            transactionId = DataConnectionHelper.executeInTransaction(conn -> {
+                int newId = transactionDAO.insertTransaction(conn, transaction); // Save the order and get the generated ID
+                if (newId <= 0) {
+                    throw new SQLException("No order ID was generated");
+                }
 
-            // Create a payment record for this order (simulated - always success for now)
-            PaymentRecord paymentRecord = new PaymentRecord(transactionId, paymentType, "SUCCESS", total);
-            paymentRecordDAO.insertRecord(paymentRecord); // Save the payment to the database
+                // Turn each cart item into an order item and save them all with one batched insert
+                List<TransactionLineItem> lineItems = new ArrayList<>(cartEntries.size());
+                for (ShoppingCartEntry entry : cartEntries) {
+                    TransactionLineItem lineItem = new TransactionLineItem();
+                    lineItem.setTransactionId(newId);
+                    lineItem.setInventoryItemId(entry.getInventoryItem().getItemId());
+                    lineItem.setItemQuantity(entry.getEntryQuantity());
+                    lineItem.setItemPriceAtPurchaseCents(entry.getInventoryItem().getItemPriceCents()); // Store the price at time of order for historical record
+                    lineItems.add(lineItem);
+                }
+                lineItemDAO.insertBatch(conn, lineItems); // Save the order items in the same transaction
 
-            // Display order confirmation information to the user
-            System.out.println("Order placed successfully! Order ID: " + transactionId);
-            System.out.println("Payment method: " + paymentType);
-            System.out.println("Total amount: $" + String.format("%.2f", total));
-            return transactionId;
+                // Create a payment record for this order (simulated - always success for now)
+                PaymentRecord paymentRecord = new PaymentRecord();
+                paymentRecord.setTransactionId(newId);
+                paymentRecord.setPaymentMethod(paymentMethod);
+                paymentRecord.setPaymentState(PaymentStatus.SUCCESS);
+                paymentRecord.setPaymentAmountCents(transaction.getTransactionTotalCents()); // Charge exactly the order total
+                paymentRecord.setPaymentTimestamp(LocalDateTime.now());
+                paymentRecordDAO.insertRecord(conn, paymentRecord); // Save the payment in the same transaction
+                return newId;
+            });
+        } catch (SQLException e) {
+            System.err.println("Error placing order: " + e.getMessage()); // Log the failure; nothing was committed
+            return -1; // Return -1 if order creation failed
         }
-        return -1; // Return -1 if order creation failed
+
+        // Display order confirmation information to the user
+        System.out.println("Order placed successfully! Order ID: " + transactionId);
+        System.out.println("Payment method: " + paymentType);
+        System.out.println("Total amount: $" + Money.format(totalCents));
+        return transactionId;
     }
 
     // Accepts a pending order, which involves checking stock availability and deducting inventory
     // Only orders with CREATED status can be accepted
+    // The whole approval runs in one transaction: the order row is locked, stock for every line is reserved
+    // with one batched conditional UPDATE, and if any line is short nothing is deducted at all
     // Returns true if the order was successfully accepted, false if validation fails or an error occurs
     public boolean approvePurchaseTransaction(int transactionId) {
-        PurchaseTransaction transaction = transactionDAO.locateById(transactionId); // Retrieve the order from the database
-        if (transaction == null) {
-            System.out.println("Order not found!"); // Inform admin if order doesn't exist
-            return false;
-        }
+        boolean success;
+        Map<Integer, Integer> quantitiesByItemId = new LinkedHashMap<>();
+        try {
+            success = DataConnectionHelper.executeInTransaction(conn -> {
+                // Retrieve and lock the order so a concurrent approval of the same order waits for this one
+                PurchaseTransaction transaction = transactionDAO.locateByIdForUpdate(conn, transactionId);
+                if (transaction == null) {
+                    System.out.println("Order not found!"); // Inform admin if order doesn't exist
+                    return false;
+                }
 
-        // Validate that the order is in CREATED status and can be accepted
-        if (!"CREATED".equals(transaction.getTransactionStatus())) {
-            System.out.println("Order cannot be accepted. Current status: " + transaction.getTransactionStatus());
-            return false;
-        }
+                // Validate that the order is in CREATED status and can be accepted
+                if (transaction.getOrderStatus() != OrderStatus.CREATED) {
+                    System.out.println("Order cannot be accepted. Current status: " + transaction.getTransactionStatus());
+                    return false;
+                }
 
-        // Get all items in the order and verify stock availability before deducting inventory
-        List<TransactionLineItem> lineItems = lineItemDAO.locateByTransactionId(transactionId);
-        for (TransactionLineItem lineItem : lineItems) {
-            InventoryItem item = inventoryDAO.locateById(lineItem.getInventoryItemId()); // Get the product information
-            // Check if there is sufficient stock available for this order item
-            if (item.getItemStock() < lineItem.getItemQuantity()) {
-                System.out.println("Insufficient stock for product ID: " + lineItem.getInventoryItemId());
-                return false; // Cannot accept order if stock is insufficient
-            }
-            // Deduct the ordered quantity from the product's stock
-            inventoryDAO.adjustStockLevel(lineItem.getInventoryItemId(), lineItem.getItemQuantity());
+                // Add up the quantity needed per product, then reserve it all in one batched statement
+                for (TransactionLineItem lineItem : lineItemDAO.locateByTransactionId(conn, transactionId)) {
+                    quantitiesByItemId.merge(lineItem.getInventoryItemId(), lineItem.getItemQuantity(), Integer::sum);
+                }
+                List<Integer> insufficientItemIds = inventoryDAO.reserveStock(conn, quantitiesByItemId);
+                if (!insufficientItemIds.isEmpty()) {
+                    conn.rollback(); // Give back any stock already reserved for the other lines of this order
+                    for (Integer itemId : insufficientItemIds) {
+                        System.out.println("Insufficient stock for product ID: " + itemId);
+                    }
+                    return false; // Cannot accept order if stock is insufficient
+                }
+
+                // Update the order status to ACCEPTED in the same transaction as the stock deduction
+                if (!transactionDAO.modifyStatus(conn, transactionId, OrderStatus.CREATED, OrderStatus.ACCEPTED)) {
+                    conn.rollback();
+                    return false;
+                }
+                return true;
+            });
+        } catch (SQLException e) {
+            System.err.println("Error accepting order: " + e.getMessage()); // Log the failure; nothing was deducted
+            return false;
+        } finally {
+            inventoryDAO.invalidateCached(quantitiesByItemId.keySet()); // Stock is settled now, so drop the cached levels
         }
 
-        // Update the order status to ACCEPTED after successfully processing inventory
-        boolean success = transactionDAO.modifyStatus(transactionId, "ACCEPTED");
         if (success) {
             System.out.println("Order #" + transactionId + " has been ACCEPTED!");
             System.out.println("Inventory deducted. Customer will be notified.");
@@ -100,25 +170,37 @@ public class PurchaseTransactionService {
 
     // Rejects a pending order, which involves updating the order status and refunding the payment
     // Only orders with CREATED status can be rejected
+    // Like approval, this locks the order row and makes a conditional CREATED to REJECTED transition, with the
+    // refund in the same transaction, so a concurrent approval and rejection of one order cannot both succeed
     // Returns true if the order was successfully rejected, false if validation fails or an error occurs
     public boolean declinePurchaseTransaction(int transactionId) {
-        PurchaseTransaction transaction = transactionDAO.locateById(transactionId); // Retrieve the order from the database
-        if (transaction == null) {
-            System.out.println("Order not found!"); // Inform admin if order doesn't exist
-            return false;
-        }
+        boolean success;
+        try {
+            success = DataConnectionHelper.executeInTransaction(conn -> {
+                PurchaseTransaction transaction = transactionDAO.locateByIdForUpdate(conn, transactionId);
+                if (transaction == null) {
+                    System.out.println("Order not found!"); // Inform admin if order doesn't exist
+                    return false;
+                }
 
-        // Validate that the order is in CREATED status and can be rejected
-        if (!"CREATED".equals(transaction.getTransactionStatus())) {
-            System.out.println("Order cannot be rejected. Current status: " + transaction.getTransactionStatus());
+                // Validate that the order is in CREATED status and can be rejected
+                if (transaction.getOrderStatus() != OrderStatus.CREATED) {
+                    System.out.println("Order cannot be rejected. Current status: " + transaction.getTransactionStatus());
+                    return false;
+                }
+
+                if (!transactionDAO.modifyStatus(conn, transactionId, OrderStatus.CREATED, OrderStatus.REJECTED)) {
+                    return false;
+                }
+                // Update the payment status to REFUNDED (simulated refund process)
+                paymentRecordDAO.modifyPaymentStatus(conn, transactionId, PaymentStatus.REFUNDED);
+                return true;
+            });
+        } catch (SQLException e) {
+            System.err.println("Error rejecting order: " + e.getMessage()); // Log the failure; nothing was changed
             return false;
         }
-
-        // Update the order status to REJECTED
-        boolean success = transactionDAO.modifyStatus(transactionId, "REJECTED");
         if (success) {
-            // Update the payment status to REFUNDED (simulated refund process)
-            paymentRecordDAO.modifyPaymentStatus(transactionId, "REFUNDED");
             System.out.println("Order #" + transactionId + " has been REJECTED!");
             System.out.println("Payment refunded (simulated). Customer will be notified.");
         }
@@ -129,20 +211,28 @@ public class PurchaseTransactionService {
     // Only orders with ACCEPTED status can be marked as delivered
     // Returns true if the order was successfully marked as delivered, false if validation fails or an error occurs
     public boolean markAsDelivered(int transactionId) {
-        PurchaseTransaction transaction = transactionDAO.locateById(transactionId); // Retrieve the order from the database
-        if (transaction == null) {
-            System.out.println("Order not found!"); // Inform admin if order doesn't exist
-            return false;
-        }
+        boolean success;
+        try {
+            success = DataConnectionHelper.executeInTransaction(conn -> {
+                PurchaseTransaction transaction = transactionDAO.locateByIdForUpdate(conn, transactionId);
+                if (transaction == null) {
+                    System.out.println("Order not found!"); // Inform admin if order doesn't exist
+                    return false;
+                }
 
-        // Validate that the order is in ACCEPTED status and can be marked as delivered
-        if (!"ACCEPTED".equals(transaction.getTransactionStatus())) {
-            System.out.println("Only ACCEPTED orders can be marked as DELIVERED. Current status: " + transaction.getTransactionStatus());
+                // Validate that the order is in ACCEPTED status and can be marked as delivered
+                if (transaction.getOrderStatus() != OrderStatus.ACCEPTED) {
+                    System.out.println("Only ACCEPTED orders can be marked as DELIVERED. Current status: " + transaction.getTransactionStatus());
+                    return false;
+                }
+
+                // Update the order status to DELIVERED, only if it is still ACCEPTED
+                return transactionDAO.modifyStatus(conn, transactionId, OrderStatus.ACCEPTED, OrderStatus.DELIVERED);
+            });
+        } catch (SQLException e) {
+            System.err.println("Error delivering order: " + e.getMessage()); // Log the failure; nothing was changed
             return false;
         }
-
-        // Update the order status to DELIVERED
-        boolean success = transactionDAO.modifyStatus(transactionId, "DELIVERED");
         if (success) {
             System.out.println("Order #" + transactionId + " has been marked as DELIVERED!");
             System.out.println("Customer will be notified.");
@@ -150,21 +240,235 @@ public class PurchaseTransactionService {
         return success;
     }
 
+    // Accepts many orders at once, e.g. during a sale event, and reports what happened to each one
+    // Orders are processed in chunks of BULK_CHUNK_SIZE, one transaction per chunk, so a failure only affects
+    // its own chunk and no transaction holds locks on thousands of rows; each order is still all-or-nothing
+    public BulkOrderReport approvePurchaseTransactions(Collection<Integer> transactionIds) {
+        return decideInChunks(transactionIds, BULK_CHUNK_SIZE, true);
+    }
+
+    // Same as approvePurchaseTransactions(Collection) with an explicit chunk size
+    public BulkOrderReport approvePurchaseTransactions(Collection<Integer> transactionIds, int chunkSize) {
+        return decideInChunks(transactionIds, chunkSize, true);
+    }
+
+    // Accepts every CREATED order that matches the filter, walking the approval queue oldest first
+    public BulkOrderReport approvePendingPurchaseTransactions(Predicate<PurchaseTransaction> filter) {
+        return decidePending(filter, true);
+    }
+
+    // Rejects many orders at once and refunds their payments, with the same chunking and report as bulk approval
+    public BulkOrderReport declinePurchaseTransactions(Collection<Integer> transactionIds) {
+        return decideInChunks(transactionIds, BULK_CHUNK_SIZE, false);
+    }
+
+    // Same as declinePurchaseTransactions(Collection) with an explicit chunk size
+    public BulkOrderReport declinePurchaseTransactions(Collection<Integer> transactionIds, int chunkSize) {
+        return decideInChunks(transactionIds, chunkSize, false);
+    }
+
+    // Rejects every CREATED order that matches the filter, walking the approval queue oldest first
+    public BulkOrderReport declinePendingPurchaseTransactions(Predicate<PurchaseTransaction> filter) {
+        return decidePending(filter, false);
+    }
+
+    // Splits the given orders into chunks and decides each chunk in its own transaction
+    // Duplicate IDs are processed once; the report lists orders in the order they were first given
+    private BulkOrderReport decideInChunks(Collection<Integer> transactionIds, int chunkSize, boolean approve) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be at least 1");
+        }
+        long start = System.nanoTime();
+        List<Integer> ids = new ArrayList<>(new LinkedHashSet<>(transactionIds));
+        Map<Integer, BulkOrderReport.Outcome> outcomes = new LinkedHashMap<>();
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            decideChunk(ids.subList(from, Math.min(from + chunkSize, ids.size())), approve, outcomes);
+        }
+        return report(approve, outcomes, start);
+    }
+
+    // Reads the CREATED queue one page at a time and decides the matching orders of each page as one chunk
+    // Orders already decided drop out of the queue, and the keyset cursor continues after the last order seen
+    private BulkOrderReport decidePending(Predicate<PurchaseTransaction> filter, boolean approve) {
+        long start = System.nanoTime();
+        Map<Integer, BulkOrderReport.Outcome> outcomes = new LinkedHashMap<>();
+        TransactionCursor after = null;
+        do {
+            ResultPage<PurchaseTransaction> page = transactionDAO.retrievePageByStatus(OrderStatus.CREATED, after, BULK_CHUNK_SIZE);
+            List<Integer> chunk = new ArrayList<>();
+            for (PurchaseTransaction transaction : page.getItems()) {
+                if (filter.test(transaction)) {
+                    chunk.add(transaction.getTransactionId());
+                }
+            }
+            if (!chunk.isEmpty()) {
+                decideChunk(chunk, approve, outcomes);
+            }
+            after = page.getNextCursor();
+        } while (after != null);
+        return report(approve, outcomes, start);
+    }
+
+    // Accepts or rejects one chunk of orders in a single transaction and records an outcome for each
+    // The orders are locked with one query; those not in CREATED status are skipped, and the rest change
+    // status with one batched UPDATE. If the transaction fails, every order in the chunk is marked FAILED
+    private void decideChunk(List<Integer> chunk, boolean approve, Map<Integer, BulkOrderReport.Outcome> outcomes) {
+        Map<Integer, BulkOrderReport.Outcome> chunkOutcomes = new HashMap<>();
+        Set<Integer> reservedItemIds = new HashSet<>();
+        try {
+            DataConnectionHelper.executeInTransaction(conn -> {
+                Map<Integer, PurchaseTransaction> locked = transactionDAO.locateByIdsForUpdate(conn, chunk);
+                List<Integer> pending = new ArrayList<>();
+                for (Integer transactionId : chunk) {
+                    PurchaseTransaction transaction = locked.get(transactionId);
+                    if (transaction == null) {
+                        chunkOutcomes.put(transactionId, BulkOrderReport.Outcome.NOT_FOUND);
+                    } else if (transaction.getOrderStatus() != OrderStatus.CREATED) {
+                        chunkOutcomes.put(transactionId, BulkOrderReport.Outcome.WRONG_STATUS);
+                    } else {
+                        pending.add(transactionId);
+                    }
+                }
+
+                List<Integer> decided = approve ? reserveStockForChunk(conn, pending, chunkOutcomes, reservedItemIds) : pending;
+                OrderStatus newStatus = approve ? OrderStatus.ACCEPTED : OrderStatus.REJECTED;
+                // The rows are locked, so every order must still be CREATED; anything else aborts the chunk
+                if (!transactionDAO.modifyStatusBatch(conn, decided, OrderStatus.CREATED, newStatus).isEmpty()) {
+                    throw new SQLException("Order status changed while the chunk was locked");
+                }
+                if (!approve) {
+                    paymentRecordDAO.modifyPaymentStatusBatch(conn, decided, PaymentStatus.REFUNDED); // Simulated refunds
+                }
+                for (Integer transactionId : decided) {
+                    chunkOutcomes.put(transactionId, approve ? BulkOrderReport.Outcome.ACCEPTED : BulkOrderReport.Outcome.REJECTED);
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            System.err.println("Error deciding orders " + chunk.get(0) + " to " + chunk.get(chunk.size() - 1) + ": " + e.getMessage());
+            chunkOutcomes.clear(); // Nothing in this chunk was committed
+        } finally {
+            inventoryDAO.invalidateCached(reservedItemIds); // Stock is settled now, so drop the cached levels
+        }
+        for (Integer transactionId : chunk) {
+            outcomes.put(transactionId, chunkOutcomes.getOrDefault(transactionId, BulkOrderReport.Outcome.FAILED));
+        }
+    }
+
+    // Reserves stock for the CREATED orders of a chunk and returns the ones that can be accepted
+    // The common case, where every product has enough stock, costs one batched UPDATE for the whole chunk.
+    // Only if some product is short does it roll that back and reserve order by order, each under its own
+    // savepoint, so a short order is marked INSUFFICIENT_STOCK without holding back the others
+    private List<Integer> reserveStockForChunk(Connection conn, List<Integer> pending,
+                                               Map<Integer, BulkOrderReport.Outcome> outcomes,
+                                               Set<Integer> reservedItemIds) throws SQLException {
+        Map<Integer, List<TransactionLineItem>> lineItemsByOrder = lineItemDAO.locateByTransactionIds(conn, pending);
+        // reserveStock updates products in ID order, so chunks and single approvals lock rows in the same order
+        Map<Integer, Integer> chunkQuantities = new TreeMap<>();
+        for (Integer transactionId : pending) {
+            for (TransactionLineItem lineItem : lineItemsByOrder.getOrDefault(transactionId, List.of())) {
+                chunkQuantities.merge(lineItem.getInventoryItemId(), lineItem.getItemQuantity(), Integer::sum);
+            }
+        }
+        reservedItemIds.addAll(chunkQuantities.keySet());
+
+        Savepoint wholeChunk = conn.setSavepoint();
+        if (inventoryDAO.reserveStock(conn, chunkQuantities).isEmpty()) {
+            return pending;
+        }
+        conn.rollback(wholeChunk); // Some product ran short; fall back to deciding order by order
+
+        List<Integer> accepted = new ArrayList<>();
+        for (Integer transactionId : pending) {
+            Map<Integer, Integer> quantities = new TreeMap<>();
+            for (TransactionLineItem lineItem : lineItemsByOrder.getOrDefault(transactionId, List.of())) {
+                quantities.merge(lineItem.getInventoryItemId(), lineItem.getItemQuantity(), Integer::sum);
+            }
+            Savepoint order = conn.setSavepoint();
+            if (inventoryDAO.reserveStock(conn, quantities).isEmpty()) {
+                accepted.add(transactionId);
+            } else {
+                conn.rollback(order); // Give back what this order reserved before the short line
+                outcomes.put(transactionId, BulkOrderReport.Outcome.INSUFFICIENT_STOCK);
+            }
+        }
+        return accepted;
+    }
+
+    // Builds the report for a bulk run and prints its one-line summary
+    private BulkOrderReport report(boolean approve, Map<Integer, BulkOrderReport.Outcome> outcomes, long start) {
+        BulkOrderReport report = new BulkOrderReport(outcomes, System.nanoTime() - start);
+        System.out.println((approve ? "Bulk accept: " : "Bulk reject: ") + report);
+        return report;
+    }
+
     // Retrieves all orders from the database for admin review
     // Returns a list of all PurchaseTransaction objects sorted by order date (most recent first)
     public List<PurchaseTransaction> retrieveAllPurchaseTransactions() {
         return transactionDAO.retrieveAllRecords(); // Delegate to the DAO to retrieve all orders
     }
 
+    // Retrieves one page of orders for admin review, most recent first
+    // Pass null for the first page, then the previous page's next cursor; memory use is bounded by pageSize
+    public ResultPage<PurchaseTransaction> retrievePurchaseTransactionPage(TransactionCursor after, int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        return transactionDAO.retrievePage(after, pageSize); // Delegate to the DAO to retrieve the page
+    }
+
+    // Retrieves one page of the orders in a given status, oldest first, e.g. the CREATED orders awaiting approval
+    // Pass null for the first page, then the previous page's next cursor
+    public ResultPage<PurchaseTransaction> retrievePurchaseTransactionsByStatus(OrderStatus status, TransactionCursor after,
+                                                                                int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        return transactionDAO.retrievePageByStatus(status, after, pageSize);
+    }
+
+    // Returns how many orders are in the given status, or -1 if they could not be counted
+    public int countPurchaseTransactionsByStatus(OrderStatus status) {
+        return transactionDAO.countByStatus(status);
+    }
+
     // Retrieves all orders placed by a specific user, identified by their user ID
     // Returns a list of PurchaseTransaction objects for that user, sorted by order date (most recent first)
     public List<PurchaseTransaction> fetchUserPurchaseTransactions(int accountId) {
         return transactionDAO.locateByUserId(accountId); // Delegate to the DAO to retrieve user orders
     }
 
+    // Retrieves one page of a customer's order history, newest first, with each order's line items and product names
+    // Pass null for the first page, then the previous page's next cursor. Each page costs two queries whatever
+    // its size: one for the page of orders and one joined query for all their items and payments
+    public ResultPage<OrderDetails> fetchUserOrderHistory(int accountId, TransactionCursor after, int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        ResultPage<PurchaseTransaction> page = transactionDAO.retrievePageByUserId(accountId, after, pageSize);
+        List<Integer> transactionIds = new ArrayList<>(page.getItems().size());
+        for (PurchaseTransaction transaction : page.getItems()) {
+            transactionIds.add(transaction.getTransactionId());
+        }
+        return new ResultPage<>(fetchOrderDetailsByIds(transactionIds), page.getNextCursor());
+    }
+
     // Retrieves a single order from the database by its unique ID
     // Returns the PurchaseTransaction object if found, null if the order does not exist
     public PurchaseTransaction fetchPurchaseTransactionById(int transactionId) {
         return transactionDAO.locateById(transactionId); // Delegate to the DAO to retrieve the order
     }
+
+    // Retrieves an order together with its line items and payment in a single database round trip
+    // Returns null if the order does not exist
+    public OrderDetails fetchOrderDetailsById(int transactionId) {
+        return orderDetailsDAO.locateById(transactionId);
+    }
+
+    // Retrieves many orders with their line items and payments, in the order the IDs were given
+    // Use this to render a list of orders instead of loading each order's items separately;
+    // IDs with no matching order are left out
+    public List<OrderDetails> fetchOrderDetailsByIds(Collection<Integer> transactionIds) {
+        return new ArrayList<>(orderDetailsDAO.locateByIds(transactionIds).values());
+    }
 }
@@ -0,0 +1,278 @@
+package org.example.service;
+
+import org.example.dao.ShoppingSessionDAO;
+import org.example.model.CustomerAccount;
+import org.example.model.ShoppingSession;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+// This class keeps every logged-in user's session and shopping cart in memory
+// Sessions idle for longer than the idle timeout expire, and when the store is full the least recently used
+// sessions are evicted. With persistence enabled the store is snapshotted to H2 periodically and on close,
+// and restored on start-up, so carts survive a restart
+// Sessions are keyed by a SHA-256 hash of their ID rather than the ID itself. The ID is the bearer token
+// clients log in with, so neither the map nor a snapshot in the database holds anything a reader could replay
+public class SessionStore implements AutoCloseable {
+    // System property names used to configure the session store
+    public static final String MAX_SESSIONS_PROPERTY = "fers.sessions.max";
+    public static final String IDLE_TIMEOUT_PROPERTY = "fers.sessions.idleTimeoutMs";
+    public static final String PERSIST_PROPERTY = "fers.sessions.persist";
+    public static final String SNAPSHOT_INTERVAL_PROPERTY = "fers.sessions.snapshotIntervalMs";
+
+    // Default settings used when the corresponding system property is not set
+    private static final int DEFAULT_MAX_SESSIONS = 100_000;
+    private static final long DEFAULT_IDLE_TIMEOUT_MS = 30 * 60_000;
+    private static final long DEFAULT_SNAPSHOT_INTERVAL_MS = 60_000;
+    // Upper bound on how long expired sessions may linger before the housekeeper removes them
+    private static final long MAX_HOUSEKEEPING_INTERVAL_MS = 60_000;
+
+    private final int maxSessions;
+    private final long idleTimeoutMillis;
+    // Where snapshots are saved, or null when persistence is disabled
+    private final ShoppingSessionDAO snapshotDAO;
+    // Sessions by key; each session carries its own last-access time, so lookups never contend on a shared lock
+    private final ConcurrentHashMap<String, ShoppingSession> sessions = new ConcurrentHashMap<>();
+    // Extra sessions evicted whenever the store overflows, 1% of the capacity, so the scan for the least
+    // recently used sessions runs about once per that many logins instead of on every one
+    private final int evictionSlack;
+    // Held by the thread trimming the store back to size; others carry on instead of waiting for it
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final ScheduledExecutorService housekeeper;
+    private final SecureRandom idGenerator = new SecureRandom();
+
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong expiredCount = new AtomicLong();
+    private final AtomicLong evictedCount = new AtomicLong();
+
+    // Creates a store; pass a DAO to restore the last snapshot now and save one every snapshotIntervalMillis
+    // (0 saves only on close), or null to keep sessions in memory only
+    public SessionStore(int maxSessions, long idleTimeoutMillis, ShoppingSessionDAO snapshotDAO, long snapshotIntervalMillis) {
+        if (maxSessions < 1) {
+            throw new IllegalArgumentException("maxSessions must be at least 1");
+        }
+        this.maxSessions = maxSessions;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.snapshotDAO = snapshotDAO;
+        this.evictionSlack = maxSessions / 100;
+        if (snapshotDAO != null) {
+            restore();
+        }
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "fers-session-housekeeper");
+            thread.setDaemon(true); // Never keep the JVM alive just for housekeeping
+            return thread;
+        });
+        long expiryInterval = Math.max(1, Math.min(idleTimeoutMillis, MAX_HOUSEKEEPING_INTERVAL_MS));
+        housekeeper.scheduleWithFixedDelay(this::evictExpired, expiryInterval, expiryInterval, TimeUnit.MILLISECONDS);
+        if (snapshotDAO != null && snapshotIntervalMillis > 0) {
+            housekeeper.scheduleWithFixedDelay(this::snapshot, snapshotIntervalMillis, snapshotIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Creates a store configured from the fers.sessions.* system properties
+    // Persistence to H2 is off unless fers.sessions.persist is true
+    public static SessionStore fromSystemProperties() {
+        boolean persist = Boolean.getBoolean(PERSIST_PROPERTY);
+        return new SessionStore(
+            Integer.getInteger(MAX_SESSIONS_PROPERTY, DEFAULT_MAX_SESSIONS),
+            Long.getLong(IDLE_TIMEOUT_PROPERTY, DEFAULT_IDLE_TIMEOUT_MS),
+            persist ? new ShoppingSessionDAO() : null,
+            Long.getLong(SNAPSHOT_INTERVAL_PROPERTY, DEFAULT_SNAPSHOT_INTERVAL_MS));
+    }
+
+    // Starts a new session with an empty cart for an account that has just logged in
+    public ShoppingSession create(CustomerAccount account) {
+        String sessionId = newSessionId();
+        ShoppingSession session = new ShoppingSession(sessionId, keyFor(sessionId), account, System.currentTimeMillis());
+        sessions.put(session.getSessionKey(), session);
+        createdCount.incrementAndGet();
+        evictOverflow();
+        return session;
+    }
+
+    // Returns the session with this ID and marks it as used, or null if the ID is unknown or the session has expired
+    public ShoppingSession get(String sessionId) {
+        return sessionId == null ? null : getByKey(keyFor(sessionId));
+    }
+
+    // Returns the most recently used live session of an account, or null if it has none
+    // Lets the console pick up the cart left behind by an earlier run when persistence is enabled
+    public ShoppingSession findLatestForAccount(int accountId) {
+        long now = System.currentTimeMillis();
+        ShoppingSession latest = null;
+        for (ShoppingSession session : sessions.values()) {
+            if (session.getAccount().getAccountId() == accountId && !isExpired(session, now)
+                    && (latest == null || session.getLastAccessMillis() > latest.getLastAccessMillis())) {
+                latest = session;
+            }
+        }
+        return latest != null ? getByKey(latest.getSessionKey()) : null;
+    }
+
+    // Ends the session with this ID, e.g. on logout; returns false if it did not exist
+    public boolean remove(String sessionId) {
+        return sessionId != null && sessions.remove(keyFor(sessionId)) != null;
+    }
+
+    // Ends a session; works for restored sessions too, which no longer know their ID
+    public boolean remove(ShoppingSession session) {
+        return sessions.remove(session.getSessionKey(), session);
+    }
+
+    // Removes every session that has been idle for longer than the idle timeout and returns how many were removed
+    public int evictExpired() {
+        long now = System.currentTimeMillis();
+        int removed = 0;
+        for (ShoppingSession session : sessions.values()) {
+            if (isExpired(session, now) && sessions.remove(session.getSessionKey(), session)) {
+                removed++;
+            }
+        }
+        expiredCount.addAndGet(removed);
+        return removed;
+    }
+
+    // Hash under which a session ID is stored in memory and in snapshots: SHA-256, URL-safe Base64
+    // IDs are 256 random bits, so an unsalted fast hash is enough to make the stored value useless to an attacker
+    public static String keyFor(String sessionId) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(sessionId.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e); // Every JDK provides it
+        }
+    }
+
+    // Saves all live sessions to H2, replacing the previous snapshot; returns false if persistence is off or saving failed
+    public boolean snapshot() {
+        if (snapshotDAO == null) {
+            return false;
+        }
+        evictExpired(); // No point saving sessions that could never be used again
+        return snapshotDAO.replaceAll(new ArrayList<>(sessions.values()));
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    public long getCreatedCount() {
+        return createdCount.get();
+    }
+
+    public long getExpiredCount() {
+        return expiredCount.get();
+    }
+
+    public long getEvictedCount() {
+        return evictedCount.get();
+    }
+
+    // Stops housekeeping and, with persistence enabled, saves a final snapshot
+    @Override
+    public void close() {
+        housekeeper.shutdownNow();
+        snapshot();
+    }
+
+    // Loads the last snapshot, skipping sessions that expired while the application was down
+    private void restore() {
+        long now = System.currentTimeMillis();
+        for (ShoppingSession session : snapshotDAO.loadAll()) {
+            if (!isExpired(session, now)) {
+                sessions.put(session.getSessionKey(), session);
+            }
+        }
+        evictOverflow(); // In case the store was restarted with a smaller maximum
+    }
+
+    private ShoppingSession getByKey(String sessionKey) {
+        ShoppingSession session = sessions.get(sessionKey);
+        if (session == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        if (isExpired(session, now)) {
+            if (sessions.remove(sessionKey, session)) {
+                expiredCount.incrementAndGet();
+            }
+            return null;
+        }
+        session.touch(now);
+        return session;
+    }
+
+    // Once the store holds more than maxSessions, evicts the overflow plus evictionSlack of the least recently
+    // used sessions. Logins that find another thread evicting carry on; that thread checks the size again
+    // after releasing the lock, so sessions added meanwhile are trimmed too
+    private void evictOverflow() {
+        while (sessions.size() > maxSessions && evictionLock.tryLock()) {
+            int evicted;
+            try {
+                evicted = evictLeastRecentlyUsed();
+            } finally {
+                evictionLock.unlock();
+            }
+            if (evicted == 0) {
+                return; // Every candidate was used while scanning; the next login tries again
+            }
+        }
+    }
+
+    // Copies out the sessions' last-access times, sorts them to find the cut-off, and removes the sessions at
+    // or below it; returns how many were removed
+    private int evictLeastRecentlyUsed() {
+        List<ShoppingSession> candidates = new ArrayList<>(sessions.values());
+        int toEvict = Math.min(candidates.size(), candidates.size() - maxSessions + evictionSlack);
+        if (toEvict <= 0) {
+            return 0;
+        }
+        long[] stamps = new long[candidates.size()];
+        for (int i = 0; i < stamps.length; i++) {
+            stamps[i] = candidates.get(i).getLastAccessMillis();
+        }
+        long[] sorted = stamps.clone();
+        Arrays.sort(sorted);
+        long cutoff = sorted[toEvict - 1];
+        // Strictly older sessions first, then ones used exactly at the cut-off until enough are gone
+        int evicted = 0;
+        for (int pass = 0; pass < 2 && evicted < toEvict; pass++) {
+            for (int i = 0; i < stamps.length && evicted < toEvict; i++) {
+                boolean due = pass == 0 ? stamps[i] < cutoff : stamps[i] == cutoff;
+                ShoppingSession session = candidates.get(i);
+                // A session used since its time was copied is no longer among the least recent, so it stays
+                if (due && session.getLastAccessMillis() == stamps[i] && sessions.remove(session.getSessionKey(), session)) {
+                    stamps[i] = Long.MAX_VALUE; // Not again in the second pass
+                    evicted++;
+                }
+            }
+        }
+        evictedCount.addAndGet(evicted);
+        return evicted;
+    }
+
+    private boolean isExpired(ShoppingSession session, long now) {
+        return now - session.getLastAccessMillis() > idleTimeoutMillis;
+    }
+
+    // 256 random bits, URL-safe so the ID can travel in headers
+    private String newSessionId() {
+        byte[] bytes = new byte[32];
+        idGenerator.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,104 @@
+package org.example.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// A fixed-size Bloom filter of strings: mightContain() never answers false for a value that was put(),
+// and answers true for a value that was not put() with roughly the configured false-positive rate
+// Bits are set with compare-and-set, so put() and mightContain() may be called from any thread without a lock
+public class BloomFilter {
+    // Bit array, 64 bits per element
+    private final AtomicLongArray words;
+    private final long bitCount;
+    // Number of bit positions derived from each value
+    private final int hashCount;
+
+    // Sizes the filter for the expected number of values at the desired false-positive probability,
+    // using the usual m = -n ln p / (ln 2)^2 bits and k = m / n ln 2 hash functions
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions < 1 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Invalid Bloom filter settings: expected=" + expectedInsertions
+                + ", falsePositiveRate=" + falsePositiveRate);
+        }
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, (bits + 63) / 64);
+        this.words = new AtomicLongArray(words);
+        this.bitCount = (long) words * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+    }
+
+    // Adds a value to the filter
+    public void put(String value) {
+        long hash1 = hash(value);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1; // Odd, so the probe sequence visits distinct bits
+        for (int i = 0; i < hashCount; i++) {
+            setBit(Math.floorMod(hash1 + i * hash2, bitCount));
+        }
+    }
+
+    // False if the value was definitely never added; true if it probably was
+    public boolean mightContain(String value) {
+        long hash1 = hash(value);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Unsets every bit
+    public void clear() {
+        for (int i = 0; i < words.length(); i++) {
+            words.set(i, 0);
+        }
+    }
+
+    public long getBitCount() {
+        return bitCount;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    // Current false-positive probability estimated from the share of bits set, (set / total)^k
+    public double estimatedFalsePositiveRate() {
+        long set = 0;
+        for (int i = 0; i < words.length(); i++) {
+            set += Long.bitCount(words.get(i));
+        }
+        return Math.pow((double) set / bitCount, hashCount);
+    }
+
+    private void setBit(long bit) {
+        int index = (int) (bit >>> 6);
+        long mask = 1L << bit; // Shifts use the low 6 bits, i.e. bit % 64
+        long word;
+        do {
+            word = words.get(index);
+            if ((word & mask) != 0) {
+                return; // Already set
+            }
+        } while (!words.compareAndSet(index, word, word | mask));
+    }
+
+    // 64-bit FNV-1a over the UTF-8 bytes, finished with a mixing step so similar names spread across the array
+    private static long hash(String value) {
+        long hash = 0xCBF29CE484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
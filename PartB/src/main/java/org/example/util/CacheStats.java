@@ -0,0 +1,54 @@
+package org.example.util;
+
+// This class is an immutable snapshot of an in-memory cache's hit, miss and eviction counters
+// Caches in the application return it so their effectiveness can be monitored and their size tuned
+public class CacheStats {
+    // Number of entries currently held and the configured upper bound
+    private final int size;
+    private final int maxSize;
+    // Lookups answered from the cache and lookups that had to go to the database
+    private final long hitCount;
+    private final long missCount;
+    // Entries dropped because the cache was full or because they outlived their time-to-live
+    private final long evictionCount;
+
+    public CacheStats(int size, int maxSize, long hitCount, long missCount, long evictionCount) {
+        this.size = size;
+        this.maxSize = maxSize;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    // Returns the fraction of lookups answered from the cache, or 0 if there were no lookups yet
+    public double getHitRate() {
+        long lookups = hitCount + missCount;
+        return lookups == 0 ? 0.0 : (double) hitCount / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("cache[size=%d/%d, hits=%d, misses=%d, evictions=%d, hitRate=%.1f%%]",
+            size, maxSize, hitCount, missCount, evictionCount, getHitRate() * 100);
+    }
+}
@@ -0,0 +1,520 @@
+package org.example.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// This utility class keeps a bounded set of open JDBC connections to a single database URL
+// Callers borrow a connection with getConnection() and return it to the pool by calling close() on it
+public class ConnectionPool implements AutoCloseable {
+    // System property names used to configure pools created by DataConnectionHelper
+    public static final String MIN_SIZE_PROPERTY = "fers.pool.minSize";
+    public static final String MAX_SIZE_PROPERTY = "fers.pool.maxSize";
+    public static final String IDLE_TIMEOUT_PROPERTY = "fers.pool.idleTimeoutMs";
+    public static final String ACQUIRE_TIMEOUT_PROPERTY = "fers.pool.acquireTimeoutMs";
+    public static final String LEAK_THRESHOLD_PROPERTY = "fers.pool.leakDetectionThresholdMs";
+    public static final String LEAK_STACK_TRACES_PROPERTY = "fers.pool.leakDetectionStackTraces";
+    public static final String STATEMENT_CACHE_SIZE_PROPERTY = "fers.pool.statementCacheSize";
+
+    // Default pool settings used when the corresponding system property is not set
+    private static final int DEFAULT_MIN_SIZE = 1;
+    static final int DEFAULT_MAX_SIZE = 10; // Also the default ServiceExecutor concurrency
+    private static final long DEFAULT_IDLE_TIMEOUT_MS = 300_000;
+    private static final long DEFAULT_ACQUIRE_TIMEOUT_MS = 30_000;
+    private static final long DEFAULT_LEAK_THRESHOLD_MS = 60_000;
+    // Enough for every fixed DAO statement plus some of the IN-list variants, per connection
+    static final int DEFAULT_STATEMENT_CACHE_SIZE = 64;
+    // Upper bound on how often the background housekeeping task runs
+    private static final long MAX_HOUSEKEEPING_INTERVAL_MS = 5_000;
+
+    // Connection settings for the physical connections opened by this pool
+    private final String url;
+    private final String user;
+    private final String password;
+    // Sizing and timeout settings, fixed for the lifetime of the pool
+    private final int minSize;
+    private final int maxSize;
+    private final long idleTimeoutMillis;
+    private final long acquireTimeoutMillis;
+    private final long leakThresholdMillis;
+    // Whether each borrow records its stack so a leak report can show where the connection was acquired
+    // Off by default: filling in a stack trace on every borrow costs far more than the borrow itself
+    private final boolean leakStackTraces;
+    // Prepared statements kept open per connection; 0 turns statement caching off
+    private final int statementCacheSize;
+
+    // One permit per connection that may be handed out, so at most maxSize connections exist at once
+    private final Semaphore permits;
+    // Idle connections, most recently returned first so busy periods reuse warm connections
+    private final LinkedBlockingDeque<PooledConnection> idleConnections = new LinkedBlockingDeque<>();
+    // Connections currently lent out to callers, scanned by the leak detector
+    private final Set<PooledConnection> borrowedConnections = ConcurrentHashMap.newKeySet();
+    // Background thread that evicts idle connections, tops the pool up to minSize and reports leaks
+    private final ScheduledExecutorService housekeeper;
+
+    // Counters reported through getStats()
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong destroyedCount = new AtomicLong();
+    private final AtomicLong acquireCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+    private final AtomicLong totalAcquireNanos = new AtomicLong();
+    private final AtomicLong statementCacheHits = new AtomicLong();
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+
+    private volatile boolean closed;
+
+    // Creates a pool for the given database URL with explicit sizing and timeout settings
+    // A leak threshold of zero or less disables leak detection
+    public ConnectionPool(String url, String user, String password, int minSize, int maxSize,
+                          long idleTimeoutMillis, long acquireTimeoutMillis, long leakThresholdMillis) {
+        this(url, user, password, minSize, maxSize, idleTimeoutMillis, acquireTimeoutMillis, leakThresholdMillis,
+            DEFAULT_STATEMENT_CACHE_SIZE);
+    }
+
+    // Same as above with an explicit number of prepared statements to keep open per connection (0 to disable)
+    public ConnectionPool(String url, String user, String password, int minSize, int maxSize,
+                          long idleTimeoutMillis, long acquireTimeoutMillis, long leakThresholdMillis,
+                          int statementCacheSize) {
+        this(url, user, password, minSize, maxSize, idleTimeoutMillis, acquireTimeoutMillis, leakThresholdMillis,
+            statementCacheSize, false);
+    }
+
+    // Same as above, optionally recording the acquiring stack trace of every borrow for leak reports
+    public ConnectionPool(String url, String user, String password, int minSize, int maxSize,
+                          long idleTimeoutMillis, long acquireTimeoutMillis, long leakThresholdMillis,
+                          int statementCacheSize, boolean leakStackTraces) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Pool max size must be at least 1");
+        }
+        if (minSize < 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("Pool min size must be between 0 and max size");
+        }
+        if (statementCacheSize < 0) {
+            throw new IllegalArgumentException("Statement cache size must not be negative");
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.leakStackTraces = leakStackTraces && leakThresholdMillis > 0;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxSize, true);
+
+        long interval = MAX_HOUSEKEEPING_INTERVAL_MS;
+        if (idleTimeoutMillis > 0) {
+            interval = Math.min(interval, idleTimeoutMillis / 2);
+        }
+        if (leakThresholdMillis > 0) {
+            interval = Math.min(interval, leakThresholdMillis / 2);
+        }
+        interval = Math.max(interval, 10);
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "fers-pool-housekeeper");
+            thread.setDaemon(true); // Never keep the JVM alive just for pool maintenance
+            return thread;
+        });
+        housekeeper.scheduleWithFixedDelay(this::runHousekeeping, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    // Creates a pool for the given database URL, reading sizing and timeouts from the fers.pool.* system properties
+    public static ConnectionPool fromSystemProperties(String url, String user, String password) {
+        return new ConnectionPool(url, user, password,
+            Integer.getInteger(MIN_SIZE_PROPERTY, DEFAULT_MIN_SIZE),
+            Integer.getInteger(MAX_SIZE_PROPERTY, DEFAULT_MAX_SIZE),
+            Long.getLong(IDLE_TIMEOUT_PROPERTY, DEFAULT_IDLE_TIMEOUT_MS),
+            Long.getLong(ACQUIRE_TIMEOUT_PROPERTY, DEFAULT_ACQUIRE_TIMEOUT_MS),
+            Long.getLong(LEAK_THRESHOLD_PROPERTY, DEFAULT_LEAK_THRESHOLD_MS),
+            Integer.getInteger(STATEMENT_CACHE_SIZE_PROPERTY, DEFAULT_STATEMENT_CACHE_SIZE),
+            Boolean.getBoolean(LEAK_STACK_TRACES_PROPERTY));
+    }
+
+    // Borrows a connection from the pool, opening a new one if no idle connection is available
+    // Blocks for up to the acquire timeout when all maxSize connections are in use, then throws SQLTimeoutException
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                timeoutCount.incrementAndGet();
+                throw new SQLTimeoutException("Timed out after " + acquireTimeoutMillis
+                    + " ms waiting for a database connection (pool max size " + maxSize + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Preserve the interrupt for the caller
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+
+        try {
+            PooledConnection pooled = takeIdleConnection();
+            if (pooled == null) {
+                pooled = openConnection(); // Nothing idle, so open a new physical connection
+            }
+            pooled.borrowedAt = System.currentTimeMillis();
+            pooled.leakReported = false;
+            pooled.borrowSite = leakStackTraces ? new Throwable("Connection acquired here") : null;
+            borrowedConnections.add(pooled);
+            acquireCount.incrementAndGet();
+            totalAcquireNanos.addAndGet(System.nanoTime() - start);
+            return pooled.newHandle();
+        } catch (SQLException | RuntimeException e) {
+            permits.release(); // Give the slot back if we could not hand out a connection
+            throw e;
+        }
+    }
+
+    // Returns a snapshot of the pool's current size and lifetime counters, useful for sizing the pool
+    public ConnectionPoolStats getStats() {
+        int idle = idleConnections.size();
+        int active = borrowedConnections.size();
+        long acquired = acquireCount.get();
+        double averageAcquireMillis = acquired == 0 ? 0.0 : totalAcquireNanos.get() / 1_000_000.0 / acquired;
+        return new ConnectionPoolStats(minSize, maxSize, openConnections.get(), idle, active,
+            permits.getQueueLength(), createdCount.get(), destroyedCount.get(), acquired,
+            timeoutCount.get(), leakCount.get(), averageAcquireMillis,
+            statementCacheHits.get(), statementCacheMisses.get());
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    // Closes all idle connections and stops the housekeeping thread
+    // Connections still borrowed are closed as soon as their callers return them
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idleConnections.pollFirst()) != null) {
+            destroy(pooled);
+        }
+    }
+
+    // Takes the most recently used idle connection, discarding any that were closed underneath the pool
+    private PooledConnection takeIdleConnection() {
+        PooledConnection pooled;
+        while ((pooled = idleConnections.pollFirst()) != null) {
+            if (pooled.isUsable()) {
+                return pooled;
+            }
+            destroy(pooled);
+        }
+        return null;
+    }
+
+    // Opens a new physical connection to the database and wraps it for pooling
+    private PooledConnection openConnection() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, user, password);
+        openConnections.incrementAndGet();
+        createdCount.incrementAndGet();
+        return new PooledConnection(physical);
+    }
+
+    // Called when a caller closes its handle; resets the connection and puts it back in the idle queue
+    private void release(PooledConnection pooled) {
+        borrowedConnections.remove(pooled);
+        try {
+            if (pooled.statementCache != null) {
+                pooled.statementCache.releaseAll(); // Close any statements the borrower left open
+            }
+            if (closed || !pooled.isUsable() || !pooled.resetState()) {
+                destroy(pooled); // Never hand a broken or half-finished connection to the next caller
+            } else {
+                pooled.lastReturnedAt = System.currentTimeMillis();
+                idleConnections.offerFirst(pooled);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    // Closes the physical connection behind a pooled entry and updates the counters
+    private void destroy(PooledConnection pooled) {
+        try {
+            pooled.physical.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing pooled connection: " + e.getMessage()); // Log and carry on
+        }
+        openConnections.decrementAndGet();
+        destroyedCount.incrementAndGet();
+    }
+
+    // Periodic maintenance: evict long-idle connections, refill to minSize and report suspected leaks
+    private void runHousekeeping() {
+        try {
+            evictIdleConnections();
+            fillToMinimum();
+            detectLeaks();
+        } catch (RuntimeException e) {
+            System.err.println("Error during connection pool housekeeping: " + e.getMessage());
+        }
+    }
+
+    // Closes connections that have sat idle longer than the idle timeout, keeping at least minSize open
+    // The oldest idle connections live at the tail of the deque, so eviction works from there
+    private void evictIdleConnections() {
+        if (idleTimeoutMillis <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        while (openConnections.get() > minSize) {
+            PooledConnection oldest = idleConnections.pollLast();
+            if (oldest == null) {
+                return;
+            }
+            if (now - oldest.lastReturnedAt < idleTimeoutMillis) {
+                idleConnections.offerLast(oldest); // Still fresh, and everything ahead of it is fresher
+                return;
+            }
+            destroy(oldest);
+        }
+    }
+
+    // Opens connections in the background until the pool holds at least minSize of them
+    private void fillToMinimum() {
+        while (!closed && openConnections.get() < minSize && permits.tryAcquire()) {
+            try {
+                PooledConnection pooled = openConnection();
+                pooled.lastReturnedAt = System.currentTimeMillis();
+                idleConnections.offerLast(pooled);
+            } catch (SQLException e) {
+                System.err.println("Error opening pooled connection: " + e.getMessage());
+                return;
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    // Logs a warning, once per borrow, for every connection held longer than the leak threshold
+    private void detectLeaks() {
+        if (leakThresholdMillis <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (PooledConnection pooled : borrowedConnections) {
+            if (!pooled.leakReported && now - pooled.borrowedAt > leakThresholdMillis) {
+                pooled.leakReported = true;
+                System.err.println("Possible connection leak: connection to " + url + " held for "
+                    + (now - pooled.borrowedAt) + " ms without being closed");
+                if (pooled.borrowSite != null) {
+                    pooled.borrowSite.printStackTrace(); // Show where the connection was acquired
+                } else {
+                    System.err.println("Set -D" + LEAK_STACK_TRACES_PROPERTY + "=true to log where it was acquired");
+                }
+                leakCount.incrementAndGet(); // Counted after the report, so the stats never run ahead of the log
+            }
+        }
+    }
+
+    // A physical connection owned by the pool, plus the bookkeeping needed to lend it out
+    private final class PooledConnection {
+        private final Connection physical;
+        // This connection's prepared statements, or null when statement caching is off
+        private final StatementCache statementCache;
+        private volatile long borrowedAt;
+        private volatile long lastReturnedAt;
+        private volatile boolean leakReported;
+        private volatile Throwable borrowSite;
+
+        private PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.statementCache = statementCacheSize > 0
+                ? new StatementCache(physical, statementCacheSize, statementCacheHits, statementCacheMisses)
+                : null;
+        }
+
+        // Creates a fresh caller-facing handle; closing the handle returns this connection to the pool
+        private Connection newHandle() {
+            return (Connection) Proxy.newProxyInstance(
+                ConnectionPool.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new HandleInvocationHandler(this));
+        }
+
+        private boolean isUsable() {
+            try {
+                return !physical.isClosed();
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        // Rolls back any unfinished transaction and restores auto-commit so the next borrower starts clean
+        // Returns false if the connection could not be reset and should be discarded
+        private boolean resetState() {
+            try {
+                if (!physical.getAutoCommit()) {
+                    physical.rollback();
+                    physical.setAutoCommit(true);
+                }
+                if (physical.isReadOnly()) {
+                    physical.setReadOnly(false);
+                }
+                physical.clearWarnings();
+                return true;
+            } catch (SQLException e) {
+                System.err.println("Error resetting pooled connection: " + e.getMessage());
+                return false;
+            }
+        }
+    }
+
+    // Forwards calls on a borrowed handle to the physical connection, intercepting close()
+    // Once a handle is closed every further call fails, so a stale handle can never touch a reused connection
+    // prepareStatement(sql) and prepareStatement(sql, autoGeneratedKeys) are served from the statement cache
+    // The physical connection never escapes: unwrap(Connection.class) yields the handle, and statements and metadata
+    // report the handle from getConnection(), so closing what they return gives the connection back to the pool
+    private final class HandleInvocationHandler implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean handleClosed;
+
+        private HandleInvocationHandler(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!handleClosed) {
+                        handleClosed = true;
+                        release(pooled);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return handleClosed || pooled.physical.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "PooledConnection[" + url + (handleClosed ? ", closed]" : "]");
+                }
+                case "unwrap", "isWrapperFor" -> {
+                    if (handleClosed) {
+                        throw new SQLException("Connection is closed");
+                    }
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return method.getName().equals("unwrap") ? proxy : Boolean.TRUE;
+                    }
+                    return forward(method, args); // Driver-specific interfaces, e.g. for H2 session settings
+                }
+                case "prepareStatement" -> {
+                    if (handleClosed) {
+                        throw new SQLException("Connection is closed");
+                    }
+                    if (pooled.statementCache != null && args.length == 1) {
+                        return pooled.statementCache.prepare((Connection) proxy, (String) args[0], Statement.NO_GENERATED_KEYS);
+                    }
+                    if (pooled.statementCache != null && args.length == 2 && args[1] instanceof Integer keys) {
+                        return pooled.statementCache.prepare((Connection) proxy, (String) args[0], keys);
+                    }
+                    // Other overloads are rare and are not cached
+                    return bindToHandle(proxy, method, forward(method, args));
+                }
+                default -> {
+                    if (handleClosed) {
+                        throw new SQLException("Connection is closed");
+                    }
+                    return bindToHandle(proxy, method, forward(method, args));
+                }
+            }
+        }
+
+        // Wraps statements and metadata from the physical connection so their getConnection() returns the handle
+        private Object bindToHandle(Object proxy, Method method, Object result) {
+            Class<?> type = method.getReturnType();
+            if (result == null || (type != Statement.class && type != PreparedStatement.class
+                && type != CallableStatement.class && type != DatabaseMetaData.class)) {
+                return result;
+            }
+            return Proxy.newProxyInstance(
+                ConnectionPool.class.getClassLoader(),
+                new Class<?>[]{type},
+                new HandleBoundInvocationHandler(result, (Connection) proxy));
+        }
+
+        private Object forward(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause(); // Surface the driver's own exception to the caller
+            }
+        }
+    }
+
+    // Forwards every call to a statement or metadata object of the physical connection, except that getConnection()
+    // returns the borrowed handle and unwrap() to an interface the wrapper implements returns the wrapper
+    private static final class HandleBoundInvocationHandler implements InvocationHandler {
+        private final Object target;
+        private final Connection handle;
+
+        private HandleBoundInvocationHandler(Object target, Connection handle) {
+            this.target = target;
+            this.handle = handle;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "getConnection" -> {
+                    return handle;
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "unwrap", "isWrapperFor" -> {
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return method.getName().equals("unwrap") ? proxy : Boolean.TRUE;
+                    }
+                    return forward(method, args);
+                }
+                default -> {
+                    return forward(method, args);
+                }
+            }
+        }
+
+        private Object forward(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause(); // Surface the driver's own exception to the caller
+            }
+        }
+    }
+}
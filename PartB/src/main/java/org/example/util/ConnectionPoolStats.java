@@ -0,0 +1,117 @@
+package org.example.util;
+
+// This class is an immutable snapshot of a ConnectionPool's size and lifetime counters
+// It is returned by DataConnectionHelper.getPoolStats() so the pool can be sized from real usage
+public class ConnectionPoolStats {
+    // Configured lower and upper bounds on the number of open connections
+    private final int minSize;
+    private final int maxSize;
+    // Physical connections currently open, split into idle and lent out
+    private final int totalConnections;
+    private final int idleConnections;
+    private final int activeConnections;
+    // Callers currently blocked waiting for a connection to become available
+    private final int awaitingConnection;
+    // Lifetime counters since the pool was created
+    private final long createdCount;
+    private final long destroyedCount;
+    private final long acquireCount;
+    private final long timeoutCount;
+    private final long leakCount;
+    // Average time callers spent inside getConnection(), including any wait for a free slot
+    private final double averageAcquireMillis;
+    // Lifetime prepareStatement() calls served from a connection's statement cache, and those that had to prepare
+    private final long statementCacheHits;
+    private final long statementCacheMisses;
+
+    public ConnectionPoolStats(int minSize, int maxSize, int totalConnections, int idleConnections,
+                               int activeConnections, int awaitingConnection, long createdCount,
+                               long destroyedCount, long acquireCount, long timeoutCount, long leakCount,
+                               double averageAcquireMillis, long statementCacheHits, long statementCacheMisses) {
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.totalConnections = totalConnections;
+        this.idleConnections = idleConnections;
+        this.activeConnections = activeConnections;
+        this.awaitingConnection = awaitingConnection;
+        this.createdCount = createdCount;
+        this.destroyedCount = destroyedCount;
+        this.acquireCount = acquireCount;
+        this.timeoutCount = timeoutCount;
+        this.leakCount = leakCount;
+        this.averageAcquireMillis = averageAcquireMillis;
+        this.statementCacheHits = statementCacheHits;
+        this.statementCacheMisses = statementCacheMisses;
+    }
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int getTotalConnections() {
+        return totalConnections;
+    }
+
+    public int getIdleConnections() {
+        return idleConnections;
+    }
+
+    public int getActiveConnections() {
+        return activeConnections;
+    }
+
+    public int getAwaitingConnection() {
+        return awaitingConnection;
+    }
+
+    public long getCreatedCount() {
+        return createdCount;
+    }
+
+    public long getDestroyedCount() {
+        return destroyedCount;
+    }
+
+    public long getAcquireCount() {
+        return acquireCount;
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount;
+    }
+
+    public long getLeakCount() {
+        return leakCount;
+    }
+
+    public double getAverageAcquireMillis() {
+        return averageAcquireMillis;
+    }
+
+    public long getStatementCacheHits() {
+        return statementCacheHits;
+    }
+
+    public long getStatementCacheMisses() {
+        return statementCacheMisses;
+    }
+
+    // Share of prepareStatement() calls that reused a cached statement, between 0 and 1
+    public double getStatementCacheHitRate() {
+        long lookups = statementCacheHits + statementCacheMisses;
+        return lookups == 0 ? 0.0 : (double) statementCacheHits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("pool[size=%d/%d (min %d), idle=%d, active=%d, waiting=%d, created=%d, destroyed=%d, "
+                + "acquired=%d, timeouts=%d, leaks=%d, avgAcquire=%.3f ms, statementCache=%d hits/%d misses (%.1f%%)]",
+            totalConnections, maxSize, minSize, idleConnections, activeConnections, awaitingConnection,
+            createdCount, destroyedCount, acquireCount, timeoutCount, leakCount, averageAcquireMillis,
+            statementCacheHits, statementCacheMisses, getStatementCacheHitRate() * 100);
+    }
+}
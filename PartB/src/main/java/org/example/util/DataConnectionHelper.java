@@ -1,10 +1,19 @@
 package org.example.util;
 
+import org.example.model.OrderStatus;
+import org.example.model.PaymentMethod;
+import org.example.model.PaymentStatus;
+
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToIntFunction;
 
 // This utility class provides database connection and initialization functionality
 // It manages the H2 database connection and creates all necessary tables for the application
@@ -12,19 +21,203 @@ public class DataConnectionHelper {
     // Database connection URL for H2 database, stored in the current directory as fers_db
     // AUTO_SERVER=TRUE allows multiple connections to the same database file
     private static final String DB_URL = "jdbc:h2:./fers_db;AUTO_SERVER=TRUE";
+    // System property that points the application at a different database URL (used by the benchmarks)
+    public static final String DB_URL_PROPERTY = "fers.db.url";
     // Test database URL for unit testing (in-memory database)
     private static final String TEST_DB_URL = "jdbc:h2:mem:test_db;DB_CLOSE_DELAY=-1";
     // Default H2 database username for authentication
     private static final String DB_USER = "sa";
     // Default H2 database password, empty for this application
     private static final String DB_PASSWORD = "";
+    // One connection pool per database URL, created lazily the first time that URL is used
+    private static final Map<String, ConnectionPool> POOLS = new ConcurrentHashMap<>();
+    // Lengths that dynamic IN lists are padded up to; 500 matches the largest batch the DAOs send in one query
+    private static final int[] IN_LIST_SIZES = {1, 8, 32, 128, 500};
 
-    // Creates and returns a connection to the H2 database
+    // Borrows a connection to the H2 database from the shared connection pool
     // This method is used by all DAO classes to establish database connections
+    // Closing the returned connection hands it back to the pool instead of closing the physical connection
     // If system property "test.mode" is set to "true", uses in-memory test database
     public static Connection getConnection() throws SQLException {
-        String url = "true".equals(System.getProperty("test.mode")) ? TEST_DB_URL : DB_URL;
-        return DriverManager.getConnection(url, DB_USER, DB_PASSWORD);
+        return currentPool().getConnection();
+    }
+
+    // Builds the placeholders "?, ?, ..." for an IN list of count IDs, padded up to the next IN_LIST_SIZES length
+    // Without padding every list length is its own SQL string, and lookups of varying size would push the fixed hot
+    // statements out of each connection's statement cache; with it a query needs at most a handful of entries
+    public static String inListPlaceholders(int count) {
+        return String.join(", ", Collections.nCopies(paddedInListSize(count), "?"));
+    }
+
+    // Binds IDs to an IN list built by inListPlaceholders, starting at parameter index first
+    // The padding repeats the last ID, which does not change which rows match; returns the next free parameter index
+    public static int bindInList(PreparedStatement pstmt, int first, Collection<Integer> ids) throws SQLException {
+        int index = first;
+        int last = 0;
+        for (Integer id : ids) {
+            pstmt.setInt(index++, id);
+            last = id;
+        }
+        for (int end = first + paddedInListSize(ids.size()); index < end; index++) {
+            pstmt.setInt(index, last);
+        }
+        return index;
+    }
+
+    // Length an IN list of count IDs is padded to: the smallest of IN_LIST_SIZES that fits it, or for longer
+    // lists the next multiple of the largest size
+    static int paddedInListSize(int count) {
+        for (int size : IN_LIST_SIZES) {
+            if (count <= size) {
+                return size;
+            }
+        }
+        int largest = IN_LIST_SIZES[IN_LIST_SIZES.length - 1];
+        return (count + largest - 1) / largest * largest;
+    }
+
+    // Runs a unit of work on a single connection inside one database transaction
+    // The work is committed once if it completes, and rolled back entirely if it throws
+    // Returns whatever the work returns; any SQLException is rethrown after the rollback
+    // If the rollback or the auto-commit reset fails too, that failure is attached to the original as suppressed
+    // rather than replacing it; the pool discards a connection it cannot reset when it is handed back
+    public static <T> T executeInTransaction(TransactionWork<T> work) throws SQLException {
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false); // Group every statement in the work into one transaction
+            Exception failure = null;
+            try {
+                T result = work.execute(conn);
+                conn.commit(); // A single commit for the whole unit of work
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                failure = e;
+                try {
+                    conn.rollback(); // Undo everything written so far so no partial data is left behind
+                } catch (SQLException rollbackFailure) {
+                    e.addSuppressed(rollbackFailure);
+                }
+                throw e;
+            } finally {
+                try {
+                    conn.setAutoCommit(true);
+                } catch (SQLException resetFailure) {
+                    if (failure != null) {
+                        failure.addSuppressed(resetFailure);
+                    } else {
+                        // The work is already committed, so report its result and leave the reset to the pool
+                        System.err.println("Error restoring auto-commit: " + resetFailure.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    // Creates the secondary indexes on the foreign-key and sort columns the DAOs query by
+    // Uses IF NOT EXISTS so it can run on every startup and add missing indexes to an existing database
+    public static void createIndexes(Statement stmt) throws SQLException {
+        // Order history per customer: filter on user_id and read newest first without a sort step
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_orders_user_date ON orders (user_id, order_date DESC, id DESC)");
+        // Admin order listing across all customers, newest first
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_orders_order_date ON orders (order_date DESC, id DESC)");
+        // Orders in one status, oldest first (the admin approval queue); H2 has no partial indexes, so the
+        // status code leads and each status occupies its own contiguous range of the index
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_orders_status_date ON orders (status, order_date, id)");
+        // Line items of an order; carries every selected column so the lookup never touches the table rows
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_order_items_order ON order_items (order_id, product_id, quantity, price)");
+        // Payment of an order; likewise covers every selected column
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_payments_order ON payments (order_id, payment_method, status, amount, payment_date)");
+    }
+
+    // Converts the order status, payment method and payment status columns of a database created by an older
+    // version, which stored the names as VARCHAR(20), to TINYINT codes; rows and their values are kept
+    // Runs on every startup and does nothing once the columns hold codes
+    static void migrateStatusColumns(Statement stmt) throws SQLException {
+        Connection conn = stmt.getConnection();
+        if (!isVarcharColumn(conn, "ORDERS", "STATUS") && !isVarcharColumn(conn, "PAYMENTS", "PAYMENT_METHOD")
+                && !isVarcharColumn(conn, "PAYMENTS", "STATUS")) {
+            return;
+        }
+        // This index covers the payment columns being replaced; createIndexes rebuilds it afterwards
+        stmt.execute("DROP INDEX IF EXISTS idx_payments_order");
+        convertToCodes(stmt, "orders", "status", OrderStatus.values(), OrderStatus::getCode);
+        convertToCodes(stmt, "payments", "payment_method", PaymentMethod.values(), PaymentMethod::getCode);
+        convertToCodes(stmt, "payments", "status", PaymentStatus.values(), PaymentStatus::getCode);
+        System.out.println("Migrated order and payment status columns to compact codes.");
+    }
+
+    // Replaces one VARCHAR column holding enum names with a TINYINT column holding the matching codes
+    // A code column is added next to the old one and filled in, and only then is the old column dropped
+    // (which also drops its CHECK on the names); a value that matches no constant aborts before anything is dropped
+    private static <E extends Enum<E>> void convertToCodes(Statement stmt, String table, String column,
+                                                          E[] values, ToIntFunction<E> code) throws SQLException {
+        if (!isVarcharColumn(stmt.getConnection(), table.toUpperCase(), column.toUpperCase())) {
+            return;
+        }
+        String codeColumn = column + "_code";
+        StringBuilder decode = new StringBuilder("CASE ").append(column);
+        int minCode = Integer.MAX_VALUE;
+        int maxCode = Integer.MIN_VALUE;
+        for (E value : values) {
+            decode.append(" WHEN '").append(value.name()).append("' THEN ").append(code.applyAsInt(value));
+            minCode = Math.min(minCode, code.applyAsInt(value));
+            maxCode = Math.max(maxCode, code.applyAsInt(value));
+        }
+        decode.append(" END");
+
+        stmt.execute("ALTER TABLE " + table + " ADD COLUMN IF NOT EXISTS " + codeColumn + " TINYINT AFTER " + column);
+        stmt.execute("UPDATE " + table + " SET " + codeColumn + " = " + decode);
+        try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + table + " WHERE " + codeColumn + " IS NULL")) {
+            rs.next();
+            if (rs.getInt(1) > 0) {
+                throw new SQLException(table + "." + column + " has " + rs.getInt(1) + " unrecognised values; not migrated");
+            }
+        }
+        stmt.execute("ALTER TABLE " + table + " DROP COLUMN " + column);
+        stmt.execute("ALTER TABLE " + table + " ALTER COLUMN " + codeColumn + " RENAME TO " + column);
+        stmt.execute("ALTER TABLE " + table + " ALTER COLUMN " + column + " SET NOT NULL");
+        stmt.execute("ALTER TABLE " + table + " ADD CHECK (" + column + " BETWEEN " + minCode + " AND " + maxCode + ")");
+    }
+
+    // Returns true if the given column exists and is a character column, i.e. still in the pre-code format
+    private static boolean isVarcharColumn(Connection conn, String table, String column) throws SQLException {
+        String sql = "SELECT DATA_TYPE FROM INFORMATION_SCHEMA.COLUMNS "
+            + "WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_NAME = ? AND COLUMN_NAME = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, table);
+            pstmt.setString(2, column);
+            ResultSet rs = pstmt.executeQuery();
+            return rs.next() && rs.getString(1).startsWith("CHARACTER");
+        }
+    }
+
+    // Returns a snapshot of the connection pool statistics for the database currently in use
+    // Pool size and timeouts are configured through the fers.pool.* system properties (see ConnectionPool)
+    public static ConnectionPoolStats getPoolStats() {
+        return currentPool().getStats();
+    }
+
+    // Closes every connection pool and the idle connections they hold
+    // Called when the application exits; a later getConnection() call simply creates a new pool
+    public static void shutdownPools() {
+        for (String url : POOLS.keySet()) {
+            ConnectionPool pool = POOLS.remove(url);
+            if (pool != null) {
+                pool.close();
+            }
+        }
+    }
+
+    // Returns the JDBC URL of the database selected by the current test.mode setting
+    // Outside test mode the fers.db.url system property, when set, replaces the default file database
+    public static String getDatabaseUrl() {
+        return "true".equals(System.getProperty("test.mode"))
+            ? TEST_DB_URL
+            : System.getProperty(DB_URL_PROPERTY, DB_URL);
+    }
+
+    // Looks up (or creates) the pool for the database currently in use
+    private static ConnectionPool currentPool() {
+        return POOLS.computeIfAbsent(getDatabaseUrl(), u -> ConnectionPool.fromSystemProperties(u, DB_USER, DB_PASSWORD));
     }
     // Initializes the database by creating all necessary tables if they don't already exist
     // Also creates a default admin account if no admin user exists in the system
@@ -62,7 +255,7 @@ public class DataConnectionHelper {
                 CREATE TABLE IF NOT EXISTS orders (
                     id INT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
                     user_id INT NOT NULL,
-                    status VARCHAR(20) NOT NULL CHECK (status IN ('CREATED', 'ACCEPTED', 'REJECTED', 'DELIVERED')),
+                    status TINYINT NOT NULL CHECK (status BETWEEN 1 AND 4), -- OrderStatus code
                     order_date TIMESTAMP NOT NULL,
                     total_amount DECIMAL(10, 2) NOT NULL,
                     FOREIGN KEY (user_id) REFERENCES users(id)
@@ -89,21 +282,50 @@ public class DataConnectionHelper {
                 CREATE TABLE IF NOT EXISTS payments (
                     id INT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
                     order_id INT NOT NULL,
-                    payment_method VARCHAR(20) NOT NULL CHECK (payment_method IN ('ONLINE', 'CARD', 'COD')),
-                    status VARCHAR(20) NOT NULL CHECK (status IN ('SUCCESS', 'FAILED', 'REFUNDED')),
+                    payment_method TINYINT NOT NULL CHECK (payment_method BETWEEN 1 AND 3), -- PaymentMethod code
+                    status TINYINT NOT NULL CHECK (status BETWEEN 1 AND 3), -- PaymentStatus code
                     amount DECIMAL(10, 2) NOT NULL,
                     payment_date TIMESTAMP NOT NULL,
                     FOREIGN KEY (order_id) REFERENCES orders(id)
                 )
             """);
 
+            // Create the tables that hold snapshots of the in-memory session store (see SessionStore)
+            // They have no foreign keys to users or products, so those rows can still be deleted freely
+            // Sessions are stored under their key, a SHA-256 of the session ID, so the table holds no usable tokens
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS shopping_sessions (
+                    id VARCHAR(64) PRIMARY KEY,
+                    user_id INT NOT NULL,
+                    last_access TIMESTAMP NOT NULL
+                )
+            """);
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS shopping_session_items (
+                    session_id VARCHAR(64) NOT NULL,
+                    product_id INT NOT NULL,
+                    quantity INT NOT NULL,
+                    PRIMARY KEY (session_id, product_id),
+                    FOREIGN KEY (session_id) REFERENCES shopping_sessions(id) ON DELETE CASCADE
+                )
+            """);
+
+            // Convert status columns left as VARCHAR by older versions, then create the secondary indexes
+            // used by the order, order item and payment lookups
+            migrateStatusColumns(stmt);
+            createIndexes(stmt);
+
             // Create default admin account if it doesn't exist in the database
             // This ensures there is always at least one admin user to manage the system
             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM users WHERE username = 'admin'");
             rs.next();
             if (rs.getInt(1) == 0) {
-                // Insert the default admin account with username 'admin' and password 'admin123'
-                stmt.execute("INSERT INTO users (username, password, role) VALUES ('admin', 'admin123', 'ADMIN')");
+                // Insert the default admin account with username 'admin' and password 'admin123', stored hashed
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "INSERT INTO users (username, password, role) VALUES ('admin', ?, 'ADMIN')")) {
+                    pstmt.setString(1, PasswordHasher.shared().hash("admin123"));
+                    pstmt.executeUpdate();
+                }
                 System.out.println("Default admin account created: username='admin', password='admin123'");
             }
 
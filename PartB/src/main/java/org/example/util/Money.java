@@ -0,0 +1,62 @@
+package org.example.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// This class provides exact money arithmetic on amounts held as a long number of cents
+// Prices, totals and payments are stored this way in the models, so sums and subtotals never pick up
+// floating-point error, and the hot paths (cart subtotals, checkout totals) allocate nothing
+// Amounts cross to the database as DECIMAL(10, 2) through toDecimal and fromDecimal
+public final class Money {
+    // Number of decimal places in every amount, matching the DECIMAL(10, 2) columns
+    public static final int SCALE = 2;
+    private static final long CENTS_PER_DOLLAR = 100;
+
+    private Money() {
+    }
+
+    // Converts a dollar amount, e.g. typed in by an admin, to cents, rounding to the nearest cent
+    public static long fromDouble(double amount) {
+        return Math.round(amount * CENTS_PER_DOLLAR);
+    }
+
+    // Converts cents to dollars for display or for callers that still work in double
+    // The result is the closest double to the exact amount, and fromDouble turns it back into the same cents
+    public static double toDouble(long cents) {
+        return cents / (double) CENTS_PER_DOLLAR;
+    }
+
+    // Converts a DECIMAL value read from the database to cents, rounding half up if it has more than two places
+    public static long fromDecimal(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    // Converts an amount given by a client, e.g. parsed from a JSON request, to cents without any rounding
+    // Throws ArithmeticException if it has a fraction of a cent or does not fit in a long
+    public static long fromDecimalExact(BigDecimal amount) {
+        return amount.movePointRight(SCALE).longValueExact();
+    }
+
+    // Converts cents to a BigDecimal with two decimal places, for binding to a DECIMAL parameter
+    public static BigDecimal toDecimal(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    // Returns the cost of quantity units at the given unit price
+    // Throws ArithmeticException instead of silently overflowing
+    public static long multiply(long unitCents, int quantity) {
+        return Math.multiplyExact(unitCents, quantity);
+    }
+
+    // Returns the sum of two amounts; throws ArithmeticException instead of silently overflowing
+    public static long add(long cents, long otherCents) {
+        return Math.addExact(cents, otherCents);
+    }
+
+    // Formats cents as a plain dollar amount with two decimal places, e.g. 1999 as "19.99"
+    public static String format(long cents) {
+        long whole = Math.abs(cents / CENTS_PER_DOLLAR);
+        long fraction = Math.abs(cents % CENTS_PER_DOLLAR);
+        return (cents < 0 ? "-" : "") + whole + (fraction < 10 ? ".0" : ".") + fraction;
+    }
+}
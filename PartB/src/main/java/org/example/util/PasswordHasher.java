@@ -0,0 +1,201 @@
+package org.example.util;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Hashes and verifies passwords with salted PBKDF2-HMAC-SHA256 from the JDK
+// Each hash is deliberately slow, so the work runs on a small fixed set of platform threads with a bounded
+// queue: a burst of logins waits its turn there, and once the queue is full further calls are rejected with
+// RejectedExecutionException instead of every request thread spinning on the CPU at the same time
+public class PasswordHasher implements AutoCloseable {
+    // System property names used to configure the hasher
+    public static final String ITERATIONS_PROPERTY = "fers.auth.hashIterations";
+    public static final String THREADS_PROPERTY = "fers.auth.hashThreads";
+    public static final String QUEUE_PROPERTY = "fers.auth.hashQueue";
+
+    // Default settings used when the corresponding system property is not set
+    public static final int DEFAULT_ITERATIONS = 310_000;
+    private static final int DEFAULT_QUEUE = 1_000;
+
+    // Stored hashes look like pbkdf2-sha256$<iterations>$<salt>$<hash>, with unpadded Base64 salt and hash
+    private static final String PREFIX = "pbkdf2-sha256$";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+
+    private final int iterations;
+    // A well-formed hash at this hasher's iteration count that no password matches; checking against it costs the
+    // same as checking a real user's password
+    private final String dummyHash;
+    private final ThreadPoolExecutor executor;
+    private final SecureRandom random = new SecureRandom();
+    private final AtomicLong hashCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    public PasswordHasher(int iterations, int threads, int queueCapacity) {
+        if (iterations < 1 || threads < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Invalid hasher settings: iterations=" + iterations
+                + ", threads=" + threads + ", queue=" + queueCapacity);
+        }
+        this.iterations = iterations;
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        this.dummyHash = PREFIX + iterations + "$" + encoder.encodeToString(new byte[SALT_BYTES])
+            + "$" + encoder.encodeToString(new byte[HASH_BITS / 8]);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), task -> {
+                Thread thread = new Thread(task, "password-hasher-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true); // Never keeps the JVM alive on its own
+                return thread;
+            });
+    }
+
+    // Creates a hasher configured from the fers.auth.* system properties
+    // Without fers.auth.hashThreads it uses one thread per available processor
+    public static PasswordHasher fromSystemProperties() {
+        return new PasswordHasher(
+            Integer.getInteger(ITERATIONS_PROPERTY, DEFAULT_ITERATIONS),
+            Integer.getInteger(THREADS_PROPERTY, Runtime.getRuntime().availableProcessors()),
+            Integer.getInteger(QUEUE_PROPERTY, DEFAULT_QUEUE));
+    }
+
+    // The hasher shared by the whole application, created from system properties on first use
+    public static PasswordHasher shared() {
+        return Shared.INSTANCE;
+    }
+
+    // Returns a new salted hash of the password in the stored format
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        byte[] hash = derive(password, salt, iterations);
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return PREFIX + iterations + "$" + encoder.encodeToString(salt) + "$" + encoder.encodeToString(hash);
+    }
+
+    // Checks a password against a stored value
+    // A stored value that is not one of our hashes is a plaintext password from before hashing was introduced
+    // and is compared as such; callers should replace it with hash(password) once it has matched
+    public boolean verify(String password, String stored) {
+        if (stored == null || password == null) {
+            return false;
+        }
+        if (!isHashed(stored)) {
+            return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8), stored.getBytes(StandardCharsets.UTF_8));
+        }
+        String[] parts = stored.substring(PREFIX.length()).split("\\$");
+        if (parts.length != 3) {
+            return false;
+        }
+        try {
+            Base64.Decoder decoder = Base64.getDecoder();
+            int rounds = Integer.parseInt(parts[0]);
+            byte[] salt = decoder.decode(parts[1]);
+            byte[] expected = decoder.decode(parts[2]);
+            if (rounds < 1 || salt.length == 0 || expected.length == 0) {
+                return false;
+            }
+            byte[] actual = derive(password, salt, rounds);
+            return MessageDigest.isEqual(expected, actual); // Constant time, so timing does not leak how much matched
+        } catch (IllegalArgumentException e) {
+            return false; // Corrupt iteration count or Base64
+        }
+    }
+
+    // Does the work of verify() for a user that does not exist, so an unknown username takes as long to turn away
+    // as a wrong password and login timing does not reveal which usernames exist
+    public void verifyAgainstDummy(String password) {
+        verify(password, dummyHash); // Never matches; only the time spent matters
+    }
+
+    // True if the stored value should be re-hashed after a successful login: it is plaintext, or it was
+    // hashed with fewer iterations than this hasher now uses
+    public boolean needsRehash(String stored) {
+        if (!isHashed(stored)) {
+            return true;
+        }
+        int end = stored.indexOf('$', PREFIX.length());
+        try {
+            return end < 0 || Integer.parseInt(stored.substring(PREFIX.length(), end)) < iterations;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    // True if the value is in this class's stored hash format rather than a plaintext password
+    public static boolean isHashed(String stored) {
+        return stored != null && stored.startsWith(PREFIX);
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    // Number of PBKDF2 derivations completed
+    public long getHashCount() {
+        return hashCount.get();
+    }
+
+    // Number of hash or verify calls turned away because the queue was full
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    // Number of derivations waiting for a hashing thread
+    public int getQueuedCount() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    // Runs one PBKDF2 derivation on a hashing thread and waits for it
+    private byte[] derive(String password, byte[] salt, int rounds) {
+        Future<byte[]> result;
+        try {
+            result = executor.submit(() -> pbkdf2(password, salt, rounds));
+        } catch (RejectedExecutionException e) {
+            rejectedCount.incrementAndGet();
+            throw new RejectedExecutionException("Too many passwords waiting to be hashed", e);
+        }
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing a password", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private byte[] pbkdf2(String password, byte[] salt, int rounds) throws GeneralSecurityException {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, rounds, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } finally {
+            spec.clearPassword();
+            hashCount.incrementAndGet();
+        }
+    }
+
+    // Holder so the shared hasher and its threads are only created when a password is first hashed
+    private static final class Shared {
+        private static final PasswordHasher INSTANCE = fromSystemProperties();
+    }
+}
@@ -0,0 +1,133 @@
+package org.example.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Runs service calls on virtual threads behind a bulkhead that limits how many may use the database at once
+// Thousands of requests can be in flight: those over the limit park cheaply on the bulkhead's semaphore
+// instead of tying up platform threads, and when too many are already waiting new calls are rejected
+// straight away rather than piling up in front of the connection pool
+public class ServiceExecutor implements AutoCloseable {
+    // System property names used to configure the bulkhead
+    public static final String MAX_CONCURRENT_PROPERTY = "fers.bulkhead.maxConcurrent";
+    public static final String MAX_WAITING_PROPERTY = "fers.bulkhead.maxWaiting";
+    public static final String WAIT_TIMEOUT_PROPERTY = "fers.bulkhead.waitTimeoutMs";
+
+    // Default settings used when the corresponding system property is not set
+    // The concurrency limit defaults to the connection pool's maximum size, so callers never queue inside the pool
+    private static final int DEFAULT_MAX_WAITING = 10_000;
+    private static final long DEFAULT_WAIT_TIMEOUT_MS = 30_000;
+
+    private final int maxConcurrent;
+    private final int maxWaiting;
+    private final long waitTimeoutMillis;
+    // One permit per service call allowed to run against the database; fair so waiting calls are served in order
+    private final Semaphore permits;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicLong completedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    public ServiceExecutor(int maxConcurrent, int maxWaiting, long waitTimeoutMillis) {
+        if (maxConcurrent < 1 || maxWaiting < 0) {
+            throw new IllegalArgumentException("Invalid bulkhead sizes: maxConcurrent=" + maxConcurrent + ", maxWaiting=" + maxWaiting);
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaiting = maxWaiting;
+        this.waitTimeoutMillis = waitTimeoutMillis;
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    // Creates an executor configured from the fers.bulkhead.* system properties
+    // Without fers.bulkhead.maxConcurrent the limit follows fers.pool.maxSize
+    public static ServiceExecutor fromSystemProperties() {
+        int poolSize = Integer.getInteger(ConnectionPool.MAX_SIZE_PROPERTY, ConnectionPool.DEFAULT_MAX_SIZE);
+        return new ServiceExecutor(
+            Integer.getInteger(MAX_CONCURRENT_PROPERTY, poolSize),
+            Integer.getInteger(MAX_WAITING_PROPERTY, DEFAULT_MAX_WAITING),
+            Long.getLong(WAIT_TIMEOUT_PROPERTY, DEFAULT_WAIT_TIMEOUT_MS));
+    }
+
+    // Runs a service call on the current thread once the bulkhead admits it and returns its result
+    // Throws RejectedExecutionException if too many calls are already waiting or no permit frees up in time
+    public <T> T call(Supplier<T> serviceCall) {
+        acquire();
+        try {
+            return serviceCall.get();
+        } finally {
+            permits.release();
+            completedCount.incrementAndGet();
+        }
+    }
+
+    // Runs a service call on a new virtual thread behind the bulkhead
+    // A rejected call completes the returned future exceptionally with RejectedExecutionException
+    public <T> CompletableFuture<T> submit(Supplier<T> serviceCall) {
+        return CompletableFuture.supplyAsync(() -> call(serviceCall), executor);
+    }
+
+    // The virtual-thread-per-task executor itself, e.g. for an HTTP server's request threads
+    // Work handed to it directly is not limited by the bulkhead
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    private void acquire() {
+        if (permits.tryAcquire()) {
+            return; // Fast path: a permit was free
+        }
+        if (waiting.incrementAndGet() > maxWaiting) {
+            waiting.decrementAndGet();
+            rejectedCount.incrementAndGet();
+            throw new RejectedExecutionException("Too many requests waiting for the database (" + maxWaiting + ")");
+        }
+        try {
+            if (!permits.tryAcquire(waitTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                rejectedCount.incrementAndGet();
+                throw new RejectedExecutionException("Timed out after " + waitTimeoutMillis + " ms waiting for the database");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rejectedCount.incrementAndGet();
+            throw new RejectedExecutionException("Interrupted while waiting for the database", e);
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    // Number of service calls currently holding a permit
+    public int getActiveCount() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    // Number of service calls parked waiting for a permit
+    public int getWaitingCount() {
+        return waiting.get();
+    }
+
+    public long getCompletedCount() {
+        return completedCount.get();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    // Stops accepting submitted calls; calls already running are allowed to finish
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,223 @@
+package org.example.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+// This class keeps the prepared statements of one pooled physical connection open between borrows, keyed by SQL
+// ConnectionPool routes prepareStatement() on a borrowed handle through it; callers get a wrapper whose close()
+// resets the statement and puts it back, so the next call with the same SQL on that connection skips H2's
+// parse and plan step. A connection is only used by one borrower at a time, so the cache needs no locking
+final class StatementCache {
+    // Statement settings a caller may change; a statement with changed settings is closed instead of reused
+    private static final Set<String> SETTINGS = Set.of("setFetchSize", "setFetchDirection", "setMaxRows",
+        "setLargeMaxRows", "setMaxFieldSize", "setQueryTimeout", "setEscapeProcessing", "setPoolable", "setCursorName");
+
+    private final Connection physical;
+    private final int capacity;
+    // Pool-wide counters, shared by the caches of all of the pool's connections
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    // Cached statements in access order, least recently used first
+    private final LinkedHashMap<Key, Entry> statements = new LinkedHashMap<>(16, 0.75f, true);
+
+    StatementCache(Connection physical, int capacity, AtomicLong hits, AtomicLong misses) {
+        this.physical = physical;
+        this.capacity = capacity;
+        this.hits = hits;
+        this.misses = misses;
+    }
+
+    // Returns a statement for the SQL, reusing the cached one if it is not already lent out
+    // handle is the borrowed connection, returned by the statement's getConnection() instead of the physical one
+    PreparedStatement prepare(Connection handle, String sql, int autoGeneratedKeys) throws SQLException {
+        Key key = new Key(sql, autoGeneratedKeys);
+        Entry entry = statements.get(key);
+        if (entry != null && !entry.inUse) {
+            hits.incrementAndGet();
+            entry.inUse = true;
+            return entry.newHandle(handle);
+        }
+        misses.incrementAndGet();
+        PreparedStatement statement = autoGeneratedKeys == Statement.NO_GENERATED_KEYS
+            ? physical.prepareStatement(sql)
+            : physical.prepareStatement(sql, autoGeneratedKeys);
+        Entry created = new Entry(statement);
+        created.inUse = true;
+        if (entry == null) {
+            statements.put(key, created);
+            evictOverflow();
+        } else {
+            created.evicted = true; // The same SQL is open twice on this connection; the second copy is not kept
+        }
+        return created.newHandle(handle);
+    }
+
+    // Called when the connection goes back to the pool
+    // Statements the borrower never closed are closed and dropped, so they cannot be shared with the next borrower
+    void releaseAll() {
+        Iterator<Entry> iterator = statements.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.inUse) {
+                iterator.remove();
+                entry.evicted = true;
+                entry.closeQuietly();
+            }
+        }
+    }
+
+    int size() {
+        return statements.size();
+    }
+
+    // Drops least recently used statements until the cache is back within capacity
+    // A statement that is lent out right now is closed by its wrapper once the caller is done with it
+    private void evictOverflow() {
+        Iterator<Entry> iterator = statements.values().iterator();
+        while (statements.size() > capacity && iterator.hasNext()) {
+            Entry eldest = iterator.next();
+            iterator.remove();
+            eldest.evicted = true;
+            if (!eldest.inUse) {
+                eldest.closeQuietly();
+            }
+        }
+    }
+
+    // Cache key; the same SQL prepared with and without generated keys gives two different statements
+    private record Key(String sql, int autoGeneratedKeys) {
+    }
+
+    // One physical statement and whether a caller currently holds it
+    private final class Entry {
+        private final PreparedStatement statement;
+        private boolean inUse;
+        private boolean evicted;
+
+        private Entry(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        private PreparedStatement newHandle(Connection handle) {
+            return (PreparedStatement) Proxy.newProxyInstance(
+                StatementCache.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                new StatementInvocationHandler(this, handle));
+        }
+
+        // Called when the caller closes its wrapper: keep the statement for the next caller if it is clean
+        private void giveBack(List<ResultSet> results, boolean settingsChanged) {
+            inUse = false;
+            try {
+                for (ResultSet rs : results) {
+                    rs.close(); // The caller may not have closed its results; nothing should outlive the borrow
+                }
+                if (!evicted && !settingsChanged) {
+                    statement.clearParameters();
+                    statement.clearBatch();
+                    statement.clearWarnings();
+                    return;
+                }
+            } catch (SQLException e) {
+                System.err.println("Error resetting cached statement: " + e.getMessage()); // Drop it below
+            }
+            if (!evicted) {
+                statements.values().remove(this);
+                evicted = true;
+            }
+            closeQuietly();
+        }
+
+        private void closeQuietly() {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                System.err.println("Error closing cached statement: " + e.getMessage());
+            }
+        }
+    }
+
+    // Forwards calls to the cached statement, intercepting close() and tracking the result sets handed out
+    private final class StatementInvocationHandler implements InvocationHandler {
+        private final Entry entry;
+        private final Connection handle;
+        private final List<ResultSet> results = new ArrayList<>();
+        private boolean settingsChanged;
+        private boolean closed;
+
+        private StatementInvocationHandler(Entry entry, Connection handle) {
+            this.entry = entry;
+            this.handle = handle;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!closed) {
+                        closed = true;
+                        entry.giveBack(results, settingsChanged);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return closed || entry.statement.isClosed();
+                }
+                case "getConnection" -> {
+                    return handle;
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "CachedStatement[" + entry.statement + (closed ? ", closed]" : "]");
+                }
+                default -> {
+                    if (closed) {
+                        throw new SQLException("Statement is closed");
+                    }
+                    if (SETTINGS.contains(method.getName())) {
+                        settingsChanged = true;
+                    }
+                    try {
+                        Object result = method.invoke(entry.statement, args);
+                        if (result instanceof ResultSet rs) {
+                            track(rs);
+                        }
+                        return result;
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause(); // Surface the driver's own exception to the caller
+                    }
+                }
+            }
+        }
+
+        // Remembers a result set so it can be closed with the statement; ones already closed are forgotten,
+        // so a statement executed in a loop does not keep a growing list
+        private void track(ResultSet rs) throws SQLException {
+            Iterator<ResultSet> iterator = results.iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().isClosed()) {
+                    iterator.remove();
+                }
+            }
+            results.add(rs);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package org.example.util;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+// This functional interface represents a unit of work that runs on a single database connection
+// It is passed to DataConnectionHelper.executeInTransaction, which commits or rolls back around it
+@FunctionalInterface
+public interface TransactionWork<T> {
+    // Performs the work using the given connection, which already has auto-commit disabled
+    // Throwing any exception causes the whole unit of work to be rolled back
+    T execute(Connection conn) throws SQLException;
+}
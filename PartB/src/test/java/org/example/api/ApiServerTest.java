@@ -0,0 +1,343 @@
+package org.example.api;
+
+import org.example.service.CustomerAccountService;
+import org.example.service.InventoryItemService;
+import org.example.service.SessionStore;
+import org.example.util.DataConnectionHelper;
+import org.example.util.ServiceExecutor;
+import org.example.util.TestDatabaseHelper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ApiServerTest {
+    private ApiServer server;
+    private HttpClient client;
+    private final PrintStream originalOut = System.out;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        TestDatabaseHelper.setupTestDatabase();
+        System.setOut(new PrintStream(new ByteArrayOutputStream())); // The services print to the console
+        new CustomerAccountService().createAdminAccount("admin", "admin123");
+        InventoryItemService inventoryService = new InventoryItemService();
+        inventoryService.insertInventoryItem("T-Shirt", "Cotton tee", 2000, 10);
+        inventoryService.insertInventoryItem("Jeans", "Denim", 5000, 2);
+        server = new ApiServer(0);
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        server.stop(0);
+        System.setOut(originalOut);
+        TestDatabaseHelper.cleanupTestDatabase();
+        TestDatabaseHelper.restoreOriginalDatabase();
+    }
+
+    @Test
+    void testCustomerCheckoutAndAdminAccept() throws Exception {
+        HttpResponse<String> registered = send("POST", "/api/register", null, "{\"username\":\"alice\",\"password\":\"pw\"}");
+        assertEquals(201, registered.statusCode());
+        assertTrue(registered.body().contains("\"accountId\":"));
+        assertTrue(send("GET", "/api/usernames/alice", null, null).body().contains("\"available\":false"));
+        assertTrue(send("GET", "/api/usernames/nobody", null, null).body().contains("\"available\":true"));
+        String customer = login("alice", "pw");
+        String admin = login("admin", "admin123");
+
+        HttpResponse<String> cart = send("POST", "/api/cart", customer, "{\"productId\":1,\"quantity\":3}");
+        assertEquals(200, cart.statusCode());
+        assertEquals(new BigDecimal("60.00"), json(cart).get("total"));
+
+        HttpResponse<String> checkout = send("POST", "/api/checkout", customer, "{\"paymentMethod\":\"CARD\"}");
+        assertEquals(201, checkout.statusCode());
+        long orderId = (Long) json(checkout).get("orderId");
+        assertEquals(List.of(), json(send("GET", "/api/cart", customer, null)).get("items")); // Checkout empties the cart
+
+        HttpResponse<String> accept = send("POST", "/api/orders/" + orderId + "/accept", admin, null);
+        assertEquals(200, accept.statusCode());
+        assertEquals("ACCEPTED", json(accept).get("status"));
+        assertEquals(7L, json(send("GET", "/api/products/1", customer, null)).get("stock"));
+
+        Map<?, ?> details = json(send("GET", "/api/orders/" + orderId, customer, null));
+        assertEquals(1, ((List<?>) details.get("items")).size());
+        assertEquals("CARD", ((Map<?, ?>) details.get("payment")).get("method"));
+
+        // Accepting twice is a conflict, not a server error
+        assertEquals(409, send("POST", "/api/orders/" + orderId + "/accept", admin, null).statusCode());
+
+        List<?> myOrders = (List<?>) json(send("GET", "/api/orders", customer, null)).get("orders");
+        assertEquals(1, myOrders.size());
+        Map<?, ?> line = (Map<?, ?>) ((List<?>) ((Map<?, ?>) myOrders.get(0)).get("items")).get(0);
+        assertEquals(3L, line.get("quantity"));
+        assertNotNull(line.get("name"));
+    }
+
+    @Test
+    void testSessionsAreIndependent() throws Exception {
+        send("POST", "/api/register", null, "{\"username\":\"alice\",\"password\":\"pw\"}");
+        send("POST", "/api/register", null, "{\"username\":\"bob\",\"password\":\"pw\"}");
+        String alice = login("alice", "pw");
+        String bob = login("bob", "pw");
+
+        send("POST", "/api/cart", alice, "{\"productId\":1,\"quantity\":1}");
+
+        assertEquals(1, ((List<?>) json(send("GET", "/api/cart", alice, null)).get("items")).size());
+        assertEquals(0, ((List<?>) json(send("GET", "/api/cart", bob, null)).get("items")).size());
+
+        long orderId = (Long) json(send("POST", "/api/checkout", alice, "{\"paymentMethod\":\"COD\"}")).get("orderId");
+        assertEquals(404, send("GET", "/api/orders/" + orderId, bob, null).statusCode()); // Not bob's order
+    }
+
+    @Test
+    void testListProducts() throws Exception {
+        HttpResponse<String> response = send("GET", "/api/products", null, null);
+
+        assertEquals(200, response.statusCode());
+        List<?> products = (List<?>) Json.parse(response.body());
+        assertEquals(2, products.size());
+        assertEquals("T-Shirt", ((Map<?, ?>) products.get(0)).get("name"));
+    }
+
+    @Test
+    void testListProducts_StreamsSeveralPagesInIdOrder() throws Exception {
+        InventoryItemService inventoryService = new InventoryItemService();
+        int total = 2 * ApiHandler.PRODUCT_STREAM_PAGE_SIZE; // Ends exactly on a page boundary
+        for (int i = 3; i <= total; i++) {
+            inventoryService.insertInventoryItem("Product " + i, "Desc", 100, 1);
+        }
+
+        HttpResponse<String> response = send("GET", "/api/products", null, null);
+
+        assertEquals(200, response.statusCode());
+        List<?> products = (List<?>) Json.parse(response.body());
+        assertEquals(total, products.size());
+        for (int i = 1; i < products.size(); i++) {
+            assertTrue((Long) ((Map<?, ?>) products.get(i)).get("id") > (Long) ((Map<?, ?>) products.get(i - 1)).get("id"));
+        }
+        assertEquals(0, DataConnectionHelper.getPoolStats().getActiveConnections()); // Nothing held once the body is sent
+    }
+
+    @Test
+    void testProductPrices_ExactInCents() throws Exception {
+        String admin = login("admin", "admin123");
+        assertEquals(201, send("POST", "/api/products", admin,
+            "{\"name\":\"Scarf\",\"price\":19.99,\"stock\":3}").statusCode());
+        assertEquals(400, send("POST", "/api/products", admin,
+            "{\"name\":\"Hat\",\"price\":19.999,\"stock\":3}").statusCode()); // No fractions of a cent
+
+        HttpResponse<String> product = send("GET", "/api/products/3", null, null);
+        assertEquals(1999L, new InventoryItemService().fetchInventoryItemById(3).getItemPriceCents());
+        assertTrue(product.body().contains("\"price\":19.99"), product.body());
+        assertEquals(200, send("PUT", "/api/products/3", admin,
+            "{\"name\":\"Scarf\",\"price\":25,\"stock\":3}").statusCode());
+        assertEquals(new BigDecimal("25.00"), json(send("GET", "/api/products/3", null, null)).get("price"));
+    }
+
+    @Test
+    void testOversizedBody_Rejected() throws Exception {
+        String padding = "x".repeat(ApiHandler.MAX_BODY_BYTES);
+        HttpResponse<String> response = send("POST", "/api/register", null,
+            "{\"username\":\"alice\",\"password\":\"" + padding + "\"}");
+
+        assertEquals(413, response.statusCode());
+        assertTrue(((String) json(response).get("error")).contains("too large"));
+        assertEquals("close", response.headers().firstValue("Connection").orElse(null)); // Unread body: not reusable
+        // Without a Content-Length the body is sent chunked and the limit applies while reading it
+        HttpRequest chunked = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + "/api/register"))
+            .POST(HttpRequest.BodyPublishers.fromPublisher(HttpRequest.BodyPublishers.ofString(padding + padding)))
+            .build();
+        HttpResponse<String> chunkedResponse = client.send(chunked, HttpResponse.BodyHandlers.ofString());
+        assertEquals(413, chunkedResponse.statusCode());
+        assertEquals("close", chunkedResponse.headers().firstValue("Connection").orElse(null));
+        assertEquals(201, send("POST", "/api/register", null, "{\"username\":\"alice\",\"password\":\"pw\"}").statusCode());
+    }
+
+    @Test
+    void testSearchProducts() throws Exception {
+        HttpResponse<String> response = send("GET", "/api/products/search?q=cotton+shirt", null, null);
+        assertEquals(200, response.statusCode());
+        Map<?, ?> body = (Map<?, ?>) Json.parse(response.body());
+        assertEquals(1L, body.get("total"));
+        assertEquals("T-Shirt", ((Map<?, ?>) ((List<?>) body.get("products")).get(0)).get("name"));
+        assertNull(body.get("nextOffset"));
+
+        assertEquals(0L, ((Map<?, ?>) Json.parse(send("GET", "/api/products/search?q=silk", null, null).body())).get("total"));
+        assertEquals(400, send("GET", "/api/products/search", null, null).statusCode());
+        assertEquals(400, send("GET", "/api/products/search?q=denim&offset=-1", null, null).statusCode());
+    }
+
+    @Test
+    void testSuggestProducts() throws Exception {
+        HttpResponse<String> response = send("GET", "/api/products/suggest?q=t-s", null, null);
+        assertEquals(200, response.statusCode());
+        List<?> suggestions = (List<?>) ((Map<?, ?>) Json.parse(response.body())).get("suggestions");
+        assertEquals(1, suggestions.size());
+        assertEquals("T-Shirt", ((Map<?, ?>) suggestions.get(0)).get("name"));
+
+        assertEquals(List.of(), ((Map<?, ?>) Json.parse(send("GET", "/api/products/suggest?q=", null, null).body())).get("suggestions"));
+        assertEquals(400, send("GET", "/api/products/suggest?q=j&limit=500", null, null).statusCode());
+    }
+
+    @Test
+    void testAdminOrderPaging() throws Exception {
+        send("POST", "/api/register", null, "{\"username\":\"alice\",\"password\":\"pw\"}");
+        String customer = login("alice", "pw");
+        for (int i = 0; i < 3; i++) {
+            send("POST", "/api/cart", customer, "{\"productId\":1,\"quantity\":1}");
+            send("POST", "/api/checkout", customer, "{\"paymentMethod\":\"CARD\"}");
+        }
+        String admin = login("admin", "admin123");
+
+        Map<?, ?> first = json(send("GET", "/api/orders?limit=2", admin, null));
+        assertEquals(2, ((List<?>) first.get("orders")).size());
+        Map<?, ?> next = (Map<?, ?>) first.get("next");
+        Map<?, ?> second = json(send("GET", "/api/orders?limit=2&afterDate=" + next.get("afterDate")
+            + "&afterId=" + next.get("afterId"), admin, null));
+        assertEquals(1, ((List<?>) second.get("orders")).size());
+        assertNull(second.get("next"));
+    }
+
+    @Test
+    void testErrors() throws Exception {
+        String admin = login("admin", "admin123");
+        send("POST", "/api/register", null, "{\"username\":\"alice\",\"password\":\"pw\"}");
+        String customer = login("alice", "pw");
+
+        assertEquals(401, send("GET", "/api/cart", null, null).statusCode());
+        assertEquals(401, send("GET", "/api/cart", "bogus-token", null).statusCode());
+        assertEquals(401, send("POST", "/api/login", null, "{\"username\":\"alice\",\"password\":\"wrong\"}").statusCode());
+        assertEquals(403, send("DELETE", "/api/products/1", customer, null).statusCode());
+        assertEquals(400, send("POST", "/api/cart", customer, "{not json").statusCode());
+        assertEquals(409, send("POST", "/api/cart", customer, "{\"productId\":2,\"quantity\":5}").statusCode());
+        assertEquals(404, send("GET", "/api/products/999", customer, null).statusCode());
+        assertEquals(404, send("GET", "/api/nothing", admin, null).statusCode());
+        assertEquals(409, send("POST", "/api/register", null, "{\"username\":\"alice\",\"password\":\"pw\"}").statusCode());
+        assertEquals(400, send("POST", "/api/checkout", customer, "{\"paymentMethod\":\"CARD\"}").statusCode()); // Empty cart
+
+        assertEquals(200, send("POST", "/api/logout", customer, null).statusCode());
+        assertEquals(401, send("GET", "/api/cart", customer, null).statusCode());
+    }
+
+    @Test
+    void testSaturatedBulkheadReturns503() throws Exception {
+        server.stop(0);
+        ServiceExecutor executor = new ServiceExecutor(1, 0, 1_000);
+        server = new ApiServer(0, new SessionStore(100, 60_000, null, 0), executor);
+        server.start();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch holding = new CountDownLatch(1);
+        executor.submit(() -> {
+            holding.countDown();
+            try {
+                return release.await(10, TimeUnit.SECONDS); // Occupy the only database permit
+            } catch (InterruptedException e) {
+                return false;
+            }
+        });
+        assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+        HttpResponse<String> busy = send("GET", "/api/products/1", null, null);
+        assertEquals(503, busy.statusCode());
+        assertTrue(busy.headers().firstValue("Retry-After").isPresent());
+
+        release.countDown();
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (executor.getActiveCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(200, send("GET", "/api/products/1", null, null).statusCode());
+    }
+
+    private String login(String username, String password) throws Exception {
+        HttpResponse<String> response = send("POST", "/api/login", null,
+            "{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}");
+        assertEquals(200, response.statusCode());
+        return (String) json(response).get("token");
+    }
+
+    private HttpResponse<String> send(String method, String path, String token, String body) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path))
+            .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static Map<?, ?> json(HttpResponse<String> response) {
+        return (Map<?, ?>) Json.parse(response.body());
+    }
+
+    @Test
+    void testAdminOrderQueueByStatus() throws Exception {
+        send("POST", "/api/register", null, "{\"username\":\"alice\",\"password\":\"pw\"}");
+        String customer = login("alice", "pw");
+        for (int i = 0; i < 3; i++) {
+            send("POST", "/api/cart", customer, "{\"productId\":1,\"quantity\":1}");
+            send("POST", "/api/checkout", customer, "{\"paymentMethod\":\"CARD\"}");
+        }
+        String admin = login("admin", "admin123");
+        List<?> all = (List<?>) json(send("GET", "/api/orders", admin, null)).get("orders");
+        Object acceptedId = ((Map<?, ?>) all.get(0)).get("id");
+        assertEquals(200, send("POST", "/api/orders/" + acceptedId + "/accept", admin, null).statusCode());
+
+        List<?> queue = (List<?>) json(send("GET", "/api/orders?status=CREATED", admin, null)).get("orders");
+        assertEquals(2, queue.size());
+        for (Object order : queue) {
+            assertEquals("CREATED", ((Map<?, ?>) order).get("status"));
+        }
+        assertEquals(400, send("GET", "/api/orders?status=SHIPPED", admin, null).statusCode());
+    }
+
+    @Test
+    void testAdminBulkDecision() throws Exception {
+        send("POST", "/api/register", null, "{\"username\":\"alice\",\"password\":\"pw\"}");
+        String customer = login("alice", "pw");
+        List<Long> orderIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            send("POST", "/api/cart", customer, "{\"productId\":1,\"quantity\":4}");
+            orderIds.add((Long) json(send("POST", "/api/checkout", customer, "{\"paymentMethod\":\"CARD\"}")).get("orderId"));
+        }
+        String admin = login("admin", "admin123");
+
+        // Product 1 starts with 10 in stock, enough for two of the three orders
+        HttpResponse<String> accepted = send("POST", "/api/orders/bulk", admin,
+            "{\"action\":\"accept\",\"ids\":" + orderIds + "}");
+        assertEquals(200, accepted.statusCode());
+        Map<?, ?> outcomes = (Map<?, ?>) json(accepted).get("outcomes");
+        assertEquals("ACCEPTED", outcomes.get(String.valueOf(orderIds.get(0))));
+        assertEquals("ACCEPTED", outcomes.get(String.valueOf(orderIds.get(1))));
+        assertEquals("INSUFFICIENT_STOCK", outcomes.get(String.valueOf(orderIds.get(2))));
+        assertEquals(2L, json(accepted).get("succeeded"));
+
+        // A body without ids decides nothing
+        assertEquals(400, send("POST", "/api/orders/bulk", admin, "{\"action\":\"reject\"}").statusCode());
+        assertEquals(400, send("POST", "/api/orders/bulk", admin, "{\"action\":\"reject\",\"all\":false}").statusCode());
+        assertEquals(400, send("POST", "/api/orders/bulk", admin,
+            "{\"action\":\"reject\",\"all\":true,\"ids\":[" + orderIds.get(2) + "]}").statusCode());
+        assertEquals("CREATED", json(send("GET", "/api/orders/" + orderIds.get(2), admin, null)).get("status"));
+
+        // With all: true every order still awaiting approval is decided
+        HttpResponse<String> rejected = send("POST", "/api/orders/bulk", admin, "{\"action\":\"reject\",\"all\":true}");
+        assertEquals(Map.of(String.valueOf(orderIds.get(2)), "REJECTED"), json(rejected).get("outcomes"));
+
+        assertEquals(403, send("POST", "/api/orders/bulk", customer, "{\"action\":\"accept\",\"all\":true}").statusCode());
+        assertEquals(400, send("POST", "/api/orders/bulk", admin, "{\"action\":\"ship\"}").statusCode());
+        assertEquals(400, send("POST", "/api/orders/bulk", admin, "{\"action\":\"accept\",\"ids\":[0]}").statusCode());
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.api;
+
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonTest {
+
+    @Test
+    void testParse_ObjectWithAllValueTypes() {
+        Object parsed = Json.parse("{\"name\": \"Tee\", \"stock\": 5, \"price\": 19.99, \"active\": true, "
+            + "\"note\": null, \"tags\": [\"a\", \"b\"], \"nested\": {}}");
+
+        Map<?, ?> map = assertInstanceOf(Map.class, parsed);
+        assertEquals("Tee", map.get("name"));
+        assertEquals(5L, map.get("stock"));
+        assertEquals(new BigDecimal("19.99"), map.get("price")); // Exactly as written, never through double
+        assertEquals(Boolean.TRUE, map.get("active"));
+        assertTrue(map.containsKey("note"));
+        assertNull(map.get("note"));
+        assertEquals(List.of("a", "b"), map.get("tags"));
+        assertEquals(Map.of(), map.get("nested"));
+    }
+
+    @Test
+    void testParse_StringEscapes() {
+        assertEquals("a\"b\\c\nd\u00e9", Json.parse("\"a\\\"b\\\\c\\nd\\u00e9\""));
+    }
+
+    @Test
+    void testParse_RejectsMalformedInput() {
+        assertThrows(IllegalArgumentException.class, () -> Json.parse("{\"a\": }"));
+        assertThrows(IllegalArgumentException.class, () -> Json.parse("{\"a\": 1"));
+        assertThrows(IllegalArgumentException.class, () -> Json.parse("[1, 2] extra"));
+        assertThrows(IllegalArgumentException.class, () -> Json.parse("\"unterminated"));
+        assertThrows(IllegalArgumentException.class, () -> Json.parse(""));
+    }
+
+    @Test
+    void testWrite_EscapesAndNesting() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("name", "Say \"hi\"\n");
+        map.put("count", 3);
+        map.put("price", 2.5);
+        map.put("items", List.of(1, true));
+        map.put("missing", null);
+
+        assertEquals("{\"name\":\"Say \\\"hi\\\"\\n\",\"count\":3,\"price\":2.5,\"items\":[1,true],\"missing\":null}",
+            Json.write(map));
+    }
+
+    @Test
+    void testWrite_RoundTrip() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("text", "tab\there \u0001");
+        map.put("list", List.of(1L, new BigDecimal("2.25"), "x"));
+
+        assertEquals(map, Json.parse(Json.write(map)));
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.dao;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CredentialCacheTest {
+    @Test
+    void testIsVerified_MatchesRememberedPassword() {
+        CredentialCache cache = new CredentialCache(10, 60_000);
+        assertFalse(cache.isVerified("alice", "hash1", "secret"));
+
+        cache.remember("alice", "hash1", "secret");
+        assertTrue(cache.isVerified("alice", "hash1", "secret"));
+        assertFalse(cache.isVerified("alice", "hash1", "wrong"));
+        assertFalse(cache.isVerified("alice", "hash2", "secret")); // The stored password changed
+        assertEquals(1, cache.getStats().getHitCount());
+        assertEquals(3, cache.getStats().getMissCount());
+    }
+
+    @Test
+    void testIsVerified_ExpiresAfterTtl() throws Exception {
+        CredentialCache cache = new CredentialCache(10, 20);
+        cache.remember("alice", "hash1", "secret");
+        Thread.sleep(40);
+        assertFalse(cache.isVerified("alice", "hash1", "secret"));
+        assertEquals(0, cache.getStats().getSize());
+        assertEquals(1, cache.getStats().getEvictionCount());
+    }
+
+    @Test
+    void testRemember_EvictsLeastRecentlyUsed() {
+        CredentialCache cache = new CredentialCache(2, 60_000);
+        cache.remember("alice", "h", "a");
+        cache.remember("bob", "h", "b");
+        assertTrue(cache.isVerified("alice", "h", "a"));
+        cache.remember("carol", "h", "c");
+
+        assertTrue(cache.isVerified("alice", "h", "a"));
+        assertFalse(cache.isVerified("bob", "h", "b"));
+        assertEquals(1, cache.getStats().getEvictionCount());
+    }
+
+    @Test
+    void testInvalidateAndClear() {
+        CredentialCache cache = new CredentialCache(10, 60_000);
+        cache.remember("alice", "h", "a");
+        cache.remember("bob", "h", "b");
+        cache.invalidate("alice");
+        assertFalse(cache.isVerified("alice", "h", "a"));
+        cache.clear();
+        assertEquals(0, cache.getStats().getSize());
+    }
+
+    @Test
+    void testDisabledCache_NeverVerifies() {
+        CredentialCache cache = new CredentialCache(0, 60_000);
+        cache.remember("alice", "h", "a");
+        assertFalse(cache.isVerified("alice", "h", "a"));
+        assertEquals(0, cache.getStats().getMissCount());
+    }
+}
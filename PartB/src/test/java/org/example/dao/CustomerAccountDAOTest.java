@@ -1,10 +1,22 @@
 package org.example.dao;
 
 import org.example.model.CustomerAccount;
+import org.example.util.DataConnectionHelper;
+import org.example.util.PasswordHasher;
 import org.example.util.TestDatabaseHelper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import static org.junit.jupiter.api.Assertions.*;
 
 class CustomerAccountDAOTest {
@@ -54,7 +66,8 @@ class CustomerAccountDAOTest {
         CustomerAccount result = dao.authenticateUser("authuser", "authpass");
         assertNotNull(result);
         assertEquals("authuser", result.getAccountName());
-        assertEquals("authpass", result.getAccountPassword());
+        assertNotEquals("authpass", result.getAccountPassword()); // Only the salted hash comes back
+        assertTrue(PasswordHasher.shared().verify("authpass", result.getAccountPassword()));
         assertEquals("CUSTOMER", result.getAccountRole());
     }
 
@@ -69,8 +82,11 @@ class CustomerAccountDAOTest {
 
     @Test
     void testAuthenticateUser_NonExistentUser() {
+        long hashesBefore = PasswordHasher.shared().getHashCount();
         CustomerAccount result = dao.authenticateUser("nonexistent", "password");
         assertNull(result);
+        // The password is still hashed, so an unknown name answers as slowly as a wrong password
+        assertEquals(1, PasswordHasher.shared().getHashCount() - hashesBefore);
     }
 
     @Test
@@ -116,5 +132,141 @@ class CustomerAccountDAOTest {
         boolean result = dao.checkUsernameAvailability("caseuser");
         assertFalse(result);
     }
-}
 
+    @Test
+    void testAuthenticateUser_RepeatedLoginReusesPreparedStatement() {
+        dao.insertRecord(new CustomerAccount("cacheduser", "cachedpass", "CUSTOMER"));
+        dao.authenticateUser("cacheduser", "cachedpass");
+        long hitsBefore = DataConnectionHelper.getPoolStats().getStatementCacheHits();
+
+        for (int i = 0; i < 5; i++) {
+            assertNotNull(dao.authenticateUser("cacheduser", "cachedpass"));
+        }
+        assertTrue(DataConnectionHelper.getPoolStats().getStatementCacheHits() >= hitsBefore + 5);
+    }
+
+    @Test
+    void testInsertRecord_StoresSaltedHash() throws Exception {
+        dao.insertRecord(new CustomerAccount("salted1", "samepass", "CUSTOMER"));
+        dao.insertRecord(new CustomerAccount("salted2", "samepass", "CUSTOMER"));
+
+        String first = storedPassword("salted1");
+        String second = storedPassword("salted2");
+        assertTrue(PasswordHasher.isHashed(first));
+        assertNotEquals(first, second); // Same password, different salt
+    }
+
+    @Test
+    void testAuthenticateUser_UpgradesPlaintextPassword() throws Exception {
+        try (Connection conn = DataConnectionHelper.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO users (username, password, role) VALUES ('legacy', 'oldpass', 'CUSTOMER')");
+        }
+
+        assertNull(dao.authenticateUser("legacy", "wrongpass"));
+        assertEquals("oldpass", storedPassword("legacy"));
+
+        CustomerAccount account = dao.authenticateUser("legacy", "oldpass");
+        assertNotNull(account);
+        String upgraded = storedPassword("legacy");
+        assertTrue(PasswordHasher.isHashed(upgraded));
+        assertEquals(upgraded, account.getAccountPassword());
+        assertNotNull(dao.authenticateUser("legacy", "oldpass"));
+    }
+
+    @Test
+    void testAuthenticateUser_CachesVerifiedCredentials() {
+        dao.insertRecord(new CustomerAccount("cachelogin", "cachepass", "CUSTOMER"));
+        long hashesBefore = PasswordHasher.shared().getHashCount();
+
+        for (int i = 0; i < 5; i++) {
+            assertNotNull(dao.authenticateUser("cachelogin", "cachepass"));
+        }
+        assertEquals(1, PasswordHasher.shared().getHashCount() - hashesBefore); // Only the first login hashed
+        assertTrue(CustomerAccountDAO.getCredentialCacheStats().getHitCount() >= 4);
+
+        // A wrong password is never answered from the cache
+        assertNull(dao.authenticateUser("cachelogin", "wrongpass"));
+    }
+
+    private static String storedPassword(String accountName) throws Exception {
+        try (Connection conn = DataConnectionHelper.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT password FROM users WHERE username = ?")) {
+            pstmt.setString(1, accountName);
+            ResultSet rs = pstmt.executeQuery();
+            assertTrue(rs.next());
+            return rs.getString(1);
+        }
+    }
+
+    @Test
+    void testRegisterAccount_ReturnsGeneratedId() {
+        int accountId = dao.registerAccount(new CustomerAccount("newid", "pass", "CUSTOMER"));
+        assertTrue(accountId > 0);
+        assertEquals("newid", dao.locateById(accountId).getAccountName());
+    }
+
+    @Test
+    void testRegisterAccount_DuplicateUsernameIsTaken() {
+        assertTrue(dao.registerAccount(new CustomerAccount("twice", "pass1", "CUSTOMER")) > 0);
+        assertEquals(CustomerAccountDAO.USERNAME_TAKEN, dao.registerAccount(new CustomerAccount("twice", "pass2", "ADMIN")));
+        assertNotNull(dao.authenticateUser("twice", "pass1")); // The first account is untouched
+    }
+
+    @Test
+    void testRegisterAccount_ConcurrentSignUpsForOneName() throws Exception {
+        int attempts = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(attempts);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < attempts; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return dao.registerAccount(new CustomerAccount("contended", "pass", "CUSTOMER"));
+                }));
+            }
+            start.countDown();
+            int created = 0;
+            int taken = 0;
+            for (Future<Integer> result : results) {
+                int accountId = result.get();
+                if (accountId > 0) {
+                    created++;
+                } else if (accountId == CustomerAccountDAO.USERNAME_TAKEN) {
+                    taken++;
+                }
+            }
+            assertEquals(1, created); // Exactly one sign-up wins; the rest see the name as taken
+            assertEquals(attempts - 1, taken);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testCheckUsernameAvailability_FilterAnswersUnusedNames() {
+        dao.insertRecord(new CustomerAccount("filtered", "pass", "CUSTOMER"));
+        UsernameFilter filter = CustomerAccountDAO.getUsernameFilter();
+        assertTrue(filter.isLoaded());
+        long negativesBefore = filter.getDefiniteNegativeCount();
+
+        assertTrue(dao.checkUsernameAvailability("filtered")); // Registered after loading, so added to the filter
+        assertFalse(dao.checkUsernameAvailability("neverused"));
+        assertFalse(dao.checkUsernameAvailabilityInDatabase("neverused"));
+        assertTrue(dao.checkUsernameAvailabilityInDatabase("filtered"));
+        assertTrue(filter.getDefiniteNegativeCount() > negativesBefore);
+    }
+
+    @Test
+    void testCheckUsernameAvailability_LoadsExistingUsers() throws Exception {
+        try (Connection conn = DataConnectionHelper.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO users (username, password, role) VALUES ('preexisting', 'x', 'CUSTOMER')");
+        }
+        CustomerAccountDAO.resetUsernameFilter();
+
+        assertTrue(dao.checkUsernameAvailability("preexisting"));
+        assertTrue(CustomerAccountDAO.getUsernameFilter().isLoaded());
+    }
+}
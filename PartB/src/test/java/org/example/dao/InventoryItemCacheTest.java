@@ -0,0 +1,171 @@
+package org.example.dao;
+
+import org.example.model.InventoryItem;
+import org.example.util.CacheStats;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import static org.junit.jupiter.api.Assertions.*;
+
+class InventoryItemCacheTest {
+    private final AtomicInteger loads = new AtomicInteger();
+    private final IntFunction<InventoryItem> loader = id -> {
+        loads.incrementAndGet();
+        return id > 0 ? new InventoryItem(id, "Product " + id, "Desc", 10.00, 5) : null;
+    };
+
+    @Test
+    void testGet_LoadsOnceThenHits() {
+        InventoryItemCache cache = new InventoryItemCache(10, 60_000);
+
+        assertEquals("Product 1", cache.get(1, loader).getItemName());
+        assertEquals("Product 1", cache.get(1, loader).getItemName());
+
+        assertEquals(1, loads.get());
+        CacheStats stats = cache.getStats();
+        assertEquals(1, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+        assertEquals(1, stats.getSize());
+        assertEquals(0.5, stats.getHitRate(), 0.001);
+    }
+
+    @Test
+    void testGet_MissingProductNotCached() {
+        InventoryItemCache cache = new InventoryItemCache(10, 60_000);
+
+        assertNull(cache.get(-1, loader));
+        assertNull(cache.get(-1, loader));
+
+        assertEquals(2, loads.get());
+        assertEquals(0, cache.getStats().getSize());
+    }
+
+    @Test
+    void testGet_EvictsLeastRecentlyUsedWhenFull() {
+        InventoryItemCache cache = new InventoryItemCache(2, 60_000);
+        cache.get(1, loader);
+        cache.get(2, loader);
+        cache.get(1, loader); // Product 1 is now the most recently used
+        cache.get(3, loader); // Evicts product 2
+
+        assertEquals(2, cache.getStats().getSize());
+        assertEquals(1, cache.getStats().getEvictionCount());
+        int loadsBefore = loads.get();
+        cache.get(1, loader);
+        assertEquals(loadsBefore, loads.get());
+        cache.get(2, loader);
+        assertEquals(loadsBefore + 1, loads.get());
+    }
+
+    @Test
+    void testGet_ReloadsAfterTimeToLive() throws Exception {
+        InventoryItemCache cache = new InventoryItemCache(10, 20);
+        cache.get(1, loader);
+        Thread.sleep(40);
+        cache.get(1, loader);
+
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.getStats().getEvictionCount());
+    }
+
+    @Test
+    void testEvictExpired_RemovesStaleEntries() throws Exception {
+        InventoryItemCache cache = new InventoryItemCache(10, 20);
+        cache.get(1, loader);
+        cache.get(2, loader);
+        Thread.sleep(40);
+
+        assertEquals(2, cache.evictExpired());
+        assertEquals(0, cache.getStats().getSize());
+    }
+
+    @Test
+    void testInvalidate_ForcesReload() {
+        InventoryItemCache cache = new InventoryItemCache(10, 60_000);
+        cache.get(1, loader);
+        cache.get(2, loader);
+
+        cache.invalidate(1);
+        cache.get(1, loader);
+        assertEquals(3, loads.get());
+
+        cache.invalidateAll(List.of(1, 2));
+        cache.get(2, loader);
+        assertEquals(4, loads.get());
+
+        cache.clear();
+        assertEquals(0, cache.getStats().getSize());
+    }
+
+    @Test
+    void testInvalidate_DuringLoadDoesNotCacheStaleValue() {
+        InventoryItemCache cache = new InventoryItemCache(10, 60_000);
+        // The product changes while its old version is being read from the database
+        cache.get(1, id -> {
+            cache.invalidate(id);
+            return loader.apply(id);
+        });
+
+        assertEquals(0, cache.getStats().getSize());
+    }
+
+    @Test
+    void testGet_ReturnsCopies() {
+        InventoryItemCache cache = new InventoryItemCache(10, 60_000);
+        cache.get(1, loader).setItemStock(0);
+
+        assertEquals(5, cache.get(1, loader).getItemStock());
+    }
+
+    @Test
+    void testGet_ZeroSizeDisablesCaching() {
+        InventoryItemCache cache = new InventoryItemCache(0, 60_000);
+        cache.get(1, loader);
+        cache.get(1, loader);
+
+        assertEquals(2, loads.get());
+        assertEquals(0, cache.getStats().getSize());
+    }
+
+    @Test
+    void testGet_CopiesPriceCentsExactly() {
+        InventoryItemCache cache = new InventoryItemCache(10, 60_000);
+        long cents = (1L << 53) + 1; // Not representable as a double
+        InventoryItem item = new InventoryItem();
+        item.setItemId(1);
+        item.setItemPriceCents(cents);
+
+        assertEquals(cents, cache.get(1, id -> item).getItemPriceCents());
+        assertEquals(cents, cache.get(1, id -> item).getItemPriceCents()); // Served from the cached copy
+    }
+
+    @Test
+    void testGetAll_ServesHitsAndLoadsMissesInOneCall() {
+        InventoryItemCache cache = new InventoryItemCache(10, 60_000);
+        cache.get(2, loader); // Product 2 is cached
+        List<List<Integer>> batches = new ArrayList<>();
+
+        Map<Integer, InventoryItem> found = cache.getAll(List.of(3, 2, -1, 1), ids -> {
+            batches.add(ids);
+            Map<Integer, InventoryItem> loaded = new HashMap<>();
+            for (int id : ids) {
+                InventoryItem item = loader.apply(id);
+                if (item != null) {
+                    loaded.put(id, item);
+                }
+            }
+            return loaded;
+        });
+
+        assertEquals(List.of(List.of(3, -1, 1)), batches); // One load for every miss
+        assertEquals(List.of(3, 2, 1), new ArrayList<>(found.keySet())); // Caller's order; the missing ID is absent
+        assertEquals("Product 3", found.get(3).getItemName());
+        assertEquals(1, cache.getStats().getHitCount());
+        assertEquals(3, cache.getStats().getSize()); // The loaded products are now cached too
+        assertEquals(2, cache.getAll(List.of(1, 3), ids -> Map.of()).size()); // Both served without loading
+    }
+}
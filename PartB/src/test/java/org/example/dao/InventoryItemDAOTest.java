@@ -1,11 +1,26 @@
 package org.example.dao;
 
 import org.example.model.InventoryItem;
+import org.example.util.DataConnectionHelper;
 import org.example.util.TestDatabaseHelper;
+import org.h2.engine.SessionLocal;
+import org.h2.jdbc.JdbcConnection;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
 import static org.junit.jupiter.api.Assertions.*;
 
 class InventoryItemDAOTest {
@@ -167,5 +182,251 @@ class InventoryItemDAOTest {
         boolean result = dao.adjustStockLevel(99999, 10);
         assertFalse(result);
     }
-}
 
+    @Test
+    void testReserveStock_DeductsAllLines() throws Exception {
+        int id1 = dao.insertRecord(new InventoryItem("Product 1", "Desc", 10.00, 10));
+        int id2 = dao.insertRecord(new InventoryItem("Product 2", "Desc", 20.00, 5));
+        Map<Integer, Integer> quantities = new LinkedHashMap<>();
+        quantities.put(id1, 4);
+        quantities.put(id2, 5);
+
+        List<Integer> insufficient = DataConnectionHelper.executeInTransaction(conn -> dao.reserveStock(conn, quantities));
+        assertTrue(insufficient.isEmpty());
+        assertEquals(6, dao.locateById(id1).getItemStock());
+        assertEquals(0, dao.locateById(id2).getItemStock());
+    }
+
+    @Test
+    void testReserveStock_LocksProductsInIdOrderWhateverTheMapOrder() throws Exception {
+        int idA = dao.insertRecord(new InventoryItem("Product A", "Desc", 10.00, 10));
+        int idB = dao.insertRecord(new InventoryItem("Product B", "Desc", 10.00, 10));
+        Map<Integer, Integer> crossed = new LinkedHashMap<>();
+        crossed.put(idB, 1); // B before A, the opposite of ID order
+        crossed.put(idA, 1);
+
+        try (Connection holder = DataConnectionHelper.getConnection()) {
+            holder.setAutoCommit(false);
+            try (PreparedStatement lockA = holder.prepareStatement("UPDATE products SET stock = stock WHERE id = ?")) {
+                lockA.setInt(1, idA);
+                lockA.executeUpdate(); // Hold A's row lock until the rollback below
+            }
+
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            AtomicReference<Thread> worker = new AtomicReference<>();
+            Future<List<Integer>> reservation = executor.submit(() -> {
+                worker.set(Thread.currentThread());
+                return DataConnectionHelper.executeInTransaction(conn -> dao.reserveStock(conn, crossed));
+            });
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (worker.get() == null || worker.get().getState() == Thread.State.RUNNABLE
+                    || worker.get().getState() == Thread.State.NEW) {
+                assertTrue(System.currentTimeMillis() < deadline, "Reservation never waited for A's lock");
+                Thread.sleep(10);
+            }
+
+            // The reservation is waiting on A; had it gone to B first, B would be locked now and this would time out
+            try (Connection other = DataConnectionHelper.getConnection();
+                 Statement stmt = other.createStatement()) {
+                int lockTimeout;
+                try (ResultSet rs = stmt.executeQuery("SELECT LOCK_TIMEOUT()")) {
+                    rs.next();
+                    lockTimeout = rs.getInt(1);
+                }
+                stmt.execute("SET LOCK_TIMEOUT 200");
+                try {
+                    assertEquals(1, stmt.executeUpdate("UPDATE products SET stock = stock WHERE id = " + idB));
+                } finally {
+                    stmt.execute("SET LOCK_TIMEOUT " + lockTimeout); // Leave the pooled connection as it was
+                }
+            }
+
+            holder.rollback();
+            assertTrue(reservation.get(10, TimeUnit.SECONDS).isEmpty());
+            executor.shutdown();
+        }
+        assertEquals(9, dao.locateById(idA).getItemStock());
+        assertEquals(9, dao.locateById(idB).getItemStock());
+    }
+
+    @Test
+    void testReserveStock_ReportsInsufficientLines() throws Exception {
+        int id1 = dao.insertRecord(new InventoryItem("Product 1", "Desc", 10.00, 10));
+        int id2 = dao.insertRecord(new InventoryItem("Product 2", "Desc", 20.00, 2));
+        Map<Integer, Integer> quantities = new LinkedHashMap<>();
+        quantities.put(id1, 1);
+        quantities.put(id2, 3);
+
+        List<Integer> insufficient = DataConnectionHelper.executeInTransaction(conn -> dao.reserveStock(conn, quantities));
+        assertEquals(List.of(id2), insufficient);
+        assertEquals(2, dao.locateById(id2).getItemStock()); // Never driven below the requested quantity
+    }
+
+    @Test
+    void testStreamAllRecords_ReturnsAllProductsInIdOrder() {
+        for (int i = 1; i <= 5; i++) {
+            dao.insertRecord(new InventoryItem("Product " + i, "Desc", 10.00 * i, i));
+        }
+
+        try (Stream<InventoryItem> items = dao.streamAllRecords()) {
+            List<InventoryItem> streamed = items.toList();
+            assertEquals(5, streamed.size());
+            for (int i = 1; i < streamed.size(); i++) {
+                assertTrue(streamed.get(i).getItemId() > streamed.get(i - 1).getItemId());
+            }
+            assertEquals("Product 1", streamed.get(0).getItemName());
+        }
+    }
+
+    @Test
+    void testStreamAllRecords_Empty() {
+        try (Stream<InventoryItem> items = dao.streamAllRecords()) {
+            assertEquals(0, items.count());
+        }
+    }
+
+    @Test
+    void testStreamAllRecords_CloseReleasesConnection() {
+        for (int i = 1; i <= 3; i++) {
+            dao.insertRecord(new InventoryItem("Product " + i, "Desc", 10.00, 1));
+        }
+        int activeBefore = DataConnectionHelper.getPoolStats().getActiveConnections();
+
+        Stream<InventoryItem> items = dao.streamAllRecords();
+        assertEquals(activeBefore + 1, DataConnectionHelper.getPoolStats().getActiveConnections());
+        assertEquals(1, items.limit(1).count()); // Stop part-way through the result
+        items.close();
+
+        assertEquals(activeBefore, DataConnectionHelper.getPoolStats().getActiveConnections());
+        assertEquals(3, dao.retrieveAllRecords().size()); // The returned connection is still usable
+    }
+
+    @Test
+    void testStreamAllRecords_CloseTurnsLazyExecutionOff() throws Exception {
+        dao.insertRecord(new InventoryItem("Product", "Desc", 10.00, 1));
+        try (Stream<InventoryItem> items = dao.streamAllRecords()) {
+            assertEquals(1, items.count());
+        }
+
+        // The pool hands out the most recently returned connection first, so this is the one the stream used
+        // H2 does not report the setting through SQL, so read it from the embedded session
+        try (Connection conn = DataConnectionHelper.getConnection()) {
+            SessionLocal session = (SessionLocal) conn.unwrap(JdbcConnection.class).getSession();
+            assertFalse(session.isLazyQueryExecution());
+        }
+    }
+
+    @Test
+    void testLocateById_RepeatedLookupServedFromCache() {
+        int id = dao.insertRecord(new InventoryItem("Cached", "Desc", 10.00, 5));
+        long hitsBefore = InventoryItemDAO.getCacheStats().getHitCount();
+        long missesBefore = InventoryItemDAO.getCacheStats().getMissCount();
+
+        InventoryItem first = dao.locateById(id);
+        InventoryItem second = dao.locateById(id);
+
+        assertEquals(missesBefore + 1, InventoryItemDAO.getCacheStats().getMissCount());
+        assertEquals(hitsBefore + 1, InventoryItemDAO.getCacheStats().getHitCount());
+        assertNotSame(first, second); // Each caller gets its own copy
+        first.setItemStock(0);
+        assertEquals(5, dao.locateById(id).getItemStock()); // Changing a returned item does not change the cache
+    }
+
+    @Test
+    void testLocateByIds_ReadsMissesTogetherInGivenOrder() {
+        int id1 = dao.insertRecord(new InventoryItem("Product 1", "Desc", 10.00, 1));
+        int id2 = dao.insertRecord(new InventoryItem("Product 2", "Desc", 10.00, 2));
+        int id3 = dao.insertRecord(new InventoryItem("Product 3", "Desc", 10.00, 3));
+        dao.locateById(id2); // Cache one of them
+        long missesBefore = InventoryItemDAO.getCacheStats().getMissCount();
+
+        Map<Integer, InventoryItem> found = dao.locateByIds(List.of(id3, id2, -1, id1));
+
+        assertEquals(List.of(id3, id2, id1), List.copyOf(found.keySet()));
+        assertEquals(3, found.get(id3).getItemStock());
+        assertEquals(missesBefore + 3, InventoryItemDAO.getCacheStats().getMissCount());
+        long hitsBefore = InventoryItemDAO.getCacheStats().getHitCount();
+        dao.locateByIds(List.of(id1, id3));
+        assertEquals(hitsBefore + 2, InventoryItemDAO.getCacheStats().getHitCount()); // Filled by the batch read
+    }
+
+    @Test
+    void testLocateById_CacheInvalidatedByWrites() {
+        int id = dao.insertRecord(new InventoryItem("Cached", "Desc", 10.00, 50));
+        dao.locateById(id); // Warm the cache
+
+        InventoryItem item = dao.locateById(id);
+        item.setItemPrice(12.50);
+        dao.modifyRecord(item);
+        assertEquals(12.50, dao.locateById(id).getItemPrice(), 0.01);
+
+        dao.adjustStockLevel(id, 10);
+        assertEquals(40, dao.locateById(id).getItemStock());
+
+        dao.removeRecord(id);
+        assertNull(dao.locateById(id));
+    }
+
+    @Test
+    void testReserveStock_InvalidatesCachedStock() throws Exception {
+        int id = dao.insertRecord(new InventoryItem("Cached", "Desc", 10.00, 10));
+        assertEquals(10, dao.locateById(id).getItemStock()); // Warm the cache
+
+        DataConnectionHelper.executeInTransaction(conn -> dao.reserveStock(conn, Map.of(id, 3)));
+        dao.invalidateCached(List.of(id));
+
+        assertEquals(7, dao.locateById(id).getItemStock());
+    }
+
+    @Test
+    void testInsertRecord_StoresPriceExactly() {
+        InventoryItem item = new InventoryItem();
+        item.setItemName("Exact");
+        item.setItemDescription("Desc");
+        item.setItemPriceCents(123456789);
+        item.setItemStock(1);
+        int id = dao.insertRecord(item);
+
+        dao.invalidateCached(List.of(id));
+        assertEquals(123456789, dao.locateById(id).getItemPriceCents());
+    }
+
+    @Test
+    void testSearch_FollowsInsertModifyAndRemove() {
+        int shirtId = dao.insertRecord(new InventoryItem("Linen Shirt", "Light summer shirt", 30.0, 4));
+        int dressId = dao.insertRecord(new InventoryItem("Summer Dress", "Floral print", 45.0, 2));
+        assertEquals(2, dao.search("summer", 0, 10).getTotalMatches());
+        assertEquals(dressId, dao.search("summer", 0, 10).getItemIds()[0]); // Name match outranks description
+
+        // Products added after the index was loaded are searchable straight away
+        int coatId = dao.insertRecord(new InventoryItem("Summer Coat", "Rain coat", 90.0, 1));
+        assertEquals(3, dao.search("summer", 0, 10).getTotalMatches());
+
+        assertTrue(dao.modifyRecord(new InventoryItem(shirtId, "Linen Shirt", "Light shirt", 30.0, 4)));
+        assertEquals(2, dao.search("summer", 0, 10).getTotalMatches());
+
+        assertTrue(dao.removeRecord(coatId));
+        assertEquals(0, dao.search("coat", 0, 10).getTotalMatches());
+        assertFalse(dao.removeRecord(coatId));
+    }
+
+    @Test
+    void testSuggestByName_FollowsInsertModifyAndRemove() {
+        int shirtId = dao.insertRecord(new InventoryItem("Linen Shirt", "Light summer shirt", 30.0, 4));
+        dao.insertRecord(new InventoryItem("Lace Dress", "Floral print", 45.0, 2));
+        assertEquals(2, dao.suggestByName("l", 10).size());
+        assertEquals("Lace Dress", dao.suggestByName("l", 10).get(0).getItemName());
+
+        // Products added after the index was loaded are suggested straight away
+        int coatId = dao.insertRecord(new InventoryItem("Linen Coat", "Rain coat", 90.0, 1));
+        assertEquals(2, dao.suggestByName("linen", 10).size());
+
+        assertTrue(dao.modifyRecord(new InventoryItem(shirtId, "Silk Shirt", "Light shirt", 30.0, 4)));
+        assertEquals(coatId, dao.suggestByName("linen", 10).get(0).getItemId());
+        assertEquals(shirtId, dao.suggestByName("sil", 10).get(0).getItemId());
+
+        assertTrue(dao.removeRecord(coatId));
+        assertTrue(dao.suggestByName("linen", 10).isEmpty());
+        assertTrue(dao.suggestByName("coat", 10).isEmpty());
+    }
+}
@@ -0,0 +1,126 @@
+package org.example.dao;
+
+import org.example.model.CustomerAccount;
+import org.example.model.InventoryItem;
+import org.example.model.OrderDetails;
+import org.example.model.PaymentMethod;
+import org.example.model.PaymentRecord;
+import org.example.model.PaymentStatus;
+import org.example.model.PurchaseTransaction;
+import org.example.model.TransactionLineItem;
+import org.example.util.DataConnectionHelper;
+import org.example.util.TestDatabaseHelper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderDetailsDAOTest {
+    private OrderDetailsDAO dao;
+    private PurchaseTransactionDAO transactionDAO;
+    private TransactionLineItemDAO lineItemDAO;
+    private PaymentRecordDAO paymentDAO;
+    private int accountId;
+    private int productId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        TestDatabaseHelper.setupTestDatabase();
+        dao = new OrderDetailsDAO();
+        transactionDAO = new PurchaseTransactionDAO();
+        lineItemDAO = new TransactionLineItemDAO();
+        paymentDAO = new PaymentRecordDAO();
+
+        CustomerAccountDAO accountDAO = new CustomerAccountDAO();
+        accountDAO.insertRecord(new CustomerAccount("details_user", "pass", "CUSTOMER"));
+        accountId = accountDAO.authenticateUser("details_user", "pass").getAccountId();
+        productId = new InventoryItemDAO().insertRecord(new InventoryItem("Scarf", "Wool", 12.50, 10));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        TestDatabaseHelper.cleanupTestDatabase();
+        TestDatabaseHelper.restoreOriginalDatabase();
+    }
+
+    // Creates an order with one line per quantity given and, if paymentType is not null, a payment
+    private int createOrder(String paymentType, int... quantities) {
+        int orderId = transactionDAO.insertTransaction(new PurchaseTransaction(accountId, "CREATED", 25.00));
+        for (int quantity : quantities) {
+            lineItemDAO.insertRecord(new TransactionLineItem(orderId, productId, quantity, 12.50));
+        }
+        if (paymentType != null) {
+            paymentDAO.insertRecord(new PaymentRecord(orderId, paymentType, "SUCCESS", 25.00));
+        }
+        return orderId;
+    }
+
+    @Test
+    void testLocateById_ReturnsOrderItemsAndPayment() {
+        int orderId = createOrder("CARD", 1, 3);
+
+        OrderDetails details = dao.locateById(orderId);
+
+        assertEquals(orderId, details.getTransactionId());
+        assertEquals(accountId, details.getTransaction().getCustomerAccountId());
+        assertEquals(2500, details.getTransaction().getTransactionTotalCents());
+        assertEquals(2, details.getLineItems().size());
+        assertEquals(1, details.getLineItems().get(0).getItemQuantity());
+        assertEquals(3, details.getLineItems().get(1).getItemQuantity());
+        assertEquals(1250, details.getLineItems().get(1).getItemPriceAtPurchaseCents());
+        assertEquals(orderId, details.getLineItems().get(1).getTransactionId());
+        assertEquals("Scarf", details.getLineItems().get(1).getItemName()); // Joined in from products
+        assertEquals(PaymentMethod.CARD, details.getPayment().getPaymentMethod());
+        assertEquals(PaymentStatus.SUCCESS, details.getPayment().getPaymentState());
+        assertEquals(2500, details.getPayment().getPaymentAmountCents());
+    }
+
+    @Test
+    void testLocateById_OrderWithoutItemsOrPayment() {
+        int orderId = createOrder(null);
+
+        OrderDetails details = dao.locateById(orderId);
+
+        assertNotNull(details);
+        assertTrue(details.getLineItems().isEmpty());
+        assertNull(details.getPayment());
+    }
+
+    @Test
+    void testLocateById_NonExistent() {
+        assertNull(dao.locateById(999_999));
+    }
+
+    @Test
+    void testLocateByIds_KeepsRequestedOrderAndSkipsMissing() {
+        int first = createOrder("ONLINE", 1);
+        int second = createOrder("COD", 2, 2, 2);
+        int third = createOrder(null, 4);
+
+        Map<Integer, OrderDetails> details = dao.locateByIds(List.of(third, 999_999, first, second, first));
+
+        assertEquals(List.of(third, first, second), List.copyOf(details.keySet()));
+        assertEquals(3, details.get(second).getLineItems().size());
+        assertEquals(PaymentMethod.COD, details.get(second).getPayment().getPaymentMethod());
+        assertNull(details.get(third).getPayment());
+        assertTrue(dao.locateByIds(List.of()).isEmpty());
+    }
+
+    @Test
+    void testLocateByIds_UsesOneConnectionForManyOrders() {
+        List<Integer> orderIds = new ArrayList<>();
+        for (int i = 0; i < OrderDetailsDAO.MAX_IDS_PER_QUERY + 5; i++) {
+            orderIds.add(createOrder("CARD", 1));
+        }
+
+        long acquiredBefore = DataConnectionHelper.getPoolStats().getAcquireCount();
+        Map<Integer, OrderDetails> details = dao.locateByIds(orderIds);
+
+        // More IDs than fit in one IN list, so two queries, but still a single connection
+        assertEquals(1, DataConnectionHelper.getPoolStats().getAcquireCount() - acquiredBefore);
+        assertEquals(orderIds, List.copyOf(details.keySet()));
+    }
+}
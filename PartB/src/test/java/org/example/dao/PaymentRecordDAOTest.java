@@ -1,12 +1,19 @@
 package org.example.dao;
 
 import org.example.model.CustomerAccount;
+import org.example.model.PaymentMethod;
 import org.example.model.PaymentRecord;
+import org.example.model.PaymentStatus;
 import org.example.model.PurchaseTransaction;
+import org.example.util.DataConnectionHelper;
 import org.example.util.TestDatabaseHelper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
 import static org.junit.jupiter.api.Assertions.*;
 
 class PaymentRecordDAOTest {
@@ -96,7 +103,7 @@ class PaymentRecordDAOTest {
         PaymentRecord payment = new PaymentRecord(orderId, "ONLINE", "SUCCESS", 200.00);
         dao.insertRecord(payment);
         
-        boolean result = dao.modifyPaymentStatus(orderId, "REFUNDED");
+        boolean result = dao.modifyPaymentStatus(orderId, PaymentStatus.REFUNDED);
         assertTrue(result);
         
         PaymentRecord updated = dao.locateByTransactionId(orderId);
@@ -105,7 +112,7 @@ class PaymentRecordDAOTest {
 
     @Test
     void testModifyPaymentStatus_NonExistent() {
-        boolean result = dao.modifyPaymentStatus(99999, "REFUNDED");
+        boolean result = dao.modifyPaymentStatus(99999, PaymentStatus.REFUNDED);
         assertFalse(result);
     }
 
@@ -115,13 +122,67 @@ class PaymentRecordDAOTest {
         PaymentRecord payment = new PaymentRecord(orderId, "ONLINE", "SUCCESS", 100.00);
         dao.insertRecord(payment);
         
-        dao.modifyPaymentStatus(orderId, "FAILED");
+        dao.modifyPaymentStatus(orderId, PaymentStatus.FAILED);
         PaymentRecord updated1 = dao.locateByTransactionId(orderId);
         assertEquals("FAILED", updated1.getPaymentStatus());
         
-        dao.modifyPaymentStatus(orderId, "REFUNDED");
+        dao.modifyPaymentStatus(orderId, PaymentStatus.REFUNDED);
         PaymentRecord updated2 = dao.locateByTransactionId(orderId);
         assertEquals("REFUNDED", updated2.getPaymentStatus());
     }
-}
 
+    @Test
+    void testModifyPaymentStatus_OnCallersTransaction() throws Exception {
+        int orderId = createTestOrder();
+        dao.insertRecord(new PaymentRecord(orderId, "CARD", "SUCCESS", 100.00));
+
+        // Rolled back along with the caller's transaction
+        DataConnectionHelper.executeInTransaction(conn -> {
+            assertTrue(dao.modifyPaymentStatus(conn, orderId, PaymentStatus.REFUNDED));
+            conn.rollback();
+            return null;
+        });
+        assertEquals(PaymentStatus.SUCCESS, dao.locateByTransactionId(orderId).getPaymentState());
+
+        DataConnectionHelper.executeInTransaction(conn -> dao.modifyPaymentStatus(conn, orderId, PaymentStatus.REFUNDED));
+        assertEquals(PaymentStatus.REFUNDED, dao.locateByTransactionId(orderId).getPaymentState());
+        boolean missing = DataConnectionHelper.executeInTransaction(conn -> dao.modifyPaymentStatus(conn, 99999, PaymentStatus.REFUNDED));
+        assertFalse(missing);
+    }
+
+    @Test
+    void testLocateByTransactionId_DecodesStoredCodes() throws Exception {
+        int orderId = createTestOrder();
+        assertTrue(dao.insertRecord(new PaymentRecord(orderId, "COD", "SUCCESS", 10.00)));
+
+        try (Connection conn = TestDatabaseHelper.getTestConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT payment_method, status FROM payments WHERE order_id = " + orderId)) {
+            assertTrue(rs.next());
+            assertEquals(PaymentMethod.COD.getCode(), rs.getInt("payment_method"));
+            assertEquals(PaymentStatus.SUCCESS.getCode(), rs.getInt("status"));
+        }
+        PaymentRecord found = dao.locateByTransactionId(orderId);
+        assertEquals(PaymentMethod.COD, found.getPaymentMethod());
+        assertEquals(PaymentStatus.SUCCESS, found.getPaymentState());
+    }
+
+    @Test
+    void testModifyPaymentStatusBatch_UpdatesEveryOrder() throws Exception {
+        int firstOrder = createTestOrder();
+        int secondOrder = createTestOrder();
+        int untouchedOrder = createTestOrder();
+        for (int orderId : List.of(firstOrder, secondOrder, untouchedOrder)) {
+            dao.insertRecord(new PaymentRecord(orderId, "CARD", "SUCCESS", 100.00));
+        }
+
+        DataConnectionHelper.executeInTransaction(conn -> {
+            dao.modifyPaymentStatusBatch(conn, List.of(firstOrder, secondOrder), PaymentStatus.REFUNDED);
+            return null;
+        });
+
+        assertEquals(PaymentStatus.REFUNDED, dao.locateByTransactionId(firstOrder).getPaymentState());
+        assertEquals(PaymentStatus.REFUNDED, dao.locateByTransactionId(secondOrder).getPaymentState());
+        assertEquals(PaymentStatus.SUCCESS, dao.locateByTransactionId(untouchedOrder).getPaymentState());
+    }
+}
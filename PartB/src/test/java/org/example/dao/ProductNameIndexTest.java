@@ -0,0 +1,129 @@
+package org.example.dao;
+
+import org.example.model.InventoryItem;
+import org.example.model.ProductSuggestion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductNameIndexTest {
+    private ProductNameIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductNameIndex();
+        index.loadOnce(consumer -> {
+            consumer.accept(new InventoryItem(1, "Red Cotton Shirt", "", 20.0, 5));
+            consumer.accept(new InventoryItem(2, "Shirt Dress", "", 60.0, 5));
+            consumer.accept(new InventoryItem(3, "Sheer Shirt", "", 80.0, 5));
+            consumer.accept(new InventoryItem(4, "T-Shirt", "", 8.0, 5));
+            consumer.accept(new InventoryItem(5, "Red Dress", "", 8.0, 5));
+            return true;
+        });
+    }
+
+    private List<Integer> ids(String prefix, int limit) {
+        List<Integer> ids = new ArrayList<>();
+        for (ProductSuggestion suggestion : index.suggest(prefix, limit)) {
+            ids.add(suggestion.getItemId());
+        }
+        return ids;
+    }
+
+    @Test
+    void testSuggest_NameStartsBeforeWordMatches() {
+        // "Sheer Shirt" and "Shirt Dress" start with "sh"; the others only have a later word that does
+        assertEquals(List.of(3, 2, 1, 4), ids("sh", 10));
+        assertEquals(List.of(2, 1, 3, 4), ids("SHIRT", 10));
+        assertEquals(List.of(1, 5), ids("red", 10));
+    }
+
+    @Test
+    void testSuggest_MatchesAcrossWords() {
+        assertEquals(List.of(1), ids("red cot", 10));
+        assertEquals(List.of(2), ids("shirt d", 10));
+        assertEquals(List.of(4), ids("t-sh", 10));
+        assertEquals(List.of(), ids("red shirt", 10));
+    }
+
+    @Test
+    void testSuggest_LimitsAndSuggestsEachProductOnce() {
+        index.index(new InventoryItem(6, "Shirt Shirt", "", 8.0, 5));
+        List<Integer> all = ids("shirt", 10);
+        assertEquals(5, all.size());
+        assertEquals(1, all.stream().filter(id -> id == 6).count());
+        assertEquals(List.of(3, 2), ids("sh", 2));
+    }
+
+    @Test
+    void testSuggest_ReturnsNamesAsEntered() {
+        List<ProductSuggestion> suggestions = index.suggest("t-", 5);
+        assertEquals(1, suggestions.size());
+        assertEquals("T-Shirt", suggestions.get(0).getItemName());
+    }
+
+    @Test
+    void testSuggest_EmptyPrefixOrLimit() {
+        assertTrue(index.suggest("", 10).isEmpty());
+        assertTrue(index.suggest("   ", 10).isEmpty());
+        assertTrue(index.suggest(null, 10).isEmpty());
+        assertTrue(index.suggest("red", 0).isEmpty());
+        assertTrue(index.suggest("velvet", 10).isEmpty());
+    }
+
+    @Test
+    void testIndexAndRemove_UpdateSuggestions() {
+        index.index(new InventoryItem(6, "Silk Scarf", "", 30.0, 1));
+        assertEquals(List.of(6), ids("si", 10));
+
+        index.index(new InventoryItem(6, "Wool Scarf", "", 30.0, 1)); // Renamed
+        assertEquals(List.of(), ids("si", 10));
+        assertEquals(List.of(6), ids("wo", 10));
+        assertEquals(6, index.size());
+
+        index.remove(1);
+        assertEquals(List.of(5), ids("red", 10));
+        assertEquals(List.of(), ids("cotton", 10));
+        assertEquals(5, index.size());
+        index.remove(1); // Already gone
+        assertEquals(5, index.size());
+    }
+
+    @Test
+    void testLoadOnce_RetriesAfterFailedLoad() {
+        ProductNameIndex fresh = new ProductNameIndex();
+        fresh.index(new InventoryItem(1, "Ignored", "", 1.0, 1)); // Not loaded yet
+        fresh.loadOnce(consumer -> {
+            consumer.accept(new InventoryItem(1, "Partial", "", 1.0, 1));
+            return false;
+        });
+        assertFalse(fresh.isLoaded());
+        assertEquals(0, fresh.size());
+
+        fresh.loadOnce(consumer -> {
+            consumer.accept(new InventoryItem(2, "Boots", "", 1.0, 1));
+            return true;
+        });
+        assertTrue(fresh.isLoaded());
+        assertEquals(List.of(2), fresh.suggest("boo", 5).stream().map(ProductSuggestion::getItemId).toList());
+    }
+
+    @Test
+    void testLoadOnce_SortsLargeCatalog() {
+        ProductNameIndex large = new ProductNameIndex();
+        large.loadOnce(consumer -> {
+            for (int id = 1; id <= 5000; id++) {
+                consumer.accept(new InventoryItem(id, "Item " + (5001 - id), "", 1.0, 1));
+            }
+            return true;
+        });
+        // "Item 1", "Item 10", "Item 100", ... in text order, which is descending ID order here
+        assertEquals(List.of(5000, 4991, 4901, 4001, 4000), large.suggest("item 1", 5).stream()
+            .map(ProductSuggestion::getItemId).toList());
+        large.reset();
+        assertFalse(large.isLoaded());
+        assertTrue(large.suggest("item", 5).isEmpty());
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.dao;
+
+import org.example.model.InventoryItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSearchIndexTest {
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex();
+        index.loadOnce(consumer -> {
+            consumer.accept(new InventoryItem(1, "Red Cotton Shirt", "Soft shirt for summer", 20.0, 5));
+            consumer.accept(new InventoryItem(2, "Blue Denim Jacket", "Jacket with a red lining", 60.0, 5));
+            consumer.accept(new InventoryItem(3, "Red Dress", "Evening dress", 80.0, 5));
+            consumer.accept(new InventoryItem(4, "Wool Socks", "Warm socks, pack of three", 8.0, 5));
+            return true;
+        });
+    }
+
+    private static int[] ids(ProductSearchIndex.Hits hits) {
+        return hits.getItemIds();
+    }
+
+    @Test
+    void testTokenize_LowerCaseWords() {
+        assertEquals(List.of("t", "shirt", "100", "cotton", "café"), ProductSearchIndex.tokenize("T-Shirt (100% Cotton) CAFÉ"));
+        assertTrue(ProductSearchIndex.tokenize(null).isEmpty());
+    }
+
+    @Test
+    void testSearch_RanksNameMatchesFirst() {
+        ProductSearchIndex.Hits hits = index.search("red", 0, 10);
+        assertEquals(3, hits.getTotalMatches());
+        int[] ranked = ids(hits);
+        assertEquals(2, ranked[2]); // "red" only in the description ranks last
+        assertTrue(hits.getScores()[0] >= hits.getScores()[1]);
+        assertTrue(hits.getScores()[1] > hits.getScores()[2]);
+    }
+
+    @Test
+    void testSearch_RequiresEveryWord() {
+        assertArrayEquals(new int[]{1}, ids(index.search("red shirt", 0, 10)));
+        assertArrayEquals(new int[]{2}, ids(index.search("JACKET red", 0, 10)));
+        assertEquals(0, index.search("red socks", 0, 10).getTotalMatches());
+        assertEquals(0, index.search("velvet", 0, 10).getTotalMatches());
+        assertEquals(0, index.search("  ", 0, 10).getTotalMatches());
+    }
+
+    @Test
+    void testSearch_Pages() {
+        int[] all = ids(index.search("red", 0, 10));
+        assertArrayEquals(new int[]{all[0], all[1]}, ids(index.search("red", 0, 2)));
+        ProductSearchIndex.Hits second = index.search("red", 2, 2);
+        assertArrayEquals(new int[]{all[2]}, ids(second));
+        assertEquals(3, second.getTotalMatches());
+        assertEquals(0, ids(index.search("red", 5, 2)).length);
+    }
+
+    @Test
+    void testIndexAndRemove_UpdateIncrementally() {
+        index.index(new InventoryItem(5, "Red Scarf", "Knitted", 15.0, 5));
+        assertEquals(4, index.search("red", 0, 10).getTotalMatches());
+
+        index.index(new InventoryItem(1, "Green Cotton Shirt", "Soft shirt for summer", 20.0, 5)); // Renamed
+        assertEquals(3, index.search("red", 0, 10).getTotalMatches());
+        assertArrayEquals(new int[]{1}, ids(index.search("green", 0, 10)));
+
+        index.remove(3);
+        assertEquals(0, index.search("dress", 0, 10).getTotalMatches());
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void testIndex_IgnoredUntilLoaded() {
+        ProductSearchIndex fresh = new ProductSearchIndex();
+        fresh.index(new InventoryItem(1, "Hat", "", 5.0, 1));
+        assertEquals(0, fresh.size());
+
+        fresh.loadOnce(consumer -> false); // A failed load leaves it unloaded
+        assertFalse(fresh.isLoaded());
+        index.reset();
+        assertFalse(index.isLoaded());
+        assertEquals(0, index.size());
+    }
+}
@@ -1,12 +1,23 @@
 package org.example.dao;
 
 import org.example.model.CustomerAccount;
+import org.example.model.OrderStatus;
 import org.example.model.PurchaseTransaction;
+import org.example.model.ResultPage;
+import org.example.util.DataConnectionHelper;
 import org.example.util.TestDatabaseHelper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import static org.junit.jupiter.api.Assertions.*;
 
 class PurchaseTransactionDAOTest {
@@ -73,7 +84,7 @@ class PurchaseTransactionDAOTest {
         PurchaseTransaction transaction = new PurchaseTransaction(accountId, "CREATED", 100.00);
         int id = dao.insertTransaction(transaction);
         
-        boolean result = dao.modifyStatus(id, "ACCEPTED");
+        boolean result = dao.modifyStatus(id, OrderStatus.ACCEPTED);
         assertTrue(result);
         
         PurchaseTransaction updated = dao.locateById(id);
@@ -82,7 +93,7 @@ class PurchaseTransactionDAOTest {
 
     @Test
     void testModifyStatus_NonExistent() {
-        boolean result = dao.modifyStatus(99999, "ACCEPTED");
+        boolean result = dao.modifyStatus(99999, OrderStatus.ACCEPTED);
         assertFalse(result);
     }
 
@@ -92,10 +103,10 @@ class PurchaseTransactionDAOTest {
         PurchaseTransaction transaction = new PurchaseTransaction(accountId, "CREATED", 100.00);
         int id = dao.insertTransaction(transaction);
         
-        dao.modifyStatus(id, "ACCEPTED");
+        dao.modifyStatus(id, OrderStatus.ACCEPTED);
         assertEquals("ACCEPTED", dao.locateById(id).getTransactionStatus());
         
-        dao.modifyStatus(id, "DELIVERED");
+        dao.modifyStatus(id, OrderStatus.DELIVERED);
         assertEquals("DELIVERED", dao.locateById(id).getTransactionStatus());
     }
 
@@ -178,5 +189,184 @@ class PurchaseTransactionDAOTest {
         PurchaseTransaction found = dao.locateById(99999);
         assertNull(found);
     }
-}
 
+    @Test
+    void testRetrievePage_WalksAllOrdersNewestFirst() {
+        int accountId = createTestAccount();
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 12, 0);
+        for (int i = 0; i < 7; i++) {
+            // Two orders share each timestamp so the ID tie-breaker is exercised
+            dao.insertTransaction(new PurchaseTransaction(0, accountId, "CREATED", base.plusMinutes(i / 2), 10.00 + i));
+        }
+
+        List<Integer> seen = new ArrayList<>();
+        ResultPage<PurchaseTransaction> page = dao.retrievePage(null, 3);
+        int pages = 1;
+        seen.addAll(page.getItems().stream().map(PurchaseTransaction::getTransactionId).toList());
+        while (page.hasNext()) {
+            page = dao.retrievePage(page.getNextCursor(), 3);
+            pages++;
+            seen.addAll(page.getItems().stream().map(PurchaseTransaction::getTransactionId).toList());
+        }
+
+        assertEquals(3, pages);
+        List<Integer> expected = dao.retrieveAllRecords().stream().map(PurchaseTransaction::getTransactionId).toList();
+        assertEquals(7, seen.size());
+        assertEquals(expected.size(), seen.stream().distinct().count());
+        assertTrue(seen.containsAll(expected));
+        for (int i = 1; i < seen.size(); i++) {
+            PurchaseTransaction previous = dao.locateById(seen.get(i - 1));
+            PurchaseTransaction current = dao.locateById(seen.get(i));
+            assertFalse(current.getTransactionDate().isAfter(previous.getTransactionDate()));
+        }
+    }
+
+    @Test
+    void testRetrievePage_Empty() {
+        ResultPage<PurchaseTransaction> page = dao.retrievePage(null, 10);
+        assertTrue(page.getItems().isEmpty());
+        assertFalse(page.hasNext());
+    }
+
+    @Test
+    void testRetrievePage_ExactPageHasNoNext() {
+        int accountId = createTestAccount();
+        dao.insertTransaction(new PurchaseTransaction(accountId, "CREATED", 10.00));
+        dao.insertTransaction(new PurchaseTransaction(accountId, "CREATED", 20.00));
+
+        ResultPage<PurchaseTransaction> page = dao.retrievePage(null, 2);
+        assertEquals(2, page.getItems().size());
+        assertFalse(page.hasNext());
+    }
+
+    @Test
+    void testRetrievePageByStatus_OldestFirstAndSkipsOtherStatuses() {
+        int accountId = createTestAccount();
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 12, 0);
+        List<Integer> created = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            String status = i % 2 == 0 ? "CREATED" : "DELIVERED";
+            // Orders share timestamps in pairs, newest inserted first, so both date order and ID tie-breaks matter
+            int id = dao.insertTransaction(new PurchaseTransaction(0, accountId, status, base.minusMinutes(i / 4), 10.00));
+            if (i % 2 == 0) {
+                created.add(id);
+            }
+        }
+
+        List<Integer> seen = new ArrayList<>();
+        ResultPage<PurchaseTransaction> page = dao.retrievePageByStatus(OrderStatus.CREATED, null, 2);
+        seen.addAll(page.getItems().stream().map(PurchaseTransaction::getTransactionId).toList());
+        while (page.hasNext()) {
+            page = dao.retrievePageByStatus(OrderStatus.CREATED, page.getNextCursor(), 2);
+            seen.addAll(page.getItems().stream().map(PurchaseTransaction::getTransactionId).toList());
+        }
+
+        // Oldest date first; within a date, lowest ID first
+        List<Integer> expected = created.stream()
+            .sorted(Comparator.comparing((Integer id) -> dao.locateById(id).getTransactionDate()).thenComparing(id -> id))
+            .toList();
+        assertEquals(expected, seen);
+        assertEquals(5, dao.countByStatus(OrderStatus.CREATED));
+        assertEquals(5, dao.countByStatus(OrderStatus.DELIVERED));
+        assertEquals(0, dao.countByStatus(OrderStatus.ACCEPTED));
+        assertTrue(dao.retrievePageByStatus(OrderStatus.ACCEPTED, null, 10).getItems().isEmpty());
+    }
+
+    @Test
+    void testLocateByIdsForUpdate_SkipsMissingIds() throws Exception {
+        int accountId = createTestAccount();
+        int first = dao.insertTransaction(new PurchaseTransaction(accountId, "CREATED", 10.00));
+        int second = dao.insertTransaction(new PurchaseTransaction(accountId, "ACCEPTED", 20.00));
+
+        Map<Integer, PurchaseTransaction> found = DataConnectionHelper.executeInTransaction(
+            conn -> dao.locateByIdsForUpdate(conn, List.of(first, second, 999_999)));
+
+        assertEquals(2, found.size());
+        assertEquals(OrderStatus.CREATED, found.get(first).getOrderStatus());
+        assertEquals(OrderStatus.ACCEPTED, found.get(second).getOrderStatus());
+        assertTrue(DataConnectionHelper.executeInTransaction(conn -> dao.locateByIdsForUpdate(conn, List.of())).isEmpty());
+    }
+
+    @Test
+    void testModifyStatusBatch_ReturnsOrdersNotInExpectedStatus() throws Exception {
+        int accountId = createTestAccount();
+        int created = dao.insertTransaction(new PurchaseTransaction(accountId, "CREATED", 10.00));
+        int delivered = dao.insertTransaction(new PurchaseTransaction(accountId, "DELIVERED", 20.00));
+
+        List<Integer> unchanged = DataConnectionHelper.executeInTransaction(
+            conn -> dao.modifyStatusBatch(conn, List.of(created, delivered), OrderStatus.CREATED, OrderStatus.ACCEPTED));
+
+        assertEquals(List.of(delivered), unchanged);
+        assertEquals("ACCEPTED", dao.locateById(created).getTransactionStatus());
+        assertEquals("DELIVERED", dao.locateById(delivered).getTransactionStatus());
+    }
+
+    @Test
+    void testRetrievePageByUserId_OnlyThatUserNewestFirst() {
+        int accountId = createTestAccount();
+        int otherAccountId = createTestAccount();
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 12, 0);
+        List<Integer> mine = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            mine.add(dao.insertTransaction(new PurchaseTransaction(0, accountId, "CREATED", base.plusMinutes(i / 2), 10.00)));
+            dao.insertTransaction(new PurchaseTransaction(0, otherAccountId, "CREATED", base.plusMinutes(i), 10.00));
+        }
+
+        List<Integer> seen = new ArrayList<>();
+        ResultPage<PurchaseTransaction> page = dao.retrievePageByUserId(accountId, null, 2);
+        seen.addAll(page.getItems().stream().map(PurchaseTransaction::getTransactionId).toList());
+        while (page.hasNext()) {
+            page = dao.retrievePageByUserId(accountId, page.getNextCursor(), 2);
+            seen.addAll(page.getItems().stream().map(PurchaseTransaction::getTransactionId).toList());
+        }
+
+        // Newest first, and among equal dates the higher ID first, so exactly the reverse of insertion order
+        List<Integer> expected = new ArrayList<>(mine);
+        Collections.reverse(expected);
+        assertEquals(expected, seen);
+        assertTrue(dao.retrievePageByUserId(999_999, null, 2).getItems().isEmpty());
+    }
+
+    @Test
+    void testReadQueries_UseOrderIndexesWithoutSorting() throws Exception {
+        assertPlanUses(PurchaseTransactionDAO.SELECT_ALL, "IDX_ORDERS_ORDER_DATE");
+        assertPlanUses(PurchaseTransactionDAO.SELECT_FIRST_PAGE, "IDX_ORDERS_ORDER_DATE");
+        assertPlanUses(PurchaseTransactionDAO.SELECT_PAGE_AFTER, "IDX_ORDERS_ORDER_DATE");
+        assertPlanUses(PurchaseTransactionDAO.SELECT_FIRST_STATUS_PAGE, "IDX_ORDERS_STATUS_DATE");
+        assertPlanUses(PurchaseTransactionDAO.SELECT_STATUS_PAGE_AFTER, "IDX_ORDERS_STATUS_DATE");
+        assertPlanUses(PurchaseTransactionDAO.SELECT_BY_USER, "IDX_ORDERS_USER_DATE");
+        assertPlanUses(PurchaseTransactionDAO.SELECT_FIRST_USER_PAGE, "IDX_ORDERS_USER_DATE");
+        assertPlanUses(PurchaseTransactionDAO.SELECT_USER_PAGE_AFTER, "IDX_ORDERS_USER_DATE");
+    }
+
+    @Test
+    void testCountByStatus_UsesStatusIndex() throws Exception {
+        try (Connection conn = DataConnectionHelper.getConnection()) {
+            String plan = explain(conn, PurchaseTransactionDAO.COUNT_BY_STATUS);
+            assertTrue(plan.contains("PUBLIC.IDX_ORDERS_STATUS_DATE"), "Expected status index in plan: " + plan);
+        }
+    }
+
+    // Runs EXPLAIN on the DAO's statement and checks H2 reads through the named index in order, with no sort step
+    private void assertPlanUses(String sql, String indexName) throws Exception {
+        try (Connection conn = DataConnectionHelper.getConnection()) {
+            String plan = explain(conn, sql);
+            assertTrue(plan.contains("PUBLIC." + indexName), "Expected " + indexName + " in plan: " + plan);
+            assertTrue(plan.contains("index sorted"), "Expected index-sorted plan: " + plan);
+        }
+    }
+
+    // Parameters are left null; EXPLAIN only plans the statement and does not need their values
+    private String explain(Connection conn, String sql) throws Exception {
+        try (PreparedStatement pstmt = conn.prepareStatement("EXPLAIN " + sql)) {
+            int parameters = pstmt.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) {
+                pstmt.setObject(i, null);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                rs.next();
+                return rs.getString(1);
+            }
+        }
+    }
+}
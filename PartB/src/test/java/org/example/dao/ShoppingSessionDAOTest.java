@@ -0,0 +1,99 @@
+package org.example.dao;
+
+import org.example.model.CustomerAccount;
+import org.example.model.InventoryItem;
+import org.example.model.ShoppingSession;
+import org.example.util.TestDatabaseHelper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShoppingSessionDAOTest {
+    private ShoppingSessionDAO dao;
+    private CustomerAccount account;
+    private InventoryItem shirt;
+    private InventoryItem jeans;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        TestDatabaseHelper.setupTestDatabase();
+        dao = new ShoppingSessionDAO();
+        CustomerAccountDAO accountDAO = new CustomerAccountDAO();
+        accountDAO.insertRecord(new CustomerAccount("alice", "pw", "CUSTOMER"));
+        account = accountDAO.authenticateUser("alice", "pw");
+        InventoryItemDAO inventoryDAO = new InventoryItemDAO();
+        shirt = inventoryDAO.locateById(inventoryDAO.insertRecord(new InventoryItem("Shirt", "Desc", 20.00, 10)));
+        jeans = inventoryDAO.locateById(inventoryDAO.insertRecord(new InventoryItem("Jeans", "Desc", 50.00, 5)));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        TestDatabaseHelper.cleanupTestDatabase();
+        TestDatabaseHelper.restoreOriginalDatabase();
+    }
+
+    @Test
+    void testReplaceAllAndLoadAll() {
+        ShoppingSession withCart = new ShoppingSession("s1", "key-s1", account, 1_700_000_000_000L);
+        withCart.addToCart(shirt, 2);
+        withCart.addToCart(jeans, 1);
+        ShoppingSession emptyCart = new ShoppingSession("s2", "key-s2", account, 1_700_000_000_000L);
+
+        assertTrue(dao.replaceAll(List.of(withCart, emptyCart)));
+
+        List<ShoppingSession> loaded = dao.loadAll();
+        assertEquals(2, loaded.size());
+        ShoppingSession first = loaded.get(0);
+        assertEquals("key-s1", first.getSessionKey());
+        assertNull(first.getSessionId()); // Only the key is stored
+        assertEquals(1_700_000_000_000L, first.getLastAccessMillis());
+        assertEquals("alice", first.getAccount().getAccountName());
+        assertEquals(2, first.getCart().size());
+        assertTrue(loaded.get(1).isCartEmpty());
+    }
+
+    @Test
+    void testReplaceAll_ReplacesPreviousSnapshot() {
+        dao.replaceAll(List.of(new ShoppingSession("old", "key-old", account, 1_000L)));
+        dao.replaceAll(List.of(new ShoppingSession("new", "key-new", account, 2_000L)));
+
+        List<ShoppingSession> loaded = dao.loadAll();
+        assertEquals(1, loaded.size());
+        assertEquals("key-new", loaded.get(0).getSessionKey());
+    }
+
+    @Test
+    void testLoadAll_DropsDeletedProducts() {
+        ShoppingSession session = new ShoppingSession("s1", "key-s1", account, 1_000L);
+        session.addToCart(shirt, 1);
+        session.addToCart(jeans, 1);
+        dao.replaceAll(List.of(session));
+        new InventoryItemDAO().removeRecord(jeans.getItemId());
+
+        ShoppingSession loaded = dao.loadAll().get(0);
+        assertEquals(1, loaded.getCart().size());
+        assertEquals("Shirt", loaded.getCart().get(0).getInventoryItem().getItemName());
+    }
+
+    @Test
+    void testLoadAll_Empty() {
+        assertTrue(dao.loadAll().isEmpty());
+    }
+
+    @Test
+    void testReplaceAll_StoresKeyNotSessionId() throws Exception {
+        dao.replaceAll(List.of(new ShoppingSession("secret-token", "key-of-token", account, 1_000L)));
+
+        try (Connection conn = TestDatabaseHelper.getTestConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id FROM shopping_sessions")) {
+            assertTrue(rs.next());
+            assertEquals("key-of-token", rs.getString("id"));
+        }
+    }
+}
@@ -3,11 +3,14 @@ package org.example.dao;
 import org.example.model.CustomerAccount;
 import org.example.model.PurchaseTransaction;
 import org.example.model.TransactionLineItem;
+import org.example.util.DataConnectionHelper;
 import org.example.util.TestDatabaseHelper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import static org.junit.jupiter.api.Assertions.*;
 
 class TransactionLineItemDAOTest {
@@ -142,5 +145,85 @@ class TransactionLineItemDAOTest {
         boolean result = dao.insertRecord(lineItem);
         assertTrue(result);
     }
-}
 
+    @Test
+    void testInsertBatch_Success() {
+        int orderId = createTestOrder();
+        int productId1 = createTestProduct("Product 1", 10.00);
+        int productId2 = createTestProduct("Product 2", 20.00);
+        List<TransactionLineItem> lineItems = new ArrayList<>();
+        lineItems.add(new TransactionLineItem(orderId, productId1, 2, 10.00));
+        lineItems.add(new TransactionLineItem(orderId, productId2, 3, 20.00));
+
+        int[] ids = dao.insertBatch(lineItems);
+        assertEquals(2, ids.length);
+        assertTrue(ids[0] > 0);
+        assertTrue(ids[1] > ids[0]);
+        assertEquals(ids[0], lineItems.get(0).getLineItemId());
+        assertEquals(ids[1], lineItems.get(1).getLineItemId());
+
+        List<TransactionLineItem> found = dao.locateByTransactionId(orderId);
+        assertEquals(2, found.size());
+    }
+
+    @Test
+    void testInsertBatch_EmptyList() {
+        int[] ids = dao.insertBatch(new ArrayList<>());
+        assertEquals(0, ids.length);
+    }
+
+    @Test
+    void testInsertBatch_FailureInsertsNothing() {
+        int orderId = createTestOrder();
+        int productId = createTestProduct("Product 1", 10.00);
+        List<TransactionLineItem> lineItems = new ArrayList<>();
+        lineItems.add(new TransactionLineItem(orderId, productId, 1, 10.00));
+        lineItems.add(new TransactionLineItem(orderId, 99999, 1, 10.00)); // Unknown product violates the foreign key
+
+        int[] ids = dao.insertBatch(lineItems);
+        assertEquals(0, ids.length);
+        assertTrue(dao.locateByTransactionId(orderId).isEmpty());
+    }
+
+    @Test
+    void testLocateByTransactionIds_GroupsLinesByOrder() throws Exception {
+        int firstOrder = createTestOrder();
+        int secondOrder = createTestOrder();
+        int emptyOrder = createTestOrder();
+        int productId = createTestProduct("Grouped", 5.00);
+        dao.insertRecord(new TransactionLineItem(firstOrder, productId, 1, 5.00));
+        dao.insertRecord(new TransactionLineItem(firstOrder, productId, 2, 5.00));
+        dao.insertRecord(new TransactionLineItem(secondOrder, productId, 3, 5.00));
+
+        Map<Integer, List<TransactionLineItem>> lines = DataConnectionHelper.executeInTransaction(
+            conn -> dao.locateByTransactionIds(conn, List.of(firstOrder, secondOrder, emptyOrder)));
+
+        assertEquals(2, lines.get(firstOrder).size());
+        assertEquals(1, lines.get(secondOrder).size());
+        assertEquals(3, lines.get(secondOrder).get(0).getItemQuantity());
+        assertFalse(lines.containsKey(emptyOrder));
+    }
+
+    @Test
+    void testLocateByTransactionIds_VaryingSizesShareOneCachedStatement() throws Exception {
+        int productId = createTestProduct("Padded", 5.00);
+        List<Integer> orders = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            int orderId = createTestOrder();
+            dao.insertRecord(new TransactionLineItem(orderId, productId, i + 1, 5.00));
+            orders.add(orderId);
+        }
+
+        long missesBefore = DataConnectionHelper.getPoolStats().getStatementCacheMisses();
+        DataConnectionHelper.executeInTransaction(conn -> {
+            for (int size = 2; size <= 8; size++) {
+                Map<Integer, List<TransactionLineItem>> lines = dao.locateByTransactionIds(conn, orders.subList(0, size));
+                assertEquals(size, lines.size()); // The padding repeats an ID, so no order is missed or added
+            }
+            return null;
+        });
+
+        // Every size from 2 to 8 is padded to the same IN list, so at most the first lookup prepares a statement
+        assertTrue(DataConnectionHelper.getPoolStats().getStatementCacheMisses() <= missesBefore + 1);
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.dao;
+
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+class UsernameFilterTest {
+    @Test
+    void testMightExist_UnknownUntilLoaded() {
+        UsernameFilter filter = new UsernameFilter(100, 0.01);
+        assertTrue(filter.mightExist("alice")); // Not loaded, so the database must be asked
+
+        filter.loadOnce(consumer -> {
+            List.of("alice", "bob").forEach(consumer);
+            return true;
+        });
+        assertTrue(filter.isLoaded());
+        assertTrue(filter.mightExist("alice"));
+        assertFalse(filter.mightExist("carol"));
+        assertEquals(1, filter.getDefiniteNegativeCount());
+        assertEquals(1, filter.getMaybePresentCount());
+    }
+
+    @Test
+    void testLoadOnce_RetriesAfterFailureOnly() {
+        UsernameFilter filter = new UsernameFilter(100, 0.01);
+        filter.loadOnce(consumer -> false);
+        assertFalse(filter.isLoaded());
+
+        int[] loads = new int[1];
+        for (int i = 0; i < 3; i++) {
+            filter.loadOnce(consumer -> {
+                loads[0]++;
+                return true;
+            });
+        }
+        assertEquals(1, loads[0]);
+    }
+
+    @Test
+    void testAdd_AndReset() {
+        UsernameFilter filter = new UsernameFilter(100, 0.01);
+        filter.loadOnce(consumer -> true);
+        filter.add("dave");
+        assertTrue(filter.mightExist("dave"));
+        filter.recordFalsePositive();
+        assertEquals(1, filter.getFalsePositiveCount());
+
+        filter.reset();
+        assertFalse(filter.isLoaded());
+        filter.loadOnce(consumer -> true);
+        assertFalse(filter.mightExist("dave"));
+    }
+
+    @Test
+    void testDisabledFilter_AlwaysAsksDatabase() {
+        UsernameFilter filter = new UsernameFilter(0, 0.01);
+        filter.loadOnce(consumer -> true);
+        assertFalse(filter.isEnabled());
+        assertTrue(filter.mightExist("anyone"));
+        assertEquals(0, filter.getDefiniteNegativeCount());
+    }
+}
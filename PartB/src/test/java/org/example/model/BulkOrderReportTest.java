@@ -0,0 +1,47 @@
+package org.example.model;
+
+import org.junit.jupiter.api.Test;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkOrderReportTest {
+
+    private static BulkOrderReport sampleReport() {
+        Map<Integer, BulkOrderReport.Outcome> outcomes = new LinkedHashMap<>();
+        outcomes.put(7, BulkOrderReport.Outcome.ACCEPTED);
+        outcomes.put(3, BulkOrderReport.Outcome.INSUFFICIENT_STOCK);
+        outcomes.put(5, BulkOrderReport.Outcome.ACCEPTED);
+        outcomes.put(9, BulkOrderReport.Outcome.NOT_FOUND);
+        return new BulkOrderReport(outcomes, 2_000_000_000L);
+    }
+
+    @Test
+    void testOutcomesKeepProcessingOrder() {
+        BulkOrderReport report = sampleReport();
+        assertEquals(List.of(7, 3, 5, 9), List.copyOf(report.getOutcomes().keySet()));
+        assertEquals(BulkOrderReport.Outcome.INSUFFICIENT_STOCK, report.getOutcome(3));
+        assertNull(report.getOutcome(42));
+        assertThrows(UnsupportedOperationException.class, () -> report.getOutcomes().clear());
+    }
+
+    @Test
+    void testCountsAndThroughput() {
+        BulkOrderReport report = sampleReport();
+        assertEquals(2, report.getCounts().get(BulkOrderReport.Outcome.ACCEPTED));
+        assertFalse(report.getCounts().containsKey(BulkOrderReport.Outcome.FAILED));
+        assertEquals(4, report.getProcessedCount());
+        assertEquals(2, report.getSucceededCount());
+        assertEquals(2000.0, report.getElapsedMillis(), 0.001);
+        assertEquals(2.0, report.getOrdersPerSecond(), 0.001);
+    }
+
+    @Test
+    void testEmptyReport() {
+        BulkOrderReport report = new BulkOrderReport(Map.of(), 0);
+        assertEquals(0, report.getProcessedCount());
+        assertEquals(0.0, report.getOrdersPerSecond());
+        assertTrue(report.toString().startsWith("0 of 0 orders succeeded"));
+    }
+}
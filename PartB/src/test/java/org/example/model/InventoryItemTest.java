@@ -80,5 +80,12 @@ class InventoryItemTest {
         item.setItemStock(-5);
         assertEquals(-5, item.getItemStock());
     }
-}
 
+    @Test
+    void testItemPriceCents() {
+        InventoryItem priced = new InventoryItem("Priced", "Desc", 19.99, 1);
+        assertEquals(1999, priced.getItemPriceCents());
+        priced.setItemPriceCents(2550);
+        assertEquals(25.50, priced.getItemPrice());
+    }
+}
@@ -0,0 +1,37 @@
+package org.example.model;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderDetailsTest {
+
+    @Test
+    void testAccessors() {
+        PurchaseTransaction transaction = new PurchaseTransaction(7, 3, "ACCEPTED", null, 40.00);
+        PaymentRecord payment = new PaymentRecord(7, "CARD", "SUCCESS", 40.00);
+        List<TransactionLineItem> lineItems = List.of(
+            new TransactionLineItem(7, 1, 2, 10.00), new TransactionLineItem(7, 2, 1, 20.00));
+
+        OrderDetails details = new OrderDetails(transaction, lineItems, payment);
+
+        assertEquals(7, details.getTransactionId());
+        assertSame(transaction, details.getTransaction());
+        assertSame(payment, details.getPayment());
+        assertEquals(lineItems, details.getLineItems());
+        assertEquals(3, details.getItemCount());
+    }
+
+    @Test
+    void testLineItemsAreCopied() {
+        List<TransactionLineItem> lineItems = new ArrayList<>();
+        lineItems.add(new TransactionLineItem(1, 1, 1, 5.00));
+        OrderDetails details = new OrderDetails(new PurchaseTransaction(1, "CREATED", 5.00), lineItems, null);
+
+        lineItems.clear();
+        assertEquals(1, details.getLineItems().size());
+        assertThrows(UnsupportedOperationException.class, () -> details.getLineItems().clear());
+        assertNull(details.getPayment());
+    }
+}
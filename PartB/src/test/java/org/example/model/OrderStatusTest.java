@@ -0,0 +1,39 @@
+package org.example.model;
+
+import org.junit.jupiter.api.Test;
+import java.util.HashSet;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderStatusTest {
+
+    @Test
+    void testCodes_AreUniqueAndRoundTrip() {
+        Set<Integer> codes = new HashSet<>();
+        for (OrderStatus status : OrderStatus.values()) {
+            assertTrue(codes.add(status.getCode()));
+            assertEquals(status, OrderStatus.fromCode(status.getCode()));
+        }
+    }
+
+    @Test
+    void testCodes_MatchStoredValues() {
+        // These codes are written to the database and must never change
+        assertEquals(1, OrderStatus.CREATED.getCode());
+        assertEquals(2, OrderStatus.ACCEPTED.getCode());
+        assertEquals(3, OrderStatus.REJECTED.getCode());
+        assertEquals(4, OrderStatus.DELIVERED.getCode());
+    }
+
+    @Test
+    void testFromCode_UnknownCode() {
+        assertThrows(IllegalArgumentException.class, () -> OrderStatus.fromCode(0));
+    }
+
+    @Test
+    void testParse() {
+        assertEquals(OrderStatus.ACCEPTED, OrderStatus.parse("ACCEPTED"));
+        assertNull(OrderStatus.parse(null));
+        assertThrows(IllegalArgumentException.class, () -> OrderStatus.parse("SHIPPED"));
+    }
+}
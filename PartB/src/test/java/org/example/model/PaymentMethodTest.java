@@ -0,0 +1,29 @@
+package org.example.model;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentMethodTest {
+
+    @Test
+    void testCodes_MatchStoredValues() {
+        assertEquals(1, PaymentMethod.ONLINE.getCode());
+        assertEquals(2, PaymentMethod.CARD.getCode());
+        assertEquals(3, PaymentMethod.COD.getCode());
+        for (PaymentMethod value : PaymentMethod.values()) {
+            assertEquals(value, PaymentMethod.fromCode(value.getCode()));
+        }
+    }
+
+    @Test
+    void testFromCode_UnknownCode() {
+        assertThrows(IllegalArgumentException.class, () -> PaymentMethod.fromCode(4));
+    }
+
+    @Test
+    void testParse() {
+        assertEquals(PaymentMethod.CARD, PaymentMethod.parse("CARD"));
+        assertNull(PaymentMethod.parse(null));
+        assertThrows(IllegalArgumentException.class, () -> PaymentMethod.parse("unknown"));
+    }
+}
@@ -0,0 +1,29 @@
+package org.example.model;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentStatusTest {
+
+    @Test
+    void testCodes_MatchStoredValues() {
+        assertEquals(1, PaymentStatus.SUCCESS.getCode());
+        assertEquals(2, PaymentStatus.FAILED.getCode());
+        assertEquals(3, PaymentStatus.REFUNDED.getCode());
+        for (PaymentStatus value : PaymentStatus.values()) {
+            assertEquals(value, PaymentStatus.fromCode(value.getCode()));
+        }
+    }
+
+    @Test
+    void testFromCode_UnknownCode() {
+        assertThrows(IllegalArgumentException.class, () -> PaymentStatus.fromCode(4));
+    }
+
+    @Test
+    void testParse() {
+        assertEquals(PaymentStatus.FAILED, PaymentStatus.parse("FAILED"));
+        assertNull(PaymentStatus.parse(null));
+        assertThrows(IllegalArgumentException.class, () -> PaymentStatus.parse("unknown"));
+    }
+}
@@ -0,0 +1,14 @@
+package org.example.model;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSuggestionTest {
+    @Test
+    void testGetters() {
+        ProductSuggestion suggestion = new ProductSuggestion(7, "Linen Shirt");
+        assertEquals(7, suggestion.getItemId());
+        assertEquals("Linen Shirt", suggestion.getItemName());
+        assertEquals("Linen Shirt (ID 7)", suggestion.toString());
+    }
+}
@@ -0,0 +1,25 @@
+package org.example.model;
+
+import org.junit.jupiter.api.Test;
+import java.time.LocalDateTime;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultPageTest {
+
+    @Test
+    void testLastPage() {
+        ResultPage<String> page = new ResultPage<>(List.of("a", "b"), null);
+        assertEquals(List.of("a", "b"), page.getItems());
+        assertNull(page.getNextCursor());
+        assertFalse(page.hasNext());
+    }
+
+    @Test
+    void testPageWithNext() {
+        TransactionCursor cursor = new TransactionCursor(LocalDateTime.of(2024, 1, 1, 0, 0), 5);
+        ResultPage<String> page = new ResultPage<>(List.of("a"), cursor);
+        assertSame(cursor, page.getNextCursor());
+        assertTrue(page.hasNext());
+    }
+}
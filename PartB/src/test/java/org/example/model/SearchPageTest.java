@@ -0,0 +1,25 @@
+package org.example.model;
+
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchPageTest {
+
+    @Test
+    void testPageWithNext() {
+        SearchPage<String> page = new SearchPage<>(List.of("a", "b"), 5, 0, 2);
+        assertEquals(List.of("a", "b"), page.getItems());
+        assertEquals(5, page.getTotalMatches());
+        assertTrue(page.hasNext());
+        assertEquals(2, page.getNextOffset());
+    }
+
+    @Test
+    void testLastPage() {
+        SearchPage<String> page = new SearchPage<>(List.of("e"), 5, 4, 2);
+        assertEquals(4, page.getOffset());
+        assertEquals(2, page.getLimit());
+        assertFalse(page.hasNext());
+    }
+}
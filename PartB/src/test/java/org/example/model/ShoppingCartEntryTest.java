@@ -93,5 +93,11 @@ class ShoppingCartEntryTest {
         double expected = 19.99 * 3;
         assertEquals(expected, cartEntry.calculateSubtotal(), 0.01);
     }
-}
 
+    @Test
+    void testCalculateSubtotalCents_IsExact() {
+        cartEntry = new ShoppingCartEntry(new InventoryItem(3, "Socks", "Desc", 0.10, 50), 3);
+        assertEquals(30, cartEntry.calculateSubtotalCents());
+        assertEquals(0.30, cartEntry.calculateSubtotal());
+    }
+}
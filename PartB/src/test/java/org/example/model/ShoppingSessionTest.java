@@ -0,0 +1,87 @@
+package org.example.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShoppingSessionTest {
+    private ShoppingSession session;
+    private InventoryItem shirt;
+    private InventoryItem jeans;
+
+    @BeforeEach
+    void setUp() {
+        session = new ShoppingSession("session-1", "key-session-1", new CustomerAccount(7, "alice", "pw", "CUSTOMER"), 1_000L);
+        shirt = new InventoryItem(1, "Shirt", "Desc", 20.00, 10);
+        jeans = new InventoryItem(2, "Jeans", "Desc", 50.00, 5);
+    }
+
+    @Test
+    void testConstructor() {
+        assertEquals("session-1", session.getSessionId());
+        assertEquals("key-session-1", session.getSessionKey());
+        assertEquals(7, session.getAccount().getAccountId());
+        assertEquals(1_000L, session.getLastAccessMillis());
+        assertTrue(session.isCartEmpty());
+    }
+
+    @Test
+    void testAddToCart_MergesSameProduct() {
+        session.addToCart(shirt, 2);
+        session.addToCart(jeans, 1);
+        session.addToCart(shirt, 3);
+
+        List<ShoppingCartEntry> cart = session.getCart();
+        assertEquals(2, cart.size());
+        assertEquals(1, cart.get(0).getInventoryItem().getItemId()); // Insertion order is kept
+        assertEquals(5, cart.get(0).getEntryQuantity());
+        assertEquals(1, cart.get(1).getEntryQuantity());
+    }
+
+    @Test
+    void testRemoveFromCart() {
+        session.addToCart(shirt, 1);
+
+        assertTrue(session.removeFromCart(1));
+        assertFalse(session.removeFromCart(1));
+        assertTrue(session.isCartEmpty());
+    }
+
+    @Test
+    void testGetCart_ReturnsCopies() {
+        session.addToCart(shirt, 1);
+        session.getCart().get(0).setEntryQuantity(99);
+
+        assertEquals(1, session.getCart().get(0).getEntryQuantity());
+    }
+
+    @Test
+    void testClearCart() {
+        session.addToCart(shirt, 1);
+        session.addToCart(jeans, 1);
+        session.clearCart();
+
+        assertTrue(session.isCartEmpty());
+        assertEquals(0, session.getCart().size());
+    }
+
+    @Test
+    void testTouch() {
+        session.touch(5_000L);
+        assertEquals(5_000L, session.getLastAccessMillis());
+    }
+
+    @Test
+    void testAddToCart_CartHoldsAtMostMaxLines() {
+        for (int id = 1; id <= ShoppingSession.MAX_CART_LINES; id++) {
+            assertTrue(session.addToCart(new InventoryItem(id, "Item " + id, "Desc", 1.00, 10), 1));
+        }
+        assertFalse(session.addToCart(new InventoryItem(ShoppingSession.MAX_CART_LINES + 1, "One too many", "Desc", 1.00, 10), 1));
+        assertEquals(ShoppingSession.MAX_CART_LINES, session.getCart().size());
+
+        // More of a product already in the cart is still fine
+        assertTrue(session.addToCart(shirt, 2));
+        assertEquals(3, session.getCart().get(0).getEntryQuantity());
+    }
+}
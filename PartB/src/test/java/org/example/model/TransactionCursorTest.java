@@ -0,0 +1,25 @@
+package org.example.model;
+
+import org.junit.jupiter.api.Test;
+import java.time.LocalDateTime;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionCursorTest {
+
+    @Test
+    void testConstructor() {
+        LocalDateTime date = LocalDateTime.of(2024, 5, 1, 10, 30);
+        TransactionCursor cursor = new TransactionCursor(date, 42);
+        assertEquals(date, cursor.getTransactionDate());
+        assertEquals(42, cursor.getTransactionId());
+    }
+
+    @Test
+    void testAfter_UsesTransactionSortKey() {
+        LocalDateTime date = LocalDateTime.of(2024, 5, 1, 10, 30);
+        PurchaseTransaction transaction = new PurchaseTransaction(7, 3, "CREATED", date, 99.99);
+        TransactionCursor cursor = TransactionCursor.after(transaction);
+        assertEquals(date, cursor.getTransactionDate());
+        assertEquals(7, cursor.getTransactionId());
+    }
+}
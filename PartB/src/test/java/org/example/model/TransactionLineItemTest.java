@@ -80,5 +80,11 @@ class TransactionLineItemTest {
         lineItem.setItemPriceAtPurchase(-10.0);
         assertEquals(-10.0, lineItem.getItemPriceAtPurchase());
     }
-}
 
+    @Test
+    void testItemNameIsOptional() {
+        assertNull(lineItem.getItemName());
+        lineItem.setItemName("Linen Shirt");
+        assertEquals("Linen Shirt", lineItem.getItemName());
+    }
+}
@@ -45,6 +45,26 @@ class CustomerAccountServiceTest {
         assertTrue(outContent.toString().contains("Username already exists!"));
     }
 
+    @Test
+    void testRegisterCustomerAccount_ReturnsIdOrTaken() {
+        int accountId = service.registerCustomerAccount("withid", "pw");
+        assertTrue(accountId > 0);
+        assertEquals("withid", service.locateById(accountId).getAccountName());
+
+        outContent.reset();
+        assertEquals(CustomerAccountService.USERNAME_TAKEN, service.registerAdminAccount("withid", "pw"));
+        assertTrue(outContent.toString().contains("Username already exists!"));
+        assertFalse(outContent.toString().contains("Registration failed!"));
+    }
+
+    @Test
+    void testIsUsernameAvailable() {
+        service.loadUsernameFilter();
+        assertTrue(service.isUsernameAvailable("freename"));
+        service.createCustomerAccount("freename", "pw");
+        assertFalse(service.isUsernameAvailable("freename"));
+    }
+
     @Test
     void testCreateAdminAccount_Success() {
         boolean result = service.createAdminAccount("newadmin", "adminpass");
@@ -1,6 +1,8 @@
 package org.example.service;
 
 import org.example.model.InventoryItem;
+import org.example.model.ProductSuggestion;
+import org.example.model.SearchPage;
 import org.example.util.TestDatabaseHelper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.AfterEach;
@@ -8,6 +10,7 @@ import org.junit.jupiter.api.Test;
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 import java.util.List;
+import java.util.stream.Stream;
 import static org.junit.jupiter.api.Assertions.*;
 
 class InventoryItemServiceTest {
@@ -31,32 +34,32 @@ class InventoryItemServiceTest {
 
     @Test
     void testInsertInventoryItem_Success() {
-        boolean result = service.insertInventoryItem("Test Product", "Test Description", 29.99, 10);
+        boolean result = service.insertInventoryItem("Test Product", "Test Description", 2999, 10);
         assertTrue(result);
         assertTrue(outContent.toString().contains("Product added successfully"));
     }
 
     @Test
     void testInsertInventoryItem_WithZeroPrice() {
-        boolean result = service.insertInventoryItem("Free Product", "Free", 0.0, 5);
+        boolean result = service.insertInventoryItem("Free Product", "Free", 0, 5);
         assertTrue(result);
     }
 
     @Test
     void testInsertInventoryItem_WithZeroStock() {
-        boolean result = service.insertInventoryItem("OutOfStock", "Desc", 10.00, 0);
+        boolean result = service.insertInventoryItem("OutOfStock", "Desc", 1000, 0);
         assertTrue(result);
     }
 
     @Test
     void testModifyInventoryItem_Success() {
-        service.insertInventoryItem("Original", "Original Desc", 10.00, 5);
+        service.insertInventoryItem("Original", "Original Desc", 1000, 5);
         outContent.reset();
         
         List<InventoryItem> items = service.retrieveAllInventoryItems();
         int id = items.get(0).getItemId();
         
-        boolean result = service.modifyInventoryItem(id, "Updated", "Updated Desc", 20.00, 10);
+        boolean result = service.modifyInventoryItem(id, "Updated", "Updated Desc", 2000, 10);
         assertTrue(result);
         assertTrue(outContent.toString().contains("Product updated successfully!"));
         
@@ -69,14 +72,14 @@ class InventoryItemServiceTest {
 
     @Test
     void testModifyInventoryItem_NonExistent() {
-        boolean result = service.modifyInventoryItem(99999, "Name", "Desc", 10.00, 5);
+        boolean result = service.modifyInventoryItem(99999, "Name", "Desc", 1000, 5);
         assertFalse(result);
         assertTrue(outContent.toString().contains("Failed to update product!"));
     }
 
     @Test
     void testRemoveInventoryItem_Success() {
-        service.insertInventoryItem("ToDelete", "Desc", 15.00, 8);
+        service.insertInventoryItem("ToDelete", "Desc", 1500, 8);
         List<InventoryItem> items = service.retrieveAllInventoryItems();
         int id = items.get(0).getItemId();
         outContent.reset();
@@ -105,9 +108,9 @@ class InventoryItemServiceTest {
 
     @Test
     void testRetrieveAllInventoryItems_MultipleItems() {
-        service.insertInventoryItem("Item 1", "Desc 1", 10.00, 5);
-        service.insertInventoryItem("Item 2", "Desc 2", 20.00, 10);
-        service.insertInventoryItem("Item 3", "Desc 3", 30.00, 15);
+        service.insertInventoryItem("Item 1", "Desc 1", 1000, 5);
+        service.insertInventoryItem("Item 2", "Desc 2", 2000, 10);
+        service.insertInventoryItem("Item 3", "Desc 3", 3000, 15);
         
         List<InventoryItem> items = service.retrieveAllInventoryItems();
         assertEquals(3, items.size());
@@ -115,7 +118,7 @@ class InventoryItemServiceTest {
 
     @Test
     void testFetchInventoryItemById_Success() {
-        service.insertInventoryItem("FindMe", "Description", 25.50, 12);
+        service.insertInventoryItem("FindMe", "Description", 2550, 12);
         List<InventoryItem> items = service.retrieveAllInventoryItems();
         int id = items.get(0).getItemId();
         
@@ -136,7 +139,7 @@ class InventoryItemServiceTest {
 
     @Test
     void testAdjustStockLevel_Success() {
-        service.insertInventoryItem("StockItem", "Desc", 10.00, 100);
+        service.insertInventoryItem("StockItem", "Desc", 1000, 100);
         List<InventoryItem> items = service.retrieveAllInventoryItems();
         int id = items.get(0).getItemId();
         
@@ -149,7 +152,7 @@ class InventoryItemServiceTest {
 
     @Test
     void testAdjustStockLevel_MultipleAdjustments() {
-        service.insertInventoryItem("StockItem", "Desc", 10.00, 100);
+        service.insertInventoryItem("StockItem", "Desc", 1000, 100);
         List<InventoryItem> items = service.retrieveAllInventoryItems();
         int id = items.get(0).getItemId();
         
@@ -165,5 +168,58 @@ class InventoryItemServiceTest {
         boolean result = service.adjustStockLevel(99999, 10);
         assertFalse(result);
     }
-}
 
+    @Test
+    void testStreamInventoryItems_Success() {
+        service.insertInventoryItem("Product 1", "Desc 1", 1000, 5);
+        service.insertInventoryItem("Product 2", "Desc 2", 2000, 10);
+
+        try (Stream<InventoryItem> items = service.streamInventoryItems()) {
+            List<String> names = items.map(InventoryItem::getItemName).toList();
+            assertEquals(List.of("Product 1", "Product 2"), names);
+        }
+    }
+
+    @Test
+    void testSearchInventoryItems_RankedPages() {
+        service.insertInventoryItem("Red Shirt", "Cotton", 2000, 5);
+        service.insertInventoryItem("Blue Shirt", "Red stitching", 2500, 5);
+        service.insertInventoryItem("Red Hat", "Wool", 1500, 5);
+
+        SearchPage<InventoryItem> first = service.searchInventoryItems("red", 0, 2);
+        assertEquals(3, first.getTotalMatches());
+        assertEquals(2, first.getItems().size());
+        assertTrue(first.hasNext());
+        SearchPage<InventoryItem> second = service.searchInventoryItems("red", first.getNextOffset(), 2);
+        assertEquals("Blue Shirt", second.getItems().get(0).getItemName()); // Only its description matches
+        assertFalse(second.hasNext());
+
+        assertEquals("Red Shirt", service.searchInventoryItems("shirt red", 0, 10).getItems().get(0).getItemName());
+        assertTrue(service.searchInventoryItems("green", 0, 10).getItems().isEmpty());
+    }
+
+    @Test
+    void testSearchInventoryItems_RejectsBadPages() {
+        assertThrows(IllegalArgumentException.class, () -> service.searchInventoryItems("red", 0, 0));
+        assertThrows(IllegalArgumentException.class,
+            () -> service.searchInventoryItems("red", 0, InventoryItemService.MAX_SEARCH_PAGE_SIZE + 1));
+        assertThrows(IllegalArgumentException.class, () -> service.searchInventoryItems("red", -1, 10));
+    }
+
+    @Test
+    void testSuggestInventoryItems() {
+        service.insertInventoryItem("Red Shirt", "Cotton", 2000, 5);
+        service.insertInventoryItem("Blue Shirt", "Red stitching", 2500, 5);
+        service.insertInventoryItem("Red Hat", "Wool", 1500, 5);
+
+        List<ProductSuggestion> suggestions = service.suggestInventoryItems("re", 10);
+        assertEquals(List.of("Red Hat", "Red Shirt"), suggestions.stream().map(ProductSuggestion::getItemName).toList());
+        assertEquals(2, service.suggestInventoryItems("shi", 10).size());
+        assertEquals(1, service.suggestInventoryItems("shi", 1).size());
+        assertTrue(service.suggestInventoryItems("", 10).isEmpty());
+
+        assertThrows(IllegalArgumentException.class, () -> service.suggestInventoryItems("re", 0));
+        assertThrows(IllegalArgumentException.class,
+            () -> service.suggestInventoryItems("re", InventoryItemService.MAX_SUGGESTIONS + 1));
+    }
+}
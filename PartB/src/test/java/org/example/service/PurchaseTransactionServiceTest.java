@@ -1,5 +1,7 @@
 package org.example.service;
 
+import org.example.dao.PaymentRecordDAO;
+import org.example.dao.TransactionLineItemDAO;
 import org.example.model.*;
 import org.example.util.TestDatabaseHelper;
 import org.junit.jupiter.api.BeforeEach;
@@ -7,8 +9,16 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import static org.junit.jupiter.api.Assertions.*;
 
 class PurchaseTransactionServiceTest {
@@ -42,8 +52,8 @@ class PurchaseTransactionServiceTest {
     }
 
     private List<ShoppingCartEntry> createTestCart() {
-        inventoryService.insertInventoryItem("Product 1", "Desc 1", 10.00, 20);
-        inventoryService.insertInventoryItem("Product 2", "Desc 2", 20.00, 15);
+        inventoryService.insertInventoryItem("Product 1", "Desc 1", 1000, 20);
+        inventoryService.insertInventoryItem("Product 2", "Desc 2", 2000, 15);
         
         List<InventoryItem> items = inventoryService.retrieveAllInventoryItems();
         List<ShoppingCartEntry> cart = new ArrayList<>();
@@ -106,7 +116,7 @@ class PurchaseTransactionServiceTest {
     @Test
     void testApprovePurchaseTransaction_DeductsInventory() {
         int accountId = createTestCustomer();
-        inventoryService.insertInventoryItem("Stock Product", "Desc", 10.00, 100);
+        inventoryService.insertInventoryItem("Stock Product", "Desc", 1000, 100);
         List<InventoryItem> items = inventoryService.retrieveAllInventoryItems();
         List<ShoppingCartEntry> cart = new ArrayList<>();
         cart.add(new ShoppingCartEntry(items.get(0), 5));
@@ -121,7 +131,7 @@ class PurchaseTransactionServiceTest {
     @Test
     void testApprovePurchaseTransaction_InsufficientStock() {
         int accountId = createTestCustomer();
-        inventoryService.insertInventoryItem("Low Stock", "Desc", 10.00, 5);
+        inventoryService.insertInventoryItem("Low Stock", "Desc", 1000, 5);
         List<InventoryItem> items = inventoryService.retrieveAllInventoryItems();
         List<ShoppingCartEntry> cart = new ArrayList<>();
         cart.add(new ShoppingCartEntry(items.get(0), 10)); // Requesting more than available
@@ -292,5 +302,345 @@ class PurchaseTransactionServiceTest {
         PurchaseTransaction found = service.fetchPurchaseTransactionById(99999);
         assertNull(found);
     }
-}
 
+    @Test
+    void testCreatePurchaseTransaction_RollsBackOnFailure() throws Exception {
+        int accountId = createTestCustomer();
+        List<ShoppingCartEntry> cart = createTestCart();
+        // A product that does not exist violates the order_items foreign key halfway through the checkout
+        cart.add(new ShoppingCartEntry(new InventoryItem(99999, "Ghost", "Missing", 5.00, 1), 1));
+
+        int transactionId = service.createPurchaseTransaction(accountId, cart, "ONLINE");
+        assertEquals(-1, transactionId);
+
+        // Nothing from the failed checkout may be left behind
+        try (Connection conn = TestDatabaseHelper.getTestConnection();
+             Statement stmt = conn.createStatement()) {
+            for (String table : new String[]{"orders", "order_items", "payments"}) {
+                ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + table);
+                rs.next();
+                assertEquals(0, rs.getInt(1), table + " should be empty");
+            }
+        }
+    }
+
+    @Test
+    void testCreatePurchaseTransaction_WritesAllRowsTogether() {
+        int accountId = createTestCustomer();
+        List<ShoppingCartEntry> cart = createTestCart();
+
+        int transactionId = service.createPurchaseTransaction(accountId, cart, "CARD");
+        assertTrue(transactionId > 0);
+        assertEquals(2, new TransactionLineItemDAO().locateByTransactionId(transactionId).size());
+        assertNotNull(new PaymentRecordDAO().locateByTransactionId(transactionId));
+    }
+
+    @Test
+    void testApprovePurchaseTransaction_InsufficientLineDeductsNothing() {
+        int accountId = createTestCustomer();
+        inventoryService.insertInventoryItem("Plenty", "Desc", 1000, 50);
+        inventoryService.insertInventoryItem("Scarce", "Desc", 1000, 1);
+        List<InventoryItem> items = inventoryService.retrieveAllInventoryItems();
+        List<ShoppingCartEntry> cart = new ArrayList<>();
+        cart.add(new ShoppingCartEntry(items.get(0), 5));
+        cart.add(new ShoppingCartEntry(items.get(1), 2));
+
+        int transactionId = service.createPurchaseTransaction(accountId, cart, "ONLINE");
+        assertFalse(service.approvePurchaseTransaction(transactionId));
+
+        // The line that could have been reserved must have been rolled back too
+        assertEquals(50, inventoryService.fetchInventoryItemById(items.get(0).getItemId()).getItemStock());
+        assertEquals(1, inventoryService.fetchInventoryItemById(items.get(1).getItemId()).getItemStock());
+        assertEquals("CREATED", service.fetchPurchaseTransactionById(transactionId).getTransactionStatus());
+    }
+
+    @Test
+    void testApprovePurchaseTransaction_ConcurrentApprovalsNeverOversell() throws Exception {
+        int accountId = createTestCustomer();
+        inventoryService.insertInventoryItem("Limited", "Desc", 1000, 5);
+        InventoryItem item = inventoryService.retrieveAllInventoryItems().get(0);
+        List<Integer> transactionIds = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            List<ShoppingCartEntry> cart = new ArrayList<>();
+            cart.add(new ShoppingCartEntry(item, 1));
+            transactionIds.add(service.createPurchaseTransaction(accountId, cart, "CARD"));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int transactionId : transactionIds) {
+            results.add(executor.submit(() -> service.approvePurchaseTransaction(transactionId)));
+        }
+        int accepted = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                accepted++;
+            }
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(5, accepted);
+        assertEquals(0, inventoryService.fetchInventoryItemById(item.getItemId()).getItemStock());
+    }
+
+    @Test
+    void testApproveAndDecline_ConcurrentDecisionsOnlyOneWins() throws Exception {
+        int accountId = createTestCustomer();
+        inventoryService.insertInventoryItem("Contested", "Desc", 1000, 100);
+        InventoryItem item = inventoryService.retrieveAllInventoryItems().get(0);
+        List<Integer> transactionIds = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            List<ShoppingCartEntry> cart = new ArrayList<>();
+            cart.add(new ShoppingCartEntry(item, 1));
+            transactionIds.add(service.createPurchaseTransaction(accountId, cart, "CARD"));
+        }
+
+        // Each order is approved and declined at the same moment; exactly one of the two may succeed
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Boolean>> approvals = new ArrayList<>();
+        List<Future<Boolean>> declines = new ArrayList<>();
+        for (int transactionId : transactionIds) {
+            CountDownLatch start = new CountDownLatch(1);
+            approvals.add(executor.submit(() -> {
+                start.await();
+                return service.approvePurchaseTransaction(transactionId);
+            }));
+            declines.add(executor.submit(() -> {
+                start.await();
+                return service.declinePurchaseTransaction(transactionId);
+            }));
+            start.countDown();
+        }
+        int accepted = 0;
+        for (int i = 0; i < transactionIds.size(); i++) {
+            boolean approved = approvals.get(i).get();
+            boolean declined = declines.get(i).get();
+            assertTrue(approved ^ declined, "Exactly one decision must win for order " + transactionIds.get(i));
+
+            int transactionId = transactionIds.get(i);
+            String status = service.fetchPurchaseTransactionById(transactionId).getTransactionStatus();
+            PaymentStatus payment = new PaymentRecordDAO().locateByTransactionId(transactionId).getPaymentState();
+            if (approved) {
+                accepted++;
+                assertEquals("ACCEPTED", status);
+                assertNotEquals(PaymentStatus.REFUNDED, payment);
+            } else {
+                assertEquals("REJECTED", status);
+                assertEquals(PaymentStatus.REFUNDED, payment);
+            }
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Only accepted orders keep their stock deducted
+        assertEquals(100 - accepted, inventoryService.fetchInventoryItemById(item.getItemId()).getItemStock());
+    }
+
+    @Test
+    void testRetrievePurchaseTransactionPage_PagesThroughOrders() {
+        int accountId = createTestCustomer();
+        List<ShoppingCartEntry> cart = createTestCart();
+        for (int i = 0; i < 5; i++) {
+            service.createPurchaseTransaction(accountId, cart, "CARD");
+        }
+
+        ResultPage<PurchaseTransaction> first = service.retrievePurchaseTransactionPage(null, 2);
+        assertEquals(2, first.getItems().size());
+        assertTrue(first.hasNext());
+        ResultPage<PurchaseTransaction> second = service.retrievePurchaseTransactionPage(first.getNextCursor(), 2);
+        ResultPage<PurchaseTransaction> third = service.retrievePurchaseTransactionPage(second.getNextCursor(), 2);
+        assertEquals(1, third.getItems().size());
+        assertFalse(third.hasNext());
+    }
+
+    @Test
+    void testRetrievePurchaseTransactionPage_RejectsInvalidPageSize() {
+        assertThrows(IllegalArgumentException.class, () -> service.retrievePurchaseTransactionPage(null, 0));
+    }
+
+    @Test
+    void testCreatePurchaseTransaction_TotalIsExact() {
+        int accountId = createTestCustomer();
+        inventoryService.insertInventoryItem("Dime 1", "Desc", 10, 10);
+        inventoryService.insertInventoryItem("Dime 2", "Desc", 20, 10);
+        List<InventoryItem> items = inventoryService.retrieveAllInventoryItems();
+        List<ShoppingCartEntry> cart = new ArrayList<>();
+        cart.add(new ShoppingCartEntry(items.get(0), 3));
+        cart.add(new ShoppingCartEntry(items.get(1), 1));
+
+        int transactionId = service.createPurchaseTransaction(accountId, cart, "CARD");
+        // 0.10 * 3 + 0.20 is 0.50 exactly, on the order and on its payment
+        assertEquals(50, service.fetchPurchaseTransactionById(transactionId).getTransactionTotalCents());
+        assertEquals(50, new PaymentRecordDAO().locateByTransactionId(transactionId).getPaymentAmountCents());
+        assertTrue(outContent.toString().contains("Total amount: $0.50"));
+    }
+
+    @Test
+    void testCreatePurchaseTransaction_UnknownPaymentMethod() {
+        int accountId = createTestCustomer();
+        List<ShoppingCartEntry> cart = createTestCart();
+
+        assertEquals(-1, service.createPurchaseTransaction(accountId, cart, "CHEQUE"));
+        assertTrue(service.retrieveAllPurchaseTransactions().isEmpty());
+    }
+
+    @Test
+    void testRetrievePurchaseTransactionsByStatus_ReturnsApprovalQueue() {
+        int accountId = createTestCustomer();
+        List<ShoppingCartEntry> cart = createTestCart();
+        int first = service.createPurchaseTransaction(accountId, cart, "CARD");
+        int second = service.createPurchaseTransaction(accountId, cart, "CARD");
+        int third = service.createPurchaseTransaction(accountId, cart, "CARD");
+        service.declinePurchaseTransaction(second);
+
+        ResultPage<PurchaseTransaction> queue = service.retrievePurchaseTransactionsByStatus(OrderStatus.CREATED, null, 10);
+        assertEquals(List.of(first, third), queue.getItems().stream().map(PurchaseTransaction::getTransactionId).toList());
+        assertEquals(2, service.countPurchaseTransactionsByStatus(OrderStatus.CREATED));
+        assertThrows(IllegalArgumentException.class,
+            () -> service.retrievePurchaseTransactionsByStatus(OrderStatus.CREATED, null, 0));
+    }
+
+    @Test
+    void testApprovePurchaseTransactions_ReportsEachOrder() {
+        int accountId = createTestCustomer();
+        inventoryService.insertInventoryItem("Limited", "Desc", 1000, 5);
+        InventoryItem item = inventoryService.retrieveAllInventoryItems().get(0);
+        List<Integer> transactionIds = new ArrayList<>();
+        for (int quantity : new int[] {2, 4, 3}) {
+            List<ShoppingCartEntry> cart = new ArrayList<>();
+            cart.add(new ShoppingCartEntry(item, quantity));
+            transactionIds.add(service.createPurchaseTransaction(accountId, cart, "CARD"));
+        }
+        int rejected = transactionIds.get(2);
+        service.declinePurchaseTransaction(rejected);
+
+        // Chunks of two, so the short order and the already rejected one fall in different transactions
+        List<Integer> requested = List.of(transactionIds.get(0), transactionIds.get(1), rejected, 999_999, transactionIds.get(0));
+        BulkOrderReport report = service.approvePurchaseTransactions(requested, 2);
+
+        assertEquals(BulkOrderReport.Outcome.ACCEPTED, report.getOutcome(transactionIds.get(0)));
+        assertEquals(BulkOrderReport.Outcome.INSUFFICIENT_STOCK, report.getOutcome(transactionIds.get(1)));
+        assertEquals(BulkOrderReport.Outcome.WRONG_STATUS, report.getOutcome(rejected));
+        assertEquals(BulkOrderReport.Outcome.NOT_FOUND, report.getOutcome(999_999));
+        assertEquals(4, report.getProcessedCount()); // The duplicate ID is decided once
+        assertEquals(1, report.getSucceededCount());
+
+        assertEquals(3, inventoryService.fetchInventoryItemById(item.getItemId()).getItemStock());
+        assertEquals("ACCEPTED", service.fetchPurchaseTransactionById(transactionIds.get(0)).getTransactionStatus());
+        assertEquals("CREATED", service.fetchPurchaseTransactionById(transactionIds.get(1)).getTransactionStatus());
+        assertTrue(outContent.toString().contains("Bulk accept: 1 of 4 orders succeeded"));
+    }
+
+    @Test
+    void testApprovePurchaseTransactions_DeductsStockForWholeChunk() {
+        int accountId = createTestCustomer();
+        List<ShoppingCartEntry> cart = createTestCart(); // 2 of Product 1 (stock 20) and 3 of Product 2 (stock 15)
+        List<Integer> transactionIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            transactionIds.add(service.createPurchaseTransaction(accountId, cart, "ONLINE"));
+        }
+
+        BulkOrderReport report = service.approvePurchaseTransactions(transactionIds);
+
+        assertEquals(5, report.getSucceededCount());
+        assertEquals(5, report.getCounts().get(BulkOrderReport.Outcome.ACCEPTED));
+        assertEquals(10, inventoryService.fetchInventoryItemById(cart.get(0).getInventoryItem().getItemId()).getItemStock());
+        assertEquals(0, inventoryService.fetchInventoryItemById(cart.get(1).getInventoryItem().getItemId()).getItemStock());
+        assertEquals(0, service.countPurchaseTransactionsByStatus(OrderStatus.CREATED));
+    }
+
+    @Test
+    void testDeclinePurchaseTransactions_RefundsPayments() {
+        int accountId = createTestCustomer();
+        List<ShoppingCartEntry> cart = createTestCart();
+        int first = service.createPurchaseTransaction(accountId, cart, "CARD");
+        int second = service.createPurchaseTransaction(accountId, cart, "COD");
+
+        BulkOrderReport report = service.declinePurchaseTransactions(List.of(first, second));
+
+        assertEquals(2, report.getCounts().get(BulkOrderReport.Outcome.REJECTED));
+        PaymentRecordDAO paymentDAO = new PaymentRecordDAO();
+        for (int transactionId : List.of(first, second)) {
+            assertEquals("REJECTED", service.fetchPurchaseTransactionById(transactionId).getTransactionStatus());
+            assertEquals(PaymentStatus.REFUNDED, paymentDAO.locateByTransactionId(transactionId).getPaymentState());
+        }
+        assertEquals(20, inventoryService.fetchInventoryItemById(cart.get(0).getInventoryItem().getItemId()).getItemStock());
+    }
+
+    @Test
+    void testApprovePendingPurchaseTransactions_AppliesFilter() {
+        int accountId = createTestCustomer();
+        int otherAccountId = createTestCustomer();
+        List<ShoppingCartEntry> cart = createTestCart();
+        int mine = service.createPurchaseTransaction(accountId, cart, "CARD");
+        int other = service.createPurchaseTransaction(otherAccountId, cart, "CARD");
+
+        BulkOrderReport report = service.approvePendingPurchaseTransactions(
+            transaction -> transaction.getCustomerAccountId() == accountId);
+
+        assertEquals(List.of(mine), List.copyOf(report.getOutcomes().keySet()));
+        assertEquals("ACCEPTED", service.fetchPurchaseTransactionById(mine).getTransactionStatus());
+        assertEquals("CREATED", service.fetchPurchaseTransactionById(other).getTransactionStatus());
+    }
+
+    @Test
+    void testApprovePurchaseTransactions_RejectsInvalidChunkSize() {
+        assertThrows(IllegalArgumentException.class, () -> service.approvePurchaseTransactions(List.of(1), 0));
+        assertThrows(IllegalArgumentException.class, () -> service.declinePurchaseTransactions(List.of(1), 0));
+    }
+
+    @Test
+    void testFetchOrderDetailsById_IncludesItemsAndPayment() {
+        int accountId = createTestCustomer();
+        List<ShoppingCartEntry> cart = createTestCart();
+        int transactionId = service.createPurchaseTransaction(accountId, cart, "COD");
+
+        OrderDetails details = service.fetchOrderDetailsById(transactionId);
+
+        assertEquals(8000, details.getTransaction().getTransactionTotalCents());
+        assertEquals(5, details.getItemCount());
+        assertEquals(PaymentMethod.COD, details.getPayment().getPaymentMethod());
+        assertEquals(8000, details.getPayment().getPaymentAmountCents());
+        assertNull(service.fetchOrderDetailsById(999_999));
+    }
+
+    @Test
+    void testFetchOrderDetailsByIds_ReturnsOrdersInRequestedOrder() {
+        int accountId = createTestCustomer();
+        List<ShoppingCartEntry> cart = createTestCart();
+        int first = service.createPurchaseTransaction(accountId, cart, "CARD");
+        int second = service.createPurchaseTransaction(accountId, cart, "CARD");
+        service.declinePurchaseTransaction(first);
+
+        List<OrderDetails> details = service.fetchOrderDetailsByIds(List.of(second, first));
+
+        assertEquals(List.of(second, first), details.stream().map(OrderDetails::getTransactionId).toList());
+        assertEquals(PaymentStatus.REFUNDED, details.get(1).getPayment().getPaymentState());
+        assertEquals(2, details.get(0).getLineItems().size());
+    }
+
+    @Test
+    void testFetchUserOrderHistory_PagesWithLineItems() {
+        int accountId = createTestCustomer();
+        int otherAccountId = createTestCustomer();
+        List<ShoppingCartEntry> cart = createTestCart();
+        List<Integer> transactionIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            transactionIds.add(service.createPurchaseTransaction(accountId, cart, "CARD"));
+        }
+        service.createPurchaseTransaction(otherAccountId, cart, "CARD");
+
+        ResultPage<OrderDetails> first = service.fetchUserOrderHistory(accountId, null, 2);
+        assertEquals(List.of(transactionIds.get(2), transactionIds.get(1)),
+            first.getItems().stream().map(OrderDetails::getTransactionId).toList());
+        assertTrue(first.hasNext());
+        List<TransactionLineItem> lineItems = first.getItems().get(0).getLineItems();
+        assertEquals(List.of("Product 1", "Product 2"), lineItems.stream().map(TransactionLineItem::getItemName).toList());
+
+        ResultPage<OrderDetails> second = service.fetchUserOrderHistory(accountId, first.getNextCursor(), 2);
+        assertEquals(List.of(transactionIds.get(0)), second.getItems().stream().map(OrderDetails::getTransactionId).toList());
+        assertFalse(second.hasNext());
+        assertThrows(IllegalArgumentException.class, () -> service.fetchUserOrderHistory(accountId, null, 0));
+    }
+}
@@ -0,0 +1,215 @@
+package org.example.service;
+
+import org.example.dao.ShoppingSessionDAO;
+import org.example.model.CustomerAccount;
+import org.example.model.InventoryItem;
+import org.example.model.ShoppingCartEntry;
+import org.example.model.ShoppingSession;
+import org.example.util.TestDatabaseHelper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionStoreTest {
+    private final CustomerAccount alice = new CustomerAccount(1, "alice", "pw", "CUSTOMER");
+    private final CustomerAccount bob = new CustomerAccount(2, "bob", "pw", "CUSTOMER");
+    private SessionStore store;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        TestDatabaseHelper.setupTestDatabase();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (store != null) {
+            store.close();
+        }
+        TestDatabaseHelper.cleanupTestDatabase();
+        TestDatabaseHelper.restoreOriginalDatabase();
+    }
+
+    @Test
+    void testCreateAndGet() {
+        store = new SessionStore(10, 60_000, null, 0);
+        ShoppingSession session = store.create(alice);
+
+        assertNotNull(session.getSessionId());
+        assertSame(session, store.get(session.getSessionId()));
+        assertNull(store.get("unknown"));
+        assertNull(store.get(null));
+        assertNotEquals(session.getSessionId(), store.create(alice).getSessionId());
+        assertEquals(2, store.getCreatedCount());
+    }
+
+    @Test
+    void testRemove() {
+        store = new SessionStore(10, 60_000, null, 0);
+        ShoppingSession session = store.create(alice);
+
+        assertTrue(store.remove(session.getSessionId()));
+        assertFalse(store.remove(session.getSessionId()));
+        assertNull(store.get(session.getSessionId()));
+    }
+
+    @Test
+    void testIdleSessionsExpire() throws Exception {
+        store = new SessionStore(10, 30, null, 0);
+        ShoppingSession idle = store.create(alice);
+        Thread.sleep(60);
+
+        assertNull(store.get(idle.getSessionId()));
+        assertEquals(1, store.getExpiredCount());
+
+        store.create(bob);
+        Thread.sleep(60);
+        long deadline = System.currentTimeMillis() + 2_000;
+        while (store.size() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10); // The housekeeper removes it without anyone looking it up
+        }
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsedWhenFull() {
+        store = new SessionStore(2, 60_000, null, 0);
+        ShoppingSession first = store.create(alice);
+        ShoppingSession second = store.create(bob);
+        second.touch(System.currentTimeMillis() - 1_000); // second was last used a second ago
+        store.get(first.getSessionId()); // first is now the most recently used
+        store.create(alice);
+
+        assertEquals(2, store.size());
+        assertEquals(1, store.getEvictedCount());
+        assertNotNull(store.get(first.getSessionId()));
+        assertNull(store.get(second.getSessionId()));
+    }
+
+    @Test
+    void testEvictsInBatchesWhenFull() {
+        store = new SessionStore(200, 60_000, null, 0);
+        long now = System.currentTimeMillis();
+        List<ShoppingSession> created = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            ShoppingSession session = store.create(alice);
+            session.touch(now - 10_000 + i); // Oldest first
+            created.add(session);
+        }
+        assertEquals(0, store.getEvictedCount());
+
+        // One over the maximum evicts the overflow plus 1% of the capacity, least recently used first
+        store.create(bob);
+        assertEquals(3, store.getEvictedCount());
+        assertEquals(198, store.size());
+        for (int i = 0; i < 3; i++) {
+            assertNull(store.get(created.get(i).getSessionId()));
+        }
+        assertNotNull(store.get(created.get(3).getSessionId()));
+    }
+
+    @Test
+    void testConcurrentUseStaysWithinCapacity() throws Exception {
+        store = new SessionStore(1_000, 60_000, null, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> results = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            results.add(executor.submit(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    ShoppingSession session = store.create(alice);
+                    // Every session here was used within the same few milliseconds, so another thread's eviction
+                    // may already have taken this one
+                    ShoppingSession found = store.get(session.getSessionId());
+                    assertTrue(found == null || found == session);
+                    if (i % 3 == 0) {
+                        store.remove(session);
+                    }
+                }
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get(); // Rethrows any assertion failure from the worker
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertTrue(store.size() <= 1_000, "size " + store.size());
+        assertEquals(16_000, store.getCreatedCount());
+    }
+
+    @Test
+    void testFindLatestForAccount() {
+        store = new SessionStore(10, 60_000, null, 0);
+        store.create(alice);
+        ShoppingSession latest = store.create(alice);
+        latest.touch(System.currentTimeMillis() + 1_000);
+
+        assertSame(latest, store.findLatestForAccount(1));
+        assertNull(store.findLatestForAccount(3));
+    }
+
+    @Test
+    void testSnapshotSurvivesRestart() {
+        CustomerAccountService accountService = new CustomerAccountService();
+        accountService.createCustomerAccount("carol", "pw");
+        CustomerAccount carol = accountService.authenticateUser("carol", "pw");
+        InventoryItemService inventoryService = new InventoryItemService();
+        inventoryService.insertInventoryItem("Shirt", "Desc", 2000, 10);
+        InventoryItem shirt = inventoryService.fetchInventoryItemById(1);
+
+        SessionStore first = new SessionStore(10, 60_000, new ShoppingSessionDAO(), 0);
+        ShoppingSession session = first.create(carol);
+        session.addToCart(shirt, 3);
+        first.close(); // Saves the snapshot
+
+        store = new SessionStore(10, 60_000, new ShoppingSessionDAO(), 0);
+        ShoppingSession restored = store.get(session.getSessionId());
+        assertNotNull(restored);
+        assertNull(restored.getSessionId()); // Only its hash was saved; the client still holds the ID
+        assertEquals("carol", restored.getAccount().getAccountName());
+        List<ShoppingCartEntry> cart = restored.getCart();
+        assertEquals(1, cart.size());
+        assertEquals("Shirt", cart.get(0).getInventoryItem().getItemName());
+        assertEquals(3, cart.get(0).getEntryQuantity());
+
+        // A restored session can still be ended, e.g. on logout
+        assertTrue(store.remove(restored));
+        assertNull(store.get(session.getSessionId()));
+    }
+
+    @Test
+    void testSnapshotStoresOnlyHashOfSessionId() throws Exception {
+        CustomerAccountService accountService = new CustomerAccountService();
+        accountService.createCustomerAccount("dave", "pw");
+        CustomerAccount dave = accountService.authenticateUser("dave", "pw");
+        store = new SessionStore(10, 60_000, new ShoppingSessionDAO(), 0);
+        ShoppingSession session = store.create(dave);
+        assertTrue(store.snapshot());
+
+        try (Connection conn = TestDatabaseHelper.getTestConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id FROM shopping_sessions")) {
+            assertTrue(rs.next());
+            assertEquals(SessionStore.keyFor(session.getSessionId()), rs.getString("id"));
+            assertNotEquals(session.getSessionId(), rs.getString("id"));
+        }
+        // The stored key is not a valid session ID in its own right
+        assertNull(store.get(SessionStore.keyFor(session.getSessionId())));
+    }
+
+    @Test
+    void testSnapshotDisabledWithoutDao() {
+        store = new SessionStore(10, 60_000, null, 0);
+        store.create(alice);
+        assertFalse(store.snapshot());
+    }
+}
@@ -0,0 +1,57 @@
+package org.example.util;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+    @Test
+    void testMightContain_NoFalseNegatives() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("user" + i);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("user" + i));
+        }
+    }
+
+    @Test
+    void testMightContain_FalsePositiveRateNearConfigured() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("user" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("other" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives); // About 1,000 expected
+        assertEquals(0.01, filter.estimatedFalsePositiveRate(), 0.005);
+    }
+
+    @Test
+    void testSizing_FollowsExpectedInsertionsAndRate() {
+        BloomFilter filter = new BloomFilter(1_000, 0.01);
+        assertTrue(filter.getBitCount() >= 9_585); // -1000 ln 0.01 / (ln 2)^2
+        assertEquals(7, filter.getHashCount());
+        assertTrue(new BloomFilter(1_000, 0.001).getBitCount() > filter.getBitCount());
+    }
+
+    @Test
+    void testClear_RemovesEverything() {
+        BloomFilter filter = new BloomFilter(100, 0.01);
+        filter.put("alice");
+        filter.clear();
+        assertFalse(filter.mightContain("alice"));
+        assertEquals(0.0, filter.estimatedFalsePositiveRate());
+    }
+
+    @Test
+    void testConstructor_RejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(100, 0));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(100, 1));
+    }
+}
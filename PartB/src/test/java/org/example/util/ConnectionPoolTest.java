@@ -0,0 +1,216 @@
+package org.example.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionPoolTest {
+    private static final String POOL_TEST_URL = "jdbc:h2:mem:pool_test;DB_CLOSE_DELAY=-1";
+    private ConnectionPool pool;
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Test
+    void testGetConnection_ReusesPhysicalConnection() throws Exception {
+        pool = new ConnectionPool(POOL_TEST_URL, "sa", "", 0, 2, 60_000, 1_000, 0);
+
+        Connection first = pool.getConnection();
+        int session = sessionId(first);
+        first.close();
+
+        Connection second = pool.getConnection();
+        assertNotSame(first, second);
+        assertEquals(session, sessionId(second)); // Same H2 session, so the same physical connection
+        second.close();
+
+        assertEquals(1, pool.getStats().getCreatedCount());
+        assertEquals(2, pool.getStats().getAcquireCount());
+    }
+
+    @Test
+    void testGetConnection_ClosedHandleRejectsCalls() throws Exception {
+        pool = new ConnectionPool(POOL_TEST_URL, "sa", "", 0, 1, 60_000, 1_000, 0);
+
+        Connection conn = pool.getConnection();
+        conn.close();
+        assertTrue(conn.isClosed());
+        assertThrows(SQLException.class, conn::createStatement);
+
+        // Closing twice must not return the connection to the pool twice
+        conn.close();
+        assertEquals(1, pool.getStats().getIdleConnections());
+    }
+
+    @Test
+    void testHandle_NeverExposesPhysicalConnection() throws Exception {
+        pool = new ConnectionPool(POOL_TEST_URL, "sa", "", 0, 1, 60_000, 1_000, 0);
+
+        Connection conn = pool.getConnection();
+        assertSame(conn, conn.unwrap(Connection.class));
+        assertTrue(conn.isWrapperFor(Connection.class));
+        try (Statement stmt = conn.createStatement();
+             CallableStatement call = conn.prepareCall("CALL 1");
+             PreparedStatement uncached = conn.prepareStatement("SELECT 1", new int[]{1})) {
+            assertSame(conn, stmt.getConnection());
+            assertSame(conn, call.getConnection());
+            assertSame(conn, uncached.getConnection());
+            assertSame(conn, conn.getMetaData().getConnection());
+            assertSame(stmt, stmt.unwrap(Statement.class));
+
+            // Closing the connection a statement reports returns the handle to the pool
+            stmt.getConnection().close();
+        }
+        assertTrue(conn.isClosed());
+        assertEquals(0, pool.getStats().getActiveConnections());
+        assertEquals(1, pool.getStats().getIdleConnections());
+
+        try (Connection reused = pool.getConnection()) {
+            assertFalse(reused.isClosed()); // The physical connection was not closed behind the pool's back
+            assertEquals(1, pool.getStats().getCreatedCount());
+        }
+    }
+
+    @Test
+    void testGetConnection_TimesOutWhenExhausted() throws Exception {
+        pool = new ConnectionPool(POOL_TEST_URL, "sa", "", 0, 1, 60_000, 100, 0);
+
+        try (Connection held = pool.getConnection()) {
+            assertNotNull(held);
+            assertThrows(SQLTimeoutException.class, () -> pool.getConnection());
+        }
+        assertEquals(1, pool.getStats().getTimeoutCount());
+
+        // Once the held connection is returned the pool can lend it out again
+        try (Connection conn = pool.getConnection()) {
+            assertFalse(conn.isClosed());
+        }
+    }
+
+    @Test
+    void testRelease_RollsBackAndRestoresAutoCommit() throws Exception {
+        pool = new ConnectionPool(POOL_TEST_URL, "sa", "", 0, 1, 60_000, 1_000, 0);
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS pool_reset (id INT)");
+            stmt.execute("DELETE FROM pool_reset");
+        }
+
+        Connection conn = pool.getConnection();
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO pool_reset VALUES (1)");
+        }
+        conn.close(); // Returned mid-transaction, so the insert must be rolled back
+
+        try (Connection reused = pool.getConnection();
+             Statement stmt = reused.createStatement()) {
+            assertTrue(reused.getAutoCommit());
+            var rs = stmt.executeQuery("SELECT COUNT(*) FROM pool_reset");
+            rs.next();
+            assertEquals(0, rs.getInt(1));
+            stmt.execute("DROP TABLE pool_reset");
+        }
+    }
+
+    @Test
+    void testHousekeeping_FillsToMinimumAndEvictsIdle() throws Exception {
+        pool = new ConnectionPool(POOL_TEST_URL, "sa", "", 1, 3, 50, 1_000, 0);
+
+        Connection a = pool.getConnection();
+        Connection b = pool.getConnection();
+        Connection c = pool.getConnection();
+        a.close();
+        b.close();
+        c.close();
+        assertEquals(3, pool.getStats().getTotalConnections());
+
+        // Idle connections above the minimum are closed once they pass the idle timeout
+        long deadline = System.currentTimeMillis() + 2_000;
+        while (pool.getStats().getTotalConnections() > 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(1, pool.getStats().getTotalConnections());
+        assertTrue(pool.getStats().getDestroyedCount() >= 2);
+    }
+
+    @Test
+    void testHousekeeping_DetectsLeakedConnection() throws Exception {
+        pool = new ConnectionPool(POOL_TEST_URL, "sa", "", 0, 2, 60_000, 1_000, 50);
+
+        Connection leaked = pool.getConnection();
+        long deadline = System.currentTimeMillis() + 2_000;
+        while (pool.getStats().getLeakCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(1, pool.getStats().getLeakCount());
+        assertEquals(1, pool.getStats().getActiveConnections());
+        leaked.close();
+        assertEquals(0, pool.getStats().getActiveConnections());
+    }
+
+    @Test
+    void testHousekeeping_LeakStackTraceOnlyWhenEnabled() throws Exception {
+        String withoutTrace = captureLeakReport(false);
+        assertTrue(withoutTrace.contains("Possible connection leak"));
+        assertFalse(withoutTrace.contains("Connection acquired here"));
+        assertTrue(withoutTrace.contains(ConnectionPool.LEAK_STACK_TRACES_PROPERTY));
+
+        String withTrace = captureLeakReport(true);
+        assertTrue(withTrace.contains("Connection acquired here"));
+        assertTrue(withTrace.contains("captureLeakReport")); // The stack points at the borrowing code
+    }
+
+    @Test
+    void testConstructor_RejectsInvalidSizes() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new ConnectionPool(POOL_TEST_URL, "sa", "", 0, 0, 60_000, 1_000, 0));
+        assertThrows(IllegalArgumentException.class,
+            () -> new ConnectionPool(POOL_TEST_URL, "sa", "", 5, 2, 60_000, 1_000, 0));
+    }
+
+    private static int sessionId(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT SESSION_ID()")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    // Leaks one connection from a fresh pool and returns what the leak detector wrote to System.err
+    private String captureLeakReport(boolean leakStackTraces) throws Exception {
+        if (pool != null) {
+            pool.close();
+        }
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        PrintStream originalErr = System.err;
+        System.setErr(new PrintStream(captured, true));
+        try {
+            pool = new ConnectionPool(POOL_TEST_URL, "sa", "", 0, 1, 60_000, 1_000, 50,
+                ConnectionPool.DEFAULT_STATEMENT_CACHE_SIZE, leakStackTraces);
+            try (Connection leaked = pool.getConnection()) {
+                long deadline = System.currentTimeMillis() + 2_000;
+                while (pool.getStats().getLeakCount() == 0 && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(20);
+                }
+                assertEquals(1, pool.getStats().getLeakCount());
+            }
+        } finally {
+            System.setErr(originalErr);
+        }
+        return captured.toString();
+    }
+}
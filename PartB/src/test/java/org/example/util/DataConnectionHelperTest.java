@@ -1,5 +1,8 @@
 package org.example.util;
 
+import org.example.model.OrderStatus;
+import org.example.model.PaymentMethod;
+import org.example.model.PaymentStatus;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
@@ -7,7 +10,10 @@ import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 import java.sql.Connection;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
 import static org.junit.jupiter.api.Assertions.*;
 
 class DataConnectionHelperTest {
@@ -32,6 +38,17 @@ class DataConnectionHelperTest {
         conn.close();
     }
 
+    @Test
+    void testInListPlaceholders_PaddedToFixedSizes() {
+        assertEquals(1, DataConnectionHelper.paddedInListSize(1));
+        assertEquals(8, DataConnectionHelper.paddedInListSize(2));
+        assertEquals(8, DataConnectionHelper.paddedInListSize(8));
+        assertEquals(32, DataConnectionHelper.paddedInListSize(9));
+        assertEquals(500, DataConnectionHelper.paddedInListSize(200));
+        assertEquals(1000, DataConnectionHelper.paddedInListSize(501)); // Beyond the largest size, its multiples
+        assertEquals("?, ?, ?, ?, ?, ?, ?, ?", DataConnectionHelper.inListPlaceholders(3));
+    }
+
     @Test
     void testGetConnection_MultipleConnections() throws Exception {
         Connection conn1 = DataConnectionHelper.getConnection();
@@ -111,7 +128,8 @@ class DataConnectionHelperTest {
                 
                 assertTrue(rs.next());
                 assertEquals("admin", rs.getString("username"));
-                assertEquals("admin123", rs.getString("password"));
+                assertTrue(PasswordHasher.isHashed(rs.getString("password"))); // Never stored in plaintext
+                assertTrue(PasswordHasher.shared().verify("admin123", rs.getString("password")));
                 assertEquals("ADMIN", rs.getString("role"));
             }
         } finally {
@@ -184,5 +202,216 @@ class DataConnectionHelperTest {
             System.clearProperty("test.mode");
         }
     }
-}
 
+    @Test
+    void testGetPoolStats_TracksBorrowedConnections() throws Exception {
+        System.setProperty("test.mode", "true");
+        try {
+            long acquiredBefore = DataConnectionHelper.getPoolStats().getAcquireCount();
+            try (Connection conn = DataConnectionHelper.getConnection()) {
+                assertNotNull(conn);
+                assertTrue(DataConnectionHelper.getPoolStats().getActiveConnections() >= 1);
+            }
+            ConnectionPoolStats stats = DataConnectionHelper.getPoolStats();
+            assertEquals(acquiredBefore + 1, stats.getAcquireCount());
+            assertTrue(stats.getIdleConnections() >= 1);
+            assertTrue(stats.getTotalConnections() <= stats.getMaxSize());
+        } finally {
+            System.clearProperty("test.mode");
+        }
+    }
+
+    @Test
+    void testExecuteInTransaction_CommitsOnSuccess() throws Exception {
+        System.setProperty("test.mode", "true");
+        try {
+            DataConnectionHelper.initializeDatabase();
+            int inserted = DataConnectionHelper.executeInTransaction(conn -> {
+                try (Statement stmt = conn.createStatement()) {
+                    assertFalse(conn.getAutoCommit());
+                    return stmt.executeUpdate("INSERT INTO users (username, password, role) VALUES ('txuser', 'pw', 'CUSTOMER')");
+                }
+            });
+            assertEquals(1, inserted);
+
+            try (Connection conn = DataConnectionHelper.getConnection();
+                 Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM users WHERE username = 'txuser'")) {
+                rs.next();
+                assertEquals(1, rs.getInt(1));
+                stmt.execute("DELETE FROM users WHERE username = 'txuser'");
+            }
+        } finally {
+            System.clearProperty("test.mode");
+        }
+    }
+
+    @Test
+    void testExecuteInTransaction_RollsBackOnFailure() throws Exception {
+        System.setProperty("test.mode", "true");
+        try {
+            DataConnectionHelper.initializeDatabase();
+            assertThrows(SQLException.class, () -> DataConnectionHelper.executeInTransaction(conn -> {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.executeUpdate("INSERT INTO users (username, password, role) VALUES ('rollback_user', 'pw', 'CUSTOMER')");
+                    // Second insert violates the role CHECK constraint and aborts the unit of work
+                    stmt.executeUpdate("INSERT INTO users (username, password, role) VALUES ('rollback_user2', 'pw', 'NOBODY')");
+                }
+                return null;
+            }));
+
+            try (Connection conn = DataConnectionHelper.getConnection();
+                 Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM users WHERE username LIKE 'rollback_user%'")) {
+                rs.next();
+                assertEquals(0, rs.getInt(1));
+            }
+        } finally {
+            System.clearProperty("test.mode");
+        }
+    }
+
+    @Test
+    void testExecuteInTransaction_CleanupFailureDoesNotHideOriginal() throws Exception {
+        System.setProperty("test.mode", "true");
+        try {
+            DataConnectionHelper.initializeDatabase();
+            // Closing the handle inside the work makes the rollback and the auto-commit reset fail afterwards
+            SQLException thrown = assertThrows(SQLException.class, () -> DataConnectionHelper.executeInTransaction(conn -> {
+                conn.close();
+                throw new SQLException("work failed");
+            }));
+
+            assertEquals("work failed", thrown.getMessage());
+            assertEquals(2, thrown.getSuppressed().length);
+            int result = DataConnectionHelper.executeInTransaction(conn -> 1);
+            assertEquals(1, result); // The pool still hands out usable connections
+        } finally {
+            System.clearProperty("test.mode");
+        }
+    }
+
+    @Test
+    void testInitializeDatabase_CreatesIndexes() throws Exception {
+        System.setProperty("test.mode", "true");
+        try {
+            DataConnectionHelper.initializeDatabase();
+            try (Connection conn = DataConnectionHelper.getConnection();
+                 Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(
+                     "SELECT INDEX_NAME FROM INFORMATION_SCHEMA.INDEXES WHERE INDEX_NAME LIKE 'IDX_%'")) {
+                Set<String> names = new HashSet<>();
+                while (rs.next()) {
+                    names.add(rs.getString(1));
+                }
+                assertTrue(names.contains("IDX_ORDERS_USER_DATE"));
+                assertTrue(names.contains("IDX_ORDERS_ORDER_DATE"));
+                assertTrue(names.contains("IDX_ORDER_ITEMS_ORDER"));
+                assertTrue(names.contains("IDX_PAYMENTS_ORDER"));
+            }
+        } finally {
+            System.clearProperty("test.mode");
+        }
+    }
+
+    @Test
+    void testIndexes_UsedByLookupQueries() throws Exception {
+        System.setProperty("test.mode", "true");
+        try {
+            DataConnectionHelper.initializeDatabase();
+            // The orders queries are checked against PurchaseTransactionDAO's own SQL in PurchaseTransactionDAOTest
+            assertPlanUses("SELECT * FROM order_items WHERE order_id = 1", "IDX_ORDER_ITEMS_ORDER", false);
+            assertPlanUses("SELECT * FROM payments WHERE order_id = 1", "IDX_PAYMENTS_ORDER", false);
+        } finally {
+            System.clearProperty("test.mode");
+        }
+    }
+
+    // Runs EXPLAIN on the query and checks the plan reads through the named index (and skips sorting if expected)
+    private void assertPlanUses(String sql, String indexName, boolean expectSorted) throws Exception {
+        try (Connection conn = DataConnectionHelper.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("EXPLAIN " + sql)) {
+            rs.next();
+            String plan = rs.getString(1);
+            assertTrue(plan.contains("PUBLIC." + indexName), "Expected " + indexName + " in plan: " + plan);
+            if (expectSorted) {
+                assertTrue(plan.contains("index sorted"), "Expected index-sorted plan: " + plan);
+            }
+        }
+    }
+
+    @Test
+    void testInitializeDatabase_MigratesLegacyStatusColumns() throws Exception {
+        System.setProperty("test.mode", "true");
+        try {
+            DataConnectionHelper.initializeDatabase();
+            // Recreate orders and payments the way older versions did, with status names in VARCHAR columns
+            try (Connection conn = DataConnectionHelper.getConnection();
+                 Statement stmt = conn.createStatement()) {
+                stmt.execute("DROP TABLE IF EXISTS payments");
+                stmt.execute("DROP TABLE IF EXISTS order_items");
+                stmt.execute("DROP TABLE IF EXISTS orders");
+                stmt.execute("""
+                    CREATE TABLE orders (
+                        id INT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+                        user_id INT NOT NULL,
+                        status VARCHAR(20) NOT NULL CHECK (status IN ('CREATED', 'ACCEPTED', 'REJECTED', 'DELIVERED')),
+                        order_date TIMESTAMP NOT NULL,
+                        total_amount DECIMAL(10, 2) NOT NULL,
+                        FOREIGN KEY (user_id) REFERENCES users(id)
+                    )
+                """);
+                stmt.execute("""
+                    CREATE TABLE payments (
+                        id INT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+                        order_id INT NOT NULL,
+                        payment_method VARCHAR(20) NOT NULL CHECK (payment_method IN ('ONLINE', 'CARD', 'COD')),
+                        status VARCHAR(20) NOT NULL CHECK (status IN ('SUCCESS', 'FAILED', 'REFUNDED')),
+                        amount DECIMAL(10, 2) NOT NULL,
+                        payment_date TIMESTAMP NOT NULL,
+                        FOREIGN KEY (order_id) REFERENCES orders(id)
+                    )
+                """);
+                stmt.execute("CREATE INDEX idx_payments_order ON payments (order_id, payment_method, status, amount, payment_date)");
+                int adminId;
+                try (ResultSet rs = stmt.executeQuery("SELECT id FROM users WHERE username = 'admin'")) {
+                    rs.next();
+                    adminId = rs.getInt(1);
+                }
+                stmt.execute("INSERT INTO orders (user_id, status, order_date, total_amount) VALUES ("
+                    + adminId + ", 'REJECTED', CURRENT_TIMESTAMP, 12.50)");
+                stmt.execute("INSERT INTO payments (order_id, payment_method, status, amount, payment_date) "
+                    + "SELECT id, 'CARD', 'REFUNDED', 12.50, CURRENT_TIMESTAMP FROM orders");
+            }
+
+            DataConnectionHelper.initializeDatabase();
+
+            try (Connection conn = DataConnectionHelper.getConnection();
+                 Statement stmt = conn.createStatement()) {
+                ResultSet rs = stmt.executeQuery("SELECT o.status, p.payment_method, p.status FROM orders o JOIN payments p ON p.order_id = o.id");
+                assertTrue(rs.next());
+                assertEquals(OrderStatus.REJECTED.getCode(), rs.getInt(1));
+                assertEquals(PaymentMethod.CARD.getCode(), rs.getInt(2));
+                assertEquals(PaymentStatus.REFUNDED.getCode(), rs.getInt(3));
+
+                rs = stmt.executeQuery("SELECT DATA_TYPE FROM INFORMATION_SCHEMA.COLUMNS "
+                    + "WHERE TABLE_NAME IN ('ORDERS', 'PAYMENTS') AND COLUMN_NAME IN ('STATUS', 'PAYMENT_METHOD')");
+                int converted = 0;
+                while (rs.next()) {
+                    assertEquals("TINYINT", rs.getString(1));
+                    converted++;
+                }
+                assertEquals(3, converted);
+
+                // The new CHECK constraints reject codes outside the enum, and the covering index was rebuilt
+                assertThrows(SQLException.class, () -> stmt.execute("UPDATE orders SET status = 9"));
+                rs = stmt.executeQuery("SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES WHERE INDEX_NAME = 'IDX_PAYMENTS_ORDER'");
+                rs.next();
+                assertEquals(1, rs.getInt(1));
+            }
+        } finally {
+            System.clearProperty("test.mode");
+        }
+    }
+}
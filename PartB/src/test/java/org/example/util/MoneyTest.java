@@ -0,0 +1,63 @@
+package org.example.util;
+
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    @Test
+    void testFromDouble_RoundsToNearestCent() {
+        assertEquals(1999, Money.fromDouble(19.99));
+        assertEquals(10, Money.fromDouble(0.1));
+        assertEquals(101, Money.fromDouble(1.005 + 0.001));
+        assertEquals(0, Money.fromDouble(0.0));
+    }
+
+    @Test
+    void testToDouble_RoundTripsThroughFromDouble() {
+        for (long cents : new long[] {0, 1, 10, 99, 1999, 123456789}) {
+            assertEquals(cents, Money.fromDouble(Money.toDouble(cents)));
+        }
+    }
+
+    @Test
+    void testFromDecimalExact_KeepsCentsOrRejects() {
+        assertEquals(1999, Money.fromDecimalExact(new BigDecimal("19.99")));
+        assertEquals(2050, Money.fromDecimalExact(new BigDecimal("20.500"))); // Trailing zeros are not a fraction of a cent
+        assertEquals(500, Money.fromDecimalExact(BigDecimal.valueOf(5)));
+        assertThrows(ArithmeticException.class, () -> Money.fromDecimalExact(new BigDecimal("19.999")));
+        assertThrows(ArithmeticException.class, () -> Money.fromDecimalExact(new BigDecimal("1e30")));
+    }
+
+    @Test
+    void testDecimalConversion() {
+        assertEquals(new BigDecimal("19.99"), Money.toDecimal(1999));
+        assertEquals(new BigDecimal("0.05"), Money.toDecimal(5));
+        assertEquals(1999, Money.fromDecimal(new BigDecimal("19.99")));
+        assertEquals(2000, Money.fromDecimal(new BigDecimal("20")));
+        assertEquals(1000, Money.fromDecimal(new BigDecimal("9.995")));
+    }
+
+    @Test
+    void testArithmetic_IsExact() {
+        // 0.1 + 0.2 and 0.10 * 3 both drift in double arithmetic
+        assertEquals(30, Money.add(Money.fromDouble(0.1), Money.fromDouble(0.2)));
+        assertEquals(30, Money.multiply(Money.fromDouble(0.10), 3));
+        assertNotEquals(0.3, 0.1 + 0.2);
+    }
+
+    @Test
+    void testArithmetic_ThrowsOnOverflow() {
+        assertThrows(ArithmeticException.class, () -> Money.add(Long.MAX_VALUE, 1));
+        assertThrows(ArithmeticException.class, () -> Money.multiply(Long.MAX_VALUE / 2, 3));
+    }
+
+    @Test
+    void testFormat() {
+        assertEquals("19.99", Money.format(1999));
+        assertEquals("0.05", Money.format(5));
+        assertEquals("20.00", Money.format(2000));
+        assertEquals("-1.50", Money.format(-150));
+    }
+}
@@ -0,0 +1,99 @@
+package org.example.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHasherTest {
+    private PasswordHasher hasher = new PasswordHasher(1_000, 2, 10);
+
+    @AfterEach
+    void tearDown() {
+        hasher.close();
+    }
+
+    @Test
+    void testHash_VerifiesOnlyTheSamePassword() {
+        String stored = hasher.hash("secret");
+        assertTrue(PasswordHasher.isHashed(stored));
+        assertTrue(stored.startsWith("pbkdf2-sha256$1000$"));
+        assertTrue(stored.length() <= 100); // Fits users.password
+        assertTrue(hasher.verify("secret", stored));
+        assertFalse(hasher.verify("Secret", stored));
+        assertFalse(hasher.verify(null, stored));
+    }
+
+    @Test
+    void testHash_SaltsEveryHash() {
+        assertNotEquals(hasher.hash("secret"), hasher.hash("secret"));
+    }
+
+    @Test
+    void testVerify_PlaintextAndCorruptValues() {
+        assertTrue(hasher.verify("admin123", "admin123")); // A password stored before hashing was introduced
+        assertFalse(hasher.verify("admin124", "admin123"));
+        assertFalse(hasher.verify("secret", "pbkdf2-sha256$1000$bad"));
+        assertFalse(hasher.verify("secret", "pbkdf2-sha256$x$AAAA$AAAA"));
+        assertFalse(hasher.verify("secret", "pbkdf2-sha256$0$AAAA$AAAA"));
+        assertFalse(hasher.verify("secret", null));
+    }
+
+    @Test
+    void testVerifyAgainstDummy_CostsOneFullDerivation() {
+        long before = hasher.getHashCount();
+        hasher.verifyAgainstDummy("secret");
+        hasher.verifyAgainstDummy("");
+        assertEquals(2, hasher.getHashCount() - before); // Same work as verify() on a real hash at this cost
+    }
+
+    @Test
+    void testNeedsRehash_PlaintextAndWeakerHashes() {
+        PasswordHasher stronger = new PasswordHasher(2_000, 1, 1);
+        try {
+            String weak = hasher.hash("secret");
+            assertTrue(hasher.needsRehash("secret"));
+            assertFalse(hasher.needsRehash(weak));
+            assertTrue(stronger.needsRehash(weak));
+            assertTrue(stronger.verify("secret", weak)); // Iterations come from the stored value
+        } finally {
+            stronger.close();
+        }
+    }
+
+    @Test
+    void testHash_RejectsWhenQueueIsFull() throws Exception {
+        hasher.close();
+        hasher = new PasswordHasher(2_000_000, 1, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        List<CompletableFuture<String>> pending = new ArrayList<>();
+        // One derivation runs and one waits in the queue; a third caller has nowhere to go
+        for (int i = 0; i < 2; i++) {
+            pending.add(CompletableFuture.supplyAsync(() -> {
+                started.countDown();
+                return hasher.hash("slow");
+            }));
+        }
+        started.await();
+        long deadline = System.currentTimeMillis() + 2_000;
+        while (hasher.getQueuedCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThrows(RejectedExecutionException.class, () -> hasher.hash("rejected"));
+        assertEquals(1, hasher.getRejectedCount());
+        for (CompletableFuture<String> future : pending) {
+            future.cancel(true);
+        }
+    }
+
+    @Test
+    void testConstructor_RejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new PasswordHasher(0, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new PasswordHasher(1_000, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new PasswordHasher(1_000, 1, 0));
+    }
+}
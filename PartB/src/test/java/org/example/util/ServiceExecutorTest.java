@@ -0,0 +1,121 @@
+package org.example.util;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServiceExecutorTest {
+
+    @Test
+    void testCall_ReturnsResult() {
+        try (ServiceExecutor executor = new ServiceExecutor(2, 10, 1_000)) {
+            assertEquals(42, executor.call(() -> 42));
+            assertEquals(1, executor.getCompletedCount());
+            assertEquals(0, executor.getActiveCount());
+        }
+    }
+
+    @Test
+    void testSubmit_RunsOnVirtualThread() throws Exception {
+        try (ServiceExecutor executor = new ServiceExecutor(2, 10, 1_000)) {
+            assertTrue(executor.submit(() -> Thread.currentThread().isVirtual()).get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void testSubmit_NeverExceedsMaxConcurrent() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        try (ServiceExecutor executor = new ServiceExecutor(3, 1_000, 10_000)) {
+            List<CompletableFuture<Integer>> calls = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                calls.add(executor.submit(() -> {
+                    peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(2);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return running.decrementAndGet();
+                }));
+            }
+            for (CompletableFuture<Integer> call : calls) {
+                call.get(30, TimeUnit.SECONDS);
+            }
+            assertEquals(200, executor.getCompletedCount());
+        }
+        assertTrue(peak.get() <= 3, "peak concurrency was " + peak.get());
+    }
+
+    @Test
+    void testCall_RejectsWhenWaitingQueueFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        try (ServiceExecutor executor = new ServiceExecutor(1, 0, 10_000)) {
+            CompletableFuture<Boolean> holder = executor.submit(() -> {
+                started.countDown();
+                try {
+                    return release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    return false;
+                }
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            assertThrows(RejectedExecutionException.class, () -> executor.call(() -> 1)); // No room to wait
+            ExecutionException failed = assertThrows(ExecutionException.class,
+                () -> executor.submit(() -> 1).get(5, TimeUnit.SECONDS));
+            assertInstanceOf(RejectedExecutionException.class, failed.getCause());
+            assertEquals(2, executor.getRejectedCount());
+
+            release.countDown();
+            assertTrue(holder.get(5, TimeUnit.SECONDS));
+            assertEquals(1, executor.call(() -> 1)); // The permit is free again
+        }
+    }
+
+    @Test
+    void testCall_RejectsAfterWaitTimeout() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        try (ServiceExecutor executor = new ServiceExecutor(1, 10, 50)) {
+            executor.submit(() -> {
+                started.countDown();
+                try {
+                    return release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    return false;
+                }
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            assertThrows(RejectedExecutionException.class, () -> executor.call(() -> 1));
+            assertEquals(0, executor.getWaitingCount());
+            release.countDown();
+        }
+    }
+
+    @Test
+    void testCall_ReleasesPermitWhenCallThrows() {
+        try (ServiceExecutor executor = new ServiceExecutor(1, 0, 100)) {
+            assertThrows(IllegalStateException.class, () -> executor.call(() -> {
+                throw new IllegalStateException("boom");
+            }));
+            assertEquals(0, executor.getActiveCount());
+            assertEquals(7, executor.call(() -> 7));
+        }
+    }
+
+    @Test
+    void testConstructor_RejectsInvalidSizes() {
+        assertThrows(IllegalArgumentException.class, () -> new ServiceExecutor(0, 10, 100));
+        assertThrows(IllegalArgumentException.class, () -> new ServiceExecutor(1, -1, 100));
+    }
+}
@@ -0,0 +1,185 @@
+package org.example.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatementCacheTest {
+    private static final String CACHE_TEST_URL = "jdbc:h2:mem:statement_cache_test;DB_CLOSE_DELAY=-1";
+    private static final String SELECT_VALUE = "SELECT v FROM cache_test WHERE id = ?";
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        pool = newPool(4);
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS cache_test (id INT PRIMARY KEY, v VARCHAR(10))");
+            stmt.execute("MERGE INTO cache_test VALUES (1, 'one'), (2, 'two')");
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    // A single-connection pool, so every borrow gets the same physical connection and its cache
+    private static ConnectionPool newPool(int statementCacheSize) {
+        return new ConnectionPool(CACHE_TEST_URL, "sa", "", 0, 1, 60_000, 1_000, 0, statementCacheSize);
+    }
+
+    private static String queryValue(Connection conn, String sql, int id) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, id);
+            ResultSet rs = pstmt.executeQuery();
+            return rs.next() ? rs.getString(1) : null;
+        }
+    }
+
+    @Test
+    void testPrepareStatement_ReusesStatementAcrossBorrows() throws Exception {
+        PreparedStatement first;
+        try (Connection conn = pool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_VALUE)) {
+            first = pstmt.unwrap(PreparedStatement.class);
+            assertSame(conn, pstmt.getConnection()); // The borrowed handle, never the physical connection
+        }
+        try (Connection conn = pool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_VALUE)) {
+            assertSame(first, pstmt.unwrap(PreparedStatement.class));
+            assertFalse(first.isClosed());
+        }
+
+        ConnectionPoolStats stats = pool.getStats();
+        assertEquals(1, stats.getStatementCacheHits());
+        assertEquals(1, stats.getStatementCacheMisses());
+        assertEquals(0.5, stats.getStatementCacheHitRate(), 0.0001);
+    }
+
+    @Test
+    void testClose_ClearsParametersAndResults() throws Exception {
+        ResultSet leftOpen;
+        try (Connection conn = pool.getConnection()) {
+            PreparedStatement pstmt = conn.prepareStatement(SELECT_VALUE);
+            pstmt.setInt(1, 1);
+            leftOpen = pstmt.executeQuery();
+            pstmt.close();
+            assertTrue(pstmt.isClosed());
+            assertThrows(SQLException.class, pstmt::executeQuery);
+        }
+        assertTrue(leftOpen.isClosed());
+
+        // The next borrower must bind its own parameters; the previous value is gone
+        try (Connection conn = pool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_VALUE)) {
+            assertThrows(SQLException.class, pstmt::executeQuery);
+        }
+        try (Connection conn = pool.getConnection()) {
+            assertEquals("two", queryValue(conn, SELECT_VALUE, 2));
+        }
+    }
+
+    @Test
+    void testPrepareStatement_SameSqlTwiceOnOneConnection() throws Exception {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement outer = conn.prepareStatement(SELECT_VALUE);
+             PreparedStatement inner = conn.prepareStatement(SELECT_VALUE)) {
+            assertNotSame(outer.unwrap(PreparedStatement.class), inner.unwrap(PreparedStatement.class));
+            outer.setInt(1, 1);
+            inner.setInt(1, 2);
+            ResultSet outerRs = outer.executeQuery();
+            ResultSet innerRs = inner.executeQuery();
+            assertTrue(outerRs.next() && innerRs.next());
+            assertEquals("one", outerRs.getString(1));
+            assertEquals("two", innerRs.getString(1));
+        }
+    }
+
+    @Test
+    void testEviction_ClosesLeastRecentlyUsed() throws Exception {
+        pool.close();
+        pool = newPool(1);
+        PreparedStatement evicted;
+        try (Connection conn = pool.getConnection()) {
+            try (PreparedStatement pstmt = conn.prepareStatement(SELECT_VALUE)) {
+                evicted = pstmt.unwrap(PreparedStatement.class);
+            }
+            assertEquals("one", queryValue(conn, "SELECT v FROM cache_test WHERE id = ? AND v IS NOT NULL", 1));
+        }
+        assertTrue(evicted.isClosed());
+        try (Connection conn = pool.getConnection()) {
+            assertEquals("one", queryValue(conn, SELECT_VALUE, 1));
+        }
+        assertEquals(0, pool.getStats().getStatementCacheHits());
+        assertEquals(3, pool.getStats().getStatementCacheMisses());
+    }
+
+    @Test
+    void testRelease_ClosesStatementsLeftOpen() throws Exception {
+        PreparedStatement leaked;
+        try (Connection conn = pool.getConnection()) {
+            leaked = conn.prepareStatement(SELECT_VALUE).unwrap(PreparedStatement.class);
+        }
+        assertTrue(leaked.isClosed());
+        try (Connection conn = pool.getConnection()) {
+            assertEquals("one", queryValue(conn, SELECT_VALUE, 1));
+        }
+        assertEquals(0, pool.getStats().getStatementCacheHits());
+    }
+
+    @Test
+    void testChangedSettings_StatementIsNotReused() throws Exception {
+        PreparedStatement first;
+        try (Connection conn = pool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_VALUE)) {
+            pstmt.setMaxRows(1);
+            first = pstmt.unwrap(PreparedStatement.class);
+        }
+        assertTrue(first.isClosed());
+        try (Connection conn = pool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_VALUE)) {
+            assertEquals(0, pstmt.getMaxRows());
+        }
+    }
+
+    @Test
+    void testGeneratedKeys_CachedSeparately() throws Exception {
+        String insert = "INSERT INTO cache_test (id, v) VALUES (?, 'x')";
+        try (Connection conn = pool.getConnection()) {
+            for (int id = 10; id < 12; id++) {
+                try (PreparedStatement pstmt = conn.prepareStatement(insert, Statement.RETURN_GENERATED_KEYS)) {
+                    pstmt.setInt(1, id);
+                    pstmt.executeUpdate();
+                }
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(insert)) {
+                pstmt.setInt(1, 12);
+                pstmt.executeUpdate();
+            }
+            conn.createStatement().execute("DELETE FROM cache_test WHERE id >= 10");
+        }
+        assertEquals(1, pool.getStats().getStatementCacheHits());
+        assertEquals(2, pool.getStats().getStatementCacheMisses());
+    }
+
+    @Test
+    void testDisabledCache_PreparesEveryTime() throws Exception {
+        pool.close();
+        pool = newPool(0);
+        for (int i = 0; i < 2; i++) {
+            try (Connection conn = pool.getConnection()) {
+                assertEquals("one", queryValue(conn, SELECT_VALUE, 1));
+            }
+        }
+        assertEquals(0, pool.getStats().getStatementCacheHits());
+        assertEquals(0, pool.getStats().getStatementCacheMisses());
+        assertThrows(IllegalArgumentException.class, () -> newPool(-1));
+    }
+}
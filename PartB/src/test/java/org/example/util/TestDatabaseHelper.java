@@ -1,5 +1,8 @@
 package org.example.util;
 
+import org.example.dao.CustomerAccountDAO;
+import org.example.dao.InventoryItemDAO;
+
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
@@ -26,6 +29,8 @@ public class TestDatabaseHelper {
         try (Connection conn = getTestConnection();
              Statement stmt = conn.createStatement()) {
 
+            stmt.execute("DROP TABLE IF EXISTS shopping_session_items");
+            stmt.execute("DROP TABLE IF EXISTS shopping_sessions");
             stmt.execute("DROP TABLE IF EXISTS payments");
             stmt.execute("DROP TABLE IF EXISTS order_items");
             stmt.execute("DROP TABLE IF EXISTS orders");
@@ -55,7 +60,7 @@ public class TestDatabaseHelper {
                 CREATE TABLE orders (
                     id INT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
                     user_id INT NOT NULL,
-                    status VARCHAR(20) NOT NULL CHECK (status IN ('CREATED', 'ACCEPTED', 'REJECTED', 'DELIVERED')),
+                    status TINYINT NOT NULL CHECK (status BETWEEN 1 AND 4),
                     order_date TIMESTAMP NOT NULL,
                     total_amount DECIMAL(10, 2) NOT NULL,
                     FOREIGN KEY (user_id) REFERENCES users(id)
@@ -78,19 +83,46 @@ public class TestDatabaseHelper {
                 CREATE TABLE payments (
                     id INT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
                     order_id INT NOT NULL,
-                    payment_method VARCHAR(20) NOT NULL CHECK (payment_method IN ('ONLINE', 'CARD', 'COD')),
-                    status VARCHAR(20) NOT NULL CHECK (status IN ('SUCCESS', 'FAILED', 'REFUNDED')),
+                    payment_method TINYINT NOT NULL CHECK (payment_method BETWEEN 1 AND 3),
+                    status TINYINT NOT NULL CHECK (status BETWEEN 1 AND 3),
                     amount DECIMAL(10, 2) NOT NULL,
                     payment_date TIMESTAMP NOT NULL,
                     FOREIGN KEY (order_id) REFERENCES orders(id)
                 )
             """);
+
+            stmt.execute("""
+                CREATE TABLE shopping_sessions (
+                    id VARCHAR(64) PRIMARY KEY,
+                    user_id INT NOT NULL,
+                    last_access TIMESTAMP NOT NULL
+                )
+            """);
+
+            stmt.execute("""
+                CREATE TABLE shopping_session_items (
+                    session_id VARCHAR(64) NOT NULL,
+                    product_id INT NOT NULL,
+                    quantity INT NOT NULL,
+                    PRIMARY KEY (session_id, product_id),
+                    FOREIGN KEY (session_id) REFERENCES shopping_sessions(id) ON DELETE CASCADE
+                )
+            """);
+
+            DataConnectionHelper.createIndexes(stmt);
         }
+        InventoryItemDAO.clearCache(); // Product IDs restart with the new tables, so cached products are stale
+        InventoryItemDAO.resetSearchIndex();
+        InventoryItemDAO.resetNameIndex();
+        CustomerAccountDAO.clearCredentialCache();
+        CustomerAccountDAO.resetUsernameFilter(); // Usernames are reloaded from the new, empty users table
     }
 
     public static void cleanupTestDatabase() throws SQLException {
         try (Connection conn = getTestConnection();
              Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS shopping_session_items");
+            stmt.execute("DROP TABLE IF EXISTS shopping_sessions");
             stmt.execute("DROP TABLE IF EXISTS payments");
             stmt.execute("DROP TABLE IF EXISTS order_items");
             stmt.execute("DROP TABLE IF EXISTS orders");